@@ -0,0 +1,196 @@
+package com.thinkon.common.audit;
+
+import com.thinkon.common.audit.codec.AuditValueCodec;
+import com.thinkon.common.audit.codec.AuditValueCodecs;
+import com.thinkon.common.audit.id.AuditIdGenerator;
+import com.thinkon.common.audit.id.AuditIdStrategy;
+import com.thinkon.common.audit.service.OverflowPolicy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration of a {@link JdbiAuditWrapper}. The default configuration writes audit logs synchronously on the
+ * caller's thread.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditConfiguration {
+    /**
+     * Whether each audited invocation reads the old object, runs the audited method and writes its audit log in a
+     * single transaction, joining the caller's transaction if there is one. Requires synchronous auditing without
+     * group commit. The audit logs are then always written in the caller's transaction, so the delivery of the
+     * runtime audit policies is ignored.
+     */
+    @Builder.Default
+    private boolean transactional = false;
+    /**
+     * Whether audit logs are handed to background writer threads instead of being written by the caller. The
+     * queued audit logs are flushed by {@link JdbiAuditWrapper#shutdown()} or, at the latest, by a JVM shutdown hook.
+     */
+    @Builder.Default
+    private boolean async = false;
+    /**
+     * Minimum number of audit logs the asynchronous queue can hold; rounded up to a power of two.
+     */
+    @Builder.Default
+    private int queueCapacity = 8192;
+    /**
+     * Number of background writer threads.
+     */
+    @Builder.Default
+    private int writerThreads = 1;
+    /**
+     * Behavior when the asynchronous queue is full.
+     */
+    @Builder.Default
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    /**
+     * Tables whose audit logs are always written synchronously, even in asynchronous mode.
+     */
+    @Builder.Default
+    private Set<String> syncTables = Collections.emptySet();
+    /**
+     * Whether concurrent audit logs are coalesced into shared transactions by a
+     * {@link com.thinkon.common.audit.service.GroupCommitAuditLogService}.
+     */
+    @Builder.Default
+    private boolean groupCommit = false;
+    /**
+     * Maximum number of audit logs written in one group transaction.
+     */
+    @Builder.Default
+    private int groupCommitBatchSize = 64;
+    /**
+     * Maximum time, in milliseconds, a group commit leader waits for its batch to fill. With 0, the leader writes
+     * whatever is queued at once, so batches only form under concurrent load.
+     */
+    @Builder.Default
+    private long groupCommitMaxWaitMillis = 0;
+    /**
+     * How audit log IDs are allocated. Ignored when {@link #idGenerator} is set.
+     */
+    @Builder.Default
+    private AuditIdStrategy idStrategy = AuditIdStrategy.DATABASE;
+    /**
+     * Custom generator of audit log IDs, or null to use {@link #idStrategy}.
+     */
+    private AuditIdGenerator idGenerator;
+    /**
+     * Node ID of the {@link AuditIdStrategy#SNOWFLAKE} strategy, between 0 and 1023 and unique per node.
+     */
+    @Builder.Default
+    private int nodeId = 0;
+    /**
+     * Number of IDs reserved at once by the {@link AuditIdStrategy#HILO} strategy.
+     */
+    @Builder.Default
+    private int idBlockSize = 1000;
+    /**
+     * Directory of the write-ahead journal of asynchronous audit logs, or null to disable the journal. The audit
+     * logs left in the journal by a previous run are replayed when the wrapper is created.
+     */
+    private String journalDirectory;
+    /**
+     * Size, in bytes, of each journal segment file.
+     */
+    @Builder.Default
+    private int journalSegmentSize = 16 * 1024 * 1024;
+    /**
+     * Maximum number of journal segment files, including recycled ones, which bounds the journal disk use.
+     */
+    @Builder.Default
+    private int journalMaxSegments = 8;
+    /**
+     * Whether every journal append is forced to the storage device. Without it, journaled audit logs survive a JVM
+     * crash but not an operating system crash.
+     */
+    @Builder.Default
+    private boolean journalForce = false;
+    /**
+     * Number of attempts made to write a journaled audit log, by the writer threads or during the replay, before it
+     * is moved to the dead-letter file of the journal so that the checkpoint can advance past it.
+     */
+    @Builder.Default
+    private int journalWriteAttempts = 3;
+    /**
+     * Time, in milliseconds, waited before the second attempt to write a journaled audit log, doubled before each
+     * following attempt.
+     */
+    @Builder.Default
+    private long journalRetryBackoffMillis = 100;
+    /**
+     * Maximum number of entities in the pre-image cache used by audited updates instead of findById, or 0 to
+     * disable the cache. The cache is shared by all the proxies of the wrapper.
+     */
+    @Builder.Default
+    private int preImageCacheSize = 0;
+    /**
+     * Time, in milliseconds, after which a pre-image cache entry expires.
+     */
+    @Builder.Default
+    private long preImageCacheTtlMillis = 60000;
+    /**
+     * Codec writing the old and new values of audit log changes, or null to store them as UTF-8 text. It is set on
+     * the {@link AuditValueCodecs} of the wrapped Jdbi instance.
+     */
+    private AuditValueCodec valueCodec;
+    /**
+     * Length, in characters, from which change values are stored deflate-compressed, or 0 to never compress them.
+     */
+    @Builder.Default
+    private int valueCompressionThreshold = AuditValueCodecs.DEFAULT_COMPRESSION_THRESHOLD;
+    /**
+     * Properties file of the runtime audit policies, reloaded when it changes, or null to only set the policies
+     * through {@link JdbiAuditWrapper#getPolicyRegistry()}. Outside transactional mode, a policy file queues the
+     * audit logs whose delivery is asynchronous even when {@link #async} is false.
+     */
+    private String policyFile;
+    /**
+     * Time, in milliseconds, between two checks of the policy file.
+     */
+    @Builder.Default
+    private long policyReloadMillis = 5000;
+    /**
+     * Whether audit logs are written to monthly partitions of the audit tables, {@code audit_log_YYYYMM} and
+     * {@code audit_log_changes_YYYYMM}, maintained by an
+     * {@link com.thinkon.common.audit.partition.AuditPartitionMaintainer}, which creates the partitions of the coming
+     * months before any audit log is written or replayed. Requires client-side IDs, from an {@link #idGenerator} or
+     * an {@link #idStrategy} other than {@link AuditIdStrategy#DATABASE}, since database-generated IDs restart in
+     * each partition.
+     */
+    @Builder.Default
+    private boolean partitioned = false;
+    /**
+     * Statements creating the tables of a partition, where {@code <partition>} stands for the table name suffix, or
+     * null for {@link com.thinkon.common.audit.partition.AuditPartitions#MYSQL_CREATE_STATEMENTS}.
+     */
+    private List<String> partitionCreateStatements;
+    /**
+     * Number of months after the current one whose partitions are created in advance.
+     */
+    @Builder.Default
+    private int partitionPrecreateMonths = 2;
+    /**
+     * Number of months of audit logs kept, including the current one, or 0 to keep every partition. Older
+     * partitions are dropped.
+     */
+    @Builder.Default
+    private int partitionRetentionMonths = 0;
+    /**
+     * Time, in milliseconds, between two runs of the partition maintenance.
+     */
+    @Builder.Default
+    private long partitionMaintenanceMillis = 3600000;
+    /**
+     * Maximum time, in milliseconds, to wait for the writer threads to flush the queue on shutdown.
+     */
+    @Builder.Default
+    private long shutdownTimeoutMillis = 30000;
+}
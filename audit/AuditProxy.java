@@ -3,23 +3,59 @@ package com.thinkon.common.audit;
 import static java.lang.reflect.Proxy.newProxyInstance;
 
 import com.thinkon.common.audit.annotation.AuditClass;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
 import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Optional;
 
 /**
  * Provides functionality to inject auditing behavior into DAO (Data Access Object) instances based on annotated interfaces.
+ * When a proxy class was generated at build time for the interface, it is used; otherwise a
+ * {@link java.lang.reflect.Proxy} backed by {@link AuditProxyInterceptor} is created.
  */
 class AuditProxy {
 
+    /**
+     * Constructor of the generated proxy class of each @AuditClass interface, resolved once per interface.
+     */
+    private static final ClassValue<Optional<Constructor<?>>> GENERATED_PROXIES =
+            new ClassValue<Optional<Constructor<?>>>() {
+                @Override
+                protected Optional<Constructor<?>> computeValue(Class<?> type) {
+                    try {
+                        Class<?> proxyClass = Class.forName(AuditProxyInvoker.generatedProxyName(type), true,
+                                type.getClassLoader());
+                        return Optional.of(proxyClass.getConstructor(type, AuditLogService.class,
+                                PreImageCache.class, AuditPolicyRegistry.class, AuditMetrics.class));
+                    } catch (ClassNotFoundException | NoSuchMethodException e) {
+                        return Optional.empty();
+                    }
+                }
+            };
+
     private final AuditLogService auditLogService;
+    private final PreImageCache preImageCache;
+    private final AuditPolicyRegistry policyRegistry;
+    private final AuditMetrics metrics;
 
     /**
      * Constructs an AuditProxy instance with the specified AuditLogService.
      *
      * @param auditLogService The AuditLogService instance to use for logging audit information.
+     * @param preImageCache   The cache of pre-images used by updates, or null if disabled.
+     * @param policyRegistry  The registry of the runtime audit policies, or null to apply the default policy.
+     * @param metrics         The metrics the audited calls are recorded into, or null to record nothing.
      */
-    AuditProxy(AuditLogService auditLogService) {
+    AuditProxy(AuditLogService auditLogService, PreImageCache preImageCache, AuditPolicyRegistry policyRegistry,
+            AuditMetrics metrics) {
         this.auditLogService = auditLogService;
+        this.preImageCache = preImageCache;
+        this.policyRegistry = policyRegistry;
+        this.metrics = metrics;
     }
 
     /**
@@ -35,8 +71,10 @@ class AuditProxy {
                 .findFirst()
                 .orElse(null);
         if (auditInterface != null) {
-            return (T) newProxyInstance(dao.getClass().getClassLoader(), new Class<?>[] {auditInterface},
-                    new AuditProxyInterceptor(this.auditLogService, auditInterface, dao));
+            // The proxy implements the audited interface, which is the type the DAO is used through
+            @SuppressWarnings("unchecked")
+            T proxy = (T) createProxy(auditInterface, dao, dao.getClass().getClassLoader());
+            return proxy;
         } else {
             return dao;
         }
@@ -54,10 +92,38 @@ class AuditProxy {
         if (dao.getClass().getInterfaces().length > 0 &&
                 Arrays.stream(dao.getClass().getInterfaces()).anyMatch(
                         i -> i.isAnnotationPresent(AuditClass.class))) {
-            return (T) newProxyInstance(daoType.getClassLoader(), new Class<?>[] {daoType},
-                    new AuditProxyInterceptor(this.auditLogService, daoType, dao));
+            return daoType.cast(createProxy(daoType, dao, daoType.getClassLoader()));
         } else {
             return dao;
         }
     }
+
+    /**
+     * Creates the audit proxy of an interface, preferring the class generated at build time.
+     *
+     * @param auditInterface The interface annotated with @AuditClass.
+     * @param dao            The DAO instance to inject auditing behavior into.
+     * @param classLoader    The class loader used for the reflective proxy.
+     * @return The audit proxy implementing the interface.
+     * @throws AuditException if the generated proxy cannot be instantiated.
+     */
+    private Object createProxy(Class<?> auditInterface, Object dao, ClassLoader classLoader) {
+        Optional<Constructor<?>> generated = GENERATED_PROXIES.get(auditInterface);
+        if (generated.isEmpty()) {
+            return newProxyInstance(classLoader, new Class<?>[] {auditInterface},
+                    new AuditProxyInterceptor(this.auditLogService, this.preImageCache, this.policyRegistry,
+                            this.metrics, auditInterface, dao));
+        }
+        try {
+            return generated.get().newInstance(dao, this.auditLogService, this.preImageCache, this.policyRegistry,
+                    this.metrics);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new AuditException("Failed to create the generated audit proxy for " + auditInterface.getName(), e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AuditException("Failed to create the generated audit proxy for " + auditInterface.getName(), e);
+        }
+    }
 }
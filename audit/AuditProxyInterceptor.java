@@ -1,29 +1,30 @@
 package com.thinkon.common.audit;
 
 import com.thinkon.common.audit.action.AuditClassProcessor;
+import com.thinkon.common.audit.action.BatchUpdateAuditClassProcessor;
+import com.thinkon.common.audit.action.UpdateAuditClassProcessor;
 import com.thinkon.common.audit.annotation.AuditCreate;
 import com.thinkon.common.audit.annotation.AuditDelete;
 import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
 import com.thinkon.common.audit.service.AuditLogService;
-import jakarta.ws.rs.WebApplicationException;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import lombok.extern.slf4j.Slf4j;
+import java.util.Set;
 
 /**
  * Interceptor for auditing method invocations on proxied objects. This interceptor is responsible
  * for intercepting method calls annotated with {@link AuditCreate}, {@link AuditUpdate}, or {@link AuditDelete}
- * and applying auditing logic through corresponding {@link AuditClassProcessor} instances.
+ * and applying auditing logic through corresponding {@link AuditClassProcessor} instances, which consult the
+ * {@link AuditPolicyRegistry} on every call.
  */
-@Slf4j
 public class AuditProxyInterceptor implements InvocationHandler {
     /**
      * Mapping from annotated methods to their corresponding AuditClassProcessor instances for handling audit operations.
@@ -36,51 +37,55 @@ public class AuditProxyInterceptor implements InvocationHandler {
     private final Object instance;
 
     /**
-     * Array of parameter classes expected for instantiating AuditClassProcessor instances.
+     * The cache of pre-images filled by the findById methods of audited updates, or null if disabled.
      */
-    private static final Class<?>[] classesParam = new Class[] {Object.class, Method.class, AuditLogService.class};
+    private final PreImageCache preImageCache;
 
     /**
-     * Mapping from annotation types to functions that retrieve the AuditClassProcessor class based on method annotations.
+     * Names of the findById and findByIds methods used by audited updates.
      */
-    private static final Map<Class<? extends Annotation>, Function<Method, Class<? extends AuditClassProcessor>>>
-            annotationToActionMap = new HashMap<>();
-
-    static {
-        annotationToActionMap.put(AuditCreate.class, m -> m.getAnnotation(AuditCreate.class).action());
-        annotationToActionMap.put(AuditDelete.class, m -> m.getAnnotation(AuditDelete.class).action());
-        annotationToActionMap.put(AuditUpdate.class, m -> m.getAnnotation(AuditUpdate.class).action());
-    }
+    private final Set<String> findByIdMethodNames;
 
     /**
-     * Constructs an AuditProxyInterceptor instance for auditing method calls based on annotations.
+     * Constructs an AuditProxyInterceptor instance for auditing method calls based on annotations. Like the generated
+     * proxies, it audits every public instance method of the interface, including the inherited ones.
      *
      * @param auditLogService The AuditLogService instance for logging audit information.
+     * @param preImageCache   The cache of pre-images used by updates, or null if disabled.
+     * @param policyRegistry  The registry of the runtime audit policies, or null to apply the default policy.
+     * @param metrics         The metrics the processors record their calls into, or null to record nothing.
      * @param aClass          The class type associated with the proxy.
      * @param instance        The original instance being proxied.
      */
-    public AuditProxyInterceptor(AuditLogService auditLogService, Class<?> aClass, Object instance) {
+    public AuditProxyInterceptor(AuditLogService auditLogService, PreImageCache preImageCache,
+            AuditPolicyRegistry policyRegistry, AuditMetrics metrics, Class<?> aClass, Object instance) {
         this.instance = instance;
-        auditOperationHashMap = Arrays.stream(aClass.getDeclaredMethods())
-                .filter(m -> annotationToActionMap.entrySet().stream().anyMatch(a -> m.isAnnotationPresent(a.getKey())))
-                .collect(Collectors.toMap(
-                        m -> m,
-                        m -> {
-                            Class<?> clazz = annotationToActionMap.entrySet()
-                                    .stream().filter(e -> m.isAnnotationPresent(e.getKey()))
-                                    .findFirst()
-                                    .get()
-                                    .getValue()
-                                    .apply(m);
-                            return AuditUtil.newInstance(clazz, classesParam, instance, m, auditLogService);
-                        }));
+        this.preImageCache = preImageCache;
+        Map<Method, AuditClassProcessor> processors = new HashMap<>();
+        Set<String> findByIdNames = new HashSet<>();
+        for (Method m : aClass.getMethods()) {
+            if (Modifier.isStatic(m.getModifiers())) {
+                continue;
+            }
+            AuditClassProcessor processor = AuditProxyInvoker.createProcessor(auditLogService, preImageCache,
+                    policyRegistry, metrics, m, instance);
+            if (processor != null) {
+                processors.put(m, processor);
+                if (processor instanceof UpdateAuditClassProcessor
+                        || processor instanceof BatchUpdateAuditClassProcessor) {
+                    findByIdNames.add(processor.getFindByIdMethodName());
+                }
+            }
+        }
+        auditOperationHashMap = processors;
+        findByIdMethodNames = findByIdNames;
     }
 
     /**
      * Intercepts method invocations on the proxied object. If the method is annotated with
      * {@link AuditCreate}, {@link AuditUpdate}, or {@link AuditDelete}, it delegates the invocation
      * to the corresponding AuditClassProcessor instance for auditing. Otherwise, it invokes the
-     * method directly on the original instance.
+     * method directly on the original instance, caching the result of the findById and findByIds methods of audited updates.
      *
      * @param proxy  The proxy object on which the method was invoked.
      * @param method The method being invoked.
@@ -91,16 +96,15 @@ public class AuditProxyInterceptor implements InvocationHandler {
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         AuditClassProcessor auditClassProcessor = auditOperationHashMap.get(method);
+        if (auditClassProcessor != null) {
+            return AuditProxyInvoker.invoke(auditClassProcessor, args);
+        }
         try {
-            if (auditClassProcessor == null) {
-                return method.invoke(this.instance, args);
+            Object result = method.invoke(this.instance, args);
+            if (preImageCache != null && findByIdMethodNames.contains(method.getName())) {
+                preImageCache.put(result);
             }
-            return auditClassProcessor.invoke(args);
-        } catch (AuditException e) {
-            int id = LocalDateTime.now().getNano();
-            log.error("Audit error id (" + id + "): " + e.getMessage(), e);
-            throw new WebApplicationException(
-                    "An unexpected error occurred during the audit process. Id error (" + id + ")");
+            return result;
         } catch (InvocationTargetException e) {
             // Rethrow the original exception
             throw e.getCause();
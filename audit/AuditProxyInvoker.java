@@ -0,0 +1,177 @@
+package com.thinkon.common.audit;
+
+import com.thinkon.common.audit.action.AuditClassProcessor;
+import com.thinkon.common.audit.annotation.AuditBatchCreate;
+import com.thinkon.common.audit.annotation.AuditBatchDelete;
+import com.thinkon.common.audit.annotation.AuditBatchUpdate;
+import com.thinkon.common.audit.annotation.AuditCreate;
+import com.thinkon.common.audit.annotation.AuditDelete;
+import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
+import com.thinkon.common.audit.service.AuditLogService;
+import jakarta.ws.rs.WebApplicationException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared entry point used by both the reflective {@link AuditProxyInterceptor} and the audit proxies generated at
+ * build time by {@code AuditClassProxyProcessor}. It resolves the {@link AuditClassProcessor} of an audited method
+ * once, and translates audit failures the same way for both proxy engines.
+ */
+@Slf4j
+public final class AuditProxyInvoker {
+
+    /**
+     * Suffix appended to the flattened interface name to obtain the generated proxy class name.
+     */
+    public static final String GENERATED_SUFFIX = "AuditProxy";
+
+    /**
+     * Array of parameter classes expected for instantiating AuditClassProcessor instances.
+     */
+    private static final Class<?>[] classesParam = new Class<?>[] {Object.class, Method.class, AuditLogService.class};
+
+    /**
+     * Mapping from annotation types to functions that retrieve the AuditClassProcessor class based on method annotations.
+     */
+    private static final Map<Class<? extends Annotation>, Function<Method, Class<? extends AuditClassProcessor>>>
+            annotationToActionMap = new LinkedHashMap<>();
+
+    static {
+        annotationToActionMap.put(AuditCreate.class, m -> m.getAnnotation(AuditCreate.class).action());
+        annotationToActionMap.put(AuditDelete.class, m -> m.getAnnotation(AuditDelete.class).action());
+        annotationToActionMap.put(AuditUpdate.class, m -> m.getAnnotation(AuditUpdate.class).action());
+        annotationToActionMap.put(AuditBatchCreate.class, m -> m.getAnnotation(AuditBatchCreate.class).action());
+        annotationToActionMap.put(AuditBatchDelete.class, m -> m.getAnnotation(AuditBatchDelete.class).action());
+        annotationToActionMap.put(AuditBatchUpdate.class, m -> m.getAnnotation(AuditBatchUpdate.class).action());
+    }
+
+    private AuditProxyInvoker() {
+    }
+
+    /**
+     * Creates the {@link AuditClassProcessor} configured on the given method, if any.
+     *
+     * @param auditLogService The AuditLogService instance for logging audit information.
+     * @param preImageCache   The cache of pre-images used by updates, or null if disabled.
+     * @param policyRegistry  The registry of the runtime audit policies, or null to apply the default policy.
+     * @param metrics         The metrics the processor records its calls into, or null to record nothing.
+     * @param method          The method that may carry an audit annotation.
+     * @param instance        The original instance being proxied.
+     * @return the processor for the method, or null if the method is not audited.
+     */
+    public static AuditClassProcessor createProcessor(AuditLogService auditLogService, PreImageCache preImageCache,
+            AuditPolicyRegistry policyRegistry, AuditMetrics metrics, Method method, Object instance) {
+        AuditClassProcessor processor = annotationToActionMap.entrySet()
+                .stream()
+                .filter(e -> method.isAnnotationPresent(e.getKey()))
+                .findFirst()
+                .map(e -> e.getValue().apply(method))
+                .<AuditClassProcessor>map(c -> AuditUtil.newInstance(c, classesParam, instance, method, auditLogService))
+                .orElse(null);
+        if (processor != null) {
+            processor.setPreImageCache(preImageCache);
+            processor.setPolicyRegistry(policyRegistry);
+            processor.setMetrics(metrics);
+        }
+        return processor;
+    }
+
+    /**
+     * Resolves an audited method of an interface and creates its processor. Used by generated proxies, which
+     * perform this lookup once at construction time.
+     *
+     * @param auditInterface The interface annotated with @AuditClass.
+     * @param instance       The original instance being proxied.
+     * @param auditLogService The AuditLogService instance for logging audit information.
+     * @param preImageCache  The cache of pre-images used by updates, or null if disabled.
+     * @param policyRegistry The registry of the runtime audit policies, or null to apply the default policy.
+     * @param metrics        The metrics the processor records its calls into, or null to record nothing.
+     * @param methodName     The name of the audited method.
+     * @param parameterTypes The parameter types of the audited method.
+     * @return the processor for the method.
+     * @throws AuditException if the method does not exist or is not audited.
+     */
+    public static AuditClassProcessor processor(Class<?> auditInterface, Object instance,
+            AuditLogService auditLogService, PreImageCache preImageCache, AuditPolicyRegistry policyRegistry,
+            AuditMetrics metrics, String methodName, Class<?>... parameterTypes) {
+        try {
+            Method method = auditInterface.getMethod(methodName, parameterTypes);
+            AuditClassProcessor processor = createProcessor(auditLogService, preImageCache, policyRegistry, metrics,
+                    method, instance);
+            if (processor == null) {
+                throw new AuditException("The method " + methodName + " is not annotated with an audit annotation.");
+            }
+            return processor;
+        } catch (NoSuchMethodException e) {
+            throw new AuditException("Method " + methodName + " not found in " + auditInterface.getName(), e);
+        }
+    }
+
+    /**
+     * Invokes an audited method through its processor. Audit failures are logged and reported as a
+     * {@link WebApplicationException}, while exceptions thrown by the audited method itself are rethrown unchanged.
+     *
+     * @param processor The processor of the audited method.
+     * @param args      The arguments to the method.
+     * @return The result of the method invocation.
+     */
+    public static Object invoke(AuditClassProcessor processor, Object... args) {
+        try {
+            return processor.invoke(args);
+        } catch (AuditException e) {
+            int id = LocalDateTime.now().getNano();
+            log.error("Audit error id (" + id + "): " + e.getMessage(), e);
+            throw new WebApplicationException(
+                    "An unexpected error occurred during the audit process. Id error (" + id + ")");
+        } catch (InvocationTargetException e) {
+            // Rethrow the original exception
+            throw AuditProxyInvoker.<RuntimeException>sneakyThrow(e.getCause());
+        }
+    }
+
+    /**
+     * Stores the result of a findById method used by audited updates in the pre-image cache.
+     *
+     * @param preImageCache The cache of pre-images, or null if disabled.
+     * @param result        The entity found, or an Optional of it.
+     * @return the result, unchanged.
+     */
+    public static Object cachePreImage(PreImageCache preImageCache, Object result) {
+        if (preImageCache != null) {
+            preImageCache.put(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the fully qualified name of the proxy class generated for the given interface.
+     *
+     * @param auditInterface The interface annotated with @AuditClass.
+     * @return the name of the generated proxy class.
+     */
+    public static String generatedProxyName(Class<?> auditInterface) {
+        return AuditUtil.generatedClassName(auditInterface, GENERATED_SUFFIX);
+    }
+
+    /**
+     * Rethrows a checked exception without declaring it.
+     *
+     * @param throwable the exception to rethrow
+     * @param <E>       the inferred exception type
+     * @return never returns normally
+     * @throws E always
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> E sneakyThrow(Throwable throwable) throws E {
+        throw (E) throwable;
+    }
+}
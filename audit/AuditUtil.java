@@ -1,6 +1,5 @@
 package com.thinkon.common.audit;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 
@@ -9,6 +8,8 @@ public class AuditUtil {
 
     /**
      * Retrieves the value of a specified field from an object.
+     * The field may be declared by the object's class or by one of its superclasses; its accessor is
+     * resolved once and cached by {@link FieldAccessor}.
      *
      * @param fieldName the name of the field to retrieve the value from
      * @param arg       the object from which to retrieve the field value
@@ -16,13 +17,7 @@ public class AuditUtil {
      * @throws AuditException if the field cannot be accessed or does not exist
      */
     public static Object getValueFromField(String fieldName, Object arg) {
-        try {
-            Field field = arg.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field.get(arg);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new AuditException("Failed to get value from field: " + fieldName, e);
-        }
+        return FieldAccessor.of(arg.getClass(), fieldName).get(arg);
     }
 
 
@@ -58,6 +53,22 @@ public class AuditUtil {
     }
 
 
+    /**
+     * Returns the fully qualified name of a class generated at build time for the given type. The generated class
+     * lives in the same package and is named after the type, with nested names joined by an underscore.
+     *
+     * @param type   the type the class was generated for
+     * @param suffix the suffix identifying the kind of generated class
+     * @return the fully qualified name of the generated class
+     */
+    public static String generatedClassName(Class<?> type, String suffix) {
+        String packageName = type.getPackageName();
+        String binaryName = type.getName();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String generated = simpleName.replace('$', '_') + suffix;
+        return packageName.isEmpty() ? generated : packageName + "." + generated;
+    }
+
     /**
      * Converts a camelCase string to SNAKE_CASE string.
      *
@@ -0,0 +1,125 @@
+package com.thinkon.common.audit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads the value of a field through a {@link MethodHandle} resolved once per (class, field name).
+ * Accessors are cached in a {@link ClassValue}, so the field lookup and {@code setAccessible} call happen only
+ * on first use. Fields declared in superclasses are resolved as well; a field declared in a subclass hides a
+ * superclass field of the same name.
+ */
+public final class FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ConcurrentMap<String, FieldAccessor>> ACCESSORS =
+            new ClassValue<ConcurrentMap<String, FieldAccessor>>() {
+                @Override
+                protected ConcurrentMap<String, FieldAccessor> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Field field;
+    private final MethodHandle getter;
+
+    private FieldAccessor(Field field, MethodHandle getter) {
+        this.field = field;
+        this.getter = getter;
+    }
+
+    /**
+     * Retrieves the cached accessor of a field of the given class or of one of its superclasses.
+     *
+     * @param type      the class declaring or inheriting the field
+     * @param fieldName the name of the field
+     * @return the accessor of the field
+     * @throws AuditException if the field does not exist or cannot be accessed
+     */
+    public static FieldAccessor of(Class<?> type, String fieldName) {
+        return ACCESSORS.get(type).computeIfAbsent(fieldName, name -> create(type, name));
+    }
+
+    /**
+     * Retrieves the value of the field from the given instance.
+     *
+     * @param instance the object from which to retrieve the field value
+     * @return the value of the field, boxed if the field is primitive
+     * @throws AuditException if the value cannot be read
+     */
+    public Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AuditException("Failed to get value from field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Gets the name of the field.
+     *
+     * @return the name of the field.
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * Gets the field read by this accessor.
+     *
+     * @return the field.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Resolves a field in the class hierarchy and builds its getter handle.
+     *
+     * @param type      the class declaring or inheriting the field
+     * @param fieldName the name of the field
+     * @return the accessor of the field
+     * @throws AuditException if the field does not exist or cannot be accessed
+     */
+    private static FieldAccessor create(Class<?> type, String fieldName) {
+        Field field = findField(type, fieldName);
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            return new FieldAccessor(field, getter.asType(GETTER_TYPE));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new AuditException("Failed to get value from field: " + fieldName, e);
+        }
+    }
+
+    /**
+     * Finds a field declared by the class or by one of its superclasses.
+     *
+     * @param type      the class to start the search from
+     * @param fieldName the name of the field
+     * @return the field
+     * @throws AuditException if no class in the hierarchy declares the field
+     */
+    private static Field findField(Class<?> type, String fieldName) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                // continue with the superclass
+            }
+        }
+        throw new AuditException("Failed to get value from field: " + fieldName,
+                new NoSuchFieldException(fieldName));
+    }
+}
@@ -1,9 +1,27 @@
 package com.thinkon.common.audit;
 
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.codec.AuditValueCodecs;
 import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.id.AuditIdGenerator;
+import com.thinkon.common.audit.id.AuditIdStrategy;
+import com.thinkon.common.audit.id.HiLoAuditIdGenerator;
+import com.thinkon.common.audit.id.SnowflakeAuditIdGenerator;
+import com.thinkon.common.audit.journal.AuditJournal;
+import com.thinkon.common.audit.journal.JournaledAuditLogService;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.partition.AuditPartitionMaintainer;
+import com.thinkon.common.audit.partition.AuditPartitions;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
 import com.thinkon.common.audit.resource.AuditLogResource;
+import com.thinkon.common.audit.resource.AuditMetricsResource;
+import com.thinkon.common.audit.service.AsyncAuditLogService;
 import com.thinkon.common.audit.service.AuditLogService;
 import com.thinkon.common.audit.service.AuditLogServiceImpl;
+import com.thinkon.common.audit.service.GroupCommitAuditLogService;
+import com.thinkon.common.audit.service.MeteredAuditLogService;
+import com.thinkon.common.audit.service.TransactionalAuditLogService;
+import java.nio.file.Paths;
 import javax.sql.DataSource;
 import lombok.RequiredArgsConstructor;
 import org.jdbi.v3.core.Jdbi;
@@ -34,6 +52,33 @@ public class JdbiAuditWrapper {
 
     private final AuditLogResource auditLogResource;
 
+    /**
+     * The cache of pre-images used by audited updates, or null if disabled.
+     */
+    private final PreImageCache preImageCache;
+
+    /**
+     * The registry of the runtime audit policies consulted by every audited call.
+     */
+    private final AuditPolicyRegistry policyRegistry;
+
+    /**
+     * The metrics of the audit pipeline, recorded by the proxies and the audit log writes.
+     */
+    private final AuditMetrics auditMetrics;
+
+    private final AuditMetricsResource auditMetricsResource;
+
+    /**
+     * The maintainer of the monthly partitions of the audit tables, or null if the tables are not partitioned.
+     */
+    private final AuditPartitionMaintainer partitionMaintainer;
+
+    /**
+     * Name of the {@code audit_sequence} row used by the hi/lo ID strategy.
+     */
+    private static final String HILO_SEQUENCE = "audit";
+
     /**
      * Singleton instance of JdbiAuditWrapper to ensure single configuration.
      */
@@ -41,32 +86,188 @@ public class JdbiAuditWrapper {
 
     /**
      * Private constructor to initialize JdbiAuditWrapper with a Jdbi instance.
-     * Installs necessary plugins and sets up AuditLogService and AuditProxy.
+     * Installs necessary plugins and sets up the AuditLogService selected by the configuration and the AuditProxy.
      *
-     * @param jdbi The Jdbi instance to be wrapped.
+     * @param jdbi          The Jdbi instance to be wrapped.
+     * @param configuration The audit configuration.
+     * @throws AuditException if transactional mode is combined with asynchronous mode or group commit, if the
+     *                        partitioned tables would use database-generated IDs, or if the audit logs left in the
+     *                        journal cannot be replayed.
      */
-    private JdbiAuditWrapper(Jdbi jdbi) {
+    private JdbiAuditWrapper(Jdbi jdbi, AuditConfiguration configuration) {
+        if (configuration.isTransactional() && (configuration.isAsync() || configuration.isGroupCommit())) {
+            throw new AuditException(
+                    "Transactional auditing cannot be combined with asynchronous mode or group commit");
+        }
+        if (configuration.isPartitioned() && configuration.getIdGenerator() == null
+                && configuration.getIdStrategy() == AuditIdStrategy.DATABASE) {
+            throw new AuditException("Partitioned audit tables require client-side IDs: database-generated IDs "
+                    + "restart in each partition, so pages would skip or repeat audit logs");
+        }
         this.jdbi = jdbi;
         jdbi.installPlugin(new SqlObjectPlugin());
-        this.auditLogService = new AuditLogServiceImpl(jdbi.onDemand(AuditLogDao.class));
+        configureValueCodecs(jdbi.getConfig(AuditValueCodecs.class), configuration);
+        this.partitionMaintainer = configuration.isPartitioned() ? startPartitionMaintainer(jdbi, configuration) : null;
+        this.policyRegistry = new AuditPolicyRegistry();
+        this.auditMetrics = new AuditMetrics();
+        try {
+            if (configuration.getPolicyFile() != null) {
+                policyRegistry.watch(Paths.get(configuration.getPolicyFile()), configuration.getPolicyReloadMillis());
+            }
+            this.auditLogService = this.createAuditLogService(configuration);
+        } catch (RuntimeException e) {
+            policyRegistry.close();
+            if (partitionMaintainer != null) {
+                partitionMaintainer.close();
+            }
+            throw e;
+        }
         this.auditLogResource = new AuditLogResource(this.auditLogService);
-        auditProxy = new AuditProxy(this.auditLogService);
+        this.auditMetricsResource = new AuditMetricsResource(this.auditMetrics);
+        this.preImageCache = configuration.getPreImageCacheSize() > 0
+                ? new PreImageCache(configuration.getPreImageCacheSize(), configuration.getPreImageCacheTtlMillis())
+                : null;
+        auditMetrics.setPreImageCache(this.preImageCache);
+        auditProxy = new AuditProxy(this.auditLogService, this.preImageCache, this.policyRegistry,
+                this.auditMetrics);
+    }
+
+    /**
+     * Creates the audit log service selected by the configuration, replaying the journal first when there is one.
+     *
+     * @param configuration The audit configuration.
+     * @return The audit log service.
+     * @throws AuditException if the audit logs left in the journal cannot be replayed.
+     */
+    private AuditLogService createAuditLogService(AuditConfiguration configuration) {
+        AuditLogDao auditLogDao = jdbi.onDemand(AuditLogDao.class);
+        AuditIdGenerator idGenerator = createIdGenerator(jdbi, configuration);
+        AuditLogService service = new MeteredAuditLogService(configuration.isGroupCommit()
+                ? new GroupCommitAuditLogService(auditLogDao, configuration, idGenerator)
+                : new AuditLogServiceImpl(auditLogDao, idGenerator), auditMetrics);
+        if (configuration.isTransactional()) {
+            return new TransactionalAuditLogService(jdbi, service);
+        }
+        if (configuration.isAsync() && configuration.getJournalDirectory() != null) {
+            AuditJournal journal = AuditJournal.open(configuration);
+            try {
+                journal.replay(auditLogDao, service);
+            } catch (RuntimeException e) {
+                journal.close();
+                throw e;
+            }
+            JournaledAuditLogService journaledService = new JournaledAuditLogService(journal, service, configuration,
+                    policyRegistry);
+            Runtime.getRuntime().addShutdownHook(new Thread(journaledService::close, "audit-shutdown"));
+            auditMetrics.setAsyncService(journaledService.getDispatcher());
+            auditMetrics.setJournal(journal);
+            return journaledService;
+        }
+        if (configuration.isAsync() || configuration.getPolicyFile() != null) {
+            AsyncAuditLogService asyncService = new AsyncAuditLogService(service, configuration, policyRegistry);
+            Runtime.getRuntime().addShutdownHook(new Thread(asyncService::close, "audit-shutdown"));
+            auditMetrics.setAsyncService(asyncService);
+            return asyncService;
+        }
+        return service;
+    }
+
+    /**
+     * Applies the change value codec settings of the configuration.
+     *
+     * @param codecs        The value codecs of the Jdbi instance.
+     * @param configuration The audit configuration.
+     */
+    private static void configureValueCodecs(AuditValueCodecs codecs, AuditConfiguration configuration) {
+        if (configuration.getValueCodec() != null) {
+            codecs.setWriteCodec(configuration.getValueCodec());
+        }
+        codecs.setCompressionThreshold(configuration.getValueCompressionThreshold());
+    }
+
+    /**
+     * Enables the partitions of the audit tables and starts their maintenance.
+     *
+     * @param jdbi          The Jdbi instance, whose {@link AuditPartitions} are enabled.
+     * @param configuration The audit configuration.
+     * @return The started partition maintainer.
+     */
+    private static AuditPartitionMaintainer startPartitionMaintainer(Jdbi jdbi, AuditConfiguration configuration) {
+        AuditPartitions partitions = jdbi.getConfig(AuditPartitions.class).setEnabled(true);
+        if (configuration.getPartitionCreateStatements() != null) {
+            partitions.setCreateStatements(configuration.getPartitionCreateStatements());
+        }
+        AuditPartitionMaintainer maintainer = new AuditPartitionMaintainer(jdbi,
+                configuration.getPartitionPrecreateMonths(), configuration.getPartitionRetentionMonths());
+        maintainer.start(configuration.getPartitionMaintenanceMillis());
+        return maintainer;
+    }
+
+    /**
+     * Creates the audit log ID generator of the configuration.
+     *
+     * @param jdbi          The Jdbi instance, used by the hi/lo sequence table.
+     * @param configuration The audit configuration.
+     * @return The ID generator, or null if IDs are generated by the database.
+     */
+    private static AuditIdGenerator createIdGenerator(Jdbi jdbi, AuditConfiguration configuration) {
+        if (configuration.getIdGenerator() != null) {
+            return configuration.getIdGenerator();
+        }
+        switch (configuration.getIdStrategy()) {
+            case SNOWFLAKE:
+                return new SnowflakeAuditIdGenerator(configuration.getNodeId());
+            case HILO:
+                return new HiLoAuditIdGenerator(jdbi, HILO_SEQUENCE, configuration.getIdBlockSize());
+            default:
+                return null;
+        }
     }
 
     /**
      * Factory method to create an instance of JdbiAuditWrapper using a DataSource.
      * Ensures singleton pattern for JdbiAuditWrapper to maintain consistent configuration.
+     * Audit logs are written synchronously.
      *
      * @param dataSource The DataSource used to create the Jdbi instance.
      * @return The singleton instance of JdbiAuditWrapper.
      */
     public static JdbiAuditWrapper create(DataSource dataSource) {
+        return create(dataSource, AuditConfiguration.builder().build());
+    }
+
+    /**
+     * Factory method to create an instance of JdbiAuditWrapper using a DataSource and an audit configuration.
+     * Ensures singleton pattern for JdbiAuditWrapper to maintain consistent configuration: the configuration
+     * is only applied by the first call.
+     *
+     * @param dataSource    The DataSource used to create the Jdbi instance.
+     * @param configuration The audit configuration.
+     * @return The singleton instance of JdbiAuditWrapper.
+     */
+    public static JdbiAuditWrapper create(DataSource dataSource, AuditConfiguration configuration) {
         if (jdbiWrapper == null) {
-            jdbiWrapper = new JdbiAuditWrapper(Jdbi.create(dataSource));
+            jdbiWrapper = new JdbiAuditWrapper(Jdbi.create(dataSource), configuration);
         }
         return jdbiWrapper;
     }
 
+    /**
+     * Flushes the audit logs still queued in asynchronous mode, stops watching the policy file and stops the
+     * partition maintenance. Audit logs submitted afterwards are written synchronously.
+     */
+    public void shutdown() {
+        policyRegistry.close();
+        if (partitionMaintainer != null) {
+            partitionMaintainer.close();
+        }
+        if (auditLogService instanceof AsyncAuditLogService) {
+            ((AsyncAuditLogService) auditLogService).close();
+        } else if (auditLogService instanceof JournaledAuditLogService) {
+            ((JournaledAuditLogService) auditLogService).close();
+        }
+    }
+
     /**
      * Proxies an object with auditing capabilities using the AuditProxy.
      *
@@ -96,6 +297,51 @@ public class JdbiAuditWrapper {
         return auditLogResource;
     }
 
+    /**
+     * Retrieves the metrics of the audit pipeline, to take snapshots of them.
+     *
+     * @return The AuditMetrics instance.
+     */
+    public AuditMetrics getAuditMetrics() {
+        return auditMetrics;
+    }
+
+    /**
+     * Retrieves the resource exposing the metrics of the audit pipeline.
+     *
+     * @return The AuditMetricsResource instance.
+     */
+    public AuditMetricsResource getAuditMetricsResource() {
+        return auditMetricsResource;
+    }
+
+    /**
+     * Retrieves the maintainer of the monthly partitions of the audit tables, to run the maintenance on demand.
+     *
+     * @return The AuditPartitionMaintainer instance, or null if the audit tables are not partitioned.
+     */
+    public AuditPartitionMaintainer getPartitionMaintainer() {
+        return partitionMaintainer;
+    }
+
+    /**
+     * Retrieves the cache of pre-images used by audited updates, for its hit and miss counters.
+     *
+     * @return The PreImageCache instance, or null if the cache is disabled.
+     */
+    public PreImageCache getPreImageCache() {
+        return preImageCache;
+    }
+
+    /**
+     * Retrieves the registry of the runtime audit policies, to read or replace them.
+     *
+     * @return The AuditPolicyRegistry instance.
+     */
+    public AuditPolicyRegistry getPolicyRegistry() {
+        return policyRegistry;
+    }
+
     /**
      * Installs a Jdbi plugin to extend the functionality of the underlying Jdbi instance.
      *
@@ -1,6 +1,9 @@
 package com.thinkon.common.audit.action;
 
-import com.thinkon.common.audit.AuditUtil;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.annotation.AuditBatchCreate;
+import com.thinkon.common.audit.annotation.AuditBatchDelete;
+import com.thinkon.common.audit.annotation.AuditBatchUpdate;
 import com.thinkon.common.audit.annotation.AuditCreate;
 import com.thinkon.common.audit.annotation.AuditDelete;
 import com.thinkon.common.audit.annotation.AuditId;
@@ -8,16 +11,21 @@ import com.thinkon.common.audit.annotation.AuditUpdate;
 import com.thinkon.common.audit.annotation.AuditUser;
 import com.thinkon.common.audit.annotation.Auditable;
 import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.processfield.AuditDescriptor;
 import com.thinkon.common.audit.processfield.FieldProcessorContext;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
 
 /**
  * This class processes the method annotations to gather audit-related information.
  * It identifies the positions of parameters annotated with audit annotations and retrieves
- * the necessary fields and table names for auditing purposes.
+ * the necessary fields and table names for auditing purposes. For batch operations, the auditable parameter is a
+ * collection of {@link Auditable} entities and the ID parameter is a collection of IDs.
  */
 public class AuditClassMethod {
     private int idParamPosition = -1;
@@ -26,9 +34,13 @@ public class AuditClassMethod {
     private Action action;
     private String findByIdMethodName;
     private String tableName;
+    private boolean batch;
+    private Class<?> auditableType;
     private final Method method;
     private Field fieldId;
     private Field fieldAuditUser;
+    private FieldAccessor idAccessor;
+    private FieldAccessor auditUserAccessor;
 
     /**
      * Constructs an AuditClassMethod instance.
@@ -48,12 +60,32 @@ public class AuditClassMethod {
         } else if (method.isAnnotationPresent(AuditUpdate.class)) {
             this.findByIdMethodName = method.getAnnotation(AuditUpdate.class).findById();
             this.action = Action.UPDATE;
+        } else if (method.isAnnotationPresent(AuditBatchCreate.class)) {
+            this.findByIdMethodName = method.getAnnotation(AuditBatchCreate.class).findByIds();
+            this.action = Action.CREATE;
+            this.batch = true;
+        } else if (method.isAnnotationPresent(AuditBatchDelete.class)) {
+            AuditBatchDelete auditBatchDelete = method.getAnnotation(AuditBatchDelete.class);
+            this.findByIdMethodName = auditBatchDelete.findByIds();
+            this.action = Action.DELETE;
+            this.tableName = auditBatchDelete.tableName();
+            this.batch = true;
+        } else if (method.isAnnotationPresent(AuditBatchUpdate.class)) {
+            this.findByIdMethodName = method.getAnnotation(AuditBatchUpdate.class).findByIds();
+            this.action = Action.UPDATE;
+            this.batch = true;
         }
         if (hasAuditableParam()) {
-            Parameter parameter = method.getParameters()[getAuditableParamPosition()];
-            this.fieldId = FieldProcessorContext.getFieldByAnnotation(AuditId.class, parameter.getType());
-            this.tableName = parameter.getType().getAnnotation(Auditable.class).tableName();
-            this.fieldAuditUser = FieldProcessorContext.getFieldByAnnotation(AuditUser.class, parameter.getType());
+            this.auditableType = this.auditableTypeOf(method.getParameters()[getAuditableParamPosition()]);
+            this.fieldId = FieldProcessorContext.getFieldByAnnotation(AuditId.class, auditableType);
+            this.tableName = auditableType.getAnnotation(Auditable.class).tableName();
+            this.fieldAuditUser = FieldProcessorContext.getFieldByAnnotation(AuditUser.class, auditableType);
+            if (this.fieldId != null) {
+                this.idAccessor = FieldAccessor.of(auditableType, this.fieldId.getName());
+            }
+            if (this.fieldAuditUser != null) {
+                this.auditUserAccessor = FieldAccessor.of(auditableType, this.fieldAuditUser.getName());
+            }
         }
     }
 
@@ -138,6 +170,24 @@ public class AuditClassMethod {
         return getAuditableParamPosition() != -1;
     }
 
+    /**
+     * Checks if the method is a batch operation on a collection of entities.
+     *
+     * @return true if the method carries a batch audit annotation, false otherwise.
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * Gets the {@link Auditable} class of the auditable parameter, or of its elements for batch operations.
+     *
+     * @return the auditable class, or null if the method has no auditable parameter.
+     */
+    public Class<?> getAuditableType() {
+        return auditableType;
+    }
+
     /**
      * Retrieves the audit user from the method parameters.
      *
@@ -145,11 +195,27 @@ public class AuditClassMethod {
      * @return the audit user.
      */
     protected Object getAuditUser(Object... params) {
+        return this.getAuditUserOf(getAuditableParam(params), params);
+    }
+
+    /**
+     * Retrieves the audit user of an auditable entity, from the @AuditUser parameter if there is one, or from the
+     * entity otherwise.
+     *
+     * @param auditable the auditable entity, or null if there is none.
+     * @param params    the method parameters.
+     * @return the audit user.
+     */
+    protected Object getAuditUserOf(Object auditable, Object... params) {
         if (hasAuditUserParam()) {
             return params[getAuditUserPosition()];
         }
-        if (isAuditUserInsideAuditableClass()) {
-            return AuditUtil.getValueFromField(fieldAuditUser.getName(), getAuditableParam(params));
+        if (isAuditUserInsideAuditableClass() && auditable != null) {
+            AuditDescriptor<Object> descriptor = FieldProcessorContext.getDescriptor(auditable.getClass());
+            if (descriptor != null) {
+                return descriptor.getAuditUser(auditable);
+            }
+            return auditUserAccessor.get(auditable);
         }
         return null;
     }
@@ -165,11 +231,28 @@ public class AuditClassMethod {
             return params[getIdParamPosition()];
         }
         if (isIdInsideAuditableClass()) {
-            return AuditUtil.getValueFromField(fieldId.getName(), getAuditableParam(params));
+            return this.getIdValueOf(getAuditableParam(params));
         }
         return null;
     }
 
+    /**
+     * Retrieves the ID value of an auditable entity.
+     *
+     * @param auditable the auditable entity.
+     * @return the ID value, or null if the auditable class has no @AuditId field.
+     */
+    protected Object getIdValueOf(Object auditable) {
+        if (!isIdInsideAuditableClass()) {
+            return null;
+        }
+        AuditDescriptor<Object> descriptor = FieldProcessorContext.getDescriptor(auditable.getClass());
+        if (descriptor != null) {
+            return descriptor.getIdValue(auditable);
+        }
+        return idAccessor.get(auditable);
+    }
+
     /**
      * Retrieves the auditable parameter from the method parameters.
      *
@@ -220,7 +303,7 @@ public class AuditClassMethod {
         }
         Parameter[] parameters = method.getParameters();
         for (int i = 0; i < method.getParameters().length; i++) {
-            if (parameters[i].getType().isAnnotationPresent(Auditable.class)) {
+            if (this.auditableTypeOf(parameters[i]) != null) {
                 this.auditableParamPosition = i;
                 return this.auditableParamPosition;
             }
@@ -228,6 +311,28 @@ public class AuditClassMethod {
         return -1;
     }
 
+    /**
+     * Resolves the {@link Auditable} class of a parameter: its own type, or, for batch operations, the element type
+     * of a collection parameter.
+     *
+     * @param parameter the parameter to check.
+     * @return the auditable class, or null if the parameter is not auditable.
+     */
+    private Class<?> auditableTypeOf(Parameter parameter) {
+        if (!batch) {
+            return parameter.getType().isAnnotationPresent(Auditable.class) ? parameter.getType() : null;
+        }
+        if (!Collection.class.isAssignableFrom(parameter.getType())
+                || !(parameter.getParameterizedType() instanceof ParameterizedType)) {
+            return null;
+        }
+        Type element = ((ParameterizedType) parameter.getParameterizedType()).getActualTypeArguments()[0];
+        if (element instanceof Class && ((Class<?>) element).isAnnotationPresent(Auditable.class)) {
+            return (Class<?>) element;
+        }
+        return null;
+    }
+
     /**
      * Gets the field representing the ID.
      *
@@ -237,6 +342,15 @@ public class AuditClassMethod {
         return fieldId;
     }
 
+    /**
+     * Gets the accessor of the field representing the ID.
+     *
+     * @return the ID field accessor, or null if the ID is not inside an auditable class.
+     */
+    public FieldAccessor getIdAccessor() {
+        return idAccessor;
+    }
+
     /**
      * Gets the name of the findById method.
      *
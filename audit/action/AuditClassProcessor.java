@@ -1,12 +1,24 @@
 package com.thinkon.common.audit.action;
 
 import com.thinkon.common.audit.AuditException;
-import com.thinkon.common.audit.AuditUtil;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.entity.Action;
 import com.thinkon.common.audit.entity.AuditFieldEntity;
 import com.thinkon.common.audit.entity.AuditLog;
 import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.jfr.AuditDiffEvent;
+import com.thinkon.common.audit.jfr.AuditInvokeEvent;
+import com.thinkon.common.audit.jfr.AuditPreReadEvent;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.metrics.AuditTableMetrics;
+import com.thinkon.common.audit.policy.AuditDiffDepth;
+import com.thinkon.common.audit.policy.AuditPolicy;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
+import com.thinkon.common.audit.processfield.AuditLeafValues;
 import com.thinkon.common.audit.processfield.FieldProcessorContext;
 import com.thinkon.common.audit.service.AuditLogService;
+import com.thinkon.common.audit.service.TransactionalAuditLogService;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Date;
@@ -14,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Abstract base class for processing audit logs in a service.
@@ -23,6 +36,10 @@ import java.util.stream.Collectors;
  * Subclasses are expected to implement the methods to provide the old and
  * new object states.</p>
  *
+ * <p>A processor is created once per audited method and shared by all the threads calling it. It holds no state
+ * of its own for a call: the arguments, result and intermediate states of each call are kept in an
+ * {@link AuditInvocation} passed to the hooks.</p>
+ *
  * @param instance        The instance of the object to be audited.
  * @param method          The method being audited.
  * @param auditLogService The service used to log audit information.
@@ -36,6 +53,9 @@ public abstract class AuditClassProcessor {
     private final AuditLogService auditLogService;
     private AuditClassMethod auditClassMethod;
     private FindByIdAuditMethod findByIdAuditMethod;
+    private PreImageCache preImageCache;
+    private AuditPolicyRegistry policyRegistry;
+    private AuditTableMetrics metrics;
 
     /**
      * Constructor for AuditClassProcessor.
@@ -64,58 +84,368 @@ public abstract class AuditClassProcessor {
     /**
      * Abstract method to get the old state of the object.
      *
-     * @param args Method arguments.
+     * @param invocation The current invocation of the method.
      * @return The old state of the object.
      */
-    protected abstract Object getOldObject(Object... args);
+    protected abstract Object getOldObject(AuditInvocation invocation);
+
+    /**
+     * Retrieves the processed fields of the old state of the object, before the method is invoked. The old object
+     * is kept in the invocation.
+     *
+     * @param invocation The current invocation of the method.
+     * @return The old audit entity map, or null if there is no old object.
+     */
+    protected Map<String, AuditFieldEntity> getOldSnapshot(AuditInvocation invocation) {
+        Object oldObject = this.getOldObject(invocation);
+        invocation.setOldObject(oldObject);
+        return oldObject == null ? null : FieldProcessorContext.processAuditableEntity(oldObject);
+    }
 
     /**
      * Abstract method to get the new state of the object.
      *
-     * @param result The result of the method invocation.
-     * @param args   Method arguments.
+     * @param invocation The current invocation of the method, holding its result.
      * @return The new state of the object.
      */
-    protected abstract Object getNewObject(Object result, Object... args);
+    protected abstract Object getNewObject(AuditInvocation invocation);
 
     /**
-     * Invokes the method and processes the audit log.
+     * Invokes the method and processes the audit log. With a {@link TransactionalAuditLogService}, the old object
+     * is read, the method invoked and the audit log written in one transaction. When the {@link AuditPolicy} of the
+     * table disables auditing or leaves the call out of its sample, the method is invoked without being audited.
+     * Skipped calls and failures of the audit pipeline are counted in the {@link AuditMetrics} of the table.
+     *
+     * <p>Processors are shared by every thread calling the method: the state of the call lives in a new
+     * {@link AuditInvocation} passed to the hooks, so concurrent calls do not need any lock.</p>
      *
      * @param args Method arguments.
      * @return The result of the method invocation.
      */
     public final Object invoke(Object... args) throws InvocationTargetException {
-        Object oldObject = this.getOldObject(args);
-        Object result = this.invokeMethod(this.method, args);
-        this.process(oldObject, result, args);
-        return result;
+        if (!this.getPolicy().isSampled()) {
+            if (this.metrics != null) {
+                this.metrics.recordSkipped();
+            }
+            Object result = this.invokeMethod(this.method, args);
+            this.invalidatePreImages(args);
+            return result;
+        }
+        AuditInvocation invocation = new AuditInvocation(args);
+        try {
+            if (this.auditLogService instanceof TransactionalAuditLogService) {
+                return ((TransactionalAuditLogService) this.auditLogService)
+                        .inTransaction(() -> this.invokeAudited(invocation));
+            }
+            return this.invokeAudited(invocation);
+        } catch (RuntimeException e) {
+            if (this.metrics != null) {
+                this.metrics.recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the old object, invokes the method and processes the audit log. Each phase is recorded as a Java Flight
+     * Recorder event.
+     *
+     * @param invocation The current invocation of the method.
+     * @return The result of the method invocation.
+     */
+    protected Object invokeAudited(AuditInvocation invocation) throws InvocationTargetException {
+        AuditPreReadEvent event = new AuditPreReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        invocation.setOldEntity(this.getOldSnapshot(invocation));
+        this.recordPreRead(start);
+        Map<String, AuditFieldEntity> oldEntity = invocation.getOldEntity();
+        event.finish(this.getTableName(), auditClassMethod.getOperation(), oldEntity == null ? 0 : oldEntity.size());
+        invocation.setResult(this.invokeAuditedMethod(invocation.getArgs()));
+        this.process(invocation);
+        return invocation.getResult();
+    }
+
+    /**
+     * Invokes the audited method, recording the invocation as a Java Flight Recorder event.
+     *
+     * @param args Method arguments.
+     * @return The result of the method invocation.
+     */
+    protected final Object invokeAuditedMethod(Object... args) throws InvocationTargetException {
+        AuditInvokeEvent event = new AuditInvokeEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            Object result = this.invokeMethod(this.method, args);
+            succeeded = true;
+            return result;
+        } finally {
+            event.finish(this.getTableName(), auditClassMethod.getOperation(), succeeded);
+        }
+    }
+
+    /**
+     * Processes the audit log by comparing the old and new object states and logging the changes. The new state is
+     * processed against the old one, so unchanged fields are not converted again, and an update that changed
+     * nothing is not logged.
+     *
+     * @param invocation The current invocation of the method, holding the old audit entity map and the result.
+     */
+    private void process(AuditInvocation invocation) {
+        AuditDiffEvent event = new AuditDiffEvent();
+        event.begin();
+        long start = System.nanoTime();
+        invocation.setNewObject(this.getNewObject(invocation));
+        Object newObject = invocation.getNewObject();
+        Map<String, AuditFieldEntity> oldEntity = invocation.getOldEntity();
+        if (oldEntity != null && newObject != null) {
+            Map<String, AuditFieldEntity> newEntity = this.getNewSnapshot(newObject, oldEntity);
+            Object idValue = this.getIdValue(invocation);
+            AuditLog auditLog = this.buildAuditLog(idValue, this.getAuditUser(invocation.getArgs()), newEntity,
+                    oldEntity);
+            this.recordDiff(start);
+            event.finish(this.getTableName(), auditClassMethod.getOperation(), newEntity.size(),
+                    auditLog.getLogChanges().size());
+            if (!isUnchanged(auditLog)) {
+                this.auditLogService.audit(auditLog);
+            } else {
+                this.recordUnchanged(1);
+            }
+            this.cachePostImage(idValue, newObject, newEntity);
+        }
+    }
+
+    /**
+     * Retrieves the processed fields of the new state of the object, processed against the old state.
+     *
+     * @param newObject The new state of the object.
+     * @param oldEntity The old audit entity map.
+     * @return The new audit entity map.
+     */
+    protected Map<String, AuditFieldEntity> getNewSnapshot(Object newObject, Map<String, AuditFieldEntity> oldEntity) {
+        return FieldProcessorContext.processAuditableEntity(newObject, oldEntity);
+    }
+
+    /**
+     * Builds the audit log of an object from its old and new audit entity maps. Old fields missing from the new
+     * state are left out, and so are the fields excluded by the {@link AuditPolicy} of the table, whose diff depth
+     * also decides whether the changes keep their values.
+     *
+     * @param idValue   The ID of the object.
+     * @param auditUser The user performing the change.
+     * @param newEntity The new audit entity map.
+     * @param oldEntity The old audit entity map, modified by this method.
+     * @return The audit log.
+     */
+    protected AuditLog buildAuditLog(Object idValue, String auditUser, Map<String, AuditFieldEntity> newEntity,
+            Map<String, AuditFieldEntity> oldEntity) {
+        oldEntity.entrySet().removeIf(e -> !newEntity.containsKey(e.getKey()));
+        AuditPolicy policy = this.getPolicy();
+        List<AuditLogChange> changes = this.buildAuditLogChanges(policy.filterFields(newEntity), oldEntity);
+        if (policy.getDiffDepth() == AuditDiffDepth.FIELDS) {
+            changes.forEach(AuditClassProcessor::removeValues);
+        }
+        return AuditLog.builder()
+                .date(new Date())
+                .action(auditClassMethod.getOperation())
+                .valueId(idValue.toString())
+                .tableName(auditClassMethod.getTableName())
+                .auditUser(auditUser)
+                .logChanges(changes)
+                .build();
+    }
+
+    /**
+     * Removes the old and new values of a change, which then only records the name of the changed field.
+     *
+     * @param change The change.
+     */
+    private static void removeValues(AuditLogChange change) {
+        change.setOldValue(null);
+        change.setNewValue(null);
+        change.setOldValueJson(false);
+        change.setNewValueJson(false);
+    }
+
+    /**
+     * Checks if an audit log records an update that changed nothing. Such audit logs are not written; creations and
+     * deletions are always written, even without field values.
+     *
+     * @param auditLog The audit log.
+     * @return true if the audit log is an update without changes, false otherwise.
+     */
+    protected static boolean isUnchanged(AuditLog auditLog) {
+        return auditLog.getAction() == Action.UPDATE
+                && (auditLog.getLogChanges() == null || auditLog.getLogChanges().isEmpty());
+    }
+
+    /**
+     * Stores the state written by the method as the next pre-image of the object, or invalidates it for deletes.
+     * In transactional mode, the pre-image is invalidated too, since the transaction may still roll back.
+     *
+     * @param idValue   The ID of the object.
+     * @param newObject The new state of the object.
+     * @param newEntity The new audit entity map.
+     */
+    protected void cachePostImage(Object idValue, Object newObject, Map<String, AuditFieldEntity> newEntity) {
+        if (this.preImageCache == null) {
+            return;
+        }
+        if (auditClassMethod.getOperation() == Action.DELETE
+                || this.auditLogService instanceof TransactionalAuditLogService) {
+            this.preImageCache.invalidate(auditClassMethod.getTableName(), idValue);
+        } else {
+            this.preImageCache.put(auditClassMethod.getTableName(), idValue, newObject, newEntity);
+        }
+    }
+
+    /**
+     * Sets the cache of pre-images used by updates. Must be called before the processor is shared.
+     *
+     * @param preImageCache The pre-image cache, or null to always read the old state with findById.
+     */
+    public void setPreImageCache(PreImageCache preImageCache) {
+        this.preImageCache = preImageCache;
+    }
+
+    /**
+     * Removes the cached pre-images of the objects of a call that was not audited, whose post-images were not
+     * cached.
+     *
+     * @param args Method arguments.
+     */
+    protected void invalidatePreImages(Object... args) {
+        if (this.preImageCache != null && auditClassMethod.getOperation() != Action.CREATE) {
+            this.preImageCache.invalidate(auditClassMethod.getTableName(), this.getIdValue(args));
+        }
+    }
+
+    /**
+     * Sets the registry of the runtime audit policies. Must be called before the processor is shared.
+     *
+     * @param policyRegistry The policy registry, or null to always apply {@link AuditPolicy#DEFAULT}.
+     */
+    public void setPolicyRegistry(AuditPolicyRegistry policyRegistry) {
+        this.policyRegistry = policyRegistry;
+    }
+
+    /**
+     * Sets the metrics the processor records its calls into. Must be called before the processor is shared.
+     *
+     * @param auditMetrics The metrics of every table, or null to record nothing.
+     */
+    public void setMetrics(AuditMetrics auditMetrics) {
+        this.metrics = auditMetrics == null ? null
+                : auditMetrics.get(auditClassMethod.getTableName(), auditClassMethod.getOperation());
+    }
+
+    /**
+     * Records the time spent reading and processing the old states of the call.
+     *
+     * @param startNanos The {@link System#nanoTime()} at which the pre-read started.
+     */
+    protected final void recordPreRead(long startNanos) {
+        if (this.metrics != null) {
+            this.metrics.recordPreRead(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records the time spent reading and processing the new states of the call and comparing them to the old ones.
+     *
+     * @param startNanos The {@link System#nanoTime()} at which the diff started.
+     */
+    protected final void recordDiff(long startNanos) {
+        if (this.metrics != null) {
+            this.metrics.recordDiff(System.nanoTime() - startNanos);
+        }
     }
 
     /**
-     * Processes the audit log by comparing the old and new object states and logging the changes.
+     * Records audit logs left unwritten because their update changed nothing.
      *
-     * @param oldObject The old state of the object.
-     * @param result    The result of the method invocation.
-     * @param args      Method arguments.
+     * @param count The number of unwritten audit logs.
      */
-    private void process(Object oldObject, Object result, Object... args) {
-        Object newObject = this.getNewObject(result, args);
-        if (oldObject != null && newObject != null) {
-            Map<String, AuditFieldEntity> newEntity = FieldProcessorContext.processAuditableEntity(newObject);
-            Map<String, AuditFieldEntity> oldEntity = FieldProcessorContext.processAuditableEntity(oldObject);
-            oldEntity.entrySet().removeIf(e -> !newEntity.containsKey(e.getKey()));
-            AuditLog log = AuditLog.builder()
-                    .date(new Date())
-                    .action(auditClassMethod.getOperation())
-                    .valueId(this.getIdValue(args).toString())
-                    .tableName(auditClassMethod.getTableName())
-                    .auditUser(this.getAuditUser(args))
-                    .logChanges(this.buildAuditLogChanges(newEntity, oldEntity))
-                    .build();
-            this.auditLogService.audit(log);
+    protected final void recordUnchanged(long count) {
+        if (this.metrics != null && count > 0) {
+            this.metrics.recordUnchanged(count);
         }
     }
 
+    /**
+     * Retrieves the current runtime policy of the audited table and action. Lock-free.
+     *
+     * @return The policy, {@link AuditPolicy#DEFAULT} if there is no registry.
+     */
+    protected AuditPolicy getPolicy() {
+        return policyRegistry == null ? AuditPolicy.DEFAULT
+                : policyRegistry.getPolicy(auditClassMethod.getTableName(), auditClassMethod.getOperation());
+    }
+
+    /**
+     * Retrieves the cache of pre-images used by updates.
+     *
+     * @return The pre-image cache, or null if it is disabled.
+     */
+    protected PreImageCache getPreImageCache() {
+        return preImageCache;
+    }
+
+    /**
+     * Retrieves the name of the findById method used to read the old state of the object.
+     *
+     * @return The findById method name.
+     */
+    public String getFindByIdMethodName() {
+        return auditClassMethod.getFindByIdMethodName();
+    }
+
+    /**
+     * Retrieves the audit information resolved from the annotations of the method.
+     *
+     * @return The {@link AuditClassMethod} of the method.
+     */
+    protected AuditClassMethod getAuditClassMethod() {
+        return auditClassMethod;
+    }
+
+    /**
+     * Retrieves the audited method.
+     *
+     * @return The method.
+     */
+    protected Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Retrieves the instance on which the audited method is invoked.
+     *
+     * @return The instance.
+     */
+    protected Object getInstance() {
+        return instance;
+    }
+
+    /**
+     * Retrieves the service used to write the audit logs.
+     *
+     * @return The AuditLogService instance.
+     */
+    protected AuditLogService getAuditLogService() {
+        return auditLogService;
+    }
+
+    /**
+     * Retrieves the name of the audited table.
+     *
+     * @return The table name.
+     */
+    protected String getTableName() {
+        return auditClassMethod.getTableName();
+    }
+
     /**
      * Retrieves the auditable parameter from the method arguments.
      *
@@ -140,6 +470,20 @@ public abstract class AuditClassProcessor {
         return auditUser.toString();
     }
 
+    /**
+     * Retrieves the ID value of the current invocation: the ID resolved during the call if there is one, such as
+     * a generated ID, or the ID found in the method arguments otherwise.
+     *
+     * @param invocation The current invocation of the method.
+     * @return The ID value.
+     */
+    protected Object getIdValue(AuditInvocation invocation) {
+        if (invocation.getIdValue() != null) {
+            return invocation.getIdValue();
+        }
+        return this.getIdValue(invocation.getArgs());
+    }
+
     /**
      * Retrieves the ID value from the method arguments.
      *
@@ -161,7 +505,7 @@ public abstract class AuditClassProcessor {
      * @return The ID value.
      */
     protected Object getIdValueFromArg(Object arg) {
-        return AuditUtil.getValueFromField(auditClassMethod.getFieldId().getName(), arg);
+        return FieldAccessor.of(arg.getClass(), auditClassMethod.getFieldId().getName()).get(arg);
     }
 
     /**
@@ -210,7 +554,8 @@ public abstract class AuditClassProcessor {
     }
 
     /**
-     * Builds a list of audit log changes by comparing the new and old audit entities.
+     * Builds a list of audit log changes by comparing the new and old audit entities. Fields compared leaf by leaf
+     * give one change per changed leaf.
      *
      * @param newAudit The new audit entity map.
      * @param oldAudit The old audit entity map.
@@ -221,11 +566,37 @@ public abstract class AuditClassProcessor {
         return newAudit
                 .entrySet()
                 .stream()
-                .map(f -> this.buildAuditLogChange(f.getValue(), oldAudit.get(f.getKey())))
+                .flatMap(f -> f.getValue().getValue() instanceof AuditLeafValues
+                        ? this.buildLeafChanges(f.getValue(), oldAudit.get(f.getKey()))
+                        : Stream.of(this.buildAuditLogChange(f.getValue(), oldAudit.get(f.getKey()))))
                 .filter(a -> a != null)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Builds the changes of a field compared leaf by leaf: one change for each leaf whose value differs, named by
+     * the label of the field followed by the path of the leaf, such as {@code ADDRESS.CITY}.
+     *
+     * @param newValue The new field value entity, holding {@link AuditLeafValues}.
+     * @param oldValue The old field value entity, or null.
+     * @return The changes of the changed leaves.
+     */
+    private Stream<AuditLogChange> buildLeafChanges(AuditFieldEntity newValue, AuditFieldEntity oldValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return Stream.empty();
+        }
+        AuditLeafValues newLeaves = (AuditLeafValues) newValue.getValue();
+        AuditLeafValues oldLeaves = oldValue != null && oldValue.getValue() instanceof AuditLeafValues
+                ? (AuditLeafValues) oldValue.getValue() : AuditLeafValues.empty();
+        return newLeaves.paths(oldLeaves)
+                .stream()
+                .filter(path -> !Objects.equals(newLeaves.get(path), oldLeaves.get(path)))
+                .map(path -> buildChange(
+                        path.isEmpty() ? newValue.getFieldLabel()
+                                : newValue.getFieldLabel() + AuditLeafValues.PATH_SEPARATOR + path,
+                        oldLeaves.get(path), newLeaves.get(path)));
+    }
+
     /**
      * Builds an audit log change by comparing the new and old field values.
      *
@@ -238,11 +609,28 @@ public abstract class AuditClassProcessor {
             return null;
         }
         Object resultNew = newValue == null ? null : newValue.processDiff(oldValue);
-        Object resultOld = oldValue == null ? null : oldValue.processDiff(newValue);
+        Object resultOld = oldValue == null ? null : oldValue.processOldDiff(newValue);
+        return buildChange(newValue.getFieldLabel(), resultOld, resultNew);
+    }
+
+    /**
+     * Builds an audit log change from the compared values. The textual values are checked once here for JSON, so
+     * that reading the change back does not need to parse them again.
+     *
+     * @param fieldName The name of the changed field.
+     * @param resultOld The old side of the change, or null.
+     * @param resultNew The new side of the change, or null.
+     * @return An {@link AuditLogChange} object representing the change.
+     */
+    private static AuditLogChange buildChange(String fieldName, Object resultOld, Object resultNew) {
+        String oldText = resultOld == null ? null : resultOld.toString();
+        String newText = resultNew == null ? null : resultNew.toString();
         return AuditLogChange.builder()
-                .fieldName(newValue.getFieldLabel())
-                .oldValue(resultOld == null ? null : resultOld.toString())
-                .newValue(resultNew == null ? null : resultNew.toString())
+                .fieldName(fieldName)
+                .oldValue(oldText)
+                .newValue(newText)
+                .oldValueJson(AuditLogChange.isJson(oldText))
+                .newValueJson(AuditLogChange.isJson(newText))
                 .build();
     }
 
@@ -0,0 +1,130 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import java.util.Map;
+
+/**
+ * State of one call to an audited method, created by {@link AuditClassProcessor#invoke(Object...)} and passed to
+ * every hook of the processor. Processors are shared by all the threads calling the same proxied method, so anything
+ * computed for a call, such as the ID of a created object or the class of a deleted one, is kept here instead of in
+ * processor fields.
+ *
+ * <p>An invocation is confined to the thread running the call and is not thread-safe.</p>
+ */
+public final class AuditInvocation {
+
+    private final Object[] args;
+    private Object result;
+    private Object oldObject;
+    private Map<String, AuditFieldEntity> oldEntity;
+    private Object newObject;
+    private Object idValue;
+
+    /**
+     * Creates the invocation of an audited method.
+     *
+     * @param args the arguments passed to the method
+     */
+    public AuditInvocation(Object... args) {
+        this.args = args;
+    }
+
+    /**
+     * Gets the arguments passed to the method.
+     *
+     * @return the method arguments
+     */
+    public Object[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Gets the result of the method, once it has been invoked.
+     *
+     * @return the result of the method, or null before the method is invoked
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    /**
+     * Sets the result of the method.
+     *
+     * @param result the result of the method
+     */
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    /**
+     * Gets the old state of the object, as read before the method is invoked.
+     *
+     * @return the old object, or null if it was not read, for example when the pre-image cache answered
+     */
+    public Object getOldObject() {
+        return oldObject;
+    }
+
+    /**
+     * Sets the old state of the object.
+     *
+     * @param oldObject the old object
+     */
+    public void setOldObject(Object oldObject) {
+        this.oldObject = oldObject;
+    }
+
+    /**
+     * Gets the processed fields of the old state of the object.
+     *
+     * @return the old audit entity map, or null if there is no old state
+     */
+    public Map<String, AuditFieldEntity> getOldEntity() {
+        return oldEntity;
+    }
+
+    /**
+     * Sets the processed fields of the old state of the object.
+     *
+     * @param oldEntity the old audit entity map
+     */
+    public void setOldEntity(Map<String, AuditFieldEntity> oldEntity) {
+        this.oldEntity = oldEntity;
+    }
+
+    /**
+     * Gets the new state of the object, once the method has been invoked.
+     *
+     * @return the new object, or null if it is not known yet
+     */
+    public Object getNewObject() {
+        return newObject;
+    }
+
+    /**
+     * Sets the new state of the object.
+     *
+     * @param newObject the new object
+     */
+    public void setNewObject(Object newObject) {
+        this.newObject = newObject;
+    }
+
+    /**
+     * Gets the ID of the object resolved during the call, such as the ID generated by a creation.
+     *
+     * @return the ID, or null if it is read from the arguments
+     */
+    public Object getIdValue() {
+        return idValue;
+    }
+
+    /**
+     * Sets the ID of the object resolved during the call.
+     *
+     * @param idValue the ID of the object
+     */
+    public void setIdValue(Object idValue) {
+        this.idValue = idValue;
+    }
+}
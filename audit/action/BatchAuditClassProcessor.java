@@ -0,0 +1,308 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.jfr.AuditDiffEvent;
+import com.thinkon.common.audit.jfr.AuditPreReadEvent;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
+import com.thinkon.common.audit.processfield.FieldProcessorContext;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Abstract base class for auditing methods that create, update or delete a collection of entities.
+ *
+ * <p>The old states of all the entities are read before the method is invoked, with a single call to the findByIds
+ * method instead of one findById per entity. Once the method has returned, the old and new states are compared,
+ * in parallel for large batches, and all the resulting audit logs are written with
+ * {@link AuditLogService#auditAll(List)}. Entities are matched by the string form of their ID.</p>
+ */
+public abstract class BatchAuditClassProcessor extends AuditClassProcessor {
+
+    /**
+     * Minimum number of entities for which the snapshots and diffs are computed in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 64;
+
+    private final FindByIdsAuditMethod findByIdsAuditMethod;
+
+    /**
+     * Constructs a BatchAuditClassProcessor.
+     *
+     * @param instance        The instance of the object to be audited.
+     * @param method          The method being audited.
+     * @param auditLogService The service used to log audit information.
+     * @throws AuditException if the method is missing a batch audit annotation.
+     */
+    protected BatchAuditClassProcessor(Object instance, Method method, AuditLogService auditLogService) {
+        super(instance, method, auditLogService);
+        if (!getAuditClassMethod().isBatch()) {
+            throw new AuditException("The method is missing a batch audit annotation.");
+        }
+        this.findByIdsAuditMethod = new FindByIdsAuditMethod(method.getDeclaringClass(), instance,
+                getFindByIdMethodName());
+    }
+
+    /**
+     * Retrieves the processed fields of the old states of the entities, before the method is invoked.
+     *
+     * @param invocation The current invocation of the method.
+     * @return The old audit entity maps, keyed by entity ID.
+     */
+    protected abstract Map<String, Map<String, AuditFieldEntity>> getOldSnapshots(AuditInvocation invocation);
+
+    /**
+     * Retrieves the new states of the entities, after the method is invoked.
+     *
+     * @param invocation The current invocation of the method, holding its result.
+     * @return The new states, keyed by entity ID.
+     */
+    protected abstract Map<String, Object> getNewObjects(AuditInvocation invocation);
+
+    /**
+     * Retrieves the old state of an entity that has no old snapshot. By default, such entities are not audited.
+     *
+     * @param newObject The new state of the entity.
+     * @return The old audit entity map, or null to skip the entity.
+     */
+    protected Map<String, AuditFieldEntity> getMissingOldSnapshot(Object newObject) {
+        return null;
+    }
+
+    /**
+     * Batch processors read the old states with {@link #getOldSnapshots(AuditInvocation)}.
+     *
+     * @param invocation The current invocation of the method.
+     * @return never returns normally.
+     * @throws AuditException always.
+     */
+    @Override
+    protected final Object getOldObject(AuditInvocation invocation) {
+        throw new AuditException("Batch audits read the old states with getOldSnapshots.");
+    }
+
+    /**
+     * Batch processors read the new states with {@link #getNewObjects(AuditInvocation)}.
+     *
+     * @param invocation The current invocation of the method.
+     * @return never returns normally.
+     * @throws AuditException always.
+     */
+    @Override
+    protected final Object getNewObject(AuditInvocation invocation) {
+        throw new AuditException("Batch audits read the new states with getNewObjects.");
+    }
+
+    /**
+     * Reads the old states, invokes the method, then diffs every entity and writes all the audit logs at once. Each
+     * phase is recorded as a Java Flight Recorder event.
+     *
+     * @param invocation The current invocation of the method.
+     * @return The result of the method invocation.
+     */
+    @Override
+    protected Object invokeAudited(AuditInvocation invocation) throws InvocationTargetException {
+        Object[] args = invocation.getArgs();
+        AuditPreReadEvent preReadEvent = new AuditPreReadEvent();
+        preReadEvent.begin();
+        long start = System.nanoTime();
+        Map<String, Map<String, AuditFieldEntity>> oldEntities = this.getOldSnapshots(invocation);
+        this.recordPreRead(start);
+        preReadEvent.finish(getTableName(), getAuditClassMethod().getOperation(),
+                preReadEvent.isEnabled() ? fieldCount(oldEntities.values().stream()) : 0);
+        invocation.setResult(this.invokeAuditedMethod(args));
+        AuditDiffEvent diffEvent = new AuditDiffEvent();
+        diffEvent.begin();
+        start = System.nanoTime();
+        List<BatchItem> items = new ArrayList<>();
+        this.getNewObjects(invocation).forEach((id, newObject) -> items.add(new BatchItem(id, newObject)));
+        List<BatchItem> audited = stream(items)
+                .map(item -> this.diff(item, oldEntities.get(item.id), args))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        List<AuditLog> auditLogs = audited.stream()
+                .map(i -> i.auditLog)
+                .filter(auditLog -> !isUnchanged(auditLog))
+                .collect(Collectors.toList());
+        this.recordDiff(start);
+        if (diffEvent.isEnabled()) {
+            diffEvent.finish(getTableName(), getAuditClassMethod().getOperation(),
+                    fieldCount(audited.stream().map(i -> i.newEntity)),
+                    auditLogs.stream().mapToInt(auditLog -> auditLog.getLogChanges().size()).sum());
+        }
+        this.recordUnchanged(audited.size() - auditLogs.size());
+        this.getAuditLogService().auditAll(auditLogs);
+        audited.forEach(i -> this.cachePostImage(i.id, i.newObject, i.newEntity));
+        return invocation.getResult();
+    }
+
+    /**
+     * Removes the cached pre-images of every entity of a call that was not audited: the entities of the auditable
+     * collection parameter, or the IDs of a batch delete.
+     *
+     * @param args Method arguments.
+     */
+    @Override
+    protected void invalidatePreImages(Object... args) {
+        PreImageCache cache = this.getPreImageCache();
+        if (cache == null || getAuditClassMethod().getOperation() == Action.CREATE) {
+            return;
+        }
+        if (getAuditClassMethod().hasAuditableParam()) {
+            this.getAuditableEntities(args)
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .forEach(entity -> cache.invalidate(getTableName(), getAuditClassMethod().getIdValueOf(entity)));
+        } else {
+            FindByIdsAuditMethod.toIdSet(getIdValue(args)).forEach(id -> cache.invalidate(getTableName(), id));
+        }
+    }
+
+    /**
+     * Counts the processed fields of several entities, for the Java Flight Recorder events of the batch.
+     *
+     * @param entities The audit entity maps of the entities.
+     * @return The total number of fields.
+     */
+    private static int fieldCount(Stream<Map<String, AuditFieldEntity>> entities) {
+        return entities.mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Compares the old and new states of one entity.
+     *
+     * @param item      The entity, with its ID and new state.
+     * @param oldEntity The old audit entity map, or null if there is none.
+     * @param args      Method arguments.
+     * @return The item with its audit log, or null if the entity is not audited.
+     */
+    private BatchItem diff(BatchItem item, Map<String, AuditFieldEntity> oldEntity, Object... args) {
+        if (item.newObject == null) {
+            return null;
+        }
+        Map<String, AuditFieldEntity> old = oldEntity != null ? oldEntity : this.getMissingOldSnapshot(item.newObject);
+        if (old == null) {
+            return null;
+        }
+        item.newEntity = FieldProcessorContext.processAuditableEntity(item.newObject, old);
+        Object auditUser = getAuditClassMethod().getAuditUserOf(item.newObject, args);
+        item.auditLog = this.buildAuditLog(item.id, auditUser == null ? null : auditUser.toString(), item.newEntity,
+                old);
+        return item;
+    }
+
+    /**
+     * Reads the entities with the given IDs using the findByIds method and processes their fields.
+     *
+     * @param ids The IDs of the entities.
+     * @return The audit entity maps of the entities found, keyed by entity ID.
+     */
+    protected Map<String, Map<String, AuditFieldEntity>> findSnapshots(Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        return this.snapshots(this.findByIds(ids));
+    }
+
+    /**
+     * Processes the fields of several entities.
+     *
+     * @param entities The entities to process.
+     * @return The audit entity maps of the entities, keyed by entity ID.
+     */
+    protected Map<String, Map<String, AuditFieldEntity>> snapshots(List<Object> entities) {
+        return stream(entities)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(this::idOf, FieldProcessorContext::processAuditableEntity, (a, b) -> b,
+                        LinkedHashMap::new));
+    }
+
+    /**
+     * Reads the entities with the given IDs using the findByIds method.
+     *
+     * @param ids The IDs of the entities.
+     * @return The entities found.
+     */
+    protected List<Object> findByIds(Collection<?> ids) {
+        return findByIdsAuditMethod.find(ids);
+    }
+
+    /**
+     * Retrieves the findByIds method of the batch.
+     *
+     * @return The findByIds method.
+     */
+    protected FindByIdsAuditMethod getFindByIdsAuditMethod() {
+        return findByIdsAuditMethod;
+    }
+
+    /**
+     * Retrieves the ID of an entity as the key used to match old and new states. Methods without an auditable
+     * parameter, such as batch deletes, read it with the {@link AuditClassMetadata} of the entity class.
+     *
+     * @param entity The entity.
+     * @return The string form of its ID.
+     * @throws AuditException if the entity has no ID.
+     */
+    protected String idOf(Object entity) {
+        Object id = getAuditClassMethod().getIdValueOf(entity);
+        if (id == null && !getAuditClassMethod().hasAuditableParam()) {
+            FieldAccessor idAccessor = AuditClassMetadata.of(entity.getClass()).getIdAccessor();
+            id = idAccessor == null ? null : idAccessor.get(entity);
+        }
+        if (id == null) {
+            throw new AuditException("The entities of a batch audit must have an @AuditId value.");
+        }
+        return id.toString();
+    }
+
+    /**
+     * Retrieves the entities of the auditable collection parameter.
+     *
+     * @param args Method arguments.
+     * @return The entities.
+     */
+    protected List<Object> getAuditableEntities(Object... args) {
+        Object entities = getAuditableParam(args);
+        return entities == null ? new ArrayList<>() : new ArrayList<>((Collection<?>) entities);
+    }
+
+    /**
+     * Streams a list, in parallel when it is large enough for the split to pay off.
+     *
+     * @param list The list to stream.
+     * @param <T>  The element type.
+     * @return The stream.
+     */
+    static <T> Stream<T> stream(List<T> list) {
+        return list.size() >= PARALLEL_THRESHOLD ? list.parallelStream() : list.stream();
+    }
+
+    /**
+     * An entity of the batch with its new state, and once diffed, its audit log.
+     */
+    private static final class BatchItem {
+        private final String id;
+        private final Object newObject;
+        private Map<String, AuditFieldEntity> newEntity;
+        private AuditLog auditLog;
+
+        private BatchItem(String id, Object newObject) {
+            this.id = id;
+            this.newObject = newObject;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.annotation.AuditBatchCreate;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
+import com.thinkon.common.audit.processfield.FieldProcessor;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code BatchCreateAuditClassProcessor} class is a specialized version of {@link BatchAuditClassProcessor}
+ * that handles auditing for methods creating a collection of entities. The old state of every entity is the blank
+ * instance of its class, and the new states are the created entities returned by the method or, when the method
+ * returns the generated IDs, the entities read back with one call to the findByIds method.
+ *
+ * <p>This class requires the method being processed to have the {@link AuditBatchCreate} annotation.
+ * If the annotation is missing, an {@link AuditException} is thrown.</p>
+ */
+public class BatchCreateAuditClassProcessor extends BatchAuditClassProcessor {
+
+    /**
+     * Constructs a {@code BatchCreateAuditClassProcessor} with the specified instance, method, and audit log service.
+     *
+     * @param instance        the instance of the class containing the method to be audited
+     * @param method          the method to be audited
+     * @param auditLogService the service used to log audit information
+     * @throws AuditException if the method is not annotated with {@link AuditBatchCreate}
+     */
+    public BatchCreateAuditClassProcessor(Object instance, Method method, AuditLogService auditLogService) {
+        super(instance, method, auditLogService);
+        if (!method.isAnnotationPresent(AuditBatchCreate.class)) {
+            throw new AuditException("Annotation @AuditBatchCreate not found.");
+        }
+        this.validateAuditableParam();
+    }
+
+    /**
+     * Created entities have no old state to read.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return an empty map
+     */
+    @Override
+    protected Map<String, Map<String, AuditFieldEntity>> getOldSnapshots(AuditInvocation invocation) {
+        return new HashMap<>();
+    }
+
+    /**
+     * Retrieves the created entities from the result of the method. If the result holds IDs, the entities are read
+     * with the findByIds method.
+     *
+     * @param invocation the current invocation, whose result holds the generated IDs or the created entities, as an
+     *                   array or a collection
+     * @return the created entities, keyed by ID
+     * @throws AuditException if the result of the creation is null
+     */
+    @Override
+    protected Map<String, Object> getNewObjects(AuditInvocation invocation) {
+        Object result = invocation.getResult();
+        if (result == null) {
+            throw new AuditException("The result of the batch creation must be the generated ids or the created "
+                    + "objects.");
+        }
+        List<Object> created = new ArrayList<>(FindByIdsAuditMethod.toIdSet(result));
+        if (!created.isEmpty() && FieldProcessor.isPrimitiveOrWrapper(created.get(0))) {
+            created = this.findByIds(created);
+        }
+        Map<String, Object> newObjects = new LinkedHashMap<>();
+        created.forEach(entity -> newObjects.put(idOf(entity), entity));
+        return newObjects;
+    }
+
+    /**
+     * Retrieves the processed fields of the blank instance of the created entity's class.
+     *
+     * @param newObject the created entity
+     * @return a copy of the empty snapshot of the entity's class
+     */
+    @Override
+    protected Map<String, AuditFieldEntity> getMissingOldSnapshot(Object newObject) {
+        return new HashMap<>(AuditClassMetadata.of(newObject.getClass()).getEmptySnapshot());
+    }
+}
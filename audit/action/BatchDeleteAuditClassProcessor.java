@@ -0,0 +1,71 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.annotation.AuditBatchDelete;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code BatchDeleteAuditClassProcessor} class is a specialized version of {@link BatchAuditClassProcessor}
+ * that handles auditing for methods deleting a collection of entities. The old states are read with one call to
+ * the findByIds method, using the IDs of the collection parameter annotated with
+ * {@link com.thinkon.common.audit.annotation.AuditId}, and the new state of every entity is the blank instance of
+ * the class returned by findByIds. IDs with no entity before the delete are not audited.
+ *
+ * <p>This class requires the method being processed to have the {@link AuditBatchDelete} annotation.
+ * If the annotation is missing, an {@link AuditException} is thrown.</p>
+ */
+public class BatchDeleteAuditClassProcessor extends BatchAuditClassProcessor {
+
+    /**
+     * Constructs a {@code BatchDeleteAuditClassProcessor} with the specified instance, method, and audit log service.
+     *
+     * @param instance        the instance of the class containing the method to be audited
+     * @param method          the method to be audited
+     * @param auditLogService the service used to log audit information
+     * @throws AuditException if the method is not annotated with {@link AuditBatchDelete}, or if its findByIds
+     *                        method does not return a collection of auditable entities
+     */
+    public BatchDeleteAuditClassProcessor(Object instance, Method method, AuditLogService auditLogService) {
+        super(instance, method, auditLogService);
+        if (!method.isAnnotationPresent(AuditBatchDelete.class)) {
+            throw new AuditException("Annotation @AuditBatchDelete not found.");
+        }
+        if (!getAuditClassMethod().hasAuditIdParam()) {
+            throw new AuditException("The method does not have a collection parameter annotated with @AuditId.");
+        }
+        if (getFindByIdsAuditMethod().getEntityType() == null) {
+            throw new AuditException("The method '" + getFindByIdsAuditMethod().getMethodName()
+                    + "' must return a collection of @Auditable entities.");
+        }
+    }
+
+    /**
+     * Reads the entities to delete with one findByIds call.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return the old audit entity maps, keyed by ID
+     */
+    @Override
+    protected Map<String, Map<String, AuditFieldEntity>> getOldSnapshots(AuditInvocation invocation) {
+        return this.findSnapshots(FindByIdsAuditMethod.toIdSet(getIdValue(invocation.getArgs())));
+    }
+
+    /**
+     * Retrieves the shared blank instance of the entity class for every deleted ID.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return the blank instance, keyed by ID
+     */
+    @Override
+    protected Map<String, Object> getNewObjects(AuditInvocation invocation) {
+        Object emptyInstance = AuditClassMetadata.of(getFindByIdsAuditMethod().getEntityType()).getEmptyInstance();
+        Map<String, Object> newObjects = new LinkedHashMap<>();
+        FindByIdsAuditMethod.toIdSet(getIdValue(invocation.getArgs())).forEach(id -> newObjects.put(id.toString(), emptyInstance));
+        return newObjects;
+    }
+}
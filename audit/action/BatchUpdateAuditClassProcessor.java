@@ -0,0 +1,79 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.annotation.AuditBatchUpdate;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code BatchUpdateAuditClassProcessor} class is a specialized version of {@link BatchAuditClassProcessor}
+ * that handles auditing for methods updating a collection of entities. The old states are taken from the
+ * {@link PreImageCache} when enabled, and the remaining ones are read with one call to the findByIds method. The new
+ * states are the entities of the auditable collection parameter. Entities that do not exist before the update are
+ * not audited.
+ *
+ * <p>This class requires the method being processed to have the {@link AuditBatchUpdate} annotation.
+ * If the annotation is missing, an {@link AuditException} is thrown.</p>
+ */
+public class BatchUpdateAuditClassProcessor extends BatchAuditClassProcessor {
+
+    /**
+     * Constructs a {@code BatchUpdateAuditClassProcessor} with the specified instance, method, and audit log service.
+     *
+     * @param instance        the instance of the class containing the method to be audited
+     * @param method          the method to be audited
+     * @param auditLogService the service used to log audit information
+     * @throws AuditException if the method is not annotated with {@link AuditBatchUpdate}
+     */
+    public BatchUpdateAuditClassProcessor(Object instance, Method method, AuditLogService auditLogService) {
+        super(instance, method, auditLogService);
+        if (!method.isAnnotationPresent(AuditBatchUpdate.class)) {
+            throw new AuditException("Annotation @AuditBatchUpdate not found.");
+        }
+        this.validateAuditableParam();
+    }
+
+    /**
+     * Retrieves the processed fields of the old states of the updated entities, from the pre-image cache first and
+     * with one findByIds call for the others.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return the old audit entity maps, keyed by ID
+     */
+    @Override
+    protected Map<String, Map<String, AuditFieldEntity>> getOldSnapshots(AuditInvocation invocation) {
+        Map<String, Map<String, AuditFieldEntity>> oldEntities = new LinkedHashMap<>();
+        List<Object> missing = new ArrayList<>();
+        PreImageCache cache = this.getPreImageCache();
+        for (Object entity : getAuditableEntities(invocation.getArgs())) {
+            Object id = getAuditClassMethod().getIdValueOf(entity);
+            Map<String, AuditFieldEntity> cached = cache == null ? null : cache.get(getTableName(), id, entity);
+            if (cached != null) {
+                oldEntities.put(id.toString(), cached);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        oldEntities.putAll(this.findSnapshots(missing));
+        return oldEntities;
+    }
+
+    /**
+     * Retrieves the new states from the auditable collection parameter.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return the updated entities, keyed by ID
+     */
+    @Override
+    protected Map<String, Object> getNewObjects(AuditInvocation invocation) {
+        Map<String, Object> newObjects = new LinkedHashMap<>();
+        getAuditableEntities(invocation.getArgs()).forEach(entity -> newObjects.put(idOf(entity), entity));
+        return newObjects;
+    }
+}
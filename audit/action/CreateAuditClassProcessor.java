@@ -1,8 +1,8 @@
 package com.thinkon.common.audit.action;
 
 import com.thinkon.common.audit.AuditException;
-import com.thinkon.common.audit.AuditUtil;
 import com.thinkon.common.audit.annotation.AuditCreate;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
 import com.thinkon.common.audit.processfield.FieldProcessor;
 import com.thinkon.common.audit.service.AuditLogService;
 import java.lang.reflect.Method;
@@ -29,7 +29,6 @@ import java.lang.reflect.Method;
  */
 public class CreateAuditClassProcessor extends AuditClassProcessor {
 
-    private String idValue;
     /**
      * Constructs a {@code CreateAuditClassProcessor} with the specified instance, method, and audit log service.
      *
@@ -46,27 +45,28 @@ public class CreateAuditClassProcessor extends AuditClassProcessor {
         this.validateAuditableParam();
     }
     /**
-     * Retrieves a new instance of the old object state by creating a new instance of the auditable parameter's class.
+     * Retrieves the old object state, which is the shared blank instance of the auditable parameter's class.
      *
-     * @param args the arguments passed to the method being audited
-     * @return a new instance of the auditable parameter's class
+     * @param invocation the current invocation of the method being audited
+     * @return the blank instance of the auditable parameter's class
      */
     @Override
-    protected Object getOldObject(Object... args) {
-        Object auditable = getAuditableParam(args);
-        return AuditUtil.newInstance(auditable.getClass());
+    protected Object getOldObject(AuditInvocation invocation) {
+        Object auditable = getAuditableParam(invocation.getArgs());
+        return AuditClassMetadata.of(auditable.getClass()).getEmptyInstance();
     }
     /**
      * Retrieves the new object state from the result of the creation method.
      * If the result is a primitive or wrapper type, it invokes the findById method to get the object.
+     * The ID of the created object is kept in the invocation.
      *
-     * @param result the result of the method invocation, expected to be an ID or the created object
-     * @param args the arguments passed to the method being audited
+     * @param invocation the current invocation, whose result is expected to be an ID or the created object
      * @return the new object state
      * @throws AuditException if the result of the creation is null
      */
     @Override
-    protected Object getNewObject(Object result, Object... args) {
+    protected Object getNewObject(AuditInvocation invocation) {
+        Object result = invocation.getResult();
         if (result == null) {
             throw new AuditException("The result of the creation must be an id number or the created object.");
         }
@@ -75,12 +75,7 @@ public class CreateAuditClassProcessor extends AuditClassProcessor {
         if (isPrimitiveOrWrapper) {
             postObject = this.invokeFindById(postObject);
         }
-        idValue = getIdValueFromArg(postObject).toString();
+        invocation.setIdValue(getIdValueFromArg(postObject).toString());
         return postObject;
     }
-
-    @Override
-    protected String getIdValue(Object...args){
-        return idValue;
-    }
 }
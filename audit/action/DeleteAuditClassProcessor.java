@@ -1,8 +1,8 @@
 package com.thinkon.common.audit.action;
 
 import com.thinkon.common.audit.AuditException;
-import com.thinkon.common.audit.AuditUtil;
 import com.thinkon.common.audit.annotation.AuditDelete;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
 import com.thinkon.common.audit.service.AuditLogService;
 import java.lang.reflect.Method;
 
@@ -26,7 +26,6 @@ import java.lang.reflect.Method;
  * </pre>
  */
 public class DeleteAuditClassProcessor extends AuditClassProcessor {
-    private Class<?> auditableClass;
 
     /**
      * Constructs a {@code DeleteAuditClassProcessor} with the specified instance, method, and audit log service.
@@ -45,29 +44,24 @@ public class DeleteAuditClassProcessor extends AuditClassProcessor {
 
     /**
      * Retrieves the old object state by invoking the findById method using the ID value from the method arguments.
-     * The class of the auditable object is stored for later use.
      *
-     * @param args the arguments passed to the method being audited
+     * @param invocation the current invocation of the method being audited
      * @return the old object state
      */
     @Override
-    protected Object getOldObject(Object... args) {
-        Object idValue = getIdValue(args);
-        Object oldObject = this.invokeFindById(idValue);
-        this.auditableClass = oldObject.getClass();
-        return oldObject;
-
+    protected Object getOldObject(AuditInvocation invocation) {
+        return this.invokeFindById(getIdValue(invocation.getArgs()));
     }
 
     /**
-     * Creates a new instance of the auditable class to represent the deleted object.
+     * Retrieves the shared blank instance of the deleted object's class, read from the old object of the invocation.
      *
-     * @param result the result of the method invocation (not used in this implementation)
-     * @param args   the arguments passed to the method being audited
-     * @return a new instance of the auditable class
+     * @param invocation the current invocation of the method being audited
+     * @return the shared blank instance of the auditable class, or null if there was no object to delete
      */
     @Override
-    protected Object getNewObject(Object result, Object... args) {
-        return AuditUtil.newInstance(this.auditableClass);
+    protected Object getNewObject(AuditInvocation invocation) {
+        Object oldObject = invocation.getOldObject();
+        return oldObject == null ? null : AuditClassMetadata.of(oldObject.getClass()).getEmptyInstance();
     }
 }
@@ -0,0 +1,144 @@
+package com.thinkon.common.audit.action;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.annotation.Auditable;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class handles the findByIds method used by batch audits to read several entities at once, typically with an
+ * {@code IN} list. The method is resolved on the audited interface, so that the {@link Auditable} type of the
+ * entities it returns is known, and is called with at most {@link #MAX_IDS_PER_CALL} IDs at a time.
+ */
+public class FindByIdsAuditMethod {
+
+    /**
+     * Maximum number of IDs passed to one call of the findByIds method, to stay below the {@code IN} list limits of
+     * the databases.
+     */
+    public static final int MAX_IDS_PER_CALL = 1000;
+
+    private final Object instance;
+    private final String methodName;
+    private final Method method;
+    private final Class<?> entityType;
+
+    /**
+     * Constructs a FindByIdsAuditMethod instance.
+     *
+     * @param auditInterface      the audited interface declaring the method.
+     * @param instance            the instance on which the method is invoked.
+     * @param findByIdsMethodName the name of the method to find.
+     */
+    public FindByIdsAuditMethod(Class<?> auditInterface, Object instance, String findByIdsMethodName) {
+        this.instance = instance;
+        this.methodName = findByIdsMethodName;
+        this.method = Arrays.stream(auditInterface.getMethods())
+                .filter(m -> m.getName().equals(findByIdsMethodName))
+                .filter(m -> m.getParameterCount() == 1)
+                .filter(m -> m.getParameterTypes()[0].isAssignableFrom(ArrayList.class)
+                        || m.getParameterTypes()[0].isAssignableFrom(LinkedHashSet.class))
+                .filter(m -> Collection.class.isAssignableFrom(m.getReturnType()))
+                .findFirst()
+                .orElse(null);
+        this.entityType = method == null ? null : elementType(method.getGenericReturnType());
+    }
+
+    /**
+     * Reads the entities with the given IDs.
+     *
+     * @param ids the IDs of the entities.
+     * @return the entities found, in the order returned by the method.
+     * @throws AuditException if there is no suitable findByIds method or if it fails.
+     */
+    public List<Object> find(Collection<?> ids) {
+        if (method == null) {
+            throw new AuditException("No suitable method found in the AuditClass: Expected a method named '"
+                    + this.methodName + "' taking a collection of IDs and returning a collection.");
+        }
+        List<Object> idList = new ArrayList<>(ids);
+        List<Object> result = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += MAX_IDS_PER_CALL) {
+            List<Object> chunk = idList.subList(from, Math.min(from + MAX_IDS_PER_CALL, idList.size()));
+            Object argument = method.getParameterTypes()[0].isAssignableFrom(ArrayList.class)
+                    ? new ArrayList<>(chunk) : new LinkedHashSet<>(chunk);
+            try {
+                Collection<?> found = (Collection<?>) method.invoke(instance, argument);
+                if (found != null) {
+                    result.addAll(found);
+                }
+            } catch (IllegalAccessException e) {
+                throw new AuditException("Error accessing method " + methodName, e);
+            } catch (InvocationTargetException e) {
+                throw new AuditException("Error invoking " + methodName, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the {@link Auditable} type of the entities returned by the method.
+     *
+     * @return the entity type, or null if the method is missing or its element type is not auditable.
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Gets the name of the findByIds method.
+     *
+     * @return the method name.
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Resolves the element type of a collection type.
+     *
+     * @param type the generic collection type.
+     * @return the element type if it is an {@link Auditable} class, null otherwise.
+     */
+    private static Class<?> elementType(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return null;
+        }
+        Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+        if (element instanceof Class && ((Class<?>) element).isAnnotationPresent(Auditable.class)) {
+            return (Class<?>) element;
+        }
+        return null;
+    }
+
+    /**
+     * Collects the IDs of a collection or array argument.
+     *
+     * @param ids a collection or an array of IDs.
+     * @return the IDs, without duplicates, in their original order.
+     * @throws AuditException if the argument is neither a collection nor an array.
+     */
+    static Set<Object> toIdSet(Object ids) {
+        Set<Object> result = new LinkedHashSet<>();
+        if (ids instanceof Collection) {
+            result.addAll((Collection<?>) ids);
+        } else if (ids != null && ids.getClass().isArray()) {
+            int length = Array.getLength(ids);
+            for (int i = 0; i < length; i++) {
+                result.add(Array.get(ids, i));
+            }
+        } else {
+            throw new AuditException("The IDs of a batch audit must be a collection or an array.");
+        }
+        return result;
+    }
+}
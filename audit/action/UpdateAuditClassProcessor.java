@@ -2,15 +2,28 @@ package com.thinkon.common.audit.action;
 
 import com.thinkon.common.audit.AuditException;
 import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.processfield.AuditDirtyTracker;
+import com.thinkon.common.audit.processfield.AuditDirtyTracking;
+import com.thinkon.common.audit.processfield.FieldProcessorContext;
 import com.thinkon.common.audit.service.AuditLogService;
+import com.thinkon.common.audit.service.TransactionalAuditLogService;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The {@code UpdateAuditClassProcessor} class is a specialized version of {@link AuditClassProcessor}
  * that handles auditing for update operations. This class ensures that the method it processes
  * is annotated with {@link AuditUpdate} and validates that there is an auditable parameter.
- * It retrieves the old object state by invoking a findById method and gets the new object state
- * from the auditable parameter.
+ * It retrieves the old object state from the {@link PreImageCache} when enabled, or by invoking a findById
+ * method otherwise, and gets the new object state from the auditable parameter.
+ *
+ * <p>When the auditable parameter implements {@link AuditDirtyTracking}, only the fields marked in its
+ * {@link AuditDirtyTracker} are processed and compared. Without a pre-image cache, the old object is then processed
+ * for those fields only, and not read at all when no field is marked.</p>
  *
  * <p>This class requires the method being processed to have the {@link AuditUpdate} annotation.
  * If the annotation is missing, an {@link AuditException} is thrown.</p>
@@ -46,23 +59,77 @@ public class UpdateAuditClassProcessor extends AuditClassProcessor {
     /**
      * Retrieves the old object state by invoking the findById method using the ID value obtained from the arguments.
      *
-     * @param args the arguments passed to the method being audited
+     * @param invocation the current invocation of the method being audited
      * @return the old object state
      */
     @Override
-    protected Object getOldObject(Object... args) {
-        return this.invokeFindById(getIdValue(args));
+    protected Object getOldObject(AuditInvocation invocation) {
+        return this.invokeFindById(getIdValue(invocation.getArgs()));
+    }
+
+    /**
+     * Retrieves the processed fields of the old object state from the pre-image cache, falling back to findById
+     * when the cache is disabled, misses, or holds a version that differs from the auditable parameter. Without a
+     * cache, an auditable parameter tracking its changes only gets its dirty fields processed.
+     *
+     * @param invocation the current invocation of the method being audited
+     * @return the old audit entity map
+     */
+    @Override
+    protected Map<String, AuditFieldEntity> getOldSnapshot(AuditInvocation invocation) {
+        PreImageCache cache = this.getPreImageCache();
+        Object[] args = invocation.getArgs();
+        if (cache != null) {
+            Map<String, AuditFieldEntity> cached = cache.get(getTableName(), getIdValue(args),
+                    getAuditableParam(args));
+            if (cached != null) {
+                return cached;
+            }
+            return super.getOldSnapshot(invocation);
+        }
+        AuditDirtyTracker tracker = AuditDirtyTracker.of(getAuditableParam(args));
+        if (tracker == null) {
+            return super.getOldSnapshot(invocation);
+        }
+        if (tracker.isClean()) {
+            return new HashMap<>();
+        }
+        Object oldObject = this.getOldObject(invocation);
+        invocation.setOldObject(oldObject);
+        return oldObject == null ? null
+                : FieldProcessorContext.processDirtyFields(oldObject, tracker, Collections.emptyMap());
+    }
+
+    /**
+     * Processes the new object state against the old one. For an object tracking its changes, only the dirty fields
+     * are processed, and the tracker is cleared unless the audit runs in a transaction that may still roll back.
+     *
+     * @param newObject the new object state
+     * @param oldEntity the old audit entity map
+     * @return the new audit entity map
+     */
+    @Override
+    protected Map<String, AuditFieldEntity> getNewSnapshot(Object newObject, Map<String, AuditFieldEntity> oldEntity) {
+        AuditDirtyTracker tracker = AuditDirtyTracker.of(newObject);
+        if (tracker == null) {
+            return super.getNewSnapshot(newObject, oldEntity);
+        }
+        Map<String, AuditFieldEntity> newEntity = FieldProcessorContext.processDirtyFields(newObject, tracker,
+                oldEntity);
+        if (!(this.getAuditLogService() instanceof TransactionalAuditLogService)) {
+            tracker.clear();
+        }
+        return newEntity;
     }
 
     /**
      * Retrieves the new object state from the auditable parameter in the arguments.
      *
-     * @param result the result of the method invocation (not used in this implementation)
-     * @param args   the arguments passed to the method being audited
+     * @param invocation the current invocation of the method being audited
      * @return the new object state
      */
     @Override
-    protected Object getNewObject(Object result, Object... args) {
-        return getAuditableParam(args);
+    protected Object getNewObject(AuditInvocation invocation) {
+        return getAuditableParam(invocation.getArgs());
     }
 }
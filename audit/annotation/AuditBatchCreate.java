@@ -0,0 +1,40 @@
+package com.thinkon.common.audit.annotation;
+
+import com.thinkon.common.audit.action.AuditClassProcessor;
+import com.thinkon.common.audit.action.BatchCreateAuditClassProcessor;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark methods creating a collection of entities for auditing.
+ * The method takes a collection of {@link Auditable} entities and returns either the generated IDs, as an array or a
+ * collection, which are then read with the findByIds method, or the created entities.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * {@literal @}SqlBatch("insert into product(name) values (:name)")
+ * {@literal @}GetGeneratedKeys("id")
+ * {@literal @}AuditBatchCreate
+ * long[] createAll({@literal @}BindBean List<Product> products);
+ * }</pre>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditBatchCreate {
+
+    /**
+     * Specifies the method name to find entities by a collection of IDs.
+     *
+     * @return The method name for finding entities by IDs.
+     */
+    String findByIds() default "findByIds";
+
+    /**
+     * Specifies the action class that will be used to perform the audit.
+     *
+     * @return The class that implements the audit action.
+     */
+    Class<? extends AuditClassProcessor> action() default BatchCreateAuditClassProcessor.class;
+}
@@ -0,0 +1,46 @@
+package com.thinkon.common.audit.annotation;
+
+import com.thinkon.common.audit.action.AuditClassProcessor;
+import com.thinkon.common.audit.action.BatchDeleteAuditClassProcessor;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark methods deleting a collection of entities for auditing.
+ * The method takes the IDs of the entities as a collection parameter annotated with {@link AuditId}, whose entities
+ * are read with one call to the findByIds method before the delete.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * {@literal @}SqlUpdate("delete from product where id in (<ids>)")
+ * {@literal @}AuditBatchDelete(tableName = "product")
+ * void deleteAll({@literal @}BindList("ids") {@literal @}AuditId List<Long> ids, {@literal @}AuditUser String user);
+ * }</pre>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditBatchDelete {
+
+    /**
+     * Specifies the table name.
+     *
+     * @return the description of the table name.
+     */
+    String tableName();
+
+    /**
+     * Specifies the method name to find entities by a collection of IDs.
+     *
+     * @return the method name for finding entities by IDs.
+     */
+    String findByIds() default "findByIds";
+
+    /**
+     * Specifies the action class that will be used to perform the audit.
+     *
+     * @return the class that implements the audit action.
+     */
+    Class<? extends AuditClassProcessor> action() default BatchDeleteAuditClassProcessor.class;
+}
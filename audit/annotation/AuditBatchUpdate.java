@@ -0,0 +1,38 @@
+package com.thinkon.common.audit.annotation;
+
+import com.thinkon.common.audit.action.AuditClassProcessor;
+import com.thinkon.common.audit.action.BatchUpdateAuditClassProcessor;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark methods updating a collection of entities for auditing.
+ * The old state of all the entities is read with one call to the findByIds method before the update.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * {@literal @}SqlBatch("update product set name = :name where id = :id")
+ * {@literal @}AuditBatchUpdate(findByIds = "findByIds")
+ * void updateAll({@literal @}BindBean List<Product> products);
+ * }</pre>
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditBatchUpdate {
+
+    /**
+     * Specifies the method name to find entities by a collection of IDs.
+     *
+     * @return The method name for finding entities by IDs.
+     */
+    String findByIds() default "findByIds";
+
+    /**
+     * Specifies the action class that will be used to perform the audit.
+     *
+     * @return The class that implements the audit action.
+     */
+    Class<? extends AuditClassProcessor> action() default BatchUpdateAuditClassProcessor.class;
+}
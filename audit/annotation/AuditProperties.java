@@ -2,6 +2,7 @@ package com.thinkon.common.audit.annotation;
 
 import com.thinkon.common.audit.processfield.diff.AuditDiff;
 import com.thinkon.common.audit.processfield.diff.DefaultAuditDiff;
+import com.thinkon.common.audit.processfield.diff.KeyedArrayNodeAuditDiff;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -54,4 +55,14 @@ public @interface AuditProperties {
      * @return The class of {@link AuditDiff}.
      */
     Class<? extends AuditDiff> diff() default DefaultAuditDiff.class;
+
+    /**
+     * Specifies the field identifying the elements of a list, such as {@code "sku"}. When set, the old and new lists
+     * are compared with a {@link KeyedArrayNodeAuditDiff}, which matches their elements by key and records only the
+     * added, removed and modified elements, and {@link #diff()} is ignored.
+     *
+     * @return The name of the key field of the list elements, or an empty string to compare the lists with
+     * {@link #diff()}.
+     */
+    String keyField() default "";
 }
@@ -53,4 +53,13 @@ public @interface AuditProperty {
      * @return The class of {@link AuditDiff}.
      */
     Class<? extends AuditDiff> diff() default DefaultAuditDiff.class;
+
+    /**
+     * Indicates whether the value of the field is compared leaf by leaf. The nested objects of the value are walked
+     * and each scalar leaf whose value changed is recorded as its own change, named by its dotted path of labels,
+     * such as {@code ADDRESS.CITY}. The {@link #diff()} of the field is not used.
+     *
+     * @return True if the field is compared leaf by leaf, false otherwise.
+     */
+    boolean deep() default false;
 }
@@ -0,0 +1,26 @@
+package com.thinkon.common.audit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark the version field of an auditable entity, typically the column used for optimistic locking.
+ * The pre-image cache compares the version of a cached entity with the version of the entity being updated, and
+ * reads the entity again with findById when they differ instead of trusting a stale entry.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * public class Entity {
+ *     {@literal @}AuditVersion
+ *     private long version;
+ *
+ *     // Constructor, getters, and setters omitted for brevity
+ * }
+ * }</pre>
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditVersion {
+}
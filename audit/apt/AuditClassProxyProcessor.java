@@ -0,0 +1,284 @@
+package com.thinkon.common.audit.apt;
+
+import com.thinkon.common.audit.AuditProxyInvoker;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor that generates, for every interface annotated with
+ * {@link com.thinkon.common.audit.annotation.AuditClass}, a delegating class named
+ * {@code <Interface>AuditProxy}. Non-audited methods of the generated class call the delegate directly and
+ * audited methods call their {@link com.thinkon.common.audit.action.AuditClassProcessor}, so no
+ * {@link java.lang.reflect.Proxy} or {@code Method.invoke} is involved on the call path. The results of the findById
+ * and findByIds methods of audited updates are passed to the pre-image cache.
+ *
+ * <p>The generated class is picked up automatically by {@code JdbiAuditWrapper.onDemand} and
+ * {@code JdbiAuditWrapper.proxy}. Interfaces without a generated class keep using the reflective proxy.</p>
+ */
+@SupportedAnnotationTypes(AuditClassProxyProcessor.AUDIT_CLASS)
+public class AuditClassProxyProcessor extends AbstractProcessor {
+
+    static final String AUDIT_CLASS = "com.thinkon.common.audit.annotation.AuditClass";
+
+    private static final String AUDIT_UPDATE = "com.thinkon.common.audit.annotation.AuditUpdate";
+
+    private static final String AUDIT_BATCH_UPDATE = "com.thinkon.common.audit.annotation.AuditBatchUpdate";
+
+    private static final Set<String> AUDIT_ANNOTATIONS = Set.of(
+            "com.thinkon.common.audit.annotation.AuditCreate",
+            AUDIT_UPDATE,
+            "com.thinkon.common.audit.annotation.AuditDelete",
+            "com.thinkon.common.audit.annotation.AuditBatchCreate",
+            AUDIT_BATCH_UPDATE,
+            "com.thinkon.common.audit.annotation.AuditBatchDelete");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement auditClass = processingEnv.getElementUtils().getTypeElement(AUDIT_CLASS);
+        if (auditClass == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(auditClass)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to generate the audit proxy: " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the proxy class of an @AuditClass interface.
+     *
+     * @param type the interface to proxy
+     * @throws IOException if the source file cannot be written
+     */
+    private void generate(TypeElement type) throws IOException {
+        String packageName = GeneratedSources.packageName(processingEnv, type);
+        String className = GeneratedSources.simpleName(processingEnv, type, AuditProxyInvoker.GENERATED_SUFFIX);
+        String interfaceName = type.getQualifiedName().toString();
+        String typeParameters = typeParameters(type.getTypeParameters());
+        String typeArguments = type.getTypeParameters().isEmpty() ? "" : type.getTypeParameters()
+                .stream()
+                .map(t -> t.getSimpleName().toString())
+                .collect(Collectors.joining(", ", "<", ">"));
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))
+                .stream()
+                .filter(m -> m.getEnclosingElement().getKind() == ElementKind.INTERFACE)
+                .filter(m -> !m.getModifiers().contains(Modifier.STATIC))
+                .filter(m -> !m.getModifiers().contains(Modifier.PRIVATE))
+                .collect(Collectors.toList());
+        Set<String> findByIdMethodNames = findByIdMethodNames(methods);
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + className + typeParameters + " implements "
+                    + interfaceName + typeArguments + " {");
+            out.println();
+            out.println("    private final " + interfaceName + typeArguments + " delegate;");
+            out.println("    private final com.thinkon.common.audit.cache.PreImageCache preImageCache;");
+            List<String> processorFields = new ArrayList<>();
+            for (int i = 0; i < methods.size(); i++) {
+                if (isAudited(methods.get(i))) {
+                    String field = methods.get(i).getSimpleName() + "Processor" + i;
+                    processorFields.add(field);
+                    out.println("    private final com.thinkon.common.audit.action.AuditClassProcessor "
+                            + field + ";");
+                } else {
+                    processorFields.add(null);
+                }
+            }
+            out.println();
+            out.println("    public " + className + "(" + interfaceName + typeArguments + " delegate, "
+                    + "com.thinkon.common.audit.service.AuditLogService auditLogService, "
+                    + "com.thinkon.common.audit.cache.PreImageCache preImageCache, "
+                    + "com.thinkon.common.audit.policy.AuditPolicyRegistry policyRegistry, "
+                    + "com.thinkon.common.audit.metrics.AuditMetrics metrics) {");
+            out.println("        this.delegate = delegate;");
+            out.println("        this.preImageCache = preImageCache;");
+            for (int i = 0; i < methods.size(); i++) {
+                if (processorFields.get(i) == null) {
+                    continue;
+                }
+                ExecutableElement method = methods.get(i);
+                String parameterClasses = method.getParameters()
+                        .stream()
+                        .map(p -> processingEnv.getTypeUtils().erasure(p.asType()) + ".class")
+                        .collect(Collectors.joining(", "));
+                out.println("        this." + processorFields.get(i) + " = com.thinkon.common.audit.AuditProxyInvoker"
+                        + ".processor(" + interfaceName + ".class, delegate, auditLogService, preImageCache, "
+                        + "policyRegistry, metrics, \""
+                        + method.getSimpleName() + "\"" + (parameterClasses.isEmpty() ? "" : ", " + parameterClasses)
+                        + ");");
+            }
+            out.println("    }");
+            for (int i = 0; i < methods.size(); i++) {
+                out.println();
+                writeMethod(out, type, methods.get(i), processorFields.get(i),
+                        findByIdMethodNames.contains(methods.get(i).getSimpleName().toString()));
+            }
+            out.println("}");
+        }
+    }
+
+    /**
+     * Writes one method of the generated proxy.
+     *
+     * @param out            the writer of the generated source
+     * @param type           the proxied interface
+     * @param method         the method to implement
+     * @param processorField the processor field of an audited method, or null to delegate directly
+     * @param findById       whether the method is the findById or findByIds method of an audited update
+     */
+    private void writeMethod(PrintWriter out, TypeElement type, ExecutableElement method, String processorField,
+            boolean findById) {
+        ExecutableType executableType = (ExecutableType) processingEnv.getTypeUtils()
+                .asMemberOf((DeclaredType) type.asType(), method);
+        List<? extends VariableElement> parameters = method.getParameters();
+        List<String> declarations = new ArrayList<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            TypeMirror parameterType = executableType.getParameterTypes().get(i);
+            String declaredType = method.isVarArgs() && i == parameters.size() - 1
+                    ? ((ArrayType) parameterType).getComponentType() + "..."
+                    : parameterType.toString();
+            declarations.add(declaredType + " " + parameters.get(i).getSimpleName());
+        }
+        String arguments = parameters.stream()
+                .map(p -> p.getSimpleName().toString())
+                .collect(Collectors.joining(", "));
+        TypeMirror returnType = executableType.getReturnType();
+        boolean isVoid = returnType.getKind() == TypeKind.VOID;
+        String thrown = executableType.getThrownTypes().isEmpty() ? "" : executableType.getThrownTypes()
+                .stream()
+                .map(TypeMirror::toString)
+                .collect(Collectors.joining(", ", " throws ", ""));
+        String methodTypeParameters = typeParameters(method.getTypeParameters());
+
+        out.println("    @Override");
+        out.println("    public " + (methodTypeParameters.isEmpty() ? "" : methodTypeParameters + " ")
+                + returnType + " " + method.getSimpleName() + "(" + String.join(", ", declarations) + ")"
+                + thrown + " {");
+        if (processorField == null && findById && !isVoid) {
+            out.println("        return (" + returnType + ") com.thinkon.common.audit.AuditProxyInvoker.cachePreImage("
+                    + "this.preImageCache, this.delegate." + method.getSimpleName() + "(" + arguments + "));");
+        } else if (processorField == null) {
+            out.println("        " + (isVoid ? "" : "return ") + "this.delegate." + method.getSimpleName()
+                    + "(" + arguments + ");");
+        } else {
+            String call = "com.thinkon.common.audit.AuditProxyInvoker.invoke(this." + processorField
+                    + ", new Object[] {" + arguments + "})";
+            out.println("        " + (isVoid ? call : "return (" + returnType + ") " + call) + ";");
+        }
+        out.println("    }");
+    }
+
+    /**
+     * Checks if a method carries one of the audit annotations.
+     *
+     * @param method the method to check
+     * @return true if the method is audited, false otherwise
+     */
+    private boolean isAudited(ExecutableElement method) {
+        return method.getAnnotationMirrors()
+                .stream()
+                .map(a -> ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().toString())
+                .anyMatch(AUDIT_ANNOTATIONS::contains);
+    }
+
+    /**
+     * Collects the findById and findByIds method names of the audited updates, taking the annotation defaults into
+     * account.
+     *
+     * @param methods the methods of the proxied interface
+     * @return the findById and findByIds method names
+     */
+    private Set<String> findByIdMethodNames(List<ExecutableElement> methods) {
+        Set<String> names = new HashSet<>();
+        for (ExecutableElement method : methods) {
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                        .toString();
+                String member = AUDIT_UPDATE.equals(annotationName) ? "findById"
+                        : AUDIT_BATCH_UPDATE.equals(annotationName) ? "findByIds" : null;
+                if (member == null) {
+                    continue;
+                }
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : processingEnv
+                        .getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals(member)) {
+                        names.add(value.getValue().getValue().toString());
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Renders a list of type parameters with their bounds.
+     *
+     * @param typeParameters the type parameters to render
+     * @return the type parameter declaration, or an empty string if there are none
+     */
+    private String typeParameters(List<? extends TypeParameterElement> typeParameters) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        return typeParameters.stream()
+                .map(t -> {
+                    List<String> bounds = t.getBounds()
+                            .stream()
+                            .map(TypeMirror::toString)
+                            .filter(b -> !"java.lang.Object".equals(b))
+                            .collect(Collectors.toList());
+                    return t.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + String.join(" & ", bounds));
+                })
+                .collect(Collectors.joining(", ", "<", ">"));
+    }
+}
@@ -0,0 +1,394 @@
+package com.thinkon.common.audit.apt;
+
+import com.thinkon.common.audit.AuditUtil;
+import com.thinkon.common.audit.annotation.AuditFieldMapping;
+import com.thinkon.common.audit.annotation.AuditId;
+import com.thinkon.common.audit.annotation.AuditProperties;
+import com.thinkon.common.audit.annotation.AuditProperty;
+import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.processfield.AuditDescriptor;
+import com.thinkon.common.audit.processfield.diff.DefaultAuditDiff;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor that generates, for every class annotated with
+ * {@link com.thinkon.common.audit.annotation.Auditable}, an {@link AuditDescriptor} named
+ * {@code <Entity>AuditDescriptor}. The audit properties declared with {@link AuditProperty},
+ * {@link AuditProperties}/{@link AuditFieldMapping}, {@link AuditId} and {@link AuditUser} are resolved at build
+ * time, and the generated class reads the fields directly (or through their getters when they are private). The
+ * {@link AuditId} and {@link AuditUser} fields may be inherited from a superclass, as at runtime.
+ *
+ * <p>When a field can be read neither directly nor through a getter, no descriptor is generated and the runtime
+ * keeps using the reflective path for that class.</p>
+ */
+@SupportedAnnotationTypes(AuditableDescriptorProcessor.AUDITABLE)
+public class AuditableDescriptorProcessor extends AbstractProcessor {
+
+    static final String AUDITABLE = "com.thinkon.common.audit.annotation.Auditable";
+
+    private static final String PACKAGE = "com.thinkon.common.audit.";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement auditable = processingEnv.getElementUtils().getTypeElement(AUDITABLE);
+        if (auditable == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(auditable)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to generate the audit descriptor: " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the descriptor class of an @Auditable class, unless one of its fields cannot be read.
+     *
+     * @param type the auditable class
+     * @throws IOException if the source file cannot be written
+     */
+    private void generate(TypeElement type) throws IOException {
+        if (!isAccessible(type)) {
+            note(type, "the class is private");
+            return;
+        }
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        VariableElement idField = findFieldByAnnotation(type, AuditId.class);
+        VariableElement auditUserField = findFieldByAnnotation(type, AuditUser.class);
+        String idAccess = idField == null ? null : accessExpression(type, idField);
+        String auditUserAccess = auditUserField == null ? null : accessExpression(type, auditUserField);
+        if (idField != null && idAccess == null) {
+            note(type, "field " + idField.getSimpleName() + " cannot be read and has no getter");
+            return;
+        }
+        if (auditUserField != null && auditUserAccess == null) {
+            note(type, "field " + auditUserField.getSimpleName() + " cannot be read and has no getter");
+            return;
+        }
+        List<DescribedField> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || isDirtyTracker(field)
+                    || field.getAnnotation(AuditId.class) != null || field.getAnnotation(AuditUser.class) != null) {
+                continue;
+            }
+            String access = accessExpression(type, field);
+            if (access == null) {
+                note(type, "field " + field.getSimpleName() + " is private and has no getter");
+                return;
+            }
+            AuditProperty auditProperty = field.getAnnotation(AuditProperty.class);
+            if (auditProperty != null && auditProperty.ignore()) {
+                continue;
+            }
+            fields.add(new DescribedField(field, access));
+        }
+
+        String packageName = GeneratedSources.packageName(processingEnv, type);
+        String className = GeneratedSources.simpleName(processingEnv, type, AuditDescriptor.GENERATED_SUFFIX);
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + className + " implements " + PACKAGE
+                    + "processfield.AuditDescriptor<" + typeName + "> {");
+            for (int i = 0; i < fields.size(); i++) {
+                out.println();
+                writeConstants(out, fields.get(i), i);
+            }
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.Map<String, " + PACKAGE + "entity.AuditFieldEntity> process("
+                    + typeName + " instance) {");
+            out.println("        return process(instance, java.util.Collections.emptyMap());");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.Map<String, " + PACKAGE + "entity.AuditFieldEntity> process("
+                    + typeName + " instance, java.util.Map<String, " + PACKAGE
+                    + "entity.AuditFieldEntity> previous) {");
+            out.println("        java.util.Map<String, " + PACKAGE + "entity.AuditFieldEntity> result = "
+                    + "new java.util.HashMap<>();");
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("        put(result, PROCESSOR_" + i + ".process(PROPERTY_" + i + ", MAPPINGS_" + i
+                        + ", DIFF_" + i + ", " + fields.get(i).access + ", previous.get("
+                        + literal(fields.get(i).element.getSimpleName().toString()) + ")));");
+            }
+            out.println("        return result;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Object getIdValue(" + typeName + " instance) {");
+            out.println("        return " + (idAccess == null ? "null" : idAccess) + ";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Object getAuditUser(" + typeName + " instance) {");
+            out.println("        return " + (auditUserAccess == null ? "null" : auditUserAccess) + ";");
+            out.println("    }");
+            out.println();
+            out.println("    private static void put(java.util.Map<String, " + PACKAGE
+                    + "entity.AuditFieldEntity> result, " + PACKAGE + "entity.AuditFieldEntity entity) {");
+            out.println("        if (entity != null) {");
+            out.println("            result.put(entity.getFieldName(), entity);");
+            out.println("        }");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    /**
+     * Writes the constants resolved at build time for one field: its audit property, the mappings of its
+     * sub-properties, its diff and its field processor, the deep processor for fields compared leaf by leaf. A keyed
+     * list diff depends on the element class, so it is taken from the
+     * {@link com.thinkon.common.audit.processfield.AuditClassMetadata} of the field instead.
+     *
+     * @param out   the writer of the generated source
+     * @param field the described field
+     * @param index the index of the field, used to name the constants
+     */
+    private void writeConstants(PrintWriter out, DescribedField field, int index) {
+        VariableElement element = field.element;
+        String fieldName = element.getSimpleName().toString();
+        AuditProperty auditProperty = element.getAnnotation(AuditProperty.class);
+        AuditProperties auditProperties = element.getAnnotation(AuditProperties.class);
+
+        String label = auditProperty == null || auditProperty.label().isEmpty()
+                ? AuditUtil.toSqlPattern(fieldName) : auditProperty.label();
+        String propertyDiff = auditProperty == null ? DefaultAuditDiff.class.getName()
+                : className(auditProperty::diff);
+        String diff = auditProperties == null ? propertyDiff : className(auditProperties::diff);
+        List<AuditFieldMapping> mappings = auditProperties == null ? List.of() : Arrays.asList(auditProperties.value());
+
+        out.println("    private static final " + PACKAGE + "entity.AuditPropertyEntity PROPERTY_" + index + " = "
+                + PACKAGE + "entity.AuditPropertyEntity.builder()");
+        out.println("            .label(" + literal(label) + ")");
+        out.println("            .field(" + literal(fieldName) + ")");
+        out.println("            .ignoreNull(" + (auditProperty != null && auditProperty.ignoreNullOrEmpty()) + ")");
+        out.println("            .diffClass(" + propertyDiff + ".class)");
+        out.println("            .build();");
+        out.println("    private static final java.util.List<" + PACKAGE + "entity.AuditPropertyEntity> MAPPINGS_"
+                + index + " = java.util.List.of(" + mappings.stream()
+                .map(m -> PACKAGE + "entity.AuditPropertyEntity.builder()"
+                        + ".label(" + literal(m.label().isEmpty() ? AuditUtil.toSqlPattern(m.field()) : m.label()) + ")"
+                        + ".field(" + literal(m.field()) + ")"
+                        + ".ignoreNull(" + m.ignoreNullOrEmpty() + ")"
+                        + ".build()")
+                .collect(Collectors.joining(",\n            ", mappings.isEmpty() ? "" : "\n            ", ""))
+                + ");");
+        if (auditProperties != null && !auditProperties.keyField().isEmpty()) {
+            out.println("    private static final " + PACKAGE + "processfield.diff.AuditDiff<?> DIFF_" + index + " = "
+                    + PACKAGE + "processfield.AuditClassMetadata.of("
+                    + processingEnv.getTypeUtils().erasure(element.getEnclosingElement().asType()) + ".class)"
+                    + ".getField(" + literal(fieldName) + ").getAuditDiff();");
+        } else {
+            out.println("    private static final " + PACKAGE + "processfield.diff.AuditDiff<?> DIFF_" + index + " = "
+                    + PACKAGE + "processfield.AuditFieldMetadata.getAuditDiff(" + diff + ".class);");
+        }
+        if (auditProperty != null && auditProperty.deep()) {
+            out.println("    private static final " + PACKAGE + "processfield.FieldProcessor PROCESSOR_" + index + " = "
+                    + PACKAGE + "processfield.FieldProcessorContext.getDeepProcessor();");
+        } else {
+            out.println("    private static final " + PACKAGE + "processfield.FieldProcessor PROCESSOR_" + index + " = "
+                    + PACKAGE + "processfield.FieldProcessorContext.getProcessor("
+                    + processingEnv.getTypeUtils().erasure(element.asType()) + ".class);");
+        }
+    }
+
+    /**
+     * Finds the first field of the class or of one of its superclasses that carries the given annotation, the way
+     * {@link com.thinkon.common.audit.processfield.FieldProcessorContext#getFieldByAnnotation} does at runtime.
+     * Fields declared by the class itself take precedence over inherited ones.
+     *
+     * @param type       the auditable class
+     * @param annotation the annotation to look for
+     * @return the annotated field, or null if there is none
+     */
+    private VariableElement findFieldByAnnotation(TypeElement type, Class<? extends Annotation> annotation) {
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getAnnotation(annotation) != null) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the superclass of a class.
+     *
+     * @param type the class
+     * @return the superclass, or null for {@code Object} and interfaces
+     */
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    /**
+     * Builds the expression reading a field from the {@code instance} variable of the generated code. Fields that
+     * the generated class, in the package of the auditable class, can see are read directly, the others through
+     * their getter.
+     *
+     * @param type  the auditable class
+     * @param field the field to read, declared by the class or one of its superclasses
+     * @return the access expression, or null if the field cannot be read from the generated class
+     */
+    private String accessExpression(TypeElement type, VariableElement field) {
+        String fieldName = field.getSimpleName().toString();
+        if (isVisible(type, field)) {
+            return "instance." + fieldName;
+        }
+        String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        Set<String> getterNames = field.asType().getKind() == TypeKind.BOOLEAN
+                ? Set.of("get" + capitalized, "is" + capitalized) : Set.of("get" + capitalized);
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))
+                .stream()
+                .filter(m -> getterNames.contains(m.getSimpleName().toString()))
+                .filter(m -> m.getParameters().isEmpty())
+                .filter(m -> isVisible(type, m))
+                .filter(m -> !m.getModifiers().contains(Modifier.STATIC))
+                .filter(m -> processingEnv.getTypeUtils().isSameType(m.getReturnType(), field.asType()))
+                .findFirst()
+                .map(ExecutableElement::getSimpleName)
+                .map(n -> "instance." + n + "()")
+                .orElse(null);
+    }
+
+    /**
+     * Checks if a member of the auditable class or of one of its superclasses can be used from the generated class,
+     * which lives in the package of the auditable class.
+     *
+     * @param type   the auditable class
+     * @param member the field or method
+     * @return true if the member is public, or neither private nor declared in another package
+     */
+    private boolean isVisible(TypeElement type, Element member) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !member.getModifiers().contains(Modifier.PRIVATE)
+                && processingEnv.getElementUtils().getPackageOf(member)
+                .equals(processingEnv.getElementUtils().getPackageOf(type));
+    }
+
+    /**
+     * Checks if a field holds the {@code AuditDirtyTracker} of the entity, which is not an audited value.
+     *
+     * @param field the field to check
+     * @return true if the field is a dirty tracker, false otherwise
+     */
+    private boolean isDirtyTracker(VariableElement field) {
+        return processingEnv.getTypeUtils().erasure(field.asType()).toString()
+                .equals(PACKAGE + "processfield.AuditDirtyTracker");
+    }
+
+    /**
+     * Checks if the class and all its enclosing classes can be referenced from the same package.
+     *
+     * @param type the class to check
+     * @return true if the class is accessible, false otherwise
+     */
+    private boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Reads a class-valued annotation attribute, which is only available as a type mirror at build time.
+     *
+     * @param attribute the annotation attribute
+     * @return the canonical name of the class
+     */
+    private String className(Supplier<Class<?>> attribute) {
+        try {
+            return attribute.get().getCanonicalName();
+        } catch (MirroredTypeException e) {
+            return processingEnv.getTypeUtils().erasure(e.getTypeMirror()).toString();
+        }
+    }
+
+    /**
+     * Renders a string as a Java literal.
+     *
+     * @param value the string to render
+     * @return the quoted and escaped literal
+     */
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Reports that no descriptor is generated for a class.
+     *
+     * @param type   the auditable class
+     * @param reason why the descriptor is skipped
+     */
+    private void note(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "No audit descriptor generated for " + type.getQualifiedName() + ": " + reason
+                        + ". The reflective audit path is used instead.", type);
+    }
+
+    /**
+     * A field of the auditable class together with the expression reading it.
+     */
+    private static final class DescribedField {
+        private final VariableElement element;
+        private final String access;
+
+        private DescribedField(VariableElement element, String access) {
+            this.element = element;
+            this.access = access;
+        }
+    }
+}
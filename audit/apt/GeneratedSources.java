@@ -0,0 +1,42 @@
+package com.thinkon.common.audit.apt;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Naming helpers shared by the audit annotation processors. The rules mirror
+ * {@link com.thinkon.common.audit.AuditUtil#generatedClassName} so the runtime finds the generated classes.
+ */
+final class GeneratedSources {
+
+    private GeneratedSources() {
+    }
+
+    /**
+     * Returns the package of a type, or an empty string for the unnamed package.
+     *
+     * @param processingEnv the processing environment
+     * @param type          the type to inspect
+     * @return the package name
+     */
+    static String packageName(ProcessingEnvironment processingEnv, TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    /**
+     * Returns the simple name of the class generated for a type.
+     *
+     * @param processingEnv the processing environment
+     * @param type          the type the class is generated for
+     * @param suffix        the suffix identifying the kind of generated class
+     * @return the simple name of the generated class
+     */
+    static String simpleName(ProcessingEnvironment processingEnv, TypeElement type, String suffix) {
+        String packageName = packageName(processingEnv, type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return simpleName.replace('$', '_') + suffix;
+    }
+}
@@ -0,0 +1,309 @@
+package com.thinkon.common.audit.cache;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.processfield.AuditClassMetadata;
+import com.thinkon.common.audit.processfield.FieldProcessorContext;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the audited state of entities, keyed by (table name, ID), used by updates as their pre-image
+ * instead of calling findById. Entries are snapshots taken when the entity is read through a proxied findById method
+ * or written by an audited create or update, so later changes to the entity objects do not leak into the cache.
+ * Deletes invalidate their entry.
+ *
+ * <p>The cache is split into independently locked segments, each evicting its least recently used entries once
+ * full. Entries also expire after a fixed time to live. When the entity class declares an
+ * {@link com.thinkon.common.audit.annotation.AuditVersion} field, an entry whose version differs from the version of
+ * the entity being updated is treated as stale and dropped.</p>
+ */
+public final class PreImageCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize the maximum number of cached entities
+     * @param ttlMillis   the time, in milliseconds, after which an entry expires
+     * @throws AuditException if the size or time to live is not positive
+     */
+    public PreImageCache(int maximumSize, long ttlMillis) {
+        if (maximumSize < 1 || ttlMillis < 1) {
+            throw new AuditException("The pre-image cache size and time to live must be positive");
+        }
+        int segmentCount = Math.min(SEGMENTS, maximumSize);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(Math.max(1, maximumSize / segmentCount));
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Retrieves the cached pre-image of an entity.
+     *
+     * @param tableName the table of the entity
+     * @param id        the ID of the entity
+     * @param current   the entity about to be written, whose version the entry must match, or null
+     * @return a copy of the cached snapshot, or null on a miss
+     */
+    public Map<String, AuditFieldEntity> get(String tableName, Object id, Object current) {
+        if (id == null) {
+            misses.increment();
+            return null;
+        }
+        Key key = new Key(tableName, id.toString());
+        Segment segment = segmentOf(key);
+        CachedImage entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && System.nanoTime() - entry.createdNanos > ttlNanos) {
+                segment.remove(key);
+                entry = null;
+            }
+            if (entry != null && current != null && !Objects.equals(entry.version, versionOf(current))) {
+                segment.remove(key);
+                staleCount.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new HashMap<>(entry.snapshot);
+    }
+
+    /**
+     * Caches the current state of an entity read from the database. Optional results are unwrapped, collections
+     * returned by findByIds methods are cached element by element, and objects that are not auditable entities with
+     * an ID are ignored.
+     *
+     * @param entity the entity, an {@link Optional} of it or a collection of entities
+     */
+    public void put(Object entity) {
+        if (entity instanceof Collection) {
+            ((Collection<?>) entity).forEach(this::put);
+            return;
+        }
+        if (entity instanceof Optional) {
+            entity = ((Optional<?>) entity).orElse(null);
+        }
+        if (entity == null) {
+            return;
+        }
+        AuditClassMetadata metadata = AuditClassMetadata.of(entity.getClass());
+        if (metadata.getTableName() == null || metadata.getIdAccessor() == null) {
+            return;
+        }
+        Object id = metadata.getIdAccessor().get(entity);
+        if (id != null) {
+            this.put(metadata.getTableName(), id, entity, FieldProcessorContext.processAuditableEntity(entity));
+        }
+    }
+
+    /**
+     * Caches the snapshot of an entity written by an audited method.
+     *
+     * @param tableName the table of the entity
+     * @param id        the ID of the entity
+     * @param entity    the written entity, used for its version
+     * @param snapshot  the processed fields of the entity
+     */
+    public void put(String tableName, Object id, Object entity, Map<String, AuditFieldEntity> snapshot) {
+        if (id == null) {
+            return;
+        }
+        Key key = new Key(tableName, id.toString());
+        CachedImage entry = new CachedImage(new HashMap<>(snapshot), versionOf(entity), System.nanoTime());
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes the cached pre-image of an entity.
+     *
+     * @param tableName the table of the entity
+     * @param id        the ID of the entity
+     */
+    public void invalidate(String tableName, Object id) {
+        if (id == null) {
+            return;
+        }
+        Key key = new Key(tableName, id.toString());
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Removes every cached pre-image.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached pre-images, including expired ones not evicted yet.
+     *
+     * @return the cache size.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that fell back to findById, including stale entries.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries dropped because their version did not match the updated entity.
+     *
+     * @return the stale count.
+     */
+    public long getStaleCount() {
+        return staleCount.sum();
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache.
+     *
+     * @return the hit rate, between 0 and 1, or 0 if there was no lookup.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Reads the {@link com.thinkon.common.audit.annotation.AuditVersion} field of an entity.
+     *
+     * @param entity the entity
+     * @return the version, or null if the entity has no version field
+     */
+    private static Object versionOf(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        FieldAccessor accessor = AuditClassMetadata.of(entity.getClass()).getVersionAccessor();
+        return accessor == null ? null : accessor.get(entity);
+    }
+
+    /**
+     * Finds the segment holding a key.
+     *
+     * @param key the cache key
+     * @return the segment of the key
+     */
+    private Segment segmentOf(Key key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * Access-ordered map evicting its least recently used entry beyond its capacity. Guarded by its own monitor.
+     */
+    private static final class Segment extends LinkedHashMap<Key, CachedImage> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedImage> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Cache key of an entity.
+     */
+    private static final class Key {
+        private final String tableName;
+        private final String id;
+
+        private Key(String tableName, String id) {
+            this.tableName = tableName;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(tableName, other.tableName) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(tableName) + id.hashCode();
+        }
+    }
+
+    /**
+     * Cached snapshot of an entity with its version.
+     */
+    private static final class CachedImage {
+        private final Map<String, AuditFieldEntity> snapshot;
+        private final Object version;
+        private final long createdNanos;
+
+        private CachedImage(Map<String, AuditFieldEntity> snapshot, Object version, long createdNanos) {
+            this.snapshot = snapshot;
+            this.version = version;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
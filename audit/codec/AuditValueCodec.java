@@ -0,0 +1,39 @@
+package com.thinkon.common.audit.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes the old and new values of audit log changes into the bytes stored in the {@code audit_log_changes} BLOB
+ * columns. Every stored value starts with a header holding the {@link #getFormat() format byte} of its codec, which
+ * {@link AuditValueCodecs} uses to pick the codec reading it back.
+ * Implementations must be thread-safe.
+ */
+public interface AuditValueCodec {
+
+    /**
+     * Gets the format byte identifying the values written by this codec.
+     *
+     * @return the format byte, between {@link AuditValueCodecs#MIN_FORMAT} and {@link AuditValueCodecs#MAX_FORMAT}
+     */
+    byte getFormat();
+
+    /**
+     * Encodes a value, without its header.
+     *
+     * @param value the textual value of the change
+     * @param out   the stream receiving the encoded value
+     * @throws IOException if the value cannot be written
+     */
+    void encode(String value, OutputStream out) throws IOException;
+
+    /**
+     * Decodes a value, whose header has already been read.
+     *
+     * @param in the stream positioned after the header
+     * @return the textual value of the change
+     * @throws IOException if the value cannot be read
+     */
+    String decode(InputStream in) throws IOException;
+}
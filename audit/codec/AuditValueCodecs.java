@@ -0,0 +1,214 @@
+package com.thinkon.common.audit.codec;
+
+import com.thinkon.common.audit.AuditException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import org.jdbi.v3.core.config.JdbiConfig;
+
+/**
+ * Jdbi configuration of the codecs of audit log change values, used by the
+ * {@link com.thinkon.common.audit.dao.AuditLogDao} to write and read the {@code old_value} and {@code new_value}
+ * columns.
+ *
+ * <p>Values are written by the write codec, {@link JsonAuditValueCodec} by default, or by the compression codec,
+ * {@link DeflateAuditValueCodec} by default, once they reach the compression threshold. Each value starts with a
+ * two-byte header: the {@value #HEADER_MARKER} marker, then the format byte of its codec. Values written before
+ * codecs were introduced have no header and are read as UTF-8 text, so existing rows need no migration: text never
+ * starts with a NUL character, and a value whose format has no registered codec is read as text as well.</p>
+ */
+public final class AuditValueCodecs implements JdbiConfig<AuditValueCodecs> {
+
+    /**
+     * First byte of the header of an encoded value, which no legacy text value starts with.
+     */
+    public static final int HEADER_MARKER = 0x00;
+
+    /**
+     * Lowest format byte of a codec.
+     */
+    public static final int MIN_FORMAT = 0x01;
+
+    /**
+     * Highest format byte of a codec.
+     */
+    public static final int MAX_FORMAT = 0x1F;
+
+    /**
+     * Default length, in characters, from which values are compressed.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final AuditValueCodec[] codecs;
+    private AuditValueCodec writeCodec;
+    private AuditValueCodec compressionCodec;
+    private int compressionThreshold;
+
+    /**
+     * Creates the default configuration, with the JSON and deflate codecs.
+     */
+    public AuditValueCodecs() {
+        this.codecs = new AuditValueCodec[MAX_FORMAT + 1];
+        this.compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+        this.setWriteCodec(new JsonAuditValueCodec());
+        this.setCompressionCodec(new DeflateAuditValueCodec());
+    }
+
+    /**
+     * Creates a copy of a configuration.
+     *
+     * @param other the configuration to copy
+     */
+    private AuditValueCodecs(AuditValueCodecs other) {
+        this.codecs = other.codecs.clone();
+        this.writeCodec = other.writeCodec;
+        this.compressionCodec = other.compressionCodec;
+        this.compressionThreshold = other.compressionThreshold;
+    }
+
+    /**
+     * Creates a copy of this configuration.
+     *
+     * @return the copy
+     */
+    @Override
+    public AuditValueCodecs createCopy() {
+        return new AuditValueCodecs(this);
+    }
+
+    /**
+     * Registers a codec used to read the values starting with its format byte.
+     *
+     * @param codec the codec
+     * @return this configuration
+     * @throws AuditException if the format byte of the codec is out of range
+     */
+    public AuditValueCodecs register(AuditValueCodec codec) {
+        int format = codec.getFormat();
+        if (format < MIN_FORMAT || format > MAX_FORMAT) {
+            throw new AuditException("The format byte of an audit value codec must be between " + MIN_FORMAT
+                    + " and " + MAX_FORMAT + ": " + format);
+        }
+        codecs[format] = codec;
+        return this;
+    }
+
+    /**
+     * Sets and registers the codec writing the values below the compression threshold.
+     *
+     * @param codec the codec
+     * @return this configuration
+     * @throws AuditException if the format byte of the codec is out of range
+     */
+    public AuditValueCodecs setWriteCodec(AuditValueCodec codec) {
+        this.register(codec);
+        this.writeCodec = codec;
+        return this;
+    }
+
+    /**
+     * Sets and registers the codec writing the values that reach the compression threshold.
+     *
+     * @param codec the codec
+     * @return this configuration
+     * @throws AuditException if the format byte of the codec is out of range
+     */
+    public AuditValueCodecs setCompressionCodec(AuditValueCodec codec) {
+        this.register(codec);
+        this.compressionCodec = codec;
+        return this;
+    }
+
+    /**
+     * Sets the length, in characters, from which values are written by the compression codec.
+     *
+     * @param compressionThreshold the threshold, or 0 to never compress
+     * @return this configuration
+     * @throws AuditException if the threshold is negative
+     */
+    public AuditValueCodecs setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new AuditException("The audit value compression threshold must not be negative");
+        }
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    /**
+     * Gets the length, in characters, from which values are written by the compression codec.
+     *
+     * @return the threshold, or 0 if values are never compressed
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Encodes a value with its header.
+     *
+     * @param value the textual value of a change
+     * @return the stored bytes, or null if the value is null
+     * @throws AuditException if the value cannot be encoded
+     */
+    public byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        AuditValueCodec codec = compressionThreshold > 0 && value.length() >= compressionThreshold
+                ? compressionCodec : writeCodec;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(value.length(), BUFFER_SIZE) + 2);
+        out.write(HEADER_MARKER);
+        out.write(codec.getFormat());
+        try {
+            codec.encode(value, out);
+        } catch (IOException e) {
+            throw new AuditException("Failed to encode an audit value", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a stored value with the codec of its header, or as UTF-8 text if it has no header or no codec is
+     * registered for its format.
+     *
+     * @param in the stream of the stored bytes
+     * @return the textual value of the change
+     * @throws IOException if the value cannot be read
+     */
+    public String decode(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        int marker = pushback.read();
+        if (marker == -1) {
+            return "";
+        }
+        if (marker != HEADER_MARKER) {
+            pushback.unread(marker);
+            return readText(pushback);
+        }
+        int format = pushback.read();
+        AuditValueCodec codec = format < MIN_FORMAT || format > MAX_FORMAT ? null : codecs[format];
+        if (codec == null) {
+            if (format != -1) {
+                pushback.unread(format);
+            }
+            pushback.unread(marker);
+            return readText(pushback);
+        }
+        return codec.decode(pushback);
+    }
+
+    /**
+     * Reads a stream as UTF-8 text.
+     *
+     * @param in the stream
+     * @return the text
+     * @throws IOException if the stream cannot be read
+     */
+    static String readText(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
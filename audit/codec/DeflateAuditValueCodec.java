@@ -0,0 +1,87 @@
+package com.thinkon.common.audit.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codec storing values as deflate-compressed UTF-8 text. The JSON of list and object fields is repetitive and
+ * usually shrinks several times, at the cost of compressing it on write and inflating it on read, so
+ * {@link AuditValueCodecs} only uses this codec for values above its compression threshold.
+ */
+public final class DeflateAuditValueCodec implements AuditValueCodec {
+
+    /**
+     * Format byte of deflate-compressed values.
+     */
+    public static final byte FORMAT = 0x02;
+
+    private final int level;
+
+    /**
+     * Creates a codec with the default compression level.
+     */
+    public DeflateAuditValueCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     */
+    public DeflateAuditValueCodec(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Gets the format byte identifying the values written by this codec.
+     *
+     * @return {@link #FORMAT}
+     */
+    @Override
+    public byte getFormat() {
+        return FORMAT;
+    }
+
+    /**
+     * Writes a value as deflate-compressed UTF-8 text.
+     *
+     * @param value the textual value of the change
+     * @param out   the stream receiving the encoded value
+     * @throws IOException if the value cannot be written
+     */
+    @Override
+    public void encode(String value, OutputStream out) throws IOException {
+        Deflater deflater = new Deflater(level);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater);
+            deflated.write(value.getBytes(StandardCharsets.UTF_8));
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflates a value and reads it as UTF-8 text.
+     *
+     * @param in the stream positioned after the header
+     * @return the textual value of the change
+     * @throws IOException if the value cannot be read
+     */
+    @Override
+    public String decode(InputStream in) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            return AuditValueCodecs.readText(new InflaterInputStream(in, inflater));
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.thinkon.common.audit.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codec storing values as UTF-8 text, the same bytes as legacy rows behind a header. Values are kept as the
+ * JSON or plain text built by the audit, so they can be written to responses without being parsed.
+ */
+public final class JsonAuditValueCodec implements AuditValueCodec {
+
+    /**
+     * Format byte of UTF-8 text values.
+     */
+    public static final byte FORMAT = 0x01;
+
+    /**
+     * Gets the format byte identifying the values written by this codec.
+     *
+     * @return {@link #FORMAT}
+     */
+    @Override
+    public byte getFormat() {
+        return FORMAT;
+    }
+
+    /**
+     * Writes a value as UTF-8 text.
+     *
+     * @param value the textual value of the change
+     * @param out   the stream receiving the encoded value
+     * @throws IOException if the value cannot be written
+     */
+    @Override
+    public void encode(String value, OutputStream out) throws IOException {
+        out.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a value as UTF-8 text.
+     *
+     * @param in the stream positioned after the header
+     * @return the textual value of the change
+     * @throws IOException if the value cannot be read
+     */
+    @Override
+    public String decode(InputStream in) throws IOException {
+        return AuditValueCodecs.readText(in);
+    }
+}
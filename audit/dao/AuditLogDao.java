@@ -1,40 +1,104 @@
 package com.thinkon.common.audit.dao;
 
 import com.thinkon.common.audit.annotation.AuditClass;
+import com.thinkon.common.audit.codec.AuditValueCodecs;
 import com.thinkon.common.audit.entity.Action;
 import com.thinkon.common.audit.entity.AuditLog;
 import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.partition.AuditPartitions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.result.LinkedHashMapRowReducer;
+import org.jdbi.v3.core.result.ResultIterator;
 import org.jdbi.v3.core.result.RowView;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.sqlobject.SqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterFieldMapper;
-import org.jdbi.v3.sqlobject.config.RegisterFieldMappers;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindBeanList;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowMapper;
 import org.jdbi.v3.sqlobject.statement.UseRowReducer;
 import org.jdbi.v3.sqlobject.transaction.Transaction;
 /**
- * Data Access Object for managing audit logs and changes.
+ * Data Access Object for managing audit logs and changes. When the {@link AuditPartitions} of the Jdbi instance are
+ * enabled, the statements are routed to the monthly partitions of the audit tables: writes go to the partition of
+ * the date of each audit log, and reads go through the partitions of their date range, from the most recent to the
+ * oldest.
  */
 @AuditClass
-@RegisterFieldMappers({
-        @RegisterFieldMapper(AuditLog.class),
-        @RegisterFieldMapper(value = AuditLogChange.class, prefix = "ac")})
-public interface AuditLogDao {
+@RegisterFieldMapper(AuditLog.class)
+@RegisterRowMapper(AuditLogDao.AuditLogChangeMapper.class)
+public interface AuditLogDao extends SqlObject {
+
+    /**
+     * Maximum number of audit logs sent in one multi-row insert, which keeps large batches below the bind
+     * parameter limits of the drivers.
+     */
+    int MULTI_ROW_INSERT_SIZE = 500;
+
+    /**
+     * Number of rows fetched at a time when streaming the audit history of an entity.
+     */
+    int STREAM_FETCH_SIZE = 500;
 
     /**
      * Finds audit logs based on the provided parameters.
      *
      * @param tableName the name of the table.
      * @param valueId   the ID of the value.
-     * @param action    the action performed.
-     * @param auditUser the user who performed the audit.
+     * @param action    the action performed, or null for any action.
+     * @param auditUser the user who performed the audit, or null for any user.
+     * @return a list of audit logs matching the criteria.
+     */
+    default List<AuditLog> findBy(String tableName, String valueId, Action action, String auditUser) {
+        return this.findBy(AuditLogQuery.builder()
+                .tableName(tableName)
+                .valueId(valueId)
+                .action(action)
+                .auditUser(auditUser)
+                .build());
+    }
+
+    /**
+     * Finds the audit logs matching a query, from the most recent to the oldest. Only the filters set on the query
+     * are added to the SQL, so that the lookup stays an index range scan on (table_name, value_id, date).
+     *
+     * @param query the search criteria; the limit and cursor are ignored.
+     * @return a list of audit logs matching the criteria.
+     */
+    default List<AuditLog> findBy(AuditLogQuery query) {
+        String filters = filtersOf(query);
+        List<AuditLog> auditLogs = new ArrayList<>();
+        for (String partition : this.getAuditPartitions().readPartitions(query.getFrom(), query.getTo())) {
+            auditLogs.addAll(this.findFiltered(query, filters, partition));
+        }
+        return auditLogs;
+    }
+
+    /**
+     * Finds the audit logs of an entity with additional filters.
+     *
+     * @param query   the search criteria, bound by property name.
+     * @param filters   the SQL predicates of the filters set on the query, built by {@link #filtersOf(AuditLogQuery)}.
+     * @param partition the table name suffix of the partition to read.
      * @return a list of audit logs matching the criteria.
      */
     @SqlQuery("select a.id, "
@@ -46,60 +110,453 @@ public interface AuditLogDao {
             + "ac.field_name ac_field_name, "
             + "ac.old_value ac_old_value,"
             + "ac.new_value ac_new_value "
-            + "from audit_log a "
-            + "join audit_log_changes ac on ac.audit_log_id = a.id "
+            + "from audit_log<partition> a "
+            + "join audit_log_changes<partition> ac on ac.audit_log_id = a.id "
             + "where table_name = :tableName "
             + " and value_id = :valueId "
-            + " and action = IFNULL(:action, action)"
-            + " and audit_user = IFNULL(:auditUser, audit_user)"
-            + "order by date desc")
+            + "<filters> "
+            + "order by date desc, a.id desc")
     @UseRowReducer(AuditReducer.class)
-    List<AuditLog> findBy(@Bind("tableName") String tableName, @Bind("valueId") String valueId,
-            @Bind("action") Action action, @Bind("auditUser") String auditUser);
+    List<AuditLog> findFiltered(@BindBean AuditLogQuery query, @Define("filters") String filters,
+            @Define("partition") String partition);
+
+    /**
+     * Finds a page of the audit logs matching a query, older than a keyset position, from the most recent to the
+     * oldest. The page is cut on the audit logs before their changes are joined, so each audit log comes with all
+     * of its changes. The partitions are read from the most recent to the oldest until the page is full, skipping
+     * those more recent than the cursor.
+     *
+     * @param query      the search criteria; the limit and cursor are ignored.
+     * @param cursorDate the date of the last audit log of the previous page.
+     * @param cursorId   the ID of the last audit log of the previous page.
+     * @param pageSize   the maximum number of audit logs to return.
+     * @return the audit logs of the page.
+     */
+    default List<AuditLog> findPage(AuditLogQuery query, Date cursorDate, long cursorId, int pageSize) {
+        String filters = filtersOf(query);
+        Date upTo = new Date(cursorDate.getTime() + 1);
+        if (query.getTo() != null && query.getTo().before(upTo)) {
+            upTo = query.getTo();
+        }
+        List<AuditLog> auditLogs = new ArrayList<>();
+        for (String partition : this.getAuditPartitions().readPartitions(query.getFrom(), upTo)) {
+            auditLogs.addAll(this.findPageFiltered(query, cursorDate, cursorId, pageSize - auditLogs.size(), filters,
+                    partition));
+            if (auditLogs.size() >= pageSize) {
+                break;
+            }
+        }
+        return auditLogs;
+    }
+
+    /**
+     * Finds a page of the audit logs of an entity with additional filters.
+     *
+     * @param query      the search criteria, bound by property name.
+     * @param cursorDate the date of the last audit log of the previous page.
+     * @param cursorId   the ID of the last audit log of the previous page.
+     * @param pageSize   the maximum number of audit logs to return.
+     * @param filters    the SQL predicates of the filters set on the query.
+     * @param partition  the table name suffix of the partition to read.
+     * @return the audit logs of the page.
+     */
+    @SqlQuery("select a.id, "
+            + "a.table_name, "
+            + "a.action, "
+            + "a.value_id, "
+            + "a.audit_user, "
+            + "a.date,"
+            + "ac.field_name ac_field_name, "
+            + "ac.old_value ac_old_value,"
+            + "ac.new_value ac_new_value "
+            + "from (select id, table_name, action, value_id, audit_user, date "
+            + "  from audit_log<partition> "
+            + "  where table_name = :tableName "
+            + "   and value_id = :valueId "
+            + "  <filters> "
+            + "   and (date < :cursorDate or (date = :cursorDate and id < :cursorId))"
+            + "  order by date desc, id desc "
+            + "  limit :pageSize) a "
+            + "join audit_log_changes<partition> ac on ac.audit_log_id = a.id "
+            + "order by a.date desc, a.id desc")
+    @UseRowReducer(AuditReducer.class)
+    List<AuditLog> findPageFiltered(@BindBean AuditLogQuery query, @Bind("cursorDate") Date cursorDate,
+            @Bind("cursorId") long cursorId, @Bind("pageSize") int pageSize, @Define("filters") String filters,
+            @Define("partition") String partition);
+
+    /**
+     * Iterates over the audit logs of an entity, from the most recent to the oldest, with one row per change. The
+     * rows of an audit log are consecutive. The rows are fetched {@link #STREAM_FETCH_SIZE} at a time from a
+     * server-side cursor when the driver supports it. The iterator must be consumed before the handle is closed,
+     * which is what {@link #streamBy(AuditLogQuery, Consumer)} does.
+     *
+     * @param query     the search criteria, bound by property name.
+     * @param filters   the SQL predicates of the filters set on the query.
+     * @param partition the table name suffix of the partition to read.
+     * @return an iterator of audit logs holding a single change each.
+     */
+    @SqlQuery("select a.id, "
+            + "table_name, "
+            + "action, "
+            + "value_id, "
+            + "audit_user, "
+            + "date,"
+            + "ac.field_name ac_field_name, "
+            + "ac.old_value ac_old_value,"
+            + "ac.new_value ac_new_value "
+            + "from audit_log<partition> a "
+            + "join audit_log_changes<partition> ac on ac.audit_log_id = a.id "
+            + "where table_name = :tableName "
+            + " and value_id = :valueId "
+            + "<filters> "
+            + "order by date desc, a.id desc")
+    @FetchSize(STREAM_FETCH_SIZE)
+    @UseRowMapper(AuditLogChangeRowMapper.class)
+    ResultIterator<AuditLog> iterateBy(@BindBean AuditLogQuery query, @Define("filters") String filters,
+            @Define("partition") String partition);
+
+    /**
+     * Streams the audit logs matching a query, from the most recent to the oldest, with one row per change, keeping
+     * the handle and its cursor open until every row has been passed to the consumer. The partitions are streamed
+     * one after the other, with a single cursor open at a time.
+     *
+     * @param query    the search criteria; the limit and cursor are ignored.
+     * @param consumer the consumer called with an audit log holding a single change for each row.
+     */
+    default void streamBy(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        String filters = filtersOf(query);
+        for (String partition : this.getAuditPartitions().readPartitions(query.getFrom(), query.getTo())) {
+            try (ResultIterator<AuditLog> rows = this.iterateBy(query, filters, partition)) {
+                rows.forEachRemaining(consumer);
+            }
+        }
+    }
+
+    /**
+     * Builds the SQL predicates of the optional filters set on a query. Each filter is a fixed predicate on a
+     * bound parameter, so no value of the query is written into the SQL. Unset filters are left out rather than
+     * written as {@code IFNULL(:param, column)}, which would prevent the use of the indexes.
+     *
+     * @param query the search criteria.
+     * @return the predicates, each starting with {@code and}, or an empty string.
+     */
+    static String filtersOf(AuditLogQuery query) {
+        StringBuilder filters = new StringBuilder();
+        if (query.getAction() != null) {
+            filters.append(" and action = :action");
+        }
+        if (query.getAuditUser() != null) {
+            filters.append(" and audit_user = :auditUser");
+        }
+        if (query.getFrom() != null) {
+            filters.append(" and date >= :from");
+        }
+        if (query.getTo() != null) {
+            filters.append(" and date < :to");
+        }
+        return filters.toString();
+    }
+
+    /**
+     * Retrieves the partitions of the audit tables configured on the Jdbi instance.
+     *
+     * @return the partition configuration of the handle of this DAO.
+     */
+    default AuditPartitions getAuditPartitions() {
+        return this.getHandle().getConfig(AuditPartitions.class);
+    }
+
+    /**
+     * Checks if an audit log with the given event ID has already been written, in any partition.
+     *
+     * @param eventId the event ID of the audit log.
+     * @return true if the audit log exists, false otherwise.
+     */
+    default boolean existsByEventId(String eventId) {
+        return this.getAuditPartitions().readPartitions(null, null)
+                .stream()
+                .anyMatch(partition -> this.existsByEventIdIn(eventId, partition));
+    }
+
+    /**
+     * Checks if an audit log has already been written, looking up its event ID in the partition of its date only.
+     *
+     * @param auditLog the audit log, with its event ID and date.
+     * @return true if the audit log exists, false otherwise.
+     */
+    default boolean exists(AuditLog auditLog) {
+        Date date = auditLog.getDate();
+        return this.getAuditPartitions().readPartitions(date, new Date(date.getTime() + 1))
+                .stream()
+                .anyMatch(partition -> this.existsByEventIdIn(auditLog.getEventId(), partition));
+    }
+
+    /**
+     * Checks if an audit log with the given event ID is in a partition.
+     *
+     * @param eventId   the event ID of the audit log.
+     * @param partition the table name suffix of the partition to read.
+     * @return true if the audit log exists in the partition, false otherwise.
+     */
+    @SqlQuery("select count(*) > 0 from audit_log<partition> where event_id = :eventId")
+    boolean existsByEventIdIn(@Bind("eventId") String eventId, @Define("partition") String partition);
 
     /**
      * Creates a new audit log entry.
      *
-     * @param auditLog the audit log to create.
+     * @param auditLog  the audit log to create.
+     * @param partition the table name suffix of the partition to write.
      * @return the generated ID of the new audit log.
      */
-    @SqlUpdate("INSERT INTO audit_log (`table_name`, `action`, `value_id`, `audit_user`, `date`) "
-            + "VALUES (:tableName, :action, :valueId, :auditUser, :date)")
+    @SqlUpdate("INSERT INTO audit_log<partition> "
+            + "(`event_id`, `table_name`, `action`, `value_id`, `audit_user`, `date`) "
+            + "VALUES (:eventId, :tableName, :action, :valueId, :auditUser, :date)")
     @GetGeneratedKeys("id")
-    int createAuditLog(@BindBean AuditLog auditLog);
+    long createAuditLog(@BindBean AuditLog auditLog, @Define("partition") String partition);
 
     /**
-     * Creates a new audit log entry along with its changes in a transaction.
+     * Creates a new audit log entry along with its changes in a transaction, in the partition of its date, which is
+     * created first if it is missing.
      *
      * @param auditLog the audit log to create.
      * @return the generated ID of the new audit log.
      */
+    default long create(AuditLog auditLog) {
+        return this.createIn(auditLog, this.getAuditPartitions().writePartition(this.getHandle(), auditLog.getDate()));
+    }
+
+    /**
+     * Creates a new audit log entry along with its changes in a transaction, in a given partition.
+     *
+     * @param auditLog  the audit log to create.
+     * @param partition the table name suffix of the partition to write.
+     * @return the generated ID of the new audit log.
+     */
     @Transaction
-    default int create(AuditLog auditLog) {
-        int id = this.createAuditLog(auditLog);
+    default long createIn(AuditLog auditLog, String partition) {
+        long id = this.createAuditLog(auditLog, partition);
         auditLog.getLogChanges().forEach(c -> c.setAuditLogId(id));
-        this.createChanges(auditLog.getLogChanges());
+        this.createChanges(auditLog.getLogChanges(), partition);
         return id;
     }
 
+    /**
+     * Creates several audit log entries with a single multi-row insert.
+     *
+     * @param auditLogs the audit logs to create.
+     * @param partition the table name suffix of the partition to write.
+     * @return the generated IDs of the new audit logs, in the order of the given list.
+     */
+    @SqlUpdate("INSERT INTO audit_log<partition> "
+            + "(`event_id`, `table_name`, `action`, `value_id`, `audit_user`, `date`) "
+            + "VALUES <auditLogs>")
+    @GetGeneratedKeys("id")
+    @UseRowMapper(GeneratedIdMapper.class)
+    List<Long> createAuditLogs(@BindBeanList(value = "auditLogs",
+            propertyNames = {"eventId", "tableName", "action", "valueId", "auditUser", "date"}) List<AuditLog> auditLogs,
+            @Define("partition") String partition);
+
+    /**
+     * Creates several audit log entries along with their changes in one transaction: one multi-row insert for the
+     * audit logs, split every {@link #MULTI_ROW_INSERT_SIZE} audit logs, and one batch for all of their changes.
+     * The generated IDs are set on the audit logs. The audit logs are written to the partitions of their dates, which
+     * are created before the transaction if they are missing.
+     *
+     * @param auditLogs the audit logs to create.
+     */
+    default void createAll(List<AuditLog> auditLogs) {
+        this.createAllIn(this.byPartition(auditLogs));
+    }
+
+    /**
+     * Creates audit log entries along with their changes in one transaction, one multi-row insert and one batch of
+     * changes per partition.
+     *
+     * @param partitions the audit logs to create, by table name suffix of their partition.
+     */
+    @Transaction
+    default void createAllIn(Map<String, List<AuditLog>> partitions) {
+        partitions.forEach((partition, auditLogs) -> {
+            List<Long> ids = new ArrayList<>(auditLogs.size());
+            for (int from = 0; from < auditLogs.size(); from += MULTI_ROW_INSERT_SIZE) {
+                ids.addAll(this.createAuditLogs(
+                        auditLogs.subList(from, Math.min(from + MULTI_ROW_INSERT_SIZE, auditLogs.size())), partition));
+            }
+            List<AuditLogChange> changes = new ArrayList<>();
+            for (int i = 0; i < auditLogs.size(); i++) {
+                AuditLog auditLog = auditLogs.get(i);
+                long id = ids.get(i);
+                auditLog.setId(id);
+                auditLog.getLogChanges().forEach(c -> c.setAuditLogId(id));
+                changes.addAll(auditLog.getLogChanges());
+            }
+            if (!changes.isEmpty()) {
+                this.createChanges(changes, partition);
+            }
+        });
+    }
+
+    /**
+     * Groups audit logs by the partition of their dates, creating the missing partitions.
+     *
+     * @param auditLogs the audit logs to write.
+     * @return the audit logs by table name suffix of their partition, in the order of the given list.
+     */
+    private Map<String, List<AuditLog>> byPartition(List<AuditLog> auditLogs) {
+        AuditPartitions partitions = this.getAuditPartitions();
+        if (!partitions.isEnabled()) {
+            return Map.of("", auditLogs);
+        }
+        Map<String, List<AuditLog>> byPartition = new LinkedHashMap<>();
+        for (AuditLog auditLog : auditLogs) {
+            byPartition.computeIfAbsent(partitions.writePartition(this.getHandle(), auditLog.getDate()),
+                    p -> new ArrayList<>()).add(auditLog);
+        }
+        return byPartition;
+    }
+
+    /**
+     * Inserts several audit logs whose IDs were allocated by the client, with a single multi-row insert.
+     *
+     * @param auditLogs the audit logs to insert.
+     * @param partition the table name suffix of the partition to write.
+     */
+    @SqlUpdate("INSERT INTO audit_log<partition> "
+            + "(`id`, `event_id`, `table_name`, `action`, `value_id`, `audit_user`, `date`) "
+            + "VALUES <auditLogs>")
+    void insertAuditLogs(@BindBeanList(value = "auditLogs",
+            propertyNames = {"id", "eventId", "tableName", "action", "valueId", "auditUser", "date"})
+            List<AuditLog> auditLogs, @Define("partition") String partition);
+
+    /**
+     * Inserts audit log changes whose IDs were allocated by the client.
+     *
+     * @param auditLogChanges the audit log changes to insert.
+     * @param partition       the table name suffix of the partition to write.
+     */
+    @SqlBatch("INSERT INTO audit_log_changes<partition> "
+            + "(`id`, `audit_log_id`, `field_name`, `old_value`, `new_value`) "
+            + "VALUES (:id, :auditLogId, :fieldName, :oldValue, :newValue)")
+    void insertChanges(@BindAuditLogChange List<AuditLogChange> auditLogChanges,
+            @Define("partition") String partition);
+
+    /**
+     * Creates audit logs whose IDs, and the IDs of their changes, were allocated by the client, in one transaction.
+     * Since no generated key is needed, the audit logs and their changes are sent without waiting on each other.
+     * The audit logs are written to the partitions of their dates, which are created before the transaction if they
+     * are missing.
+     *
+     * @param auditLogs the identified audit logs to create.
+     */
+    default void createAllWithIds(List<AuditLog> auditLogs) {
+        this.createAllWithIdsIn(this.byPartition(auditLogs));
+    }
+
+    /**
+     * Creates identified audit logs along with their changes in one transaction, one multi-row insert and one batch
+     * of changes per partition.
+     *
+     * @param partitions the identified audit logs to create, by table name suffix of their partition.
+     */
+    @Transaction
+    default void createAllWithIdsIn(Map<String, List<AuditLog>> partitions) {
+        partitions.forEach((partition, auditLogs) -> {
+            for (int from = 0; from < auditLogs.size(); from += MULTI_ROW_INSERT_SIZE) {
+                this.insertAuditLogs(auditLogs.subList(from, Math.min(from + MULTI_ROW_INSERT_SIZE, auditLogs.size())),
+                        partition);
+            }
+            List<AuditLogChange> changes = new ArrayList<>();
+            auditLogs.forEach(a -> changes.addAll(a.getLogChanges()));
+            if (!changes.isEmpty()) {
+                this.insertChanges(changes, partition);
+            }
+        });
+    }
+
     /**
      * Creates multiple audit log changes.
      *
      * @param auditLogChanges the list of audit log changes to create.
+     * @param partition       the table name suffix of the partition to write.
      * @return an array of generated IDs for the new audit log changes.
      */
-    @SqlBatch("INSERT INTO audit_log_changes (`audit_log_id`, `field_name`, `old_value`, `new_value`) "
+    @SqlBatch("INSERT INTO audit_log_changes<partition> (`audit_log_id`, `field_name`, `old_value`, `new_value`) "
             + "VALUES (:auditLogId, :fieldName, :oldValue, :newValue)")
     @GetGeneratedKeys("id")
-    int[] createChanges(@BindBean List<AuditLogChange> auditLogChanges);
+    long[] createChanges(@BindAuditLogChange List<AuditLogChange> auditLogChanges,
+            @Define("partition") String partition);
+
+    /**
+     * Maps a generated key row to its ID. The row is read by position since drivers name the key column
+     * differently.
+     */
+    class GeneratedIdMapper implements RowMapper<Long> {
+        @Override
+        public Long map(ResultSet rs, StatementContext ctx) throws SQLException {
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Maps the {@code ac_} prefixed columns of a row to an audit log change. The old and new values are read from
+     * the BLOB columns and decoded by the {@link AuditValueCodecs} of the statement. Each value is fully decoded into
+     * a String, so a large value is held in memory once per row; only its serialization into the response avoids
+     * reparsing it.
+     */
+    class AuditLogChangeMapper implements RowMapper<AuditLogChange> {
+        @Override
+        public AuditLogChange map(ResultSet rs, StatementContext ctx) throws SQLException {
+            AuditValueCodecs codecs = ctx.getConfig(AuditValueCodecs.class);
+            return AuditLogChange.builder()
+                    .fieldName(rs.getString("ac_field_name"))
+                    .oldValue(readValue(rs, "ac_old_value", codecs))
+                    .newValue(readValue(rs, "ac_new_value", codecs))
+                    .build();
+        }
+
+        /**
+         * Reads a BLOB value and decodes all of it into a String.
+         *
+         * @param rs     the result set positioned on the row.
+         * @param column the column label.
+         * @param codecs the codecs of the values.
+         * @return the text, or null if the column is null.
+         * @throws SQLException if the column cannot be read.
+         */
+        private static String readValue(ResultSet rs, String column, AuditValueCodecs codecs) throws SQLException {
+            try (InputStream in = rs.getBinaryStream(column)) {
+                return in == null ? null : codecs.decode(in);
+            } catch (IOException e) {
+                throw new SQLException("Failed to read " + column, e);
+            }
+        }
+    }
+
+    /**
+     * Maps a row of an audit log joined with one of its changes to an audit log holding that change.
+     */
+    class AuditLogChangeRowMapper implements RowMapper<AuditLog> {
+        @Override
+        public AuditLog map(ResultSet rs, StatementContext ctx) throws SQLException {
+            AuditLog auditLog = ctx.findRowMapperFor(AuditLog.class)
+                    .orElseThrow(() -> new SQLException("No row mapper registered for AuditLog"))
+                    .map(rs, ctx);
+            List<AuditLogChange> changes = new ArrayList<>(1);
+            changes.add(ctx.findRowMapperFor(AuditLogChange.class)
+                    .orElseThrow(() -> new SQLException("No row mapper registered for AuditLogChange"))
+                    .map(rs, ctx));
+            auditLog.setLogChanges(changes);
+            return auditLog;
+        }
+    }
 
     /**
      * Reduces rows from the database into an audit log and its changes.
      */
-    class AuditReducer implements LinkedHashMapRowReducer<Integer, AuditLog> {
+    class AuditReducer implements LinkedHashMapRowReducer<Long, AuditLog> {
         @Override
-        public void accumulate(Map<Integer, AuditLog> container, RowView rowView) {
-            AuditLog auditLog = container.computeIfAbsent(rowView.getColumn("id", Integer.class),
+        public void accumulate(Map<Long, AuditLog> container, RowView rowView) {
+            AuditLog auditLog = container.computeIfAbsent(rowView.getColumn("id", Long.class),
                     id -> rowView.getRow(AuditLog.class));
             if (auditLog.getLogChanges() == null) {
                 auditLog.setLogChanges(new ArrayList<>());
@@ -0,0 +1,49 @@
+package com.thinkon.common.audit.dao;
+
+import com.thinkon.common.audit.AuditException;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+/**
+ * Data Access Object for the {@code audit_sequence} table used to allocate audit IDs in blocks.
+ */
+public interface AuditSequenceDao {
+
+    /**
+     * Moves a sequence forward by the given number of values.
+     *
+     * @param name      the name of the sequence.
+     * @param increment the number of values to reserve.
+     * @return the number of updated rows.
+     */
+    @SqlUpdate("UPDATE audit_sequence SET `next_value` = `next_value` + :increment WHERE `name` = :name")
+    int increment(@Bind("name") String name, @Bind("increment") int increment);
+
+    /**
+     * Retrieves the next free value of a sequence.
+     *
+     * @param name the name of the sequence.
+     * @return the next free value.
+     */
+    @SqlQuery("SELECT `next_value` FROM audit_sequence WHERE `name` = :name")
+    long nextValue(@Bind("name") String name);
+
+    /**
+     * Reserves a block of values in one transaction. The row lock taken by the update keeps concurrent
+     * reservations from overlapping.
+     *
+     * @param name      the name of the sequence.
+     * @param blockSize the number of values to reserve.
+     * @return the first value of the reserved block.
+     * @throws AuditException if the sequence does not exist.
+     */
+    @Transaction
+    default long reserveBlock(String name, int blockSize) {
+        if (this.increment(name, blockSize) == 0) {
+            throw new AuditException("The audit sequence " + name + " does not exist");
+        }
+        return this.nextValue(name) - blockSize;
+    }
+}
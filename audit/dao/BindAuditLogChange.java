@@ -0,0 +1,50 @@
+package com.thinkon.common.audit.dao;
+
+import com.thinkon.common.audit.codec.AuditValueCodecs;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.jfr.AuditSerializeEvent;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementParameterCustomizer;
+
+/**
+ * Binds the properties of an {@link AuditLogChange} like {@link org.jdbi.v3.sqlobject.customizer.BindBean}, except
+ * that {@code oldValue} and {@code newValue} are bound to the bytes encoded by the {@link AuditValueCodecs} of the
+ * statement. The encoding of each change is recorded as an {@link AuditSerializeEvent}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@SqlStatementCustomizingAnnotation(BindAuditLogChange.Factory.class)
+public @interface BindAuditLogChange {
+
+    /**
+     * Creates the binder of the annotated parameter.
+     */
+    class Factory implements SqlStatementCustomizerFactory {
+        @Override
+        public SqlStatementParameterCustomizer createForParameter(Annotation annotation, Class<?> sqlObjectType,
+                Method method, Parameter param, int index, Type paramType) {
+            return (stmt, arg) -> {
+                AuditLogChange change = (AuditLogChange) arg;
+                AuditValueCodecs codecs = stmt.getConfig(AuditValueCodecs.class);
+                AuditSerializeEvent event = new AuditSerializeEvent();
+                event.begin();
+                byte[] oldValue = codecs.encode(change.getOldValue());
+                byte[] newValue = codecs.encode(change.getNewValue());
+                event.finish(change.getFieldName(),
+                        (oldValue == null ? 0 : oldValue.length) + (newValue == null ? 0 : newValue.length));
+                stmt.bindBean(change)
+                        .bind("oldValue", oldValue)
+                        .bind("newValue", newValue);
+            };
+        }
+    }
+}
@@ -37,6 +37,12 @@ public class AuditFieldEntity {
      */
     private AuditDiff auditDiff;
 
+    /**
+     * The structural fingerprint of the field value before it was processed, or 0 if the value could not be
+     * fingerprinted. It is not part of the equality of the field.
+     */
+    private long fingerprint;
+
 
     /**
      * Processes the difference between this field's value and another field's value.
@@ -50,6 +56,18 @@ public class AuditFieldEntity {
         return auditDiff.process(this.value, otherValue);
     }
 
+    /**
+     * Processes the difference between this field's value, as the old value of a change, and the new value of
+     * another field.
+     *
+     * @param newer The {@link AuditFieldEntity} holding the new value.
+     * @return The calculated old side of the difference.
+     */
+    public final Object processOldDiff(AuditFieldEntity newer) {
+        Object newerValue = newer == null ? null : newer.getValue();
+        return auditDiff.processOld(this.value, newerValue);
+    }
+
     /**
      * Indicates whether some other object is "equal to" this one.
      *
@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class AuditLog {
-    private int id;
+    private long id;
+    private String eventId;
     private String tableName;
     private String valueId;
     private Action action;
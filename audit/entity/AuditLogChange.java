@@ -2,66 +2,103 @@ package com.thinkon.common.audit.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.RawValue;
+import java.io.IOException;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Represents a change captured in an audit log entry.
+ *
+ * <p>The old and new values are stored as text: JSON for values such as lists, numbers and booleans, plain text for
+ * the other scalars. Whether a value is JSON is decided once, when the change is built or, for changes read back
+ * from the database, on first use, and JSON values are then written to responses as they are, without being parsed
+ * into a tree and serialized again.</p>
  */
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class AuditLogChange {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     @JsonIgnore
-    private int id;
+    private long id;
     @JsonIgnore
-    private int auditLogId;
+    private long auditLogId;
     private String fieldName;
     @JsonIgnore
     private String oldValue;
     @JsonIgnore
     private String newValue;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Boolean oldValueJson;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Boolean newValueJson;
 
     /**
-     * Retrieves the new value as an object. Converts JSON string representation
-     * to an object if possible; otherwise returns the raw string.
+     * Retrieves the new value as an object. A JSON value is returned as a {@link RawValue}, which Jackson writes
+     * without reparsing it; any other value is returned as the raw string.
      *
-     * @return The new value of the field as an object, or the raw string if conversion fails.
+     * @return The new value of the field as an object, or the raw string if it is not JSON.
      */
     @JsonProperty("newValue")
     public Object getNewObjectValue() {
         if (newValue == null) {
             return null;
         }
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            return objectMapper.readTree(newValue);
-        } catch (JsonProcessingException e) {
-            return newValue;
+        if (newValueJson == null) {
+            newValueJson = isJson(newValue);
         }
+        return newValueJson ? new RawValue(newValue) : newValue;
     }
 
     /**
-     * Retrieves the old value as an object. Converts JSON string representation
-     * to an object if possible; otherwise returns the raw string.
+     * Retrieves the old value as an object. A JSON value is returned as a {@link RawValue}, which Jackson writes
+     * without reparsing it; any other value is returned as the raw string.
      *
-     * @return The old value of the field as an object, or the raw string if conversion fails.
+     * @return The old value of the field as an object, or the raw string if it is not JSON.
      */
     @JsonProperty("oldValue")
     public Object getOldObjectValue() {
         if (oldValue == null) {
             return null;
         }
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            return objectMapper.readTree(oldValue);
-        } catch (JsonProcessingException e) {
-            return oldValue;
+        if (oldValueJson == null) {
+            oldValueJson = isJson(oldValue);
+        }
+        return oldValueJson ? new RawValue(oldValue) : oldValue;
+    }
+
+    /**
+     * Checks if a stored value is a single, well-formed JSON value. The value is only tokenized, no tree is built.
+     *
+     * @param value The stored value.
+     * @return true if the value is JSON, false if it is a plain text scalar or null.
+     */
+    public static boolean isJson(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
         }
     }
 }
@@ -0,0 +1,22 @@
+package com.thinkon.common.audit.entity;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page of audit logs, from the most recent to the oldest, with the cursor of the next page.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditLogPage {
+    private List<AuditLog> items;
+    /**
+     * Opaque token to pass as {@link AuditLogQuery#getCursor()} to read the next page, or null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.thinkon.common.audit.entity;
+
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criteria of a search of the audit history of an entity, optionally paginated.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditLogQuery {
+    private String tableName;
+    private String valueId;
+    private Action action;
+    private String auditUser;
+    /**
+     * Earliest date of the audit logs, inclusive, or null for no lower bound.
+     */
+    private Date from;
+    /**
+     * Latest date of the audit logs, exclusive, or null for no upper bound.
+     */
+    private Date to;
+    /**
+     * Maximum number of audit logs of a page, or null for the default page size.
+     */
+    private Integer limit;
+    /**
+     * Opaque token returned as {@link AuditLogPage#getNextCursor()} by the previous page, or null for the first page.
+     */
+    private String cursor;
+}
@@ -0,0 +1,35 @@
+package com.thinkon.common.audit.id;
+
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+
+/**
+ * Allocates the IDs of {@link AuditLog} and {@link AuditLogChange} rows on the client side, so an audit log and its
+ * changes can be written together without waiting for the database generated keys.
+ * Implementations must be thread-safe and never return the same ID twice.
+ */
+public interface AuditIdGenerator {
+
+    /**
+     * Allocates a new ID.
+     *
+     * @return a unique, positive ID
+     */
+    long nextId();
+
+    /**
+     * Assigns new IDs to an audit log and its changes, and links the changes to the audit log.
+     *
+     * @param auditLog the audit log to identify
+     */
+    default void assign(AuditLog auditLog) {
+        long id = this.nextId();
+        auditLog.setId(id);
+        if (auditLog.getLogChanges() != null) {
+            for (AuditLogChange change : auditLog.getLogChanges()) {
+                change.setId(this.nextId());
+                change.setAuditLogId(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.thinkon.common.audit.id;
+
+/**
+ * Enumeration of the built-in ways of allocating audit log IDs.
+ */
+public enum AuditIdStrategy {
+    /**
+     * IDs are generated by the database auto-increment columns.
+     */
+    DATABASE,
+
+    /**
+     * Time-ordered IDs generated by a {@link SnowflakeAuditIdGenerator}.
+     */
+    SNOWFLAKE,
+
+    /**
+     * IDs allocated in blocks from the {@code audit_sequence} table by a {@link HiLoAuditIdGenerator}.
+     */
+    HILO;
+}
@@ -0,0 +1,56 @@
+package com.thinkon.common.audit.id;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.dao.AuditSequenceDao;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Generator of IDs allocated in blocks from a row of the {@code audit_sequence} table. Each block reservation is a
+ * single short transaction, after which the IDs of the block are handed out from memory. IDs are unique across all
+ * nodes sharing the table, but are only ordered within a node.
+ *
+ * <p>Blocks are reserved on a handle of their own, never on a handle bound to the current thread, so that a block
+ * handed out from memory is not released again by the rollback of an audited transaction.</p>
+ */
+public final class HiLoAuditIdGenerator implements AuditIdGenerator {
+
+    private final Jdbi jdbi;
+    private final String sequenceName;
+    private final int blockSize;
+    private long next;
+    private long limit;
+
+    /**
+     * Creates a generator.
+     *
+     * @param jdbi         the Jdbi instance of the sequence table
+     * @param sequenceName the name of the sequence row
+     * @param blockSize    the number of IDs reserved at once
+     * @throws AuditException if the block size is not positive
+     */
+    public HiLoAuditIdGenerator(Jdbi jdbi, String sequenceName, int blockSize) {
+        if (blockSize < 1) {
+            throw new AuditException("The audit ID block size must be positive");
+        }
+        this.jdbi = jdbi;
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates a new ID, reserving a new block when the current one is used up.
+     *
+     * @return a unique, positive ID
+     */
+    @Override
+    public synchronized long nextId() {
+        if (next >= limit) {
+            try (Handle handle = jdbi.open()) {
+                next = handle.attach(AuditSequenceDao.class).reserveBlock(sequenceName, blockSize);
+            }
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,57 @@
+package com.thinkon.common.audit.id;
+
+import com.thinkon.common.audit.AuditException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator of time-ordered 64-bit IDs made of a 41-bit millisecond timestamp, a 10-bit node ID and a
+ * 12-bit sequence. Every node of a cluster must use a different node ID.
+ *
+ * <p>The timestamp and sequence are kept in a single {@link AtomicLong}, so an exhausted sequence simply carries
+ * into the next millisecond and a clock moving backwards never produces a lower ID.</p>
+ */
+public final class SnowflakeAuditIdGenerator implements AuditIdGenerator {
+
+    /**
+     * Start of the timestamp, 2024-01-01T00:00:00Z.
+     */
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Creates a generator for a node.
+     *
+     * @param nodeId the ID of the node, between 0 and 1023
+     * @throws AuditException if the node ID is out of range
+     */
+    public SnowflakeAuditIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new AuditException("The audit node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Allocates a new ID.
+     *
+     * @return a unique, positive, time-ordered ID
+     */
+    @Override
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = Math.max(current + 1, now);
+        } while (!state.compareAndSet(current, next));
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | node | (next & SEQUENCE_MASK);
+    }
+}
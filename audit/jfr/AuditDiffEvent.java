@@ -0,0 +1,41 @@
+package com.thinkon.common.audit.jfr;
+
+import com.thinkon.common.audit.entity.Action;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading and processing of the new states of an audited call and their comparison to the old states.
+ */
+@Name("com.thinkon.audit.Diff")
+@Label("Audit Snapshot and Diff")
+@Description("Processing of the new states of an audited call and their comparison to the old states")
+public class AuditDiffEvent extends AuditEvent {
+
+    @Label("Field Count")
+    @Description("Number of processed fields of the new states")
+    int fieldCount;
+
+    @Label("Change Count")
+    @Description("Number of changes of the resulting audit logs")
+    int changeCount;
+
+    /**
+     * Ends the event and commits it if it is enabled.
+     *
+     * @param tableName   the audited table
+     * @param action      the audited action
+     * @param fieldCount  the number of processed fields of the new states
+     * @param changeCount the number of changes of the resulting audit logs
+     */
+    public void finish(String tableName, Action action, int fieldCount, int changeCount) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.setAudited(tableName, action);
+            this.fieldCount = fieldCount;
+            this.changeCount = changeCount;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.thinkon.common.audit.jfr;
+
+import com.thinkon.common.audit.entity.Action;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the Java Flight Recorder events of the audit pipeline, which record the duration of each phase of
+ * an audited call with its table and action.
+ *
+ * <p>The events follow the usual pattern of JFR events: they are created and begun before the phase and finished
+ * after it. When no recording enables them, {@link #shouldCommit()} is false, so finishing an event neither fills
+ * nor commits it, and the JIT can remove the allocation of the event altogether.</p>
+ */
+@Category("Audit")
+@StackTrace(false)
+public abstract class AuditEvent extends Event {
+
+    @Label("Table Name")
+    protected String tableName;
+
+    @Label("Action")
+    protected String action;
+
+    /**
+     * Sets the table and action of the event.
+     *
+     * @param tableName the audited table
+     * @param action    the audited action, possibly null
+     */
+    protected final void setAudited(String tableName, Action action) {
+        this.tableName = tableName;
+        this.action = action == null ? null : action.name();
+    }
+}
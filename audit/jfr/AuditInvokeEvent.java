@@ -0,0 +1,35 @@
+package com.thinkon.common.audit.jfr;
+
+import com.thinkon.common.audit.entity.Action;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Invocation of the audited method itself, between the pre-read and the diff of an audited call.
+ */
+@Name("com.thinkon.audit.Invoke")
+@Label("Audit Method Invocation")
+@Description("Invocation of the audited method")
+public class AuditInvokeEvent extends AuditEvent {
+
+    @Label("Succeeded")
+    @Description("Whether the audited method returned normally")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it if it is enabled.
+     *
+     * @param tableName the audited table
+     * @param action    the audited action
+     * @param succeeded whether the audited method returned normally
+     */
+    public void finish(String tableName, Action action, boolean succeeded) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.setAudited(tableName, action);
+            this.succeeded = succeeded;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.thinkon.common.audit.jfr;
+
+import com.thinkon.common.audit.entity.Action;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading and processing of the old states of an audited call, such as the findById pre-read of an update.
+ */
+@Name("com.thinkon.audit.PreRead")
+@Label("Audit Pre-Read")
+@Description("Reading and processing of the old states of an audited call")
+public class AuditPreReadEvent extends AuditEvent {
+
+    @Label("Field Count")
+    @Description("Number of processed fields of the old states")
+    int fieldCount;
+
+    /**
+     * Ends the event and commits it if it is enabled.
+     *
+     * @param tableName  the audited table
+     * @param action     the audited action
+     * @param fieldCount the number of processed fields of the old states
+     */
+    public void finish(String tableName, Action action, int fieldCount) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.setAudited(tableName, action);
+            this.fieldCount = fieldCount;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.thinkon.common.audit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Encoding of the old and new values of one audit log change by the
+ * {@link com.thinkon.common.audit.codec.AuditValueCodecs} of the statement writing it. The change is bound inside
+ * the write of its audit log, so the event carries no table name: it falls within the {@link AuditWriteEvent} of the
+ * same thread.
+ */
+@Name("com.thinkon.audit.Serialize")
+@Category("Audit")
+@StackTrace(false)
+@Label("Audit Change Serialization")
+@Description("Encoding of the old and new values of an audit log change")
+public class AuditSerializeEvent extends Event {
+
+    @Label("Field Name")
+    String fieldName;
+
+    @Label("Byte Size")
+    @Description("Size of the encoded old and new values")
+    @DataAmount
+    long byteSize;
+
+    /**
+     * Ends the event and commits it if it is enabled.
+     *
+     * @param fieldName the name of the changed field
+     * @param byteSize  the size of the encoded old and new values, in bytes
+     */
+    public void finish(String fieldName, long byteSize) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.fieldName = fieldName;
+            this.byteSize = byteSize;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.thinkon.common.audit.jfr;
+
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.metrics.AuditTableMetrics;
+import java.util.List;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Persistence of one audit log, or of the audit logs of a batch, by the service that writes to the database. In
+ * asynchronous mode, the event is recorded on the writer thread.
+ */
+@Name("com.thinkon.audit.Write")
+@Label("Audit Write")
+@Description("Persistence of audit logs")
+public class AuditWriteEvent extends AuditEvent {
+
+    @Label("Audit Log Count")
+    int auditLogCount;
+
+    @Label("Field Count")
+    @Description("Number of changes of the written audit logs")
+    int fieldCount;
+
+    @Label("Byte Size")
+    @Description("UTF-8 size of the field names and values of the written audit logs, before any value codec")
+    @DataAmount
+    long byteSize;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it if it is enabled. The counts and sizes are only computed for committed events.
+     *
+     * @param auditLogs the written audit logs, not empty; the table and action are those of the first one
+     * @param succeeded whether the write succeeded
+     */
+    public void finish(List<AuditLog> auditLogs, boolean succeeded) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.setAudited(auditLogs.get(0).getTableName(), auditLogs.get(0).getAction());
+            this.auditLogCount = auditLogs.size();
+            for (AuditLog auditLog : auditLogs) {
+                this.fieldCount += auditLog.getLogChanges() == null ? 0 : auditLog.getLogChanges().size();
+                this.byteSize += AuditTableMetrics.serializedSize(auditLog);
+            }
+            this.succeeded = succeeded;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package com.thinkon.common.audit.journal;
+
+import com.thinkon.common.audit.AuditConfiguration;
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only write-ahead journal of audit logs, stored in memory-mapped segment files.
+ * An audit log is appended, under a unique event ID, before it is acknowledged to the caller and committed once it
+ * has been written to {@code audit_log}. The checkpoint file holds the highest sequence number below which every
+ * record has been committed; records above it are replayed by {@link #replay(AuditLogDao, AuditLogService)} when the
+ * journal is reopened, after which new records are appended to the last segment. Segments whose records are all
+ * committed are recycled, and the journal refuses new records once {@link AuditConfiguration#getJournalMaxSegments()}
+ * segments are in use, so disk use stays bounded.
+ *
+ * <p>An audit log that still cannot be written after {@link AuditConfiguration#getJournalWriteAttempts()} attempts
+ * is moved to the dead-letter file, {@value #DEAD_LETTER_FILE}, so that it does not hold back the checkpoint. Each
+ * dead letter is stored as its length followed by its record body; {@link #readDeadLetters()} decodes them for
+ * inspection or a manual replay.</p>
+ */
+@Slf4j
+public final class AuditJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "audit-journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "audit-journal.checkpoint";
+    private static final String DEAD_LETTER_FILE = "audit-journal.dead";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean force;
+    private final int writeAttempts;
+    private final long retryBackoffMillis;
+    private final MappedByteBuffer checkpointBuffer;
+    private final FileChannel deadLetters;
+    private final Deque<JournalSegment> segments = new ArrayDeque<>();
+    private final Deque<Path> spares = new ArrayDeque<>();
+    private final TreeSet<Long> pending = new TreeSet<>();
+    private final Map<String, Long> pendingEvents = new HashMap<>();
+    private NavigableMap<Long, AuditLog> unflushed = new TreeMap<>();
+    private long recoveredSequence;
+    private long nextSequence;
+    private long nextSegmentIndex;
+    private long checkpoint;
+    private long deadLetterCount;
+    private boolean closed;
+
+    private AuditJournal(Path directory, AuditConfiguration configuration) throws IOException {
+        this.directory = directory;
+        this.segmentSize = configuration.getJournalSegmentSize();
+        this.maxSegments = configuration.getJournalMaxSegments();
+        this.force = configuration.isJournalForce();
+        this.writeAttempts = configuration.getJournalWriteAttempts();
+        this.retryBackoffMillis = configuration.getJournalRetryBackoffMillis();
+        try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.checkpointBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+        this.checkpoint = checkpointBuffer.getLong(0);
+        this.recoveredSequence = checkpoint;
+        for (Path path : listSegments()) {
+            JournalSegment segment = JournalSegment.map(segmentIndex(path), path, Files.size(path));
+            segment.scan((sequence, body) -> {
+                if (sequence > checkpoint) {
+                    unflushed.put(sequence, JournalRecordCodec.decode(body));
+                    recoveredSequence = Math.max(recoveredSequence, sequence);
+                }
+            });
+            segments.add(segment);
+            nextSegmentIndex = segment.getIndex() + 1;
+        }
+        this.nextSequence = Math.max(recoveredSequence,
+                segments.stream().mapToLong(JournalSegment::getLastSequence).max().orElse(0)) + 1;
+        this.recycle();
+        if (segments.isEmpty()) {
+            this.roll();
+        }
+        this.deadLetters = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.deadLetterCount = this.scanDeadLetters(null);
+    }
+
+    /**
+     * Opens, or creates, the journal in the configured directory and loads the records that were not committed.
+     *
+     * @param configuration the journal directory, segment size, segment count and force setting
+     * @return the opened journal
+     * @throws AuditException if the journal cannot be opened
+     */
+    public static AuditJournal open(AuditConfiguration configuration) {
+        if (configuration.getJournalSegmentSize() < 1024 || configuration.getJournalMaxSegments() < 2) {
+            throw new AuditException("The audit journal needs at least 2 segments of at least 1024 bytes");
+        }
+        if (configuration.getJournalWriteAttempts() < 1 || configuration.getJournalRetryBackoffMillis() < 0) {
+            throw new AuditException("The audit journal needs at least 1 write attempt and a non-negative backoff");
+        }
+        Path directory = Paths.get(configuration.getJournalDirectory());
+        try {
+            Files.createDirectories(directory);
+            return new AuditJournal(directory, configuration);
+        } catch (IOException e) {
+            throw new AuditException("Failed to open the audit journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Writes the audit logs left uncommitted by the previous run, in journal order. Audit logs whose event ID is
+     * already in the partition of their date are skipped, so a replay interrupted by another crash can safely run
+     * again. An audit log that still fails after every attempt is moved to the dead-letter file if the database
+     * answers, since the audit log itself is then at fault. If the database does not answer, the replay stops: the
+     * checkpoint only moves to the record before it, so it and the records after it stay in the journal for the next
+     * replay.
+     *
+     * @param dao    the DAO used to check which audit logs were already written
+     * @param writer the service used to write the missing audit logs
+     * @return the number of audit logs written
+     * @throws AuditException if the database cannot be reached
+     */
+    public int replay(AuditLogDao dao, AuditLogService writer) {
+        NavigableMap<Long, AuditLog> toReplay;
+        synchronized (this) {
+            toReplay = unflushed;
+            unflushed = new TreeMap<>();
+        }
+        int written = 0;
+        int deadLettered = 0;
+        for (Map.Entry<Long, AuditLog> record : toReplay.entrySet()) {
+            AuditLog auditLog = record.getValue();
+            try {
+                if (dao.exists(auditLog)) {
+                    continue;
+                }
+                RuntimeException failure = this.attempt(auditLog, writer);
+                if (failure == null) {
+                    written++;
+                    continue;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw failure;
+                }
+                if (!dao.exists(auditLog)) {
+                    synchronized (this) {
+                        this.writeDeadLetter(auditLog, failure);
+                    }
+                    deadLettered++;
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    this.advanceCheckpoint(record.getKey() - 1);
+                    unflushed = new TreeMap<>(toReplay.tailMap(record.getKey(), true));
+                }
+                throw new AuditException("Failed to replay journaled audit log " + auditLog.getEventId()
+                        + " of table " + auditLog.getTableName() + " after " + written + " of " + toReplay.size()
+                        + " journaled audit logs; the others are kept in the journal", e);
+            }
+        }
+        if (!toReplay.isEmpty()) {
+            log.info("Replayed {} journaled audit logs, {} were already written, {} were moved to the dead-letter file",
+                    written, toReplay.size() - written - deadLettered, deadLettered);
+        }
+        synchronized (this) {
+            this.advanceCheckpoint(recoveredSequence);
+        }
+        return written;
+    }
+
+    /**
+     * Appends an audit log to the journal, assigning it an event ID if it has none.
+     *
+     * @param auditLog the audit log to append
+     * @return true if the audit log was appended, false if the journal is full or closed, or if the audit log is
+     *         larger than a segment
+     */
+    public boolean append(AuditLog auditLog) {
+        if (auditLog.getEventId() == null) {
+            auditLog.setEventId(UUID.randomUUID().toString());
+        }
+        byte[] body = JournalRecordCodec.encode(auditLog);
+        if (body.length + JournalSegment.HEADER_SIZE > segmentSize) {
+            log.warn("The audit log of table {} and value {} does not fit in an audit journal segment",
+                    auditLog.getTableName(), auditLog.getValueId());
+            return false;
+        }
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            long sequence = nextSequence;
+            if (!segments.getLast().append(sequence, body)) {
+                if (!this.roll()) {
+                    return false;
+                }
+                segments.getLast().append(sequence, body);
+            }
+            if (force) {
+                segments.getLast().force();
+            }
+            nextSequence++;
+            pending.add(sequence);
+            pendingEvents.put(auditLog.getEventId(), sequence);
+            return true;
+        }
+    }
+
+    /**
+     * Marks a journaled audit log as written to {@code audit_log}, advancing the checkpoint and recycling the
+     * segments it no longer needs.
+     *
+     * @param auditLog the written audit log
+     */
+    public synchronized void commit(AuditLog auditLog) {
+        this.release(auditLog);
+    }
+
+    /**
+     * Writes a journaled audit log, retrying with a doubling backoff, and commits it. After the last failed attempt,
+     * the audit log is moved to the dead-letter file so that the checkpoint can advance past it. If the thread is
+     * interrupted while waiting to retry, the audit log is left pending and replayed the next time the journal is
+     * opened.
+     *
+     * @param auditLog the appended audit log
+     * @param writer   the service writing the audit log to the database
+     * @throws AuditException if the audit log could not be written
+     */
+    public void write(AuditLog auditLog, AuditLogService writer) {
+        RuntimeException failure = this.attempt(auditLog, writer);
+        if (failure == null) {
+            this.commit(auditLog);
+            return;
+        }
+        if (!Thread.currentThread().isInterrupted()) {
+            synchronized (this) {
+                this.writeDeadLetter(auditLog, failure);
+                this.release(auditLog);
+            }
+        }
+        throw new AuditException("Failed to write journaled audit log " + auditLog.getEventId() + " of table "
+                + auditLog.getTableName() + " after " + writeAttempts + " attempts", failure);
+    }
+
+    /**
+     * Reads the audit logs moved to the dead-letter file, oldest first.
+     *
+     * @return the dead-lettered audit logs
+     * @throws AuditException if the dead-letter file cannot be read
+     */
+    public synchronized List<AuditLog> readDeadLetters() {
+        List<AuditLog> auditLogs = new ArrayList<>();
+        this.scanDeadLetters(auditLogs);
+        return auditLogs;
+    }
+
+    /**
+     * Gets the number of audit logs in the dead-letter file, including those moved there by previous runs.
+     *
+     * @return the dead letter count.
+     */
+    public synchronized long getDeadLetterCount() {
+        return deadLetterCount;
+    }
+
+    /**
+     * Gets the number of appended audit logs that have not been committed yet.
+     *
+     * @return the pending count.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Flushes the journal and stops accepting new audit logs. Audit logs that are still pending are replayed the
+     * next time the journal is opened.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.getLast().force();
+        checkpointBuffer.force();
+        try {
+            deadLetters.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the audit journal dead-letter file", e);
+        }
+        if (!pending.isEmpty()) {
+            log.warn("{} journaled audit logs were not written and will be replayed on the next start",
+                    pending.size());
+        }
+    }
+
+    /**
+     * Calls the writer until it succeeds or the attempts are exhausted, waiting between attempts.
+     *
+     * @param auditLog the audit log to write
+     * @param writer   the service writing the audit log to the database
+     * @return null if the audit log was written, the last failure otherwise; the interrupt status of the thread is
+     *         set if it was interrupted while waiting
+     */
+    private RuntimeException attempt(AuditLog auditLog, AuditLogService writer) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt < writeAttempts; attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(retryBackoffMillis << Math.min(attempt - 1, 20));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return failure;
+                }
+            }
+            try {
+                writer.audit(auditLog);
+                return null;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Attempt {} of {} to write journaled audit log {} failed", attempt + 1, writeAttempts,
+                        auditLog.getEventId(), e);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Removes an audit log from the pending records, advancing the checkpoint and recycling the segments it no
+     * longer needs.
+     *
+     * @param auditLog the audit log that is no longer pending
+     */
+    private void release(AuditLog auditLog) {
+        Long sequence = pendingEvents.remove(auditLog.getEventId());
+        if (sequence == null) {
+            return;
+        }
+        pending.remove(sequence);
+        this.advanceCheckpoint(pending.isEmpty() ? nextSequence - 1 : pending.first() - 1);
+    }
+
+    /**
+     * Appends an audit log to the dead-letter file.
+     *
+     * @param auditLog the audit log that could not be written
+     * @param failure  the last write failure
+     * @throws AuditException if the dead-letter file cannot be written, in which case the audit log stays pending
+     */
+    private void writeDeadLetter(AuditLog auditLog, RuntimeException failure) {
+        byte[] body = JournalRecordCodec.encode(auditLog);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + body.length).putInt(body.length).put(body);
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                deadLetters.write(record);
+            }
+            if (force) {
+                deadLetters.force(false);
+            }
+        } catch (IOException e) {
+            throw new AuditException("Failed to move journaled audit log " + auditLog.getEventId()
+                    + " to the dead-letter file", e);
+        }
+        deadLetterCount++;
+        log.error("Moved journaled audit log {} of table {} and value {} to the dead-letter file",
+                auditLog.getEventId(), auditLog.getTableName(), auditLog.getValueId(), failure);
+    }
+
+    /**
+     * Reads the dead-letter file from the start and leaves its position at the end of the last complete record.
+     * An incomplete record, left by a crash during its write, is truncated.
+     *
+     * @param auditLogs the list receiving the decoded audit logs, or null to only count them
+     * @return the number of complete records
+     * @throws AuditException if the file cannot be read
+     */
+    private long scanDeadLetters(List<AuditLog> auditLogs) {
+        try {
+            long size = deadLetters.size();
+            long position = 0;
+            long count = 0;
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            while (position + Integer.BYTES <= size) {
+                length.clear();
+                this.read(length, position);
+                int bodyLength = length.getInt(0);
+                if (bodyLength < JournalRecordCodec.SEQUENCE_SIZE
+                        || position + Integer.BYTES + bodyLength > size) {
+                    break;
+                }
+                if (auditLogs != null) {
+                    ByteBuffer body = ByteBuffer.allocate(bodyLength);
+                    this.read(body, position + Integer.BYTES);
+                    auditLogs.add(JournalRecordCodec.decode(body.array()));
+                }
+                position += Integer.BYTES + bodyLength;
+                count++;
+            }
+            if (position < size) {
+                log.warn("Truncating the incomplete record at the end of the audit journal dead-letter file");
+                deadLetters.truncate(position);
+            }
+            deadLetters.position(position);
+            return count;
+        } catch (IOException e) {
+            throw new AuditException("Failed to read the audit journal dead-letter file", e);
+        }
+    }
+
+    /**
+     * Fills a buffer from the dead-letter file.
+     *
+     * @param buffer   the buffer to fill
+     * @param position the file position of the first byte
+     * @throws IOException if the file cannot be read or ends before the buffer is full
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (deadLetters.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the audit journal dead-letter file");
+            }
+        }
+    }
+
+    /**
+     * Moves the checkpoint forward, persists it and recycles the segments that are fully committed.
+     *
+     * @param sequence the new checkpoint
+     */
+    private void advanceCheckpoint(long sequence) {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        checkpoint = sequence;
+        checkpointBuffer.putLong(0, sequence);
+        if (force) {
+            checkpointBuffer.force();
+        }
+        this.recycle();
+    }
+
+    /**
+     * Retires every segment, except the active one, whose records are all at or below the checkpoint. Retired files
+     * are kept as spares for the next segments, up to the maximum segment count, and deleted otherwise.
+     */
+    private void recycle() {
+        while (segments.size() > 1 && segments.getFirst().getLastSequence() <= checkpoint) {
+            Path path = segments.removeFirst().getPath();
+            try {
+                if (segments.size() + spares.size() < maxSegments) {
+                    spares.add(path);
+                } else {
+                    Files.delete(path);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete audit journal segment {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Starts a new active segment, reusing a spare segment file when one is available.
+     *
+     * @return true if a segment was started, false if the maximum number of segments is in use
+     */
+    private boolean roll() {
+        if (segments.size() >= maxSegments) {
+            return false;
+        }
+        long index = nextSegmentIndex;
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        try {
+            Path spare = spares.poll();
+            if (spare != null) {
+                Files.move(spare, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new AuditException("Failed to recycle audit journal segment", e);
+        }
+        if (!segments.isEmpty()) {
+            segments.getLast().force();
+        }
+        segments.add(JournalSegment.map(index, path, segmentSize));
+        nextSegmentIndex = index + 1;
+        return true;
+    }
+
+    /**
+     * Lists the segment files of the journal directory in index order.
+     *
+     * @return the segment files
+     * @throws IOException if the directory cannot be listed
+     */
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Extracts the index of a segment from its file name.
+     *
+     * @param path the segment file
+     * @return the segment index
+     */
+    private static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
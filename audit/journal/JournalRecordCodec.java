@@ -0,0 +1,134 @@
+package com.thinkon.common.audit.journal;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Binary encoding of the {@link AuditLog} records stored in the journal. A record body starts with its 8-byte
+ * sequence number, followed by the audit log fields and its changes. Strings are written as a length followed by
+ * their UTF-8 bytes, with a length of -1 for null.
+ */
+final class JournalRecordCodec {
+
+    /**
+     * Size of the sequence number at the start of every record body.
+     */
+    static final int SEQUENCE_SIZE = Long.BYTES;
+
+    private JournalRecordCodec() {
+    }
+
+    /**
+     * Encodes an audit log with a zero sequence number, to be set with {@link JournalSegment#append(long, byte[])}.
+     *
+     * @param auditLog the audit log to encode
+     * @return the record body
+     */
+    static byte[] encode(AuditLog auditLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(0);
+            writeString(out, auditLog.getEventId());
+            writeString(out, auditLog.getTableName());
+            writeString(out, auditLog.getValueId());
+            writeString(out, auditLog.getAction() == null ? null : auditLog.getAction().name());
+            writeString(out, auditLog.getAuditUser());
+            out.writeLong(auditLog.getDate() == null ? Long.MIN_VALUE : auditLog.getDate().getTime());
+            List<AuditLogChange> changes = auditLog.getLogChanges();
+            out.writeInt(changes == null ? 0 : changes.size());
+            if (changes != null) {
+                for (AuditLogChange change : changes) {
+                    writeString(out, change.getFieldName());
+                    writeString(out, change.getOldValue());
+                    writeString(out, change.getNewValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new AuditException("Failed to encode audit log journal record", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a record body.
+     *
+     * @param body the record body, starting with its sequence number
+     * @return the decoded audit log
+     */
+    static AuditLog decode(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            in.readLong();
+            String eventId = readString(in);
+            String tableName = readString(in);
+            String valueId = readString(in);
+            String action = readString(in);
+            String auditUser = readString(in);
+            long date = in.readLong();
+            int size = in.readInt();
+            List<AuditLogChange> changes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                changes.add(AuditLogChange.builder()
+                        .fieldName(readString(in))
+                        .oldValue(readString(in))
+                        .newValue(readString(in))
+                        .build());
+            }
+            return AuditLog.builder()
+                    .eventId(eventId)
+                    .tableName(tableName)
+                    .valueId(valueId)
+                    .action(action == null ? null : Action.valueOf(action))
+                    .auditUser(auditUser)
+                    .date(date == Long.MIN_VALUE ? null : new Date(date))
+                    .logChanges(changes)
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new AuditException("Failed to decode audit log journal record", e);
+        }
+    }
+
+    /**
+     * Writes a nullable string.
+     *
+     * @param out   the output to write to
+     * @param value the string to write
+     * @throws IOException if the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a nullable string.
+     *
+     * @param in the input to read from
+     * @return the string read
+     * @throws IOException if the string cannot be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
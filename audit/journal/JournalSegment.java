@@ -0,0 +1,150 @@
+package com.thinkon.common.audit.journal;
+
+import com.thinkon.common.audit.AuditException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A memory-mapped journal segment file. Records are laid out as {@code [length][crc32][body]}, where the body
+ * starts with the record sequence number. A length of zero, a record that does not fit, a checksum mismatch or a
+ * sequence number that does not increase marks the end of the valid data, so torn writes and the stale content of a
+ * recycled segment are ignored.
+ */
+final class JournalSegment {
+
+    /**
+     * Size of the length and checksum preceding every record body.
+     */
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final long index;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private long lastSequence;
+
+    private JournalSegment(long index, Path path, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a segment file, creating or extending it to the given size.
+     *
+     * @param index the index of the segment
+     * @param path  the segment file
+     * @param size  the size of the segment, in bytes
+     * @return the mapped segment, positioned at its start
+     */
+    static JournalSegment map(long index, Path path, long size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new JournalSegment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new AuditException("Failed to map audit journal segment " + path, e);
+        }
+    }
+
+    /**
+     * Reads the valid records of the segment, from its start, and positions the segment after the last one.
+     *
+     * @param consumer receives the sequence number and body of every valid record
+     */
+    void scan(BiConsumer<Long, byte[]> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= HEADER_SIZE + JournalRecordCodec.SEQUENCE_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length < JournalRecordCodec.SEQUENCE_SIZE || length > buffer.remaining() - HEADER_SIZE) {
+                break;
+            }
+            byte[] body = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(start + HEADER_SIZE);
+            record.get(body);
+            long sequence = ByteBuffer.wrap(body).getLong(0);
+            if (checksum(body) != buffer.getInt(start + Integer.BYTES) || sequence <= lastSequence) {
+                break;
+            }
+            lastSequence = sequence;
+            buffer.position(start + HEADER_SIZE + length);
+            consumer.accept(sequence, body);
+        }
+    }
+
+    /**
+     * Appends a record at the current position. The sequence number is written into the first bytes of the body
+     * and the length is written last, so a partially written record is never read back as valid.
+     *
+     * @param sequence the sequence number of the record
+     * @param body     the encoded record body
+     * @return true if the record was written, false if the segment has no room left for it
+     */
+    boolean append(long sequence, byte[] body) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE + body.length) {
+            return false;
+        }
+        ByteBuffer.wrap(body).putLong(0, sequence);
+        buffer.putInt(start + Integer.BYTES, checksum(body));
+        ByteBuffer record = buffer.duplicate();
+        record.position(start + HEADER_SIZE);
+        record.put(body);
+        buffer.putInt(start, body.length);
+        buffer.position(start + HEADER_SIZE + body.length);
+        lastSequence = sequence;
+        return true;
+    }
+
+    /**
+     * Forces the content of the segment to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Gets the index of the segment.
+     *
+     * @return the index.
+     */
+    long getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the segment file.
+     *
+     * @return the path of the segment.
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the sequence number of the last record of the segment.
+     *
+     * @return the last sequence number, or 0 if the segment is empty.
+     */
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Computes the checksum of a record body.
+     *
+     * @param body the record body
+     * @return the CRC32 of the body
+     */
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
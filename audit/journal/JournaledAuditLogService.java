@@ -0,0 +1,185 @@
+package com.thinkon.common.audit.journal;
+
+import com.thinkon.common.audit.AuditConfiguration;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
+import com.thinkon.common.audit.service.AsyncAuditLogService;
+import com.thinkon.common.audit.service.AuditLogService;
+import com.thinkon.common.audit.service.AuditLogServiceImpl;
+import com.thinkon.common.audit.service.OverflowPolicy;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous {@link AuditLogService} whose audit logs survive a crash of the JVM.
+ * Every audit log is appended to the {@link AuditJournal} before it is queued, and committed to the journal once the
+ * writer thread has written it. When the journal is full, the audit log is written synchronously instead. Audit
+ * logs whose policy asks for synchronous delivery are journaled, then written and committed on the caller's thread.
+ * A journaled audit log is written with {@link AuditJournal#write(AuditLog, AuditLogService)}, which retries it and
+ * moves it to the dead-letter file of the journal if it keeps failing.
+ *
+ * <p>The {@link OverflowPolicy#DROP} policy is replaced by {@link OverflowPolicy#CALLER_RUNS}, since a dropped
+ * audit log would never be committed and would hold back the journal checkpoint.</p>
+ */
+@Slf4j
+public class JournaledAuditLogService implements AuditLogService, AutoCloseable {
+
+    private final AuditJournal journal;
+    private final AuditLogService writer;
+    private final AsyncAuditLogService dispatcher;
+
+    /**
+     * Creates the service and starts its writer threads.
+     *
+     * @param journal        the journal of the audit logs
+     * @param writer         the service that writes the audit logs to the database
+     * @param configuration  the asynchronous dispatch configuration
+     * @param policyRegistry the registry of the runtime audit policies, whose delivery decides which journaled audit
+     *                       logs are written on the caller's thread, or null to queue every audit log
+     */
+    public JournaledAuditLogService(AuditJournal journal, AuditLogService writer, AuditConfiguration configuration,
+            AuditPolicyRegistry policyRegistry) {
+        this.journal = journal;
+        this.writer = writer;
+        AuditConfiguration dispatchConfiguration = configuration;
+        if (configuration.getOverflowPolicy() == OverflowPolicy.DROP) {
+            dispatchConfiguration = configuration.toBuilder().overflowPolicy(OverflowPolicy.CALLER_RUNS).build();
+        }
+        this.dispatcher = new AsyncAuditLogService(new CheckpointingAuditLogService(writer, journal),
+                dispatchConfiguration, policyRegistry);
+    }
+
+    /**
+     * Validates the provided {@link AuditLog}, appends it to the journal and queues it for writing.
+     *
+     * @param auditLog The audit log object to be audited.
+     */
+    @Override
+    public void audit(AuditLog auditLog) {
+        AuditLogServiceImpl.validate(auditLog);
+        if (!journal.append(auditLog)) {
+            log.debug("Audit journal unavailable, writing audit log of table {} and value {} synchronously",
+                    auditLog.getTableName(), auditLog.getValueId());
+            writer.audit(auditLog);
+            return;
+        }
+        dispatcher.audit(auditLog);
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query. Audit logs still in the queue are not returned.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        return dispatcher.find(query);
+    }
+
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest. Audit logs still in the queue are not returned.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        return dispatcher.findPage(query);
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, without loading them all in memory. Audit logs still in
+     * the queue are not returned.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        dispatcher.stream(query, consumer);
+    }
+
+    /**
+     * Flushes the queued audit logs, then closes the journal.
+     */
+    @Override
+    public void close() {
+        dispatcher.close();
+        journal.close();
+    }
+
+    /**
+     * Gets the asynchronous dispatcher, for its counters.
+     *
+     * @return the {@link AsyncAuditLogService} writing the journaled audit logs.
+     */
+    public AsyncAuditLogService getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Gets the number of audit logs moved to the dead-letter file of the journal.
+     *
+     * @return the dead letter count.
+     */
+    public long getDeadLetterCount() {
+        return journal.getDeadLetterCount();
+    }
+
+    /**
+     * Writer-side decorator that writes audit logs through the journal, which commits them once they are written.
+     */
+    @RequiredArgsConstructor
+    private static class CheckpointingAuditLogService implements AuditLogService {
+        private final AuditLogService writer;
+        private final AuditJournal journal;
+
+        /**
+         * Writes a journaled audit log, retrying it, and commits it to the journal.
+         *
+         * @param auditLog The audit log object to be audited.
+         */
+        @Override
+        public void audit(AuditLog auditLog) {
+            journal.write(auditLog, writer);
+        }
+
+        /**
+         * Finds the audit logs matching the criteria of a query.
+         *
+         * @param query The search criteria; the limit and cursor are ignored.
+         * @return A list of {@link AuditLog} objects matching the search criteria.
+         */
+        @Override
+        public List<AuditLog> find(AuditLogQuery query) {
+            return writer.find(query);
+        }
+
+        /**
+         * Finds a page of audit logs, from the most recent to the oldest.
+         *
+         * @param query The search criteria, page size and cursor.
+         * @return The page of audit logs with the cursor of the next page.
+         */
+        @Override
+        public AuditLogPage findPage(AuditLogQuery query) {
+            return writer.findPage(query);
+        }
+
+        /**
+         * Streams audit logs, from the most recent to the oldest.
+         *
+         * @param query    The search criteria; the limit and cursor are ignored.
+         * @param consumer The consumer called with each audit log and all of its changes.
+         */
+        @Override
+        public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+            writer.stream(query, consumer);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.thinkon.common.audit.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative values, such as latencies in nanoseconds or sizes in bytes, with log-linear
+ * buckets in the manner of HdrHistogram: every power of two is split into {@value #SUB_BUCKETS} buckets of equal
+ * width, so a recorded value is known within 12.5% whatever its magnitude. Each bucket is a {@link LongAdder},
+ * allocated on its first value, so recording from many threads only contends on the striped cells of the adders
+ * and a histogram only holds the buckets its values actually fall in.
+ *
+ * <p>Recording takes no lock. A {@link #snapshot()} taken while values are recorded may miss the most recent ones,
+ * but its count always matches its buckets.</p>
+ */
+public final class AuditHistogram {
+
+    /**
+     * Number of buckets each power of two is split into.
+     */
+    public static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value.
+     *
+     * @param value the value; negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int index = bucketIndex(v);
+        LongAdder bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, new LongAdder());
+            bucket = buckets.get(index);
+        }
+        bucket.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Takes a snapshot of the recorded values.
+     *
+     * @return the count, mean, maximum and percentiles of the values
+     */
+    public AuditHistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                counts[i] = bucket.sum();
+                count += counts[i];
+            }
+        }
+        long maximum = max.get();
+        return AuditHistogramSnapshot.builder()
+                .count(count)
+                .mean(count == 0 ? 0 : (double) sum.sum() / count)
+                .max(maximum)
+                .p50(percentile(counts, count, 0.50, maximum))
+                .p90(percentile(counts, count, 0.90, maximum))
+                .p99(percentile(counts, count, 0.99, maximum))
+                .p999(percentile(counts, count, 0.999, maximum))
+                .build();
+    }
+
+    /**
+     * Finds the value below which a fraction of the values fall, as the highest value of its bucket.
+     *
+     * @param counts   the counts of the buckets
+     * @param count    the total of the counts
+     * @param fraction the fraction, between 0 and 1
+     * @param maximum  the highest recorded value, which bounds the result
+     * @return the percentile, or 0 without values
+     */
+    private static long percentile(long[] counts, long count, double fraction, long maximum) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), maximum);
+            }
+        }
+        return maximum;
+    }
+
+    /**
+     * Finds the bucket of a value. Values below {@link #SUB_BUCKETS} have a bucket each; the others go to the
+     * bucket of their power of two selected by their next {@value #SUB_BUCKET_BITS} bits.
+     *
+     * @param value the value, not negative
+     * @return the index of its bucket
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Finds the highest value of a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value that falls in the bucket
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
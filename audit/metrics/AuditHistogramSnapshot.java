@@ -0,0 +1,24 @@
+package com.thinkon.common.audit.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of the values recorded by an {@link AuditHistogram}, in the unit of the values. The percentiles are the
+ * highest values of their buckets, so they overestimate the exact percentiles by 12.5% at most.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditHistogramSnapshot {
+    private long count;
+    private double mean;
+    private long max;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long p999;
+}
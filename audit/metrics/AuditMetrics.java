@@ -0,0 +1,120 @@
+package com.thinkon.common.audit.metrics;
+
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.journal.AuditJournal;
+import com.thinkon.common.audit.service.AsyncAuditLogService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link AuditTableMetrics} of every audited table and action, with the gauges of the asynchronous
+ * queue, the journal and the pre-image cache. Metrics are recorded with {@link java.util.concurrent.atomic.LongAdder} counters
+ * and {@link AuditHistogram} histograms, so recording takes no lock and costs a few increments per call; the
+ * processors resolve the metrics of their table and action once, when they are created.
+ *
+ * <p>{@link #snapshot()} reads every metric at once, for the {@code /audit-metrics} endpoint of
+ * {@link com.thinkon.common.audit.resource.AuditMetricsResource} or any other reporter.</p>
+ */
+public class AuditMetrics {
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final ConcurrentMap<String, AuditTableMetrics[]> tables = new ConcurrentHashMap<>();
+    private volatile AsyncAuditLogService asyncService;
+    private volatile AuditJournal journal;
+    private volatile PreImageCache preImageCache;
+
+    /**
+     * Retrieves the metrics of a table and action, creating the metrics of the table on first use.
+     *
+     * @param tableName the audited table
+     * @param action    the audited action
+     * @return the metrics of the table and action
+     */
+    public AuditTableMetrics get(String tableName, Action action) {
+        return tables.computeIfAbsent(tableName, AuditMetrics::create)[action.ordinal()];
+    }
+
+    /**
+     * Sets the service whose queue depth and dropped count are reported.
+     *
+     * @param asyncService the asynchronous service, or null if audit logs are not queued
+     */
+    public void setAsyncService(AsyncAuditLogService asyncService) {
+        this.asyncService = asyncService;
+    }
+
+    /**
+     * Sets the journal whose dead letter count is reported.
+     *
+     * @param journal the journal of the asynchronous audit logs, or null if they are not journaled
+     */
+    public void setJournal(AuditJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the cache whose hit and miss counts are reported.
+     *
+     * @param preImageCache the pre-image cache, or null if it is disabled
+     */
+    public void setPreImageCache(PreImageCache preImageCache) {
+        this.preImageCache = preImageCache;
+    }
+
+    /**
+     * Takes a snapshot of every metric. Tables and actions without any recorded call are left out.
+     *
+     * @return the metrics of each table and action, with the queue, journal and cache gauges
+     */
+    public AuditMetricsSnapshot snapshot() {
+        List<AuditTableMetricsSnapshot> snapshots = new ArrayList<>();
+        tables.values().forEach(metrics -> Arrays.stream(metrics)
+                .map(AuditTableMetrics::snapshot)
+                .filter(AuditMetrics::isUsed)
+                .forEach(snapshots::add));
+        snapshots.sort(Comparator.comparing(AuditTableMetricsSnapshot::getTableName)
+                .thenComparing(AuditTableMetricsSnapshot::getAction));
+        AsyncAuditLogService async = this.asyncService;
+        AuditJournal auditJournal = this.journal;
+        PreImageCache cache = this.preImageCache;
+        return AuditMetricsSnapshot.builder()
+                .tables(snapshots)
+                .queueDepth(async == null ? null : async.getPendingCount())
+                .queueDropped(async == null ? null : async.getDroppedCount())
+                .journalDeadLetters(auditJournal == null ? null : auditJournal.getDeadLetterCount())
+                .preImageCacheHits(cache == null ? null : cache.getHitCount())
+                .preImageCacheMisses(cache == null ? null : cache.getMissCount())
+                .build();
+    }
+
+    /**
+     * Checks if a table and action recorded anything.
+     *
+     * @param snapshot the metrics of the table and action
+     * @return true if a call or write was recorded, false otherwise
+     */
+    private static boolean isUsed(AuditTableMetricsSnapshot snapshot) {
+        return snapshot.getCalls() > 0 || snapshot.getSkipped() > 0 || snapshot.getWriteNanos().getCount() > 0
+                || snapshot.getWriteFailures() > 0;
+    }
+
+    /**
+     * Creates the metrics of every action of a table.
+     *
+     * @param tableName the audited table
+     * @return the metrics, indexed by action ordinal
+     */
+    private static AuditTableMetrics[] create(String tableName) {
+        AuditTableMetrics[] metrics = new AuditTableMetrics[ACTIONS.length];
+        for (Action action : ACTIONS) {
+            metrics[action.ordinal()] = new AuditTableMetrics(tableName, action);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,42 @@
+package com.thinkon.common.audit.metrics;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Point-in-time view of the {@link AuditMetrics} of the audit pipeline.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditMetricsSnapshot {
+    /**
+     * Metrics of each audited table and action, ordered by table name and action.
+     */
+    private List<AuditTableMetricsSnapshot> tables;
+    /**
+     * Number of audit logs waiting for the writer threads, or null if audit logs are not queued.
+     */
+    private Integer queueDepth;
+    /**
+     * Number of queued audit logs discarded because the queue was full, or null if audit logs are not queued.
+     */
+    private Long queueDropped;
+    /**
+     * Number of journaled audit logs moved to the dead-letter file of the journal because they could not be written,
+     * or null if audit logs are not journaled.
+     */
+    private Long journalDeadLetters;
+    /**
+     * Number of pre-images found in the pre-image cache, or null if the cache is disabled.
+     */
+    private Long preImageCacheHits;
+    /**
+     * Number of pre-images read with findById because they were not cached, or null if the cache is disabled.
+     */
+    private Long preImageCacheMisses;
+}
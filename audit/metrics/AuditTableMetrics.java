@@ -0,0 +1,164 @@
+package com.thinkon.common.audit.metrics;
+
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of the audits of one table and action. Every method is lock-free and may be called from
+ * any thread; the audit processors resolve their instance once and record into it on every call.
+ */
+public final class AuditTableMetrics {
+
+    private final String tableName;
+    private final Action action;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final AuditHistogram preReadNanos = new AuditHistogram();
+    private final AuditHistogram diffNanos = new AuditHistogram();
+    private final AuditHistogram writeNanos = new AuditHistogram();
+    private final AuditHistogram serializedBytes = new AuditHistogram();
+    private final AuditHistogram changes = new AuditHistogram();
+
+    /**
+     * Creates the metrics of a table and action.
+     *
+     * @param tableName the audited table
+     * @param action    the audited action
+     */
+    AuditTableMetrics(String tableName, Action action) {
+        this.tableName = tableName;
+        this.action = action;
+    }
+
+    /**
+     * Records a call run without being audited.
+     */
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Records the reading and processing of the old states of an audited call.
+     *
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public void recordPreRead(long nanos) {
+        calls.increment();
+        preReadNanos.record(nanos);
+    }
+
+    /**
+     * Records the processing and comparison of the new states of an audited call.
+     *
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public void recordDiff(long nanos) {
+        diffNanos.record(nanos);
+    }
+
+    /**
+     * Records audit logs left unwritten because their update changed nothing.
+     *
+     * @param count the number of unwritten audit logs
+     */
+    public void recordUnchanged(long count) {
+        unchanged.add(count);
+    }
+
+    /**
+     * Records an audited call that failed in the audit pipeline.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Records a successful write of one or more audit logs.
+     *
+     * @param nanos     the elapsed time, in nanoseconds
+     * @param auditLogs the written audit logs
+     */
+    public void recordWrite(long nanos, Iterable<AuditLog> auditLogs) {
+        writeNanos.record(nanos);
+        for (AuditLog auditLog : auditLogs) {
+            int changeCount = auditLog.getLogChanges() == null ? 0 : auditLog.getLogChanges().size();
+            changes.record(changeCount);
+            serializedBytes.record(serializedSize(auditLog));
+        }
+    }
+
+    /**
+     * Records a failed write of audit logs.
+     */
+    public void recordWriteFailure() {
+        writeFailures.increment();
+    }
+
+    /**
+     * Takes a snapshot of the metrics.
+     *
+     * @return the counters and histograms of the table and action
+     */
+    public AuditTableMetricsSnapshot snapshot() {
+        return AuditTableMetricsSnapshot.builder()
+                .tableName(tableName)
+                .action(action)
+                .calls(calls.sum())
+                .skipped(skipped.sum())
+                .unchanged(unchanged.sum())
+                .failures(failures.sum())
+                .writeFailures(writeFailures.sum())
+                .preReadNanos(preReadNanos.snapshot())
+                .diffNanos(diffNanos.snapshot())
+                .writeNanos(writeNanos.snapshot())
+                .serializedBytes(serializedBytes.snapshot())
+                .changes(changes.snapshot())
+                .build();
+    }
+
+    /**
+     * Computes the size of the field names and values of an audit log, as written before any value codec. This is
+     * the size recorded by the serialized bytes histogram.
+     *
+     * @param auditLog the audit log
+     * @return the size, in UTF-8 bytes
+     */
+    public static long serializedSize(AuditLog auditLog) {
+        if (auditLog.getLogChanges() == null) {
+            return 0;
+        }
+        long size = 0;
+        for (AuditLogChange change : auditLog.getLogChanges()) {
+            size += utf8Length(change.getFieldName()) + utf8Length(change.getOldValue())
+                    + utf8Length(change.getNewValue());
+        }
+        return size;
+    }
+
+    /**
+     * Computes the UTF-8 length of a string without encoding it.
+     *
+     * @param text the string, possibly null
+     * @return the length, in bytes, 0 for null
+     */
+    private static long utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        long length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,60 @@
+package com.thinkon.common.audit.metrics;
+
+import com.thinkon.common.audit.entity.Action;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters and histograms of the audits of one table and action, as taken by {@link AuditTableMetrics#snapshot()}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditTableMetricsSnapshot {
+    private String tableName;
+    private Action action;
+    /**
+     * Number of audited calls.
+     */
+    private long calls;
+    /**
+     * Number of calls run without being audited, because their policy disabled auditing or left them out of its
+     * sample.
+     */
+    private long skipped;
+    /**
+     * Number of audit logs not written because the update changed nothing.
+     */
+    private long unchanged;
+    /**
+     * Number of audited calls that failed in the audit pipeline, such as a failed pre-read or audit log write.
+     */
+    private long failures;
+    /**
+     * Number of audit log writes that failed, including the writes of the asynchronous writer threads.
+     */
+    private long writeFailures;
+    /**
+     * Time spent reading and processing the old states, in nanoseconds.
+     */
+    private AuditHistogramSnapshot preReadNanos;
+    /**
+     * Time spent reading and processing the new states and comparing them to the old ones, in nanoseconds.
+     */
+    private AuditHistogramSnapshot diffNanos;
+    /**
+     * Time spent writing the audit logs, per write, in nanoseconds.
+     */
+    private AuditHistogramSnapshot writeNanos;
+    /**
+     * Size of the field names and values of each written audit log, in UTF-8 bytes, before any value codec.
+     */
+    private AuditHistogramSnapshot serializedBytes;
+    /**
+     * Number of changes of each written audit log.
+     */
+    private AuditHistogramSnapshot changes;
+}
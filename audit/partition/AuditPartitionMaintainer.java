@@ -0,0 +1,121 @@
+package com.thinkon.common.audit.partition;
+
+import com.thinkon.common.audit.AuditException;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Keeps the monthly {@link AuditPartitions} of the audit tables ready and within their retention. Each run reads
+ * the partitions that exist in the database, creates the partitions of the current month and of the upcoming
+ * months that are missing, so that writes never have to create them, and drops the partitions older than the
+ * retention period with a {@code DROP TABLE} instead of deleting their rows.
+ *
+ * <p>{@link #start(long)} runs the maintenance once, then periodically on a daemon thread. Failures of the periodic
+ * runs are logged and retried on the next run.</p>
+ */
+@Slf4j
+public class AuditPartitionMaintainer implements AutoCloseable {
+
+    private final Jdbi jdbi;
+    private final int precreateMonths;
+    private final int retentionMonths;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a maintainer.
+     *
+     * @param jdbi            the Jdbi instance, whose {@link AuditPartitions} configuration is maintained
+     * @param precreateMonths the number of months after the current one whose partitions are created in advance
+     * @param retentionMonths the number of months kept, including the current one, or 0 to keep every partition
+     * @throws AuditException if a number of months is negative
+     */
+    public AuditPartitionMaintainer(Jdbi jdbi, int precreateMonths, int retentionMonths) {
+        if (precreateMonths < 0 || retentionMonths < 0) {
+            throw new AuditException("The audit partition months to create and keep must not be negative");
+        }
+        this.jdbi = jdbi;
+        this.precreateMonths = precreateMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Runs the maintenance for the current month, in {@link AuditPartitions#ZONE}.
+     */
+    public void maintain() {
+        this.maintain(YearMonth.now(AuditPartitions.ZONE));
+    }
+
+    /**
+     * Runs the maintenance for a given month: creates the missing partitions from that month to the last upcoming
+     * one, and drops the partitions older than the retention period.
+     *
+     * @param current the current month
+     */
+    public void maintain(YearMonth current) {
+        AuditPartitions partitions = jdbi.getConfig(AuditPartitions.class);
+        jdbi.useHandle(handle -> {
+            partitions.refresh(handle);
+            for (int i = 0; i <= precreateMonths; i++) {
+                YearMonth month = current.plusMonths(i);
+                if (!partitions.getPartitions().contains(month)) {
+                    partitions.create(handle, month);
+                    log.info("Created the audit partition {}", AuditPartitions.suffixOf(month));
+                }
+            }
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+                for (YearMonth month : partitions.getPartitions().headSet(oldestKept)) {
+                    partitions.drop(handle, month);
+                    log.info("Dropped the audit partition {}", AuditPartitions.suffixOf(month));
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the maintenance now, then every interval until the maintainer is closed.
+     *
+     * @param intervalMillis the time between two runs, in milliseconds
+     * @throws AuditException if the maintainer is already started
+     * @throws RuntimeException if the first run fails, in which case the maintainer is not started
+     */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) {
+            throw new AuditException("The audit partition maintainer is already started");
+        }
+        this.maintain();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "audit-partition-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the maintenance, logging its failure since there is no caller to report it to.
+     */
+    private void maintainQuietly() {
+        try {
+            this.maintain();
+        } catch (RuntimeException e) {
+            log.error("Failed to maintain the audit partitions", e);
+        }
+    }
+
+    /**
+     * Stops the periodic maintenance. The partitions are left as they are.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.thinkon.common.audit.partition;
+
+import com.thinkon.common.audit.AuditException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.config.JdbiConfig;
+
+/**
+ * Jdbi configuration of the monthly partitions of the audit tables, used by the
+ * {@link com.thinkon.common.audit.dao.AuditLogDao} to route its statements.
+ *
+ * <p>When partitioning is enabled, the audit logs of each month, in UTC, are written to their own pair of tables,
+ * {@code audit_log_YYYYMM} and {@code audit_log_changes_YYYYMM}, created from {@code audit_log} and
+ * {@code audit_log_changes}. The DAO statements name their tables {@code audit_log<partition>} and
+ * {@code audit_log_changes<partition>}, where {@code partition} is the table name suffix, {@code _YYYYMM}, or empty
+ * for the unpartitioned tables. Queries only read the partitions their date range needs, from the most recent to
+ * the oldest, followed by the unpartitioned tables, which keep the audit logs written before partitioning was
+ * enabled. Retention drops whole partitions.</p>
+ *
+ * <p>The partitions known to exist are shared by every copy of the configuration, and kept up to date by the
+ * {@link AuditPartitionMaintainer}.</p>
+ */
+@Slf4j
+public final class AuditPartitions implements JdbiConfig<AuditPartitions> {
+
+    /**
+     * Time zone of the months of the partitions.
+     */
+    public static final ZoneOffset ZONE = ZoneOffset.UTC;
+
+    /**
+     * Statement creating the changes table of a partition, with the columns of the README and a foreign key to the
+     * audit log table of the same partition, which {@code CREATE TABLE ... LIKE} would not copy.
+     */
+    public static final String CHANGES_CREATE_STATEMENT = "CREATE TABLE IF NOT EXISTS audit_log_changes<partition> ("
+            + "id bigint NOT NULL AUTO_INCREMENT, audit_log_id bigint NOT NULL, field_name varchar(200) NOT NULL, "
+            + "old_value blob DEFAULT NULL, new_value blob DEFAULT NULL, PRIMARY KEY (id), "
+            + "KEY fdk_audit_log<partition> (audit_log_id), CONSTRAINT fdk_audit_log<partition> FOREIGN KEY (audit_log_id) "
+            + "REFERENCES audit_log<partition> (id))";
+
+    /**
+     * Statements creating the tables of a partition on MySQL, where {@code <partition>} is the table name suffix.
+     */
+    public static final List<String> MYSQL_CREATE_STATEMENTS = List.of(
+            "CREATE TABLE IF NOT EXISTS audit_log<partition> LIKE audit_log",
+            CHANGES_CREATE_STATEMENT);
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_TABLE = Pattern.compile("audit_log_(\\d{6})", Pattern.CASE_INSENSITIVE);
+    private static final List<String> DROP_STATEMENTS = List.of(
+            "DROP TABLE IF EXISTS audit_log_changes<partition>",
+            "DROP TABLE IF EXISTS audit_log<partition>");
+
+    private final NavigableSet<YearMonth> partitions;
+    private boolean enabled;
+    private List<String> createStatements;
+
+    /**
+     * Creates the default configuration, without partitioning.
+     */
+    public AuditPartitions() {
+        this.partitions = new ConcurrentSkipListSet<>();
+        this.createStatements = MYSQL_CREATE_STATEMENTS;
+    }
+
+    /**
+     * Creates a copy of a configuration, sharing its known partitions.
+     *
+     * @param other the configuration to copy
+     */
+    private AuditPartitions(AuditPartitions other) {
+        this.partitions = other.partitions;
+        this.enabled = other.enabled;
+        this.createStatements = other.createStatements;
+    }
+
+    /**
+     * Creates a copy of this configuration.
+     *
+     * @return the copy
+     */
+    @Override
+    public AuditPartitions createCopy() {
+        return new AuditPartitions(this);
+    }
+
+    /**
+     * Enables or disables the routing of the audit logs to monthly partitions.
+     *
+     * @param enabled true to partition the audit tables
+     * @return this configuration
+     */
+    public AuditPartitions setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Checks if the audit logs are routed to monthly partitions.
+     *
+     * @return true if the audit tables are partitioned
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the statements creating the tables of a partition, in which {@code <partition>} stands for the table
+     * name suffix. They must not fail when the tables already exist.
+     *
+     * @param createStatements the statements, {@link #MYSQL_CREATE_STATEMENTS} by default
+     * @return this configuration
+     * @throws AuditException if there is no statement
+     */
+    public AuditPartitions setCreateStatements(List<String> createStatements) {
+        if (createStatements == null || createStatements.isEmpty()) {
+            throw new AuditException("At least one statement is required to create the audit partitions");
+        }
+        this.createStatements = List.copyOf(createStatements);
+        return this;
+    }
+
+    /**
+     * Finds the month of the partition of a date.
+     *
+     * @param date the date of an audit log
+     * @return the month of the date in {@link #ZONE}
+     */
+    public static YearMonth monthOf(Date date) {
+        return YearMonth.from(date.toInstant().atZone(ZONE));
+    }
+
+    /**
+     * Builds the table name suffix of a partition.
+     *
+     * @param month the month of the partition
+     * @return the suffix, such as {@code _202401}
+     */
+    public static String suffixOf(YearMonth month) {
+        return "_" + MONTH_FORMAT.format(month);
+    }
+
+    /**
+     * Retrieves the table name suffix of the partition an audit log is written to. A missing partition is created
+     * first, which is only possible outside of a transaction since creating a table commits the current
+     * transaction on some databases.
+     *
+     * @param handle the handle of the write
+     * @param date   the date of the audit log
+     * @return the suffix of the partition, or an empty string if partitioning is disabled
+     * @throws AuditException if the date is null, or the partition is missing and the handle is in a transaction
+     */
+    public String writePartition(Handle handle, Date date) {
+        if (!enabled) {
+            return "";
+        }
+        if (date == null) {
+            throw new AuditException("The date of an audit log is required to find its partition");
+        }
+        YearMonth month = monthOf(date);
+        if (!partitions.contains(month)) {
+            if (handle.isInTransaction()) {
+                throw new AuditException("The audit partition " + suffixOf(month) + " does not exist and cannot be "
+                        + "created in a transaction");
+            }
+            this.create(handle, month);
+        }
+        return suffixOf(month);
+    }
+
+    /**
+     * Lists the table name suffixes of the partitions holding the audit logs of a date range, from the most
+     * recent to the oldest, followed by the empty suffix of the unpartitioned tables.
+     *
+     * @param from the earliest date, inclusive, or null
+     * @param to   the latest date, exclusive, or null
+     * @return the suffixes to read, only the empty suffix if partitioning is disabled
+     */
+    public List<String> readPartitions(Date from, Date to) {
+        List<String> suffixes = new ArrayList<>();
+        if (enabled) {
+            YearMonth first = from == null ? null : monthOf(from);
+            YearMonth last = to == null ? null : monthOf(new Date(to.getTime() - 1));
+            for (YearMonth month : partitions.descendingSet()) {
+                if ((last == null || !month.isAfter(last)) && (first == null || !month.isBefore(first))) {
+                    suffixes.add(suffixOf(month));
+                }
+            }
+        }
+        suffixes.add("");
+        return suffixes;
+    }
+
+    /**
+     * Retrieves the partitions known to exist.
+     *
+     * @return the months of the partitions, in ascending order
+     */
+    public NavigableSet<YearMonth> getPartitions() {
+        return new TreeSet<>(partitions);
+    }
+
+    /**
+     * Creates the tables of a partition if they do not exist.
+     *
+     * @param handle the handle used to run the statements
+     * @param month  the month of the partition
+     */
+    public void create(Handle handle, YearMonth month) {
+        for (String statement : createStatements) {
+            handle.createUpdate(statement).define("partition", suffixOf(month)).execute();
+        }
+        partitions.add(month);
+    }
+
+    /**
+     * Drops the tables of a partition, and all of its audit logs. The partition is no longer read from once this
+     * method is called.
+     *
+     * @param handle the handle used to run the statements
+     * @param month  the month of the partition
+     */
+    public void drop(Handle handle, YearMonth month) {
+        partitions.remove(month);
+        for (String statement : DROP_STATEMENTS) {
+            handle.createUpdate(statement).define("partition", suffixOf(month)).execute();
+        }
+    }
+
+    /**
+     * Reads the partitions that exist in the database from its metadata, and replaces the known partitions with
+     * them. Tables whose suffix is not a valid month, such as {@code audit_log_202413}, are ignored.
+     *
+     * @param handle the handle used to read the metadata
+     * @return the months of the partitions
+     * @throws AuditException if the metadata cannot be read
+     */
+    public Set<YearMonth> refresh(Handle handle) {
+        Set<YearMonth> found = new TreeSet<>();
+        try {
+            Connection connection = handle.getConnection();
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), "%",
+                    new String[] {"TABLE"})) {
+                while (tables.next()) {
+                    Matcher matcher = PARTITION_TABLE.matcher(tables.getString("TABLE_NAME"));
+                    if (!matcher.matches()) {
+                        continue;
+                    }
+                    try {
+                        found.add(YearMonth.parse(matcher.group(1), MONTH_FORMAT));
+                    } catch (DateTimeParseException e) {
+                        log.warn("Ignoring the table {}, whose suffix is not a valid month",
+                                tables.getString("TABLE_NAME"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new AuditException("Failed to list the audit partitions", e);
+        }
+        partitions.retainAll(found);
+        partitions.addAll(found);
+        return found;
+    }
+}
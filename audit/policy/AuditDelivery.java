@@ -0,0 +1,22 @@
+package com.thinkon.common.audit.policy;
+
+/**
+ * How the audit logs of a table are handed to the database, as set by an {@link AuditPolicy}.
+ */
+public enum AuditDelivery {
+
+    /**
+     * Delivery configured for the whole {@link com.thinkon.common.audit.JdbiAuditWrapper}.
+     */
+    DEFAULT,
+
+    /**
+     * Audit logs are written by the caller's thread.
+     */
+    SYNC,
+
+    /**
+     * Audit logs are queued and written by the background writer threads.
+     */
+    ASYNC;
+}
@@ -0,0 +1,17 @@
+package com.thinkon.common.audit.policy;
+
+/**
+ * How much of each change is recorded, as set by an {@link AuditPolicy}.
+ */
+public enum AuditDiffDepth {
+
+    /**
+     * Changes record the changed fields with their old and new values.
+     */
+    FULL,
+
+    /**
+     * Changes only record the names of the changed fields, without their values.
+     */
+    FIELDS;
+}
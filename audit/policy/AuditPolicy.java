@@ -0,0 +1,108 @@
+package com.thinkon.common.audit.policy;
+
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Runtime audit settings of a table and action, resolved by the {@link AuditPolicyRegistry}. Policies are immutable
+ * and shared by every thread auditing the table.
+ */
+@Value
+@Builder(toBuilder = true)
+public class AuditPolicy {
+
+    /**
+     * Policy applied when no setting is configured: every call is audited synchronously or asynchronously as
+     * configured, with full changes.
+     */
+    public static final AuditPolicy DEFAULT = AuditPolicy.builder().build();
+
+    /**
+     * Whether the calls are audited at all. When false, the audited methods run without being audited.
+     */
+    @Builder.Default
+    boolean enabled = true;
+    /**
+     * How the audit logs are written.
+     */
+    @Builder.Default
+    AuditDelivery delivery = AuditDelivery.DEFAULT;
+    /**
+     * How much of each change is recorded.
+     */
+    @Builder.Default
+    AuditDiffDepth diffDepth = AuditDiffDepth.FULL;
+    /**
+     * Fraction of the calls that are audited, between 0 and 1.
+     */
+    @Builder.Default
+    double sampleRate = 1.0;
+    /**
+     * Fields whose changes are recorded, by field name or label, or an empty set for every field.
+     */
+    @Builder.Default
+    Set<String> allowedFields = Collections.emptySet();
+    /**
+     * Fields whose changes are never recorded, by field name or label.
+     */
+    @Builder.Default
+    Set<String> deniedFields = Collections.emptySet();
+
+    /**
+     * Decides whether the current call is audited, from the enabled flag and the sample rate.
+     *
+     * @return true if the call is audited, false if it runs without being audited.
+     */
+    public boolean isSampled() {
+        return enabled && (sampleRate >= 1.0
+                || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Checks if the policy restricts the recorded fields.
+     *
+     * @return true if there is an allow or deny list, false otherwise.
+     */
+    public boolean hasFieldFilter() {
+        return !allowedFields.isEmpty() || !deniedFields.isEmpty();
+    }
+
+    /**
+     * Checks if the changes of a field are recorded.
+     *
+     * @param field The processed field.
+     * @return true if the field is allowed and not denied, by name or label, false otherwise.
+     */
+    public boolean isFieldAudited(AuditFieldEntity field) {
+        if (deniedFields.contains(field.getFieldName()) || deniedFields.contains(field.getFieldLabel())) {
+            return false;
+        }
+        return allowedFields.isEmpty() || allowedFields.contains(field.getFieldName())
+                || allowedFields.contains(field.getFieldLabel());
+    }
+
+    /**
+     * Keeps the fields of an audit entity map whose changes are recorded.
+     *
+     * @param fields The audit entity map, which is not modified.
+     * @return The map itself when the policy has no field filter, otherwise a filtered copy.
+     */
+    public Map<String, AuditFieldEntity> filterFields(Map<String, AuditFieldEntity> fields) {
+        if (!this.hasFieldFilter()) {
+            return fields;
+        }
+        Map<String, AuditFieldEntity> filtered = new HashMap<>();
+        fields.forEach((name, field) -> {
+            if (this.isFieldAudited(field)) {
+                filtered.put(name, field);
+            }
+        });
+        return filtered;
+    }
+}
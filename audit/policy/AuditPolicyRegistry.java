@@ -0,0 +1,354 @@
+package com.thinkon.common.audit.policy;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.entity.Action;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the runtime {@link AuditPolicy} of each table and action, consulted on every audited call. The
+ * policies are resolved for every table and action when they are loaded, and published as one immutable snapshot
+ * through an {@link AtomicReference}: lookups are a volatile read and a hash map lookup, without any lock, and a
+ * reload swaps the whole snapshot at once.
+ *
+ * <p>Policies are read from properties whose keys are {@code <scope>.<setting>}. The scope is {@code default}, a
+ * table name, or either of them followed by an action, such as {@code product.UPDATE}; the more specific scopes
+ * override the settings of the others. The settings are:</p>
+ * <ul>
+ *     <li>{@code enabled}: {@code false} to stop auditing;</li>
+ *     <li>{@code delivery}: {@code SYNC}, {@code ASYNC} or {@code DEFAULT};</li>
+ *     <li>{@code depth}: {@code FULL}, or {@code FIELDS} to record the changed fields without their values;</li>
+ *     <li>{@code sampleRate}: the fraction of the calls audited, between 0 and 1;</li>
+ *     <li>{@code allow} and {@code deny}: comma-separated field names or labels.</li>
+ * </ul>
+ *
+ * <p>{@link #watch(Path, long)} loads the policies from a file and reloads them whenever the file changes. A file
+ * that cannot be read or parsed leaves the current policies in place.</p>
+ */
+@Slf4j
+public class AuditPolicyRegistry implements AutoCloseable {
+
+    /**
+     * Scope of the settings applied to every table.
+     */
+    public static final String DEFAULT_SCOPE = "default";
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Retrieves the policy of a table and action. Lock-free.
+     *
+     * @param tableName The audited table.
+     * @param action    The audited action.
+     * @return The policy, {@link AuditPolicy#DEFAULT} if nothing is configured for the table and action.
+     */
+    public AuditPolicy getPolicy(String tableName, Action action) {
+        return snapshot.get().get(tableName, action);
+    }
+
+    /**
+     * Replaces every policy with the ones described by properties.
+     *
+     * @param properties The policy settings.
+     * @throws AuditException if a key or a value is invalid; the current policies are then kept.
+     */
+    public void setPolicies(Properties properties) {
+        snapshot.set(Snapshot.parse(properties));
+    }
+
+    /**
+     * Replaces every policy with the ones of a properties file.
+     *
+     * @param file The policy file.
+     * @throws AuditException if the file cannot be read or is invalid; the current policies are then kept.
+     */
+    public void load(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new AuditException("Failed to read the audit policy file " + file, e);
+        }
+        this.setPolicies(properties);
+    }
+
+    /**
+     * Loads the policies of a properties file, then checks the file periodically and reloads it when its
+     * modification time or size changes. A missing file leaves the default policies until it is created.
+     *
+     * @param file           The policy file.
+     * @param intervalMillis The time between two checks of the file, in milliseconds.
+     * @throws AuditException if the file exists but cannot be loaded, or the registry already watches a file.
+     */
+    public synchronized void watch(Path file, long intervalMillis) {
+        if (watcher != null) {
+            throw new AuditException("The audit policy registry already watches a file");
+        }
+        FileState initial = FileState.of(file);
+        if (initial != null) {
+            this.load(file);
+        }
+        AtomicReference<FileState> loaded = new AtomicReference<>(initial);
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "audit-policy-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(() -> this.reload(file, loaded), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads the policy file if it changed since it was last loaded.
+     *
+     * @param file   The policy file.
+     * @param loaded The state of the file when it was last loaded, or null if it did not exist.
+     */
+    private void reload(Path file, AtomicReference<FileState> loaded) {
+        FileState current = FileState.of(file);
+        if (current == null || current.equals(loaded.get())) {
+            return;
+        }
+        loaded.set(current);
+        try {
+            this.load(file);
+            log.info("Reloaded the audit policies from {}", file);
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the audit policies from {}; the previous policies are kept", file, e);
+        }
+    }
+
+    /**
+     * Stops watching the policy file. The current policies stay in place.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Immutable policies of every table and action, indexed by the action ordinal.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), defaults());
+
+        private final Map<String, AuditPolicy[]> tables;
+        private final AuditPolicy[] defaults;
+
+        private Snapshot(Map<String, AuditPolicy[]> tables, AuditPolicy[] defaults) {
+            this.tables = tables;
+            this.defaults = defaults;
+        }
+
+        private AuditPolicy get(String tableName, Action action) {
+            AuditPolicy[] policies = tableName == null ? null : tables.get(tableName);
+            return (policies == null ? defaults : policies)[action.ordinal()];
+        }
+
+        /**
+         * Resolves the policy of every table and action named in properties.
+         *
+         * @param properties The policy settings.
+         * @return The snapshot of the policies.
+         * @throws AuditException if a key or a value is invalid.
+         */
+        private static Snapshot parse(Properties properties) {
+            Map<String, Map<String, String>> scopes = new LinkedHashMap<>();
+            Set<String> tableNames = new LinkedHashSet<>();
+            for (String key : properties.stringPropertyNames()) {
+                int dot = key.lastIndexOf('.');
+                if (dot <= 0 || dot == key.length() - 1) {
+                    throw new AuditException("Invalid audit policy key '" + key + "': expected <scope>.<setting>");
+                }
+                String scope = key.substring(0, dot);
+                Action action = actionOf(scope);
+                String tableName = action == null ? scope : scope.substring(0, scope.lastIndexOf('.'));
+                if (!tableName.equals(DEFAULT_SCOPE)) {
+                    tableNames.add(tableName);
+                }
+                scopes.computeIfAbsent(scope, s -> new HashMap<>())
+                        .put(key.substring(dot + 1), properties.getProperty(key).trim());
+            }
+            Map<String, AuditPolicy[]> tables = new HashMap<>();
+            for (String tableName : tableNames) {
+                tables.put(tableName, resolve(scopes, tableName));
+            }
+            return new Snapshot(tables, resolve(scopes, null));
+        }
+
+        /**
+         * Resolves the policies of a table for every action, from the least to the most specific scope.
+         *
+         * @param scopes    The settings of each scope.
+         * @param tableName The table, or null for the tables without settings of their own.
+         * @return The policies, indexed by action ordinal.
+         */
+        private static AuditPolicy[] resolve(Map<String, Map<String, String>> scopes, String tableName) {
+            AuditPolicy[] policies = new AuditPolicy[ACTIONS.length];
+            for (Action action : ACTIONS) {
+                AuditPolicy.AuditPolicyBuilder builder = AuditPolicy.DEFAULT.toBuilder();
+                List<String> order = new ArrayList<>(List.of(DEFAULT_SCOPE, DEFAULT_SCOPE + "." + action));
+                if (tableName != null) {
+                    order.add(tableName);
+                    order.add(tableName + "." + action);
+                }
+                for (String scope : order) {
+                    scopes.getOrDefault(scope, Collections.emptyMap())
+                            .forEach((setting, value) -> apply(builder, scope, setting, value));
+                }
+                policies[action.ordinal()] = builder.build();
+            }
+            return policies;
+        }
+
+        /**
+         * Applies one setting to a policy.
+         *
+         * @param builder The policy being resolved.
+         * @param scope   The scope of the setting, for error messages.
+         * @param setting The name of the setting.
+         * @param value   The value of the setting.
+         * @throws AuditException if the setting is unknown or its value is invalid.
+         */
+        private static void apply(AuditPolicy.AuditPolicyBuilder builder, String scope, String setting,
+                String value) {
+            try {
+                switch (setting) {
+                    case "enabled":
+                        builder.enabled(Boolean.parseBoolean(value));
+                        break;
+                    case "delivery":
+                        builder.delivery(AuditDelivery.valueOf(value.toUpperCase()));
+                        break;
+                    case "depth":
+                        builder.diffDepth(AuditDiffDepth.valueOf(value.toUpperCase()));
+                        break;
+                    case "sampleRate":
+                        double sampleRate = Double.parseDouble(value);
+                        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+                            throw new IllegalArgumentException("the sample rate must be between 0 and 1");
+                        }
+                        builder.sampleRate(sampleRate);
+                        break;
+                    case "allow":
+                        builder.allowedFields(fieldSet(value));
+                        break;
+                    case "deny":
+                        builder.deniedFields(fieldSet(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown setting");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new AuditException("Invalid audit policy setting " + scope + "." + setting + "=" + value
+                        + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Reads the action at the end of a scope.
+         *
+         * @param scope The scope.
+         * @return The action, or null if the scope does not end with an action.
+         */
+        private static Action actionOf(String scope) {
+            int dot = scope.lastIndexOf('.');
+            if (dot <= 0) {
+                return null;
+            }
+            String suffix = scope.substring(dot + 1);
+            return Arrays.stream(ACTIONS).filter(a -> a.name().equals(suffix)).findFirst().orElse(null);
+        }
+
+        /**
+         * Splits a comma-separated list of fields.
+         *
+         * @param value The list.
+         * @return The set of fields.
+         */
+        private static Set<String> fieldSet(String value) {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(f -> !f.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        /**
+         * Builds the policies of a snapshot without settings.
+         *
+         * @return The default policy for every action.
+         */
+        private static AuditPolicy[] defaults() {
+            AuditPolicy[] policies = new AuditPolicy[ACTIONS.length];
+            Arrays.fill(policies, AuditPolicy.DEFAULT);
+            return policies;
+        }
+    }
+
+    /**
+     * Modification time and size of the policy file, compared to detect changes.
+     */
+    private static final class FileState {
+        private final FileTime modified;
+        private final long size;
+
+        private FileState(FileTime modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        /**
+         * Reads the state of a file.
+         *
+         * @param file The file.
+         * @return The state, or null if the file does not exist or cannot be read.
+         */
+        private static FileState of(Path file) {
+            try {
+                return new FileState(Files.getLastModifiedTime(file), Files.size(file));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileState)) {
+                return false;
+            }
+            FileState other = (FileState) o;
+            return modified.equals(other.modified) && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * modified.hashCode() + Long.hashCode(size);
+        }
+    }
+}
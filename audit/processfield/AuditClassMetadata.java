@@ -0,0 +1,244 @@
+package com.thinkon.common.audit.processfield;
+
+import com.thinkon.common.audit.AuditUtil;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.annotation.Auditable;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.entity.AuditPropertyEntity;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, thread-safe audit model of a class, computed once per class and reused by every audit.
+ * It holds the {@link AuditFieldMetadata} of the declared fields, the property list used when the class appears as
+ * a nested value, the accessors of the {@link com.thinkon.common.audit.annotation.AuditId},
+ * {@link com.thinkon.common.audit.annotation.AuditUser} and {@link com.thinkon.common.audit.annotation.AuditVersion}
+ * fields, which may be inherited from a superclass, and, for {@link Auditable} classes, a blank instance with its precomputed "empty snapshot" used by create
+ * and delete audits. Fields holding an {@link AuditDirtyTracker} are not part of the model.
+ */
+public final class AuditClassMetadata {
+
+    private static final ClassValue<AuditClassMetadata> REGISTRY = new ClassValue<AuditClassMetadata>() {
+        @Override
+        protected AuditClassMetadata computeValue(Class<?> type) {
+            return new AuditClassMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final String tableName;
+    private final Map<String, AuditFieldMetadata> fields;
+    private final List<AuditFieldMetadata> auditedFields;
+    private final Map<String, Integer> auditedFieldIndexes;
+    private final List<AuditPropertyEntity> propertyEntities;
+    private final AuditFieldMetadata idField;
+    private final AuditFieldMetadata auditUserField;
+    private final AuditFieldMetadata versionField;
+    private volatile Object emptyInstance;
+    private volatile Map<String, AuditFieldEntity> emptySnapshot;
+
+    private AuditClassMetadata(Class<?> type) {
+        this.type = type;
+        Auditable auditable = type.getAnnotation(Auditable.class);
+        this.tableName = auditable == null ? null : auditable.tableName();
+        Map<String, AuditFieldMetadata> declared = new LinkedHashMap<>();
+        List<AuditPropertyEntity> properties = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getType() == AuditDirtyTracker.class) {
+                continue;
+            }
+            AuditFieldMetadata metadata = new AuditFieldMetadata(field);
+            declared.put(field.getName(), metadata);
+            if (!metadata.getProperty().isIgnore()) {
+                properties.add(metadata.getProperty());
+            }
+        }
+        this.fields = Collections.unmodifiableMap(declared);
+        this.propertyEntities = Collections.unmodifiableList(properties);
+        this.auditedFields = Collections.unmodifiableList(declared.values()
+                .stream()
+                .filter(f -> !Modifier.isStatic(f.getField().getModifiers()))
+                .filter(AuditFieldMetadata::isAudited)
+                .collect(Collectors.toList()));
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < auditedFields.size(); i++) {
+            indexes.put(auditedFields.get(i).getName(), i);
+        }
+        this.auditedFieldIndexes = Collections.unmodifiableMap(indexes);
+        Class<?> superclass = type.getSuperclass();
+        AuditClassMetadata parent = superclass == null || superclass == Object.class ? null : of(superclass);
+        this.idField = find(declared, AuditFieldMetadata::isAuditId, parent == null ? null : parent.idField);
+        this.auditUserField = find(declared, AuditFieldMetadata::isAuditUser,
+                parent == null ? null : parent.auditUserField);
+        this.versionField = find(declared, AuditFieldMetadata::isAuditVersion,
+                parent == null ? null : parent.versionField);
+    }
+
+    /**
+     * Finds the first declared field matching a filter, falling back to the one found in the superclasses, the way
+     * {@link FieldProcessorContext#getFieldByAnnotation} does.
+     *
+     * @param declared  the fields declared by the class
+     * @param filter    the filter selecting the field
+     * @param inherited the matching field of the superclasses, or null
+     * @return the declared field, the inherited one if the class declares none, or null
+     */
+    private static AuditFieldMetadata find(Map<String, AuditFieldMetadata> declared,
+            Predicate<AuditFieldMetadata> filter, AuditFieldMetadata inherited) {
+        return declared.values().stream().filter(filter).findFirst().orElse(inherited);
+    }
+
+    /**
+     * Retrieves the audit model of a class, computing it on first use.
+     *
+     * @param type the class to describe
+     * @return the shared {@link AuditClassMetadata} of the class
+     */
+    public static AuditClassMetadata of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    /**
+     * Gets the described class.
+     *
+     * @return the class.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the table name declared with {@link Auditable}.
+     *
+     * @return the table name, or null if the class is not auditable.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Gets the metadata of a field declared by the class.
+     *
+     * @param fieldName the name of the field
+     * @return the field metadata, or null if the class does not declare the field
+     */
+    public AuditFieldMetadata getField(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    /**
+     * Gets the metadata of the fields that are part of the audited values, in declaration order.
+     *
+     * @return the unmodifiable list of audited fields.
+     */
+    public List<AuditFieldMetadata> getAuditedFields() {
+        return auditedFields;
+    }
+
+    /**
+     * Gets the position of a field in the {@link #getAuditedFields() audited fields}, which is its bit in an
+     * {@link AuditDirtyTracker}.
+     *
+     * @param fieldName the name of the field
+     * @return the index of the field, or -1 if the field is not audited
+     */
+    public int getAuditedFieldIndex(String fieldName) {
+        Integer index = auditedFieldIndexes.get(fieldName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the properties used to serialize an instance of the class when it is the value of another field
+     * without explicit {@link com.thinkon.common.audit.annotation.AuditProperties} mappings.
+     *
+     * @return the unmodifiable list of non-ignored properties, in declaration order.
+     */
+    public List<AuditPropertyEntity> getPropertyEntities() {
+        return propertyEntities;
+    }
+
+    /**
+     * Gets the accessor of the field annotated with {@link com.thinkon.common.audit.annotation.AuditId}.
+     *
+     * @return the ID accessor, or null if neither the class nor its superclasses declare such a field.
+     */
+    public FieldAccessor getIdAccessor() {
+        return idField == null ? null : idField.getAccessor();
+    }
+
+    /**
+     * Gets the accessor of the field annotated with {@link com.thinkon.common.audit.annotation.AuditUser}.
+     *
+     * @return the audit user accessor, or null if neither the class nor its superclasses declare such a field.
+     */
+    public FieldAccessor getAuditUserAccessor() {
+        return auditUserField == null ? null : auditUserField.getAccessor();
+    }
+
+    /**
+     * Gets the accessor of the field annotated with {@link com.thinkon.common.audit.annotation.AuditVersion}.
+     *
+     * @return the version accessor, or null if neither the class nor its superclasses declare such a field.
+     */
+    public FieldAccessor getVersionAccessor() {
+        return versionField == null ? null : versionField.getAccessor();
+    }
+
+    /**
+     * Gets the shared blank instance of the class, created once with its default constructor.
+     * It stands for the missing side of create and delete audits and must never be modified.
+     *
+     * @return the blank instance.
+     */
+    public Object getEmptyInstance() {
+        Object current = emptyInstance;
+        if (current == null) {
+            synchronized (this) {
+                current = emptyInstance;
+                if (current == null) {
+                    current = AuditUtil.newInstance(type);
+                    emptyInstance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Checks if the given object is the shared blank instance of the class.
+     *
+     * @param instance the object to check
+     * @return true if the object is the blank instance, false otherwise.
+     */
+    public boolean isEmptyInstance(Object instance) {
+        Object current = emptyInstance;
+        return current != null && current == instance;
+    }
+
+    /**
+     * Gets the processed fields of the blank instance, computed once.
+     *
+     * @return the unmodifiable empty snapshot.
+     */
+    public Map<String, AuditFieldEntity> getEmptySnapshot() {
+        Map<String, AuditFieldEntity> current = emptySnapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = emptySnapshot;
+                if (current == null) {
+                    current = Collections.unmodifiableMap(FieldProcessorContext.snapshot(getEmptyInstance(), this));
+                    emptySnapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+}
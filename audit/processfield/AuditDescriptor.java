@@ -0,0 +1,57 @@
+package com.thinkon.common.audit.processfield;
+
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import java.util.Map;
+
+/**
+ * Describes how to audit an {@link com.thinkon.common.audit.annotation.Auditable} class without reflection.
+ * Implementations named {@code <Entity>AuditDescriptor} are generated at build time by
+ * {@code AuditableDescriptorProcessor}; they read the fields of the entity directly. When no descriptor was
+ * generated for a class, {@link FieldProcessorContext} falls back to the reflective path.
+ *
+ * @param <T> The auditable type described.
+ */
+public interface AuditDescriptor<T> {
+
+    /**
+     * Suffix appended to the flattened entity name to obtain the generated descriptor class name.
+     */
+    String GENERATED_SUFFIX = "AuditDescriptor";
+
+    /**
+     * Processes the audited fields of the given instance.
+     *
+     * @param instance the auditable entity instance to process
+     * @return a map of field names to {@link AuditFieldEntity} representing the processed fields
+     */
+    Map<String, AuditFieldEntity> process(T instance);
+
+    /**
+     * Processes the audited fields of the given instance against its previous state, keeping the previous
+     * {@link AuditFieldEntity} of the fields whose {@link AuditFingerprint} did not change. By default, every field
+     * is processed.
+     *
+     * @param instance the auditable entity instance to process
+     * @param previous the processed fields of the previous state of the instance, possibly empty
+     * @return a map of field names to {@link AuditFieldEntity} representing the processed fields
+     */
+    default Map<String, AuditFieldEntity> process(T instance, Map<String, AuditFieldEntity> previous) {
+        return process(instance);
+    }
+
+    /**
+     * Retrieves the value of the field annotated with {@link com.thinkon.common.audit.annotation.AuditId}.
+     *
+     * @param instance the auditable entity instance
+     * @return the ID value, or null if the class has no such field
+     */
+    Object getIdValue(T instance);
+
+    /**
+     * Retrieves the value of the field annotated with {@link com.thinkon.common.audit.annotation.AuditUser}.
+     *
+     * @param instance the auditable entity instance
+     * @return the audit user, or null if the class has no such field
+     */
+    Object getAuditUser(T instance);
+}
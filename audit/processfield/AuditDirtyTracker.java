@@ -0,0 +1,149 @@
+package com.thinkon.common.audit.processfield;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records which audited fields of an entity were changed since it was last audited, as a bitmask indexed like the
+ * {@link AuditClassMetadata#getAuditedFields() audited fields} of its class. Entities implementing
+ * {@link AuditDirtyTracking} hold one tracker and mark their fields in their setters; updates of such entities then
+ * process and compare only the marked fields instead of every field of both states.
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * {@literal @}Auditable(tableName = "product")
+ * public class Product implements AuditDirtyTracking {
+ *     private final AuditDirtyTracker dirtyTracker = AuditDirtyTracker.of(Product.class);
+ *     private String name;
+ *
+ *     public void setName(String name) {
+ *         this.name = name;
+ *         dirtyTracker.markDirty("name");
+ *     }
+ *
+ *     public AuditDirtyTracker getAuditDirtyTracker() {
+ *         return dirtyTracker;
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>A field changed without being marked is not audited, so every setter of an audited field must mark it. The
+ * tracker is cleared once an update of the entity has been audited, except in transactional mode, where the
+ * transaction may still roll back. Like the entity it belongs to, a tracker is not thread-safe.</p>
+ */
+public final class AuditDirtyTracker {
+
+    private final AuditClassMetadata metadata;
+    private final long[] words;
+
+    /**
+     * Creates a clean tracker for an entity class.
+     *
+     * @param metadata the metadata of the entity class
+     */
+    private AuditDirtyTracker(AuditClassMetadata metadata) {
+        this.metadata = metadata;
+        this.words = new long[(metadata.getAuditedFields().size() + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Creates a clean tracker for an entity class.
+     *
+     * @param type the {@link com.thinkon.common.audit.annotation.Auditable} class of the entity
+     * @return a new tracker with no dirty field
+     */
+    public static AuditDirtyTracker of(Class<?> type) {
+        return new AuditDirtyTracker(AuditClassMetadata.of(type));
+    }
+
+    /**
+     * Retrieves the tracker of an entity.
+     *
+     * @param entity the entity, possibly null
+     * @return the tracker of the entity, or null if it does not track its changes
+     */
+    public static AuditDirtyTracker of(Object entity) {
+        return entity instanceof AuditDirtyTracking ? ((AuditDirtyTracking) entity).getAuditDirtyTracker() : null;
+    }
+
+    /**
+     * Marks a field as changed. Fields that are not audited, such as the audit ID, are ignored.
+     *
+     * @param fieldName the name of the field
+     */
+    public void markDirty(String fieldName) {
+        int index = metadata.getAuditedFieldIndex(fieldName);
+        if (index >= 0) {
+            words[index / Long.SIZE] |= 1L << index;
+        }
+    }
+
+    /**
+     * Marks every audited field as changed, for example after the entity was modified without its setters.
+     */
+    public void markAllDirty() {
+        int size = metadata.getAuditedFields().size();
+        Arrays.fill(words, -1L);
+        if (size % Long.SIZE != 0) {
+            words[words.length - 1] = (1L << size) - 1;
+        }
+    }
+
+    /**
+     * Checks if a field is marked as changed.
+     *
+     * @param fieldName the name of the field
+     * @return true if the field is audited and marked, false otherwise
+     */
+    public boolean isDirty(String fieldName) {
+        int index = metadata.getAuditedFieldIndex(fieldName);
+        return index >= 0 && (words[index / Long.SIZE] & 1L << index) != 0;
+    }
+
+    /**
+     * Checks if no field is marked as changed.
+     *
+     * @return true if the tracker is clean, false otherwise
+     */
+    public boolean isClean() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears the marks of all the fields.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Retrieves the class whose fields are tracked.
+     *
+     * @return the tracked class
+     */
+    public Class<?> getType() {
+        return metadata.getType();
+    }
+
+    /**
+     * Retrieves the metadata of the fields marked as changed, in declaration order.
+     *
+     * @return the dirty audited fields
+     */
+    public List<AuditFieldMetadata> getDirtyFields() {
+        List<AuditFieldMetadata> fields = metadata.getAuditedFields();
+        List<AuditFieldMetadata> dirty = new ArrayList<>();
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                dirty.add(fields.get(w * Long.SIZE + Long.numberOfTrailingZeros(word)));
+            }
+        }
+        return dirty;
+    }
+}
@@ -0,0 +1,15 @@
+package com.thinkon.common.audit.processfield;
+
+/**
+ * Implemented by {@link com.thinkon.common.audit.annotation.Auditable} entities that record their changed fields in
+ * an {@link AuditDirtyTracker}, so that their updates only process and compare those fields.
+ */
+public interface AuditDirtyTracking {
+
+    /**
+     * Retrieves the tracker of the changed fields of the entity.
+     *
+     * @return the tracker, never null
+     */
+    AuditDirtyTracker getAuditDirtyTracker();
+}
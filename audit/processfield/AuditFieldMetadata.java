@@ -0,0 +1,294 @@
+package com.thinkon.common.audit.processfield;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.AuditUtil;
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.annotation.AuditFieldMapping;
+import com.thinkon.common.audit.annotation.AuditId;
+import com.thinkon.common.audit.annotation.AuditProperties;
+import com.thinkon.common.audit.annotation.AuditProperty;
+import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.annotation.AuditVersion;
+import com.thinkon.common.audit.entity.AuditPropertyEntity;
+import com.thinkon.common.audit.processfield.diff.AuditDiff;
+import com.thinkon.common.audit.processfield.diff.DefaultAuditDiff;
+import com.thinkon.common.audit.processfield.diff.KeyedArrayNodeAuditDiff;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable audit metadata of a single field, resolved once from its annotations and shared by every audit of
+ * the declaring class. It holds the resolved {@link AuditPropertyEntity}, the mappings of its sub-properties with
+ * their labels already computed, the {@link AuditDiff} instance, the {@link FieldProcessor} responsible for
+ * its type and the cached {@link FieldAccessor}.
+ *
+ * <p>The {@link AuditPropertyEntity} instances held here are shared and must not be modified.</p>
+ */
+public final class AuditFieldMetadata {
+
+    /**
+     * Shared {@link AuditDiff} instance of each diff class. Diffs are expected to be stateless.
+     */
+    private static final ClassValue<AuditDiff<?>> DIFFS = new ClassValue<AuditDiff<?>>() {
+        @Override
+        protected AuditDiff<?> computeValue(Class<?> type) {
+            return AuditUtil.newInstance(type);
+        }
+    };
+
+    private final Field field;
+    private volatile FieldAccessor accessor;
+    private final AuditPropertyEntity property;
+    private final List<AuditPropertyEntity> mappings;
+    private final AuditDiff<?> auditDiff;
+    private final FieldProcessor processor;
+    private final boolean auditId;
+    private final boolean auditUser;
+    private final boolean auditVersion;
+
+    /**
+     * Resolves the metadata of a field.
+     *
+     * @param field the field to resolve
+     */
+    AuditFieldMetadata(Field field) {
+        this.field = field;
+        this.property = resolveProperty(field);
+        this.mappings = Collections.unmodifiableList(resolveMappings(field));
+        AuditProperties auditProperties = field.getAnnotation(AuditProperties.class);
+        this.auditDiff = auditProperties != null && !auditProperties.keyField().isEmpty()
+                ? new KeyedArrayNodeAuditDiff(resolveKeyLabel(field, mappings, auditProperties.keyField()))
+                : getAuditDiff(auditProperties == null ? property.getDiffClass() : auditProperties.diff());
+        AuditProperty auditProperty = field.getAnnotation(AuditProperty.class);
+        this.processor = auditProperty != null && auditProperty.deep() ? FieldProcessorContext.getDeepProcessor()
+                : FieldProcessorContext.getProcessor(field.getType());
+        this.auditId = field.isAnnotationPresent(AuditId.class);
+        this.auditUser = field.isAnnotationPresent(AuditUser.class);
+        this.auditVersion = field.isAnnotationPresent(AuditVersion.class);
+    }
+
+    /**
+     * Retrieves the shared instance of a diff class.
+     *
+     * @param diffClass the {@link AuditDiff} class
+     * @return the shared diff instance
+     * @throws AuditException if the class does not implement {@link AuditDiff}
+     */
+    public static AuditDiff<?> getAuditDiff(Class<?> diffClass) {
+        if (!AuditDiff.class.isAssignableFrom(diffClass)) {
+            throw new AuditException(diffClass.getName() + " does not implement AuditDiff");
+        }
+        return DIFFS.get(diffClass);
+    }
+
+    /**
+     * Resolves the {@link AuditPropertyEntity} of a field from its {@link AuditProperty} annotation, using the
+     * SNAKE_CASE field name as the default label.
+     *
+     * @param field the field to resolve
+     * @return a new {@link AuditPropertyEntity} for the field
+     */
+    static AuditPropertyEntity resolveProperty(Field field) {
+        AuditProperty auditProperty = field.getAnnotation(AuditProperty.class);
+        if (auditProperty == null) {
+            return AuditPropertyEntity.builder()
+                    .label(AuditUtil.toSqlPattern(field.getName()))
+                    .field(field.getName())
+                    .diffClass(DefaultAuditDiff.class)
+                    .build();
+        }
+        return AuditPropertyEntity.builder()
+                .ignore(auditProperty.ignore())
+                .ignoreNull(auditProperty.ignoreNullOrEmpty())
+                .diffClass(auditProperty.diff())
+                .label(auditProperty.label().isEmpty() ? AuditUtil.toSqlPattern(field.getName()) : auditProperty.label())
+                .field(field.getName())
+                .build();
+    }
+
+    /**
+     * Resolves the sub-property mappings declared with {@link AuditProperties} on a field. Mappings without a
+     * label get the SNAKE_CASE name of their field.
+     *
+     * @param field the field to resolve
+     * @return the list of mappings, empty if the field has no {@link AuditProperties}
+     */
+    static List<AuditPropertyEntity> resolveMappings(Field field) {
+        AuditProperties auditProperties = field.getAnnotation(AuditProperties.class);
+        if (auditProperties == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(auditProperties.value())
+                .map(AuditFieldMetadata::resolveMapping)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves the label under which the key field of the elements of a list field is serialized: the label of its
+     * explicit mapping if there is one, otherwise the label of the field in the element class, or its SNAKE_CASE
+     * name if the element class is unknown.
+     *
+     * @param field    the list or array field
+     * @param mappings the explicit mappings of the field, possibly empty
+     * @param keyField the name of the key field in the element class
+     * @return the label of the key field
+     */
+    static String resolveKeyLabel(Field field, List<AuditPropertyEntity> mappings, String keyField) {
+        for (AuditPropertyEntity mapping : mappings) {
+            if (mapping.getField().equals(keyField)) {
+                return mapping.getLabel();
+            }
+        }
+        for (Class<?> type = elementType(field); mappings.isEmpty() && type != null; type = type.getSuperclass()) {
+            try {
+                return resolveProperty(type.getDeclaredField(keyField)).getLabel();
+            } catch (NoSuchFieldException e) {
+                // continue with the superclass
+            }
+        }
+        return AuditUtil.toSqlPattern(keyField);
+    }
+
+    /**
+     * Resolves the element class of a list or array field.
+     *
+     * @param field the field
+     * @return the element class, or null if it is not known
+     */
+    private static Class<?> elementType(Field field) {
+        if (field.getType().isArray()) {
+            return field.getType().getComponentType();
+        }
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+            return element instanceof Class ? (Class<?>) element : null;
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a single {@link AuditFieldMapping}.
+     *
+     * @param mapping the mapping to resolve
+     * @return the {@link AuditPropertyEntity} of the mapping
+     */
+    private static AuditPropertyEntity resolveMapping(AuditFieldMapping mapping) {
+        return AuditPropertyEntity.builder()
+                .ignore(false)
+                .ignoreNull(mapping.ignoreNullOrEmpty())
+                .label(mapping.label().isEmpty() ? AuditUtil.toSqlPattern(mapping.field()) : mapping.label())
+                .field(mapping.field())
+                .build();
+    }
+
+    /**
+     * Gets the field described by this metadata.
+     *
+     * @return the field.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Gets the name of the field.
+     *
+     * @return the name of the field.
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * Gets the cached accessor of the field. The accessor is resolved on first use, so describing classes whose
+     * fields cannot be made accessible (such as JDK types) does not fail.
+     *
+     * @return the field accessor.
+     */
+    public FieldAccessor getAccessor() {
+        FieldAccessor current = accessor;
+        if (current == null) {
+            current = FieldAccessor.of(field.getDeclaringClass(), field.getName());
+            accessor = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gets the resolved audit property of the field.
+     *
+     * @return the shared {@link AuditPropertyEntity}.
+     */
+    public AuditPropertyEntity getProperty() {
+        return property;
+    }
+
+    /**
+     * Gets the resolved sub-property mappings of the field.
+     *
+     * @return the unmodifiable list of mappings.
+     */
+    public List<AuditPropertyEntity> getMappings() {
+        return mappings;
+    }
+
+    /**
+     * Gets the shared diff instance used to compare the field values.
+     *
+     * @return the {@link AuditDiff} of the field.
+     */
+    public AuditDiff<?> getAuditDiff() {
+        return auditDiff;
+    }
+
+    /**
+     * Gets the processor responsible for the field type.
+     *
+     * @return the {@link FieldProcessor} of the field.
+     */
+    public FieldProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Checks if the field is annotated with {@link AuditId}.
+     *
+     * @return true if the field is the audit ID, false otherwise.
+     */
+    public boolean isAuditId() {
+        return auditId;
+    }
+
+    /**
+     * Checks if the field is annotated with {@link AuditUser}.
+     *
+     * @return true if the field is the audit user, false otherwise.
+     */
+    public boolean isAuditUser() {
+        return auditUser;
+    }
+
+    /**
+     * Checks if the field is annotated with {@link AuditVersion}.
+     *
+     * @return true if the field is the entity version, false otherwise.
+     */
+    public boolean isAuditVersion() {
+        return auditVersion;
+    }
+
+    /**
+     * Checks if the field is part of the audited values, that is, neither ignored nor the audit ID or user.
+     *
+     * @return true if the field is audited, false otherwise.
+     */
+    public boolean isAudited() {
+        return !property.isIgnore() && !auditId && !auditUser;
+    }
+}
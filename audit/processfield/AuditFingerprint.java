@@ -0,0 +1,164 @@
+package com.thinkon.common.audit.processfield;
+
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.entity.AuditPropertyEntity;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cheap 64-bit structural fingerprints of field values, computed from the values themselves before they are
+ * converted to Jackson nodes. Two values whose processed forms differ get different fingerprints, barring a 64-bit
+ * hash collision, so a field whose fingerprint did not change can keep its old processed value and skip the diff.
+ *
+ * <p>Only values whose equality is known are fingerprinted: strings, numbers, booleans, characters, enums, dates,
+ * UUIDs, and lists or objects made of them, the size of lists being part of the fingerprint. Any other value gets
+ * {@link #NONE}, which never matches, so such fields are always processed and compared as before.</p>
+ */
+public final class AuditFingerprint {
+
+    /**
+     * Fingerprint of a value that cannot be fingerprinted. It never matches another fingerprint.
+     */
+    public static final long NONE = 0L;
+
+    private static final long SEED = 0xCBF29CE484222325L;
+    private static final long PRIME = 0x100000001B3L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long NULL = 0x6A09E667F3BCC909L;
+    private static final long LIST = 0x3C6EF372FE94F82BL;
+    private static final long OBJECT = 0xA54FF53A5F1D36F1L;
+
+    /**
+     * Hash of the name of each class, mixed into the fingerprints of its instances.
+     */
+    private static final ClassValue<Long> TYPE_HASHES = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return string(type.getName());
+        }
+    };
+
+    private AuditFingerprint() {
+    }
+
+    /**
+     * Starts a fingerprint.
+     *
+     * @return the initial state of a fingerprint
+     */
+    static long start() {
+        return SEED;
+    }
+
+    /**
+     * Adds the fingerprint of a part of a value, such as a list element, to the fingerprint of the value.
+     *
+     * @param fingerprint the current fingerprint, or {@link #NONE}
+     * @param part        the fingerprint of the part, or {@link #NONE}
+     * @return the new fingerprint, or {@link #NONE} if either fingerprint is {@link #NONE}
+     */
+    static long combine(long fingerprint, long part) {
+        return fingerprint == NONE || part == NONE ? NONE : mix(fingerprint, part);
+    }
+
+    /**
+     * Mixes a raw component into a hash.
+     *
+     * @param hash      the current hash
+     * @param component the component to add
+     * @return the new hash, never {@link #NONE}
+     */
+    private static long mix(long hash, long component) {
+        long h = Long.rotateLeft(hash ^ (component * MULTIPLIER), 29) * PRIME;
+        h ^= h >>> 32;
+        return h == NONE ? 1L : h;
+    }
+
+    /**
+     * Fingerprints a value that is serialized as is: null, a string, a number, a boolean, a character, an enum, a
+     * date or a UUID.
+     *
+     * @param value the value
+     * @return the fingerprint, or {@link #NONE} for any other type of value
+     */
+    static long scalar(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof String) {
+            return mix(start(), string((String) value));
+        }
+        long type = TYPE_HASHES.get(value.getClass());
+        if (value instanceof Double || value instanceof Float) {
+            return mix(type, Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(type, ((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return mix(type, (Boolean) value ? 2 : 3);
+        }
+        if (value instanceof Character) {
+            return mix(type, (Character) value);
+        }
+        if (value instanceof Enum) {
+            return mix(type, string(((Enum<?>) value).name()));
+        }
+        if (value instanceof Date) {
+            return mix(type, ((Date) value).getTime());
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger || value instanceof UUID
+                || value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.")) {
+            return mix(type, string(value.toString()));
+        }
+        return NONE;
+    }
+
+    /**
+     * Fingerprints an object serialized as the values of its properties.
+     *
+     * @param value      the object, not null
+     * @param properties the serialized properties of the object
+     * @return the fingerprint, or {@link #NONE} if a property value cannot be fingerprinted
+     */
+    static long properties(Object value, List<AuditPropertyEntity> properties) {
+        long fingerprint = mix(start(), OBJECT);
+        for (AuditPropertyEntity property : properties) {
+            fingerprint = combine(mix(fingerprint, string(property.getLabel())),
+                    scalar(FieldAccessor.of(value.getClass(), property.getField()).get(value)));
+            if (fingerprint == NONE) {
+                return NONE;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Starts the fingerprint of a list with its size.
+     *
+     * @param size the size of the list
+     * @return the initial state of the list fingerprint
+     */
+    static long list(int size) {
+        return mix(mix(start(), LIST), size);
+    }
+
+    /**
+     * Hashes the characters of a string with 64-bit FNV-1a, then its length.
+     *
+     * @param value the string
+     * @return the hash of the string
+     */
+    private static long string(String value) {
+        long h = SEED;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= PRIME;
+        }
+        return mix(h, value.length());
+    }
+}
@@ -0,0 +1,110 @@
+package com.thinkon.common.audit.processfield;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Processed value of a field audited with {@link com.thinkon.common.audit.annotation.AuditProperty#deep()}: the
+ * scalar leaves of the object graph of the field, keyed by their dotted path of labels, such as {@code CITY} or
+ * {@code ADDRESS.COUNTRY.CODE}. Each leaf whose value differs between two states becomes its own change.
+ *
+ * <p>Null leaves are not recorded, so a path missing from one of the states stands for a null value.</p>
+ */
+public final class AuditLeafValues {
+
+    /**
+     * Separator between the labels of a path.
+     */
+    public static final String PATH_SEPARATOR = ".";
+
+    private static final AuditLeafValues EMPTY = new AuditLeafValues(Collections.emptyMap());
+
+    private final Map<String, Object> leaves;
+
+    /**
+     * Creates the leaf values of a field.
+     *
+     * @param leaves the values of the leaves, keyed by path, in traversal order
+     */
+    AuditLeafValues(Map<String, Object> leaves) {
+        this.leaves = Collections.unmodifiableMap(leaves);
+    }
+
+    /**
+     * Retrieves the leaf values of a null object graph.
+     *
+     * @return the shared instance without leaves
+     */
+    public static AuditLeafValues empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Retrieves the values of the leaves, keyed by path.
+     *
+     * @return the unmodifiable map of leaf values, in traversal order
+     */
+    public Map<String, Object> getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * Retrieves the value of a leaf.
+     *
+     * @param path the dotted path of the leaf
+     * @return the value of the leaf, or null if there is no such leaf
+     */
+    public Object get(String path) {
+        return leaves.get(path);
+    }
+
+    /**
+     * Retrieves the paths of the leaves of this state and another one, those of this state first.
+     *
+     * @param other the other state, or null
+     * @return the union of the paths, in traversal order
+     */
+    public Set<String> paths(AuditLeafValues other) {
+        Set<String> paths = new LinkedHashSet<>(leaves.keySet());
+        if (other != null) {
+            paths.addAll(other.leaves.keySet());
+        }
+        return paths;
+    }
+
+    /**
+     * Indicates whether some other object holds the same leaves.
+     *
+     * @param o the reference object with which to compare.
+     * @return {@code true} if the other object holds the same leaves; {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AuditLeafValues && leaves.equals(((AuditLeafValues) o).leaves);
+    }
+
+    /**
+     * Returns a hash code value for the leaves.
+     *
+     * @return a hash code value for this object.
+     */
+    @Override
+    public int hashCode() {
+        return leaves.hashCode();
+    }
+
+    /**
+     * Returns the leaves as a string, for logging.
+     *
+     * @return the string form of the leaf map.
+     */
+    @Override
+    public String toString() {
+        return leaves.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.thinkon.common.audit.processfield;
+
+import com.thinkon.common.audit.FieldAccessor;
+import com.thinkon.common.audit.entity.AuditPropertyEntity;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link FieldProcessor} for fields audited with
+ * {@link com.thinkon.common.audit.annotation.AuditProperty#deep()}. Instead of a single value, the object graph of
+ * the field is flattened into {@link AuditLeafValues}, one value per scalar leaf keyed by its dotted path of labels,
+ * so that each changed leaf is recorded as its own change.
+ *
+ * <p>Nested objects, {@link com.thinkon.common.audit.annotation.Auditable} or not, are walked through the audited
+ * fields of their {@link AuditClassMetadata}, and maps through their entries, keyed by the string form of the map
+ * key. Strings, numbers, booleans, characters, enums and JDK value types such as dates and UUIDs are leaves, as are
+ * lists and arrays, which are processed like list fields. The objects of the current path are tracked by identity,
+ * so a reference back to one of them, as in a parent-child cycle, is not followed; an object shared by two branches
+ * is still walked under both paths.</p>
+ */
+class DeepFieldProcessor extends FieldProcessor {
+
+    /**
+     * Flattens the object graph of a field into its leaves.
+     *
+     * @param propertyEntityList the explicit mappings of the root object, possibly empty
+     * @param instance           the value of the field
+     * @return the {@link AuditLeafValues} of the value, without leaves if the value is null
+     */
+    @Override
+    protected Object fieldValueProcess(List<AuditPropertyEntity> propertyEntityList, Object instance) {
+        if (instance == null) {
+            return AuditLeafValues.empty();
+        }
+        Map<String, Object> leaves = new LinkedHashMap<>();
+        if (propertyEntityList.isEmpty() || isLeaf(instance)) {
+            this.walk(null, instance, leaves, new IdentityHashMap<>());
+            return new AuditLeafValues(leaves);
+        }
+        Map<Object, Boolean> path = new IdentityHashMap<>();
+        path.put(instance, Boolean.TRUE);
+        for (AuditPropertyEntity property : propertyEntityList) {
+            Object value = FieldAccessor.of(instance.getClass(), property.getField()).get(instance);
+            if (!(property.isIgnoreNull() && isEmptyOrNull(value))) {
+                this.walk(property.getLabel(), value, leaves, path);
+            }
+        }
+        return new AuditLeafValues(leaves);
+    }
+
+    /**
+     * Records the leaves of a value under a path.
+     *
+     * @param prefix the path of the value, or null for the root value
+     * @param value  the value
+     * @param leaves the leaves recorded so far
+     * @param path   the objects of the current path, used to detect cycles
+     */
+    private void walk(String prefix, Object value, Map<String, Object> leaves, Map<Object, Boolean> path) {
+        if (value == null) {
+            return;
+        }
+        if (isLeaf(value)) {
+            leaves.put(prefix == null ? "" : prefix, this.leafValue(value));
+            return;
+        }
+        if (path.put(value, Boolean.TRUE) != null) {
+            return;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                this.walk(child(prefix, String.valueOf(entry.getKey())), entry.getValue(), leaves, path);
+            }
+        } else {
+            for (AuditFieldMetadata field : AuditClassMetadata.of(value.getClass()).getAuditedFields()) {
+                if (!field.getField().isSynthetic()) {
+                    this.walk(child(prefix, field.getProperty().getLabel()), field.getAccessor().get(value), leaves,
+                            path);
+                }
+            }
+        }
+        path.remove(value);
+    }
+
+    /**
+     * Checks if a value is recorded as a single leaf rather than walked.
+     *
+     * @param value the value, not null
+     * @return true for scalars, JDK value types, collections and arrays, false for maps and other objects
+     */
+    private static boolean isLeaf(Object value) {
+        if (value instanceof Map) {
+            return false;
+        }
+        return FieldProcessor.isPrimitiveOrWrapper(value) || value instanceof Enum || value instanceof Collection
+                || value.getClass().isArray() || value.getClass().getName().startsWith("java.");
+    }
+
+    /**
+     * Converts a leaf to the value recorded for it. Collections and arrays are processed as list fields, dates are
+     * recorded as epoch milliseconds, as Jackson writes them, and enums and other JDK value types as their string
+     * form.
+     *
+     * @param value the leaf, not null
+     * @return the recorded value
+     */
+    private Object leafValue(Object value) {
+        if (FieldProcessor.isPrimitiveOrWrapper(value)) {
+            return value;
+        }
+        if (value instanceof Object[] || value instanceof List) {
+            return FieldProcessorContext.getProcessor(List.class).fieldValueProcess(List.of(), value);
+        }
+        if (value instanceof Collection) {
+            return FieldProcessorContext.getProcessor(List.class)
+                    .fieldValueProcess(List.of(), new ArrayList<>((Collection<?>) value));
+        }
+        if (value.getClass().isArray()) {
+            return MAPPER.valueToTree(value);
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Builds the path of a child value.
+     *
+     * @param prefix the path of the parent, or null for the root value
+     * @param label  the label of the child
+     * @return the path of the child
+     */
+    private static String child(String prefix, String label) {
+        return prefix == null ? label : prefix + AuditLeafValues.PATH_SEPARATOR + label;
+    }
+}
@@ -25,8 +25,23 @@ class DefaultFieldProcessor extends FieldProcessor {
         if(instance == null || FieldProcessor.isPrimitiveOrWrapper(instance)){
             return instance;
         }
-        this.processAuditProperty(instance.getClass().getDeclaredFields(), propertyEntityList);
-        return this.parseListToObjectNode(instance, propertyEntityList);
+        return this.parseListToObjectNode(instance, this.resolveProperties(instance.getClass(), propertyEntityList));
+    }
+
+    /**
+     * Fingerprints a primitive or wrapper value as is, and any other object from the values of the properties
+     * {@link #fieldValueProcess(List, Object)} serializes.
+     *
+     * @param propertyEntityList the list of {@link AuditPropertyEntity} representing the properties to be processed
+     * @param instance           the value to fingerprint
+     * @return the fingerprint of the value, or {@link AuditFingerprint#NONE} if it cannot be fingerprinted
+     */
+    @Override
+    protected long fingerprint(List<AuditPropertyEntity> propertyEntityList, Object instance) {
+        if (instance == null || FieldProcessor.isPrimitiveOrWrapper(instance)) {
+            return AuditFingerprint.scalar(instance);
+        }
+        return AuditFingerprint.properties(instance, this.resolveProperties(instance.getClass(), propertyEntityList));
     }
 
 
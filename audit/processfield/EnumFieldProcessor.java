@@ -28,5 +28,17 @@ class EnumFieldProcessor extends FieldProcessor {
         return instance.toString();
     }
 
+    /**
+     * Fingerprints the string form of the enum value.
+     *
+     * @param propertyEntityList the list of {@link AuditPropertyEntity} representing the properties to be processed
+     * @param instance           the value to fingerprint
+     * @return the fingerprint of the value
+     */
+    @Override
+    protected long fingerprint(List<AuditPropertyEntity> propertyEntityList, Object instance) {
+        return AuditFingerprint.scalar(instance == null ? null : instance.toString());
+    }
+
 
 }
@@ -2,24 +2,16 @@ package com.thinkon.common.audit.processfield;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.thinkon.common.audit.AuditUtil;
-import com.thinkon.common.audit.annotation.AuditFieldMapping;
+import com.thinkon.common.audit.FieldAccessor;
 import com.thinkon.common.audit.annotation.AuditProperties;
-import com.thinkon.common.audit.annotation.AuditProperty;
 import com.thinkon.common.audit.entity.AuditFieldEntity;
 import com.thinkon.common.audit.entity.AuditPropertyEntity;
 import com.thinkon.common.audit.processfield.diff.AuditDiff;
-import com.thinkon.common.audit.processfield.diff.DefaultAuditDiff;
 import java.lang.reflect.Field;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Abstract class for processing fields into {@link AuditFieldEntity} objects based on annotations and configurations.
@@ -35,6 +27,15 @@ public abstract class FieldProcessor {
      */
     private static final Set<Class<?>> WRAPPED = Set.of(
             Character.class, Boolean.class, String.class, Number.class);
+    /**
+     * Type classification of {@link #isPrimitiveOrWrapper(Object)}, computed once per class.
+     */
+    private static final ClassValue<Boolean> PRIMITIVE_OR_WRAPPER = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isPrimitive() || WRAPPED.stream().anyMatch(e -> e.isAssignableFrom(type));
+        }
+    };
 
 
     /**
@@ -54,114 +55,111 @@ public abstract class FieldProcessor {
      * @return the {@link AuditFieldEntity} or null if the field is to be ignored
      */
     public AuditFieldEntity process(Field field, Object instance) {
-        AuditPropertyEntity auditProperty = this.processAuditProperty(field);
-        Object instanceValue = AuditUtil.getValueFromField(auditProperty.getField(), instance);
-        if (auditProperty.isIgnore() || (auditProperty.isIgnoreNull() && isEmptyOrNull(instanceValue))) {
-            return null;
-        }
-        Class<? extends AuditDiff> aClass = Optional.ofNullable(field.getAnnotation(AuditProperties.class))
-                .filter(Objects::nonNull)
-                .map(AuditProperties::diff)
-                .orElse(auditProperty.getDiffClass());
-        List<AuditPropertyEntity> propertyEntityList = this.processAuditProperties(field);
-        AuditDiff diffClass = AuditUtil.newInstance(aClass);//TODO
-        return AuditFieldEntity.builder()
-                .fieldName(auditProperty.getField())
-                .value(this.fieldValueProcess(propertyEntityList, instanceValue))
-                .fieldLabel(auditProperty.getLabel())
-                .auditDiff(diffClass)
-                .build();
+        return this.process(AuditClassMetadata.of(field.getDeclaringClass()).getField(field.getName()), instance);
     }
 
     /**
-     * Processes audit properties for an array of fields and updates the property entity list accordingly.
+     * Processes a field described by its precomputed {@link AuditFieldMetadata} and returns an
+     * {@link AuditFieldEntity}.
      *
-     * @param fields             the array of fields to process
-     * @param propertyEntityList the list of {@link AuditPropertyEntity} to update with processed properties
+     * @param field    the metadata of the field to process
+     * @param instance the instance containing the field
+     * @return the {@link AuditFieldEntity} or null if the field is to be ignored
      */
-    protected void processAuditProperty(Field[] field, List<AuditPropertyEntity> propertyEntityList) {
-        if (propertyEntityList.isEmpty()) {
-            propertyEntityList.addAll(Arrays.stream(field)
-                    .map(this::processAuditProperty)
-                    .collect(Collectors.toList()));
-        } else {
-            propertyEntityList.forEach(p -> {
-                if (p.getLabel().isEmpty()) {
-                    p.setLabel(AuditUtil.toSqlPattern(p.getField()));
-                }
-            });
-        }
-        propertyEntityList.removeIf(AuditPropertyEntity::isIgnore);
+    public AuditFieldEntity process(AuditFieldMetadata field, Object instance) {
+        return this.process(field, instance, null);
     }
 
     /**
-     * Processes audit properties defined by {@link AuditProperties} annotation on a field.
+     * Processes a field described by its precomputed {@link AuditFieldMetadata} against its previous state.
      *
-     * @param field the field to process
-     * @return list of {@link AuditPropertyEntity} objects representing the audit properties
+     * @param field    the metadata of the field to process
+     * @param instance the instance containing the field
+     * @param previous the previous state of the field, or null
+     * @return the {@link AuditFieldEntity}, the previous one if the value did not change, or null if the field is to
+     * be ignored
      */
-    protected List<AuditPropertyEntity> processAuditProperties(Field field) {
-        return Optional.ofNullable(field.getAnnotation(AuditProperties.class))
-                .map(AuditProperties::value)
-                .map(Arrays::stream)
-                .orElse(Stream.empty())
-                .map(this::parseToAuditPropertyEntity)
-                .collect(Collectors.toList());
+    public AuditFieldEntity process(AuditFieldMetadata field, Object instance, AuditFieldEntity previous) {
+        Object instanceValue = field.getAccessor().get(instance);
+        return this.process(field.getProperty(), field.getMappings(), field.getAuditDiff(), instanceValue, previous);
     }
 
     /**
-     * Processes audit properties for a single field and retrieves its corresponding {@link AuditPropertyEntity}.
+     * Processes an already extracted field value and returns an {@link AuditFieldEntity}.
+     * This is the entry point used by generated {@link AuditDescriptor} classes, which resolve the audit
+     * properties at build time and read the value without reflection.
      *
-     * @param field the field to process
-     * @return the {@link AuditPropertyEntity} representing the audit properties of the field
+     * @param auditProperty      the audit property of the field
+     * @param propertyEntityList the {@link AuditPropertyEntity} mappings of the field's sub-properties
+     * @param auditDiff          the {@link AuditDiff} used to compare the field values
+     * @param instanceValue      the value of the field
+     * @return the {@link AuditFieldEntity} or null if the field is to be ignored
      */
-    protected AuditPropertyEntity processAuditProperty(Field field) {
-        return Optional.ofNullable(field.getAnnotation(AuditProperty.class))
-                .map(a -> parseToAuditPropertyEntity(a, field.getName()))
-                .orElse(AuditPropertyEntity
-                        .builder()
-                        .label(AuditUtil.toSqlPattern(field.getName()))
-                        .field(field.getName())
-                        .diffClass(DefaultAuditDiff.class)
-                        .build());
+    public AuditFieldEntity process(AuditPropertyEntity auditProperty, List<AuditPropertyEntity> propertyEntityList,
+            AuditDiff<?> auditDiff, Object instanceValue) {
+        return this.process(auditProperty, propertyEntityList, auditDiff, instanceValue, null);
     }
 
     /**
-     * Parses an {@link AuditProperty} annotation into an {@link AuditPropertyEntity}.
+     * Processes an already extracted field value against its previous state. When the {@link AuditFingerprint} of
+     * the value equals the fingerprint of the previous state, the value has not changed and the previous
+     * {@link AuditFieldEntity} is returned without converting the value again.
      *
-     * @param auditProperty the {@link AuditProperty} annotation to parse
-     * @param fieldName     the name of the field
-     * @return the {@link AuditPropertyEntity} representing the parsed audit properties
+     * @param auditProperty      the audit property of the field
+     * @param propertyEntityList the {@link AuditPropertyEntity} mappings of the field's sub-properties
+     * @param auditDiff          the {@link AuditDiff} used to compare the field values
+     * @param instanceValue      the value of the field
+     * @param previous           the previous state of the field, or null
+     * @return the {@link AuditFieldEntity}, the previous one if the value did not change, or null if the field is to
+     * be ignored
      */
-    private AuditPropertyEntity parseToAuditPropertyEntity(AuditProperty auditProperty, String fieldName) {
-        if (auditProperty == null) {
-            return AuditPropertyEntity.builder().build();
+    public AuditFieldEntity process(AuditPropertyEntity auditProperty, List<AuditPropertyEntity> propertyEntityList,
+            AuditDiff<?> auditDiff, Object instanceValue, AuditFieldEntity previous) {
+        if (auditProperty.isIgnore()) {
+            return null;
+        }
+        long fingerprint = this.fingerprint(propertyEntityList, instanceValue);
+        if (previous != null && fingerprint != AuditFingerprint.NONE && previous.getFingerprint() == fingerprint) {
+            return previous;
+        }
+        if (auditProperty.isIgnoreNull() && isEmptyOrNull(instanceValue)) {
+            return null;
         }
-        return AuditPropertyEntity.builder()
-                .ignore(auditProperty.ignore())
-                .ignoreNull(auditProperty.ignoreNullOrEmpty())
-                .diffClass(auditProperty.diff())
-                .label(auditProperty.label().isEmpty() ? AuditUtil.toSqlPattern(fieldName) : auditProperty.label())
-                .field(fieldName)
+        return AuditFieldEntity.builder()
+                .fieldName(auditProperty.getField())
+                .value(this.fieldValueProcess(propertyEntityList, instanceValue))
+                .fieldLabel(auditProperty.getLabel())
+                .auditDiff(auditDiff)
+                .fingerprint(fingerprint)
                 .build();
     }
 
     /**
-     * Parses an {@link AuditFieldMapping} annotation into an {@link AuditPropertyEntity}.
+     * Computes the {@link AuditFingerprint} of a field value, which must change whenever the value returned by
+     * {@link #fieldValueProcess(List, Object)} changes. By default, values are not fingerprinted.
      *
-     * @param auditProperty the {@link AuditFieldMapping} annotation to parse
-     * @return the {@link AuditPropertyEntity} representing the parsed audit properties
+     * @param propertyEntityList the list of audit property entities
+     * @param instance           the value to fingerprint
+     * @return the fingerprint of the value, or {@link AuditFingerprint#NONE} if it cannot be fingerprinted
+     */
+    protected long fingerprint(List<AuditPropertyEntity> propertyEntityList, Object instance) {
+        return AuditFingerprint.NONE;
+    }
+
+    /**
+     * Resolves the properties used to serialize a value. Explicit {@link AuditProperties} mappings are used when
+     * present; otherwise the non-ignored declared fields of the value's class, as cached by
+     * {@link AuditClassMetadata}.
+     *
+     * @param type               the class of the value
+     * @param propertyEntityList the explicit mappings of the field, possibly empty
+     * @return the properties to serialize; the returned list must not be modified
      */
-    protected AuditPropertyEntity parseToAuditPropertyEntity(AuditFieldMapping auditProperty) {
-        if (auditProperty == null) {
-            return AuditPropertyEntity.builder().build();
+    protected List<AuditPropertyEntity> resolveProperties(Class<?> type, List<AuditPropertyEntity> propertyEntityList) {
+        if (propertyEntityList.isEmpty()) {
+            return AuditClassMetadata.of(type).getPropertyEntities();
         }
-        return AuditPropertyEntity.builder()
-                .ignore(false)
-                .ignoreNull(auditProperty.ignoreNullOrEmpty())
-                .label(auditProperty.label())
-                .field(auditProperty.field())
-                .build();
+        return propertyEntityList;
     }
 
     /**
@@ -175,7 +173,7 @@ public abstract class FieldProcessor {
         ObjectNode jsonObject = MAPPER.createObjectNode();
         propertyEntityList.forEach(
                 a -> {
-                    Object value = AuditUtil.getValueFromField(a.getField(), object);
+                    Object value = FieldAccessor.of(object.getClass(), a.getField()).get(object);
                     if (!(a.isIgnoreNull() && isEmptyOrNull(value))) {
                         jsonObject.putPOJO(a.getLabel(), value);
                     }
@@ -190,11 +188,7 @@ public abstract class FieldProcessor {
      * @return true if the object is of primitive or wrapper type, false otherwise
      */
     public static boolean isPrimitiveOrWrapper(Object obj) {
-        boolean isPrimitive = WRAPPED.stream()
-                .filter(e -> e.isAssignableFrom(obj.getClass()))
-                .findAny()
-                .isPresent();
-        return obj != null && (obj.getClass().isPrimitive() || isPrimitive);
+        return obj != null && PRIMITIVE_OR_WRAPPER.get(obj.getClass());
     }
 
     /**
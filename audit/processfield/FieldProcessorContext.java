@@ -1,17 +1,18 @@
 package com.thinkon.common.audit.processfield;
 
 import com.thinkon.common.audit.AuditException;
-import com.thinkon.common.audit.annotation.AuditId;
-import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.AuditUtil;
 import com.thinkon.common.audit.annotation.Auditable;
 import com.thinkon.common.audit.entity.AuditFieldEntity;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * The {@code FieldProcessorContext} class manages the processing of fields within auditable entities.
@@ -22,6 +23,26 @@ public class FieldProcessorContext {
 
     private static FieldProcessor defaultFieldProcessor = new DefaultFieldProcessor();
 
+    private static final FieldProcessor deepFieldProcessor = new DeepFieldProcessor();
+
+    /**
+     * Generated {@link AuditDescriptor} of each auditable class, resolved once per class.
+     */
+    private static final ClassValue<Optional<AuditDescriptor<Object>>> descriptors =
+            new ClassValue<Optional<AuditDescriptor<Object>>>() {
+                @Override
+                protected Optional<AuditDescriptor<Object>> computeValue(Class<?> type) {
+                    try {
+                        Class<?> descriptorClass = Class.forName(
+                                AuditUtil.generatedClassName(type, AuditDescriptor.GENERATED_SUFFIX), true,
+                                type.getClassLoader());
+                        return Optional.of(AuditUtil.newInstance(descriptorClass));
+                    } catch (ClassNotFoundException e) {
+                        return Optional.empty();
+                    }
+                }
+            };
+
     static {
         processors.put(List.class, new ListFieldProcessor());
         processors.put(Enum.class, new EnumFieldProcessor());
@@ -36,18 +57,87 @@ public class FieldProcessorContext {
      * @throws AuditException if the provided instance does not implement the Auditable interface
      */
     public static Map<String, AuditFieldEntity> processAuditableEntity(Object instance) {
+        return processAuditableEntity(instance, null);
+    }
+
+    /**
+     * Processes the fields of the given auditable entity instance against its previous state. Fields whose
+     * {@link AuditFingerprint} did not change keep their previous {@link AuditFieldEntity}, so only the changed
+     * fields are converted to JSON nodes and later compared.
+     *
+     * @param instance the auditable entity instance to process
+     * @param previous the processed fields of the previous state of the instance, or null
+     * @return a map of field names to {@link AuditFieldEntity} representing the processed fields
+     * @throws AuditException if the provided instance does not implement the Auditable interface
+     */
+    public static Map<String, AuditFieldEntity> processAuditableEntity(Object instance,
+            Map<String, AuditFieldEntity> previous) {
         if (!instance.getClass().isAnnotationPresent(Auditable.class)) {
             throw new AuditException("The provided instance does not implement the Auditable interface. "
                     + "Instance type: " + instance.getClass().getName() + ".");
         }
-        List<Field> fields = Arrays.asList(instance.getClass().getDeclaredFields());
-        Map<String, AuditFieldEntity> result = new HashMap<>();
-        for (Field f : fields) {
-            AuditFieldEntity fieldEntity = processField(f, instance);
+        AuditClassMetadata metadata = AuditClassMetadata.of(instance.getClass());
+        if (metadata.isEmptyInstance(instance)) {
+            return new HashMap<>(metadata.getEmptySnapshot());
+        }
+        return snapshot(instance, metadata, previous == null ? Collections.emptyMap() : previous);
+    }
+
+    /**
+     * Processes only the fields of an instance marked in its {@link AuditDirtyTracker}. The other fields keep their
+     * previous {@link AuditFieldEntity}, so they are neither converted nor compared again.
+     *
+     * @param instance the auditable entity instance to process
+     * @param tracker  the tracker of the changed fields of the instance
+     * @param previous the processed fields of the previous state of the instance, possibly empty
+     * @return a map of field names to {@link AuditFieldEntity} holding the previous fields and the processed dirty
+     * fields
+     */
+    public static Map<String, AuditFieldEntity> processDirtyFields(Object instance, AuditDirtyTracker tracker,
+            Map<String, AuditFieldEntity> previous) {
+        Map<String, AuditFieldEntity> result = new HashMap<>(previous);
+        for (AuditFieldMetadata field : tracker.getDirtyFields()) {
+            AuditFieldEntity fieldEntity = field.getProcessor().process(field, instance, previous.get(field.getName()));
             if (fieldEntity == null) {
-                continue;
+                result.remove(field.getName());
+            } else {
+                result.put(fieldEntity.getFieldName(), fieldEntity);
             }
-            if (!f.isAnnotationPresent(AuditUser.class) && !f.isAnnotationPresent(AuditId.class)) {
+        }
+        return result;
+    }
+
+    /**
+     * Processes the audited fields of an auditable instance, using the generated {@link AuditDescriptor} when
+     * available and the cached {@link AuditClassMetadata} otherwise.
+     *
+     * @param instance the auditable entity instance to process
+     * @param metadata the metadata of the instance class
+     * @return a map of field names to {@link AuditFieldEntity} representing the processed fields
+     */
+    static Map<String, AuditFieldEntity> snapshot(Object instance, AuditClassMetadata metadata) {
+        return snapshot(instance, metadata, Collections.emptyMap());
+    }
+
+    /**
+     * Processes the audited fields of an auditable instance against its previous state, using the generated
+     * {@link AuditDescriptor} when available and the cached {@link AuditClassMetadata} otherwise.
+     *
+     * @param instance the auditable entity instance to process
+     * @param metadata the metadata of the instance class
+     * @param previous the processed fields of the previous state of the instance, possibly empty
+     * @return a map of field names to {@link AuditFieldEntity} representing the processed fields
+     */
+    static Map<String, AuditFieldEntity> snapshot(Object instance, AuditClassMetadata metadata,
+            Map<String, AuditFieldEntity> previous) {
+        AuditDescriptor<Object> descriptor = getDescriptor(metadata.getType());
+        if (descriptor != null) {
+            return descriptor.process(instance, previous);
+        }
+        Map<String, AuditFieldEntity> result = new HashMap<>();
+        for (AuditFieldMetadata field : metadata.getAuditedFields()) {
+            AuditFieldEntity fieldEntity = field.getProcessor().process(field, instance, previous.get(field.getName()));
+            if (fieldEntity != null) {
                 result.put(fieldEntity.getFieldName(), fieldEntity);
             }
         }
@@ -65,29 +155,67 @@ public class FieldProcessorContext {
      * @return an {@link AuditFieldEntity} representing the processed field
      */
     public static AuditFieldEntity processField(Field field, Object instance) {
-        Class<?> type = field.getType();
+        return getProcessor(field.getType()).process(field, instance);
+    }
+
+    /**
+     * Retrieves the {@link FieldProcessor} responsible for fields of the given type.
+     * Arrays are handled as lists, and enums by the enum processor.
+     * If no specific processor is found for the type, the default field processor is returned.
+     *
+     * @param type the declared type of the field
+     * @return the {@link FieldProcessor} for the type
+     */
+    public static FieldProcessor getProcessor(Class<?> type) {
         if (type.isArray()) {
-            return processors.get(List.class).process(field, instance);
+            return processors.get(List.class);
         }
         if (type.isEnum()) {
-            return processors.get(Enum.class).process(field, instance);
+            return processors.get(Enum.class);
         }
-        return processors.getOrDefault(type, defaultFieldProcessor).process(field, instance);
+        return processors.getOrDefault(type, defaultFieldProcessor);
+    }
+
+    /**
+     * Retrieves the {@link FieldProcessor} of the fields audited leaf by leaf with
+     * {@link com.thinkon.common.audit.annotation.AuditProperty#deep()}, whatever their type.
+     *
+     * @return the deep field processor
+     */
+    public static FieldProcessor getDeepProcessor() {
+        return deepFieldProcessor;
     }
 
     /**
-     * Retrieves the first field in the given class that is annotated with the specified annotation.
+     * Retrieves the {@link AuditDescriptor} generated at build time for the given class.
+     *
+     * @param objectClass the auditable class
+     * @return the generated descriptor, or null if none was generated
+     */
+    public static AuditDescriptor<Object> getDescriptor(Class<?> objectClass) {
+        return descriptors.get(objectClass).orElse(null);
+    }
+
+    /**
+     * Retrieves the first field in the given class or in one of its superclasses that is annotated with the
+     * specified annotation. Fields declared by the class itself take precedence over inherited ones.
      *
      * @param aClass      the annotation class to look for
      * @param objectClass the class containing the fields to be checked
      * @return the first field annotated with the specified annotation, or null if no such field is found
      */
     public static Field getFieldByAnnotation(Class<? extends Annotation> aClass, Class<?> objectClass) {
-        return Arrays
-                .stream(objectClass.getDeclaredFields())
-                .filter(f -> f.isAnnotationPresent(aClass))
-                .findFirst()
-                .orElse(null);
+        for (Class<?> current = objectClass; current != null; current = current.getSuperclass()) {
+            Field field = Arrays
+                    .stream(current.getDeclaredFields())
+                    .filter(f -> f.isAnnotationPresent(aClass))
+                    .findFirst()
+                    .orElse(null);
+            if (field != null) {
+                return field;
+            }
+        }
+        return null;
     }
 
 }
@@ -30,8 +30,41 @@ class ListFieldProcessor extends FieldProcessor {
         if (list.isEmpty()) {
             return MAPPER.createArrayNode();
         }
-        this.processAuditProperty(list.get(0).getClass().getDeclaredFields(), propertyEntityList);
-        return this.parseListToArrayNode(list, propertyEntityList);
+        return this.parseListToArrayNode(list, this.resolveProperties(list.get(0).getClass(), propertyEntityList));
+    }
+
+    /**
+     * Fingerprints the size of the list and each of its elements, either as is when they are primitives or
+     * wrappers, or from the values of the properties serialized for them.
+     *
+     * @param propertyEntityList the list of {@link AuditPropertyEntity} representing the properties to be processed
+     * @param instance           the list or array to fingerprint
+     * @return the fingerprint of the list, or {@link AuditFingerprint#NONE} if it cannot be fingerprinted
+     */
+    @Override
+    protected long fingerprint(List<AuditPropertyEntity> propertyEntityList, Object instance) {
+        if (instance == null) {
+            return AuditFingerprint.list(0);
+        }
+        if (instance.getClass().isArray() && !(instance instanceof Object[])) {
+            return AuditFingerprint.NONE;
+        }
+        List<?> list = instance.getClass().isArray() ? Arrays.asList((Object[]) instance) : (List<?>) instance;
+        long fingerprint = AuditFingerprint.list(list.size());
+        if (list.isEmpty()) {
+            return fingerprint;
+        }
+        Object first = list.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        List<AuditPropertyEntity> properties = first == null || FieldProcessor.isPrimitiveOrWrapper(first)
+                ? null : this.resolveProperties(first.getClass(), propertyEntityList);
+        for (Object element : list) {
+            fingerprint = AuditFingerprint.combine(fingerprint, properties == null || element == null
+                    ? AuditFingerprint.scalar(element) : AuditFingerprint.properties(element, properties));
+            if (fingerprint == AuditFingerprint.NONE) {
+                return AuditFingerprint.NONE;
+            }
+        }
+        return fingerprint;
     }
 
 
@@ -14,4 +14,17 @@ public interface AuditDiff<T> {
      * @return The computed difference between {@code newValue} and {@code oldValue}.
      */
     T process(T newValue, T oldValue);
+
+    /**
+     * Computes the old side of a change, compared with the new value. By default, the difference is symmetric and
+     * this is {@code process(oldValue, newValue)}; diffs whose result depends on the direction, such as the added
+     * and removed elements of a list, override it.
+     *
+     * @param oldValue The old value to compare.
+     * @param newValue The new value to compare.
+     * @return The computed difference between {@code oldValue} and {@code newValue}.
+     */
+    default T processOld(T oldValue, T newValue) {
+        return process(oldValue, newValue);
+    }
 }
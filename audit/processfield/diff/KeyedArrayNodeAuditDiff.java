@@ -0,0 +1,173 @@
+package com.thinkon.common.audit.processfield.diff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link AuditDiff} comparing two lists, as {@link ArrayNode} objects, whose elements are
+ * identified by a key field, configured with {@link com.thinkon.common.audit.annotation.AuditProperties#keyField()}.
+ *
+ * <p>The elements of the old list are indexed by key in a hash map, so the lists are matched in linear time
+ * whatever their order. The new value of a change is an object with the {@code added} elements and the
+ * {@code modified} ones, and the old value an object with the {@code removed} elements and the {@code modified} ones.
+ * A modified element holds its key and only the sub-fields that changed, with their new or old values. Elements
+ * without the key field, such as the values of a list of strings, are keyed by their whole value. When there is no
+ * old list, the whole new list is returned.</p>
+ */
+public class KeyedArrayNodeAuditDiff implements AuditDiff<JsonNode> {
+
+    /**
+     * Section of the new value holding the elements missing from the old list.
+     */
+    public static final String ADDED = "added";
+
+    /**
+     * Section of the old value holding the elements missing from the new list.
+     */
+    public static final String REMOVED = "removed";
+
+    /**
+     * Section holding the changed sub-fields of the elements found in both lists.
+     */
+    public static final String MODIFIED = "modified";
+
+    private final String keyField;
+
+    /**
+     * Creates a diff matching the list elements by a key field.
+     *
+     * @param keyField The name of the key field in the elements, that is, its audit label.
+     */
+    public KeyedArrayNodeAuditDiff(String keyField) {
+        this.keyField = keyField;
+    }
+
+    /**
+     * Computes the new side of the change: the added elements and the new values of the modified ones.
+     *
+     * @param newValue The new list.
+     * @param oldValue The old list.
+     * @return An object with the {@code added} and {@code modified} sections, the whole new list if there is no old
+     * list, or null if no element was added or modified.
+     */
+    @Override
+    public JsonNode process(JsonNode newValue, JsonNode oldValue) {
+        return this.diff(newValue, oldValue, ADDED);
+    }
+
+    /**
+     * Computes the old side of the change: the removed elements and the old values of the modified ones.
+     *
+     * @param oldValue The old list.
+     * @param newValue The new list.
+     * @return An object with the {@code removed} and {@code modified} sections, or null if no element was removed
+     * or modified.
+     */
+    @Override
+    public JsonNode processOld(JsonNode oldValue, JsonNode newValue) {
+        return this.diff(oldValue, newValue, REMOVED);
+    }
+
+    /**
+     * Gets the name of the key field.
+     *
+     * @return The key field.
+     */
+    public String getKeyField() {
+        return keyField;
+    }
+
+    /**
+     * Compares a list with another one, from the point of view of the first list.
+     *
+     * @param first            The list whose side of the change is computed.
+     * @param second           The list it is compared with.
+     * @param unmatchedSection The section of the elements of the first list missing from the second one.
+     * @return The side of the change, the first list if the second one is null, or null if there is no difference.
+     */
+    private JsonNode diff(JsonNode first, JsonNode second, String unmatchedSection) {
+        if (second == null || second.isNull()) {
+            return first;
+        }
+        if (first == null || Objects.equals(first, second)) {
+            return null;
+        }
+        Map<JsonNode, Deque<JsonNode>> secondByKey = new HashMap<>(second.size() * 4 / 3 + 1);
+        for (JsonNode element : second) {
+            secondByKey.computeIfAbsent(this.keyOf(element), k -> new ArrayDeque<>(1)).add(element);
+        }
+        ArrayNode unmatched = JsonNodeFactory.instance.arrayNode();
+        ArrayNode modified = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode element : first) {
+            Deque<JsonNode> candidates = secondByKey.get(this.keyOf(element));
+            JsonNode match = candidates == null ? null : candidates.poll();
+            if (match == null) {
+                unmatched.add(element);
+            } else if (!element.equals(match)) {
+                modified.add(this.changedFields(element, match));
+            }
+        }
+        if (unmatched.isEmpty() && modified.isEmpty()) {
+            return null;
+        }
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        if (!unmatched.isEmpty()) {
+            result.set(unmatchedSection, unmatched);
+        }
+        if (!modified.isEmpty()) {
+            result.set(MODIFIED, modified);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the key of a list element.
+     *
+     * @param element The element.
+     * @return The value of its key field, or the element itself if it has no key field.
+     */
+    private JsonNode keyOf(JsonNode element) {
+        JsonNode key = element.isObject() ? element.get(keyField) : null;
+        return key == null ? element : key;
+    }
+
+    /**
+     * Builds the modified entry of an element: its key and the sub-fields whose value differs from the matching
+     * element, sub-fields missing from the element being recorded as null.
+     *
+     * @param element The element whose values are recorded.
+     * @param match   The matching element of the other list.
+     * @return The modified entry, or the element itself if it is not an object.
+     */
+    private JsonNode changedFields(JsonNode element, JsonNode match) {
+        if (!element.isObject() || !match.isObject()) {
+            return element;
+        }
+        ObjectNode changed = JsonNodeFactory.instance.objectNode();
+        changed.set(keyField, element.get(keyField));
+        Iterator<Map.Entry<String, JsonNode>> fields = element.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().equals(match.get(field.getKey()))) {
+                changed.set(field.getKey(), field.getValue());
+            }
+        }
+        Iterator<String> matchFields = match.fieldNames();
+        while (matchFields.hasNext()) {
+            String fieldName = matchFields.next();
+            if (!element.has(fieldName)) {
+                changed.set(fieldName, NullNode.getInstance());
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,177 @@
+package com.thinkon.common.audit.processfield.diff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link AuditDiff} comparing two ordered lists, as {@link ArrayNode} objects, whose elements have
+ * no key. The lists are aligned on their longest common subsequence, so inserting or removing an element only
+ * records that element instead of every element after it.
+ *
+ * <p>The new value of a change is an object whose {@code added} section lists the elements of the new list outside
+ * the common subsequence, and the old value an object whose {@code removed} section lists those of the old list.
+ * Each entry holds the {@code index} of the element in its list and its {@code value}. A modified element shows up
+ * as removed and added at the same place; use {@link KeyedArrayNodeAuditDiff} when the elements have a key.</p>
+ *
+ * <p>The common prefix and suffix of the lists are skipped in linear time. The rest is aligned with a table of
+ * {@code n * m} cells; beyond {@link #MAX_CELLS} cells, the whole list is returned instead.</p>
+ */
+public class LcsArrayNodeAuditDiff implements AuditDiff<JsonNode> {
+
+    /**
+     * Maximum size of the alignment table, which bounds the memory used to about 16 MB.
+     */
+    public static final int MAX_CELLS = 1 << 22;
+
+    /**
+     * Computes the new side of the change: the elements added to the list.
+     *
+     * @param newValue The new list.
+     * @param oldValue The old list.
+     * @return An object with the {@code added} section, the whole new list if there is no old list or the lists are
+     * too large to align, or null if no element was added.
+     */
+    @Override
+    public JsonNode process(JsonNode newValue, JsonNode oldValue) {
+        return diff(newValue, oldValue, KeyedArrayNodeAuditDiff.ADDED);
+    }
+
+    /**
+     * Computes the old side of the change: the elements removed from the list.
+     *
+     * @param oldValue The old list.
+     * @param newValue The new list.
+     * @return An object with the {@code removed} section, the whole old list if the lists are too large to align,
+     * or null if no element was removed.
+     */
+    @Override
+    public JsonNode processOld(JsonNode oldValue, JsonNode newValue) {
+        return diff(oldValue, newValue, KeyedArrayNodeAuditDiff.REMOVED);
+    }
+
+    /**
+     * Lists the elements of a list outside its longest common subsequence with another list.
+     *
+     * @param first            The list whose side of the change is computed.
+     * @param second           The list it is compared with.
+     * @param unmatchedSection The section of the elements of the first list outside the common subsequence.
+     * @return The side of the change, the first list if the second one is null or the lists are too large, or null
+     * if every element of the first list is in the common subsequence.
+     */
+    private static JsonNode diff(JsonNode first, JsonNode second, String unmatchedSection) {
+        if (second == null || second.isNull()) {
+            return first;
+        }
+        if (first == null || Objects.equals(first, second)) {
+            return null;
+        }
+        int n = first.size();
+        int m = second.size();
+        int[] firstHashes = hashes(first);
+        int[] secondHashes = hashes(second);
+        int start = 0;
+        while (start < n && start < m && same(first, firstHashes, start, second, secondHashes, start)) {
+            start++;
+        }
+        int firstEnd = n;
+        int secondEnd = m;
+        while (firstEnd > start && secondEnd > start
+                && same(first, firstHashes, firstEnd - 1, second, secondHashes, secondEnd - 1)) {
+            firstEnd--;
+            secondEnd--;
+        }
+        int rows = firstEnd - start;
+        int columns = secondEnd - start;
+        if ((long) (rows + 1) * (columns + 1) > MAX_CELLS) {
+            return first;
+        }
+        boolean[] matched = matches(first, firstHashes, second, secondHashes, start, rows, columns);
+        ArrayNode unmatched = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < rows; i++) {
+            if (!matched[i]) {
+                ObjectNode entry = unmatched.addObject();
+                entry.put("index", start + i);
+                entry.set("value", first.get(start + i));
+            }
+        }
+        if (unmatched.isEmpty()) {
+            return null;
+        }
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.set(unmatchedSection, unmatched);
+        return result;
+    }
+
+    /**
+     * Finds the elements of the first list that belong to a longest common subsequence of the middle of both lists.
+     *
+     * @param first        The first list.
+     * @param firstHashes  The hash codes of its elements.
+     * @param second       The second list.
+     * @param secondHashes The hash codes of its elements.
+     * @param start        The index of the first element after the common prefix.
+     * @param rows         The number of elements of the first list between the common prefix and suffix.
+     * @param columns      The number of elements of the second list between the common prefix and suffix.
+     * @return For each of the rows, whether the element is in the common subsequence.
+     */
+    private static boolean[] matches(JsonNode first, int[] firstHashes, JsonNode second, int[] secondHashes,
+            int start, int rows, int columns) {
+        int width = columns + 1;
+        int[] lengths = new int[(rows + 1) * width];
+        for (int i = rows - 1; i >= 0; i--) {
+            for (int j = columns - 1; j >= 0; j--) {
+                lengths[i * width + j] = same(first, firstHashes, start + i, second, secondHashes, start + j)
+                        ? lengths[(i + 1) * width + j + 1] + 1
+                        : Math.max(lengths[(i + 1) * width + j], lengths[i * width + j + 1]);
+            }
+        }
+        boolean[] matched = new boolean[rows];
+        int i = 0;
+        int j = 0;
+        while (i < rows && j < columns) {
+            if (same(first, firstHashes, start + i, second, secondHashes, start + j)) {
+                matched[i++] = true;
+                j++;
+            } else if (lengths[(i + 1) * width + j] >= lengths[i * width + j + 1]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Computes the hash codes of the elements of a list once, so that most unequal elements are told apart
+     * without comparing them field by field.
+     *
+     * @param list The list.
+     * @return The hash code of each element.
+     */
+    private static int[] hashes(JsonNode list) {
+        int[] hashes = new int[list.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = list.get(i).hashCode();
+        }
+        return hashes;
+    }
+
+    /**
+     * Checks if an element of the first list equals an element of the second list.
+     *
+     * @param first        The first list.
+     * @param firstHashes  The hash codes of its elements.
+     * @param i            The index in the first list.
+     * @param second       The second list.
+     * @param secondHashes The hash codes of its elements.
+     * @param j            The index in the second list.
+     * @return true if the elements are equal, false otherwise.
+     */
+    private static boolean same(JsonNode first, int[] firstHashes, int i, JsonNode second, int[] secondHashes,
+            int j) {
+        return firstHashes[i] == secondHashes[j] && first.get(i).equals(second.get(j));
+    }
+}
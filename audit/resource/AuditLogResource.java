@@ -1,15 +1,25 @@
 package com.thinkon.common.audit.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkon.common.audit.AuditException;
 import com.thinkon.common.audit.entity.Action;
 import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
 import com.thinkon.common.audit.service.AuditLogService;
 import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 /**
@@ -20,6 +30,12 @@ import lombok.RequiredArgsConstructor;
 @Consumes(MediaType.APPLICATION_JSON + "; charset=utf-8")
 @Produces(MediaType.APPLICATION_JSON + "; charset=utf-8")
 public class AuditLogResource {
+    /**
+     * ObjectMapper instance used to write streamed audit logs.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
     private final AuditLogService auditLogServiceImpl;
 
     /**
@@ -29,12 +45,102 @@ public class AuditLogResource {
      * @param valueId   the ID of the value.
      * @param action    the action performed (optional).
      * @param auditUser the user who performed the audit (optional).
+     * @param from      the earliest date, inclusive, in milliseconds since the epoch (optional).
+     * @param to        the latest date, exclusive, in milliseconds since the epoch (optional).
      * @return a list of audit logs matching the criteria.
      */
     @GET
     public List<AuditLog> find(@QueryParam("tableName") @NotNull String tableName,
             @NotNull @QueryParam("valueId") String valueId, @QueryParam("operation") Action action,
-            @QueryParam("auditUser") String auditUser) {
-        return auditLogServiceImpl.find(tableName, valueId, action, auditUser);
+            @QueryParam("auditUser") String auditUser, @QueryParam("from") Long from, @QueryParam("to") Long to) {
+        return auditLogServiceImpl.find(query(tableName, valueId, action, auditUser, from, to).build());
+    }
+
+    /**
+     * Finds a page of audit logs based on the provided query parameters, from the most recent to the oldest.
+     *
+     * @param tableName the name of the table.
+     * @param valueId   the ID of the value.
+     * @param action    the action performed (optional).
+     * @param auditUser the user who performed the audit (optional).
+     * @param from      the earliest date, inclusive, in milliseconds since the epoch (optional).
+     * @param to        the latest date, exclusive, in milliseconds since the epoch (optional).
+     * @param limit     the maximum number of audit logs of the page (optional).
+     * @param cursor    the next cursor of the previous page, or nothing for the first page.
+     * @return the page of audit logs with the cursor of the next page.
+     * @throws BadRequestException if the limit is out of range or the cursor is malformed.
+     */
+    @GET
+    @Path("/page")
+    public AuditLogPage findPage(@QueryParam("tableName") @NotNull String tableName,
+            @NotNull @QueryParam("valueId") String valueId, @QueryParam("operation") Action action,
+            @QueryParam("auditUser") String auditUser, @QueryParam("from") Long from, @QueryParam("to") Long to,
+            @QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor) {
+        AuditLogQuery query = query(tableName, valueId, action, auditUser, from, to)
+                .limit(limit)
+                .cursor(cursor)
+                .build();
+        try {
+            return auditLogServiceImpl.findPage(query);
+        } catch (AuditException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the audit logs matching the provided query parameters as a JSON array, from the most recent to the
+     * oldest. Each audit log is written as soon as its rows are read, so the history is never held in memory.
+     *
+     * @param tableName the name of the table.
+     * @param valueId   the ID of the value.
+     * @param action    the action performed (optional).
+     * @param auditUser the user who performed the audit (optional).
+     * @param from      the earliest date, inclusive, in milliseconds since the epoch (optional).
+     * @param to        the latest date, exclusive, in milliseconds since the epoch (optional).
+     * @return the streamed JSON array of audit logs.
+     */
+    @GET
+    @Path("/stream")
+    public StreamingOutput stream(@QueryParam("tableName") @NotNull String tableName,
+            @NotNull @QueryParam("valueId") String valueId, @QueryParam("operation") Action action,
+            @QueryParam("auditUser") String auditUser, @QueryParam("from") Long from, @QueryParam("to") Long to) {
+        AuditLogQuery query = query(tableName, valueId, action, auditUser, from, to).build();
+        return output -> {
+            try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                auditLogServiceImpl.stream(query, auditLog -> {
+                    try {
+                        generator.writeObject(auditLog);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Starts a query from the search parameters shared by the endpoints.
+     *
+     * @param tableName the name of the table.
+     * @param valueId   the ID of the value.
+     * @param action    the action performed, or null.
+     * @param auditUser the user who performed the audit, or null.
+     * @param from      the earliest date in milliseconds since the epoch, or null.
+     * @param to        the latest date in milliseconds since the epoch, or null.
+     * @return the query builder.
+     */
+    private static AuditLogQuery.AuditLogQueryBuilder query(String tableName, String valueId, Action action,
+            String auditUser, Long from, Long to) {
+        return AuditLogQuery.builder()
+                .tableName(tableName)
+                .valueId(valueId)
+                .action(action)
+                .auditUser(auditUser)
+                .from(from == null ? null : new Date(from))
+                .to(to == null ? null : new Date(to));
     }
 }
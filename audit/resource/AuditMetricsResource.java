@@ -0,0 +1,31 @@
+package com.thinkon.common.audit.resource;
+
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.metrics.AuditMetricsSnapshot;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import lombok.RequiredArgsConstructor;
+/**
+ * Resource exposing the metrics of the audit pipeline.
+ */
+@Path("/audit-metrics")
+@RequiredArgsConstructor
+@Produces(MediaType.APPLICATION_JSON + "; charset=utf-8")
+public class AuditMetricsResource {
+
+    private final AuditMetrics auditMetrics;
+
+    /**
+     * Takes a snapshot of the audit metrics: per table and action, the call counters and the histograms of the
+     * pre-read, diff and write times, serialized bytes and changes of the audit logs, along with the queue depth
+     * in asynchronous mode and the pre-image cache hits and misses.
+     *
+     * @return the current audit metrics.
+     */
+    @GET
+    public AuditMetricsSnapshot get() {
+        return auditMetrics.snapshot();
+    }
+}
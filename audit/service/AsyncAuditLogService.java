@@ -0,0 +1,315 @@
+package com.thinkon.common.audit.service;
+
+import com.thinkon.common.audit.AuditConfiguration;
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.policy.AuditDelivery;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AuditLogService} decorator that writes audit logs on dedicated writer threads.
+ * Validated audit logs are pushed into a bounded lock-free queue, so the caller only pays for the diff and not for
+ * the database inserts. When the queue is full, the configured {@link OverflowPolicy} applies. Tables listed in
+ * {@link AuditConfiguration#getSyncTables()} are written synchronously, unless an
+ * {@link com.thinkon.common.audit.policy.AuditPolicy} of the table sets another delivery.
+ *
+ * <p>Writer threads park while the queue is empty and are unparked by the next queued audit log; producers blocked
+ * by {@link OverflowPolicy#BLOCK} park until a writer takes an audit log from the queue.</p>
+ *
+ * <p>{@link #close()} stops accepting new work and waits for the writer threads to flush the queue. Audit logs
+ * submitted after close are written on the caller's thread.</p>
+ */
+@Slf4j
+public class AsyncAuditLogService implements AuditLogService, AutoCloseable {
+
+    private final AuditLogService delegate;
+    private final BoundedAuditQueue<AuditLog> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Set<String> syncTables;
+    private final AuditPolicyRegistry policyRegistry;
+    private final boolean defaultAsync;
+    private final long shutdownTimeoutMillis;
+    private final List<Thread> writers = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Thread> idleWriters = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Thread> blockedProducers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeProducers = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates the service and starts its writer threads.
+     *
+     * @param delegate      the service that writes the audit logs
+     * @param configuration the queue capacity, writer count, overflow policy and synchronous tables
+     */
+    public AsyncAuditLogService(AuditLogService delegate, AuditConfiguration configuration) {
+        this(delegate, configuration, null);
+    }
+
+    /**
+     * Creates the service and starts its writer threads. The {@link AuditDelivery} of the policy of each audit log
+     * decides whether it is queued or written synchronously; audit logs with the default delivery are queued only
+     * when the configuration is asynchronous, so that a synchronous configuration can still move some tables to the
+     * writer threads at runtime.
+     *
+     * @param delegate       the service that writes the audit logs
+     * @param configuration  the queue capacity, writer count, overflow policy, synchronous tables and mode
+     * @param policyRegistry the registry of the runtime audit policies, or null to queue every audit log
+     */
+    public AsyncAuditLogService(AuditLogService delegate, AuditConfiguration configuration,
+            AuditPolicyRegistry policyRegistry) {
+        if (configuration.getWriterThreads() < 1) {
+            throw new AuditException("At least one audit writer thread is required");
+        }
+        this.delegate = delegate;
+        this.queue = new BoundedAuditQueue<>(configuration.getQueueCapacity());
+        this.overflowPolicy = configuration.getOverflowPolicy();
+        this.syncTables = Set.copyOf(configuration.getSyncTables());
+        this.policyRegistry = policyRegistry;
+        this.defaultAsync = policyRegistry == null || configuration.isAsync();
+        this.shutdownTimeoutMillis = configuration.getShutdownTimeoutMillis();
+        for (int i = 0; i < configuration.getWriterThreads(); i++) {
+            Thread writer = new Thread(this::drain, "audit-writer-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Validates the provided {@link AuditLog} and queues it for writing.
+     *
+     * @param auditLog The audit log object to be audited.
+     * @throws AuditException If the table name, value ID, or audit user in the audit log are null.
+     */
+    @Override
+    public void audit(AuditLog auditLog) {
+        AuditLogServiceImpl.validate(auditLog);
+        if (this.isSynchronous(auditLog)) {
+            delegate.audit(auditLog);
+            return;
+        }
+        activeProducers.incrementAndGet();
+        try {
+            if (closed) {
+                delegate.audit(auditLog);
+            } else if (queue.offer(auditLog)) {
+                unparkFirst(idleWriters);
+            } else {
+                overflow(auditLog);
+            }
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks if an audit log is written on the caller's thread: when its policy asks for synchronous delivery, or,
+     * with the default delivery, when its table is synchronous or the service only queues on demand.
+     *
+     * @param auditLog The audit log.
+     * @return true if the audit log is written synchronously, false if it is queued.
+     */
+    private boolean isSynchronous(AuditLog auditLog) {
+        AuditDelivery delivery = policyRegistry == null ? AuditDelivery.DEFAULT
+                : policyRegistry.getPolicy(auditLog.getTableName(), auditLog.getAction()).getDelivery();
+        if (delivery != AuditDelivery.DEFAULT) {
+            return delivery == AuditDelivery.SYNC;
+        }
+        return !defaultAsync || syncTables.contains(auditLog.getTableName());
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query. Audit logs still in the queue are not returned.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        return delegate.find(query);
+    }
+
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest. Audit logs still in the queue are not returned.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        return delegate.findPage(query);
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, without loading them all in memory. Audit logs still in the queue are not returned.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        delegate.stream(query, consumer);
+    }
+
+    /**
+     * Stops accepting queued work and waits, up to the configured shutdown timeout, for the writer threads to
+     * write every queued audit log.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        while (activeProducers.get() > 0) {
+            Thread.onSpinWait();
+        }
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        try {
+            for (Thread writer : writers) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    writer.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queue.size() > 0) {
+            log.warn("Audit writers did not flush in {} ms, {} audit logs are still pending",
+                    shutdownTimeoutMillis, queue.size());
+        }
+    }
+
+    /**
+     * Gets the number of audit logs discarded by the {@link OverflowPolicy#DROP} policy.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of queued audit logs the delegate failed to write.
+     *
+     * @return the failed count.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Gets the approximate number of audit logs waiting in the queue.
+     *
+     * @return the pending count.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Applies the overflow policy to an audit log that did not fit in the queue.
+     *
+     * @param auditLog the audit log to handle
+     */
+    private void overflow(AuditLog auditLog) {
+        switch (overflowPolicy) {
+            case DROP:
+                dropped.increment();
+                log.debug("Audit queue is full, dropping audit log of table {} and value {}",
+                        auditLog.getTableName(), auditLog.getValueId());
+                break;
+            case CALLER_RUNS:
+                delegate.audit(auditLog);
+                break;
+            default:
+                Thread producer = Thread.currentThread();
+                while (true) {
+                    blockedProducers.add(producer);
+                    // Offer again after registering, so a writer polling in between cannot miss this producer
+                    boolean queued = queue.offer(auditLog);
+                    if (!queued) {
+                        LockSupport.park(this);
+                    }
+                    blockedProducers.remove(producer);
+                    if (queued) {
+                        unparkFirst(idleWriters);
+                        return;
+                    }
+                }
+        }
+    }
+
+    /**
+     * Writer thread loop: writes queued audit logs until the service is closed and the queue is empty.
+     */
+    private void drain() {
+        Thread writer = Thread.currentThread();
+        while (true) {
+            AuditLog auditLog = queue.poll();
+            if (auditLog == null) {
+                if (closed && activeProducers.get() == 0 && queue.size() == 0) {
+                    return;
+                }
+                idleWriters.add(writer);
+                // Poll again after registering, so a producer offering in between cannot miss this writer
+                auditLog = queue.poll();
+                if (auditLog == null && !(closed && activeProducers.get() == 0)) {
+                    LockSupport.park(this);
+                }
+                idleWriters.remove(writer);
+            }
+            if (auditLog != null) {
+                unparkFirst(blockedProducers);
+                write(auditLog);
+            }
+        }
+    }
+
+    /**
+     * Unparks the thread that has waited the longest among the given waiting threads, if any.
+     *
+     * @param waiters the parked writer threads or blocked producers
+     */
+    private static void unparkFirst(ConcurrentLinkedQueue<Thread> waiters) {
+        Thread waiter = waiters.poll();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Writes a queued audit log, logging failures since there is no caller to report them to.
+     *
+     * @param auditLog the audit log to write
+     */
+    private void write(AuditLog auditLog) {
+        try {
+            delegate.audit(auditLog);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Failed to write audit log of table {} and value {}",
+                    auditLog.getTableName(), auditLog.getValueId(), e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.thinkon.common.audit.service;
+
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.entity.AuditLog;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in the audit history of an entity, used for keyset pagination on (date, id): the next page holds the
+ * audit logs strictly older than the last audit log of the previous page. It is exchanged with clients as an opaque
+ * URL-safe token.
+ */
+public final class AuditLogCursor {
+
+    /**
+     * Position before the first page: later than any date a {@code datetime} column can hold.
+     */
+    public static final AuditLogCursor FIRST = new AuditLogCursor(new Date(253402300799000L), Long.MAX_VALUE);
+
+    private final Date date;
+    private final long id;
+
+    /**
+     * Creates a cursor.
+     *
+     * @param date the date of the last audit log read
+     * @param id   the ID of the last audit log read
+     */
+    public AuditLogCursor(Date date, long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Creates the cursor positioned after an audit log.
+     *
+     * @param auditLog the last audit log read
+     * @return the cursor of the next page
+     */
+    public static AuditLogCursor after(AuditLog auditLog) {
+        return new AuditLogCursor(auditLog.getDate(), auditLog.getId());
+    }
+
+    /**
+     * Decodes a cursor token.
+     *
+     * @param token the token, or null for the first page
+     * @return the decoded cursor
+     * @throws AuditException if the token is malformed
+     */
+    public static AuditLogCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = value.indexOf('.');
+            return new AuditLogCursor(new Date(Long.parseLong(value.substring(0, separator))),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new AuditException("Invalid audit log cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Encodes the cursor as an opaque token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String value = date.getTime() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Gets the date of the last audit log read.
+     *
+     * @return the date
+     */
+    public Date getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the ID of the last audit log read.
+     *
+     * @return the ID
+     */
+    public long getId() {
+        return id;
+    }
+}
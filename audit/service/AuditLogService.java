@@ -2,7 +2,10 @@ package com.thinkon.common.audit.service;
 
 import com.thinkon.common.audit.entity.Action;
 import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface defining methods for auditing operations.
@@ -16,6 +19,16 @@ public interface AuditLogService {
      */
     void audit(AuditLog auditLog);
 
+    /**
+     * Audits several {@link AuditLog} objects, such as the audit logs of a batch operation. Implementations that
+     * write to the database do so in one transaction; by default, each audit log is audited on its own.
+     *
+     * @param auditLogs The audit log objects to be audited.
+     */
+    default void auditAll(List<AuditLog> auditLogs) {
+        auditLogs.forEach(this::audit);
+    }
+
     /**
      * Finds audit logs based on specified criteria.
      *
@@ -25,5 +38,39 @@ public interface AuditLogService {
      * @param auditUser The user performing the audit.
      * @return A list of {@link AuditLog} objects matching the search criteria.
      */
-    List<AuditLog> find(String tableName, String valueId, Action action, String auditUser);
+    default List<AuditLog> find(String tableName, String valueId, Action action, String auditUser) {
+        return this.find(AuditLogQuery.builder()
+                .tableName(tableName)
+                .valueId(valueId)
+                .action(action)
+                .auditUser(auditUser)
+                .build());
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query, from the most recent to the oldest. The action,
+     * audit user and date range filters are optional.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    List<AuditLog> find(AuditLogQuery query);
+
+    /**
+     * Finds a page of audit logs matching the criteria of a query, from the most recent to the oldest. Pages are
+     * read with keyset pagination: the cursor of the returned page selects the audit logs that follow it.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    AuditLogPage findPage(AuditLogQuery query);
+
+    /**
+     * Streams the audit logs matching the criteria of a query, from the most recent to the oldest, without loading
+     * them all in memory. The consumer is called while the database cursor is open.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    void stream(AuditLogQuery query, Consumer<AuditLog> consumer);
 }
\ No newline at end of file
@@ -3,26 +3,89 @@ package com.thinkon.common.audit.service;
 import com.thinkon.common.audit.AuditException;
 import com.thinkon.common.audit.entity.AuditLog;
 import com.thinkon.common.audit.dao.AuditLogDao;
-import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.id.AuditIdGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
 
 /**
  * Implementation of {@link AuditLogService} interface providing methods for auditing operations.
  * This service ensures auditing requirements are met before performing audit log operations.
  */
-@RequiredArgsConstructor
+@AllArgsConstructor
 public class AuditLogServiceImpl implements AuditLogService {
+
+    /**
+     * Number of audit logs of a page when the query does not set a limit.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Maximum number of audit logs of a page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final AuditLogDao dao;
+    private final AuditIdGenerator idGenerator;
 
     /**
-     * Audits the provided {@link AuditLog} by validating mandatory fields and persisting it.
+     * Creates a service whose audit log IDs are generated by the database.
+     *
+     * @param dao The DAO used to persist the audit logs.
+     */
+    public AuditLogServiceImpl(AuditLogDao dao) {
+        this(dao, null);
+    }
+
+    /**
+     * Audits the provided {@link AuditLog} by validating mandatory fields and persisting it. With an
+     * {@link AuditIdGenerator}, the IDs are allocated first and the audit log is written with its changes in one go.
      *
      * @param auditLog The audit log to be audited and persisted.
      * @throws AuditException If the table name, value ID, or audit user in the audit log are null.
      */
     public void audit(AuditLog auditLog) {
+        validate(auditLog);
+        if (idGenerator == null) {
+            this.dao.create(auditLog);
+            return;
+        }
+        idGenerator.assign(auditLog);
+        this.dao.createAllWithIds(Collections.singletonList(auditLog));
+    }
+
+    /**
+     * Validates the provided audit logs and writes them with their changes in one transaction.
+     *
+     * @param auditLogs The audit logs to be audited and persisted.
+     * @throws AuditException If the table name, value ID, or audit user of an audit log are null.
+     */
+    @Override
+    public void auditAll(List<AuditLog> auditLogs) {
+        auditLogs.forEach(AuditLogServiceImpl::validate);
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        if (idGenerator == null) {
+            this.dao.createAll(auditLogs);
+            return;
+        }
+        auditLogs.forEach(idGenerator::assign);
+        this.dao.createAllWithIds(auditLogs);
+    }
+
+    /**
+     * Validates the mandatory fields of an {@link AuditLog}.
+     *
+     * @param auditLog The audit log to validate.
+     * @throws AuditException If the table name, value ID, or audit user in the audit log are null.
+     */
+    public static void validate(AuditLog auditLog) {
         if (auditLog.getTableName() == null) {
             throw new AuditException("Table name must not be null");
         }
@@ -32,23 +95,78 @@ public class AuditLogServiceImpl implements AuditLogService {
         if (auditLog.getAuditUser() == null) {
             throw new AuditException("Audit User must not be null");
         }
-        this.dao.create(auditLog);
     }
 
     /**
-     * Finds audit logs based on specified criteria.
+     * Finds the audit logs matching the criteria of a query, from the most recent to the oldest.
      *
-     * @param tableName The name of the table being audited.
-     * @param valueId   The ID of the value being audited.
-     * @param action    The action performed (e.g., create, delete, update).
-     * @param auditUser The user performing the audit.
+     * @param query The search criteria; the limit and cursor are ignored.
      * @return A list of {@link AuditLog} objects matching the search criteria.
      * @throws NullPointerException If any of the mandatory parameters (tableName, valueId) are null.
      */
-    public List<AuditLog> find(String tableName, String valueId, Action action, String auditUser) {
-        Objects.requireNonNull(tableName, "Table name must not be null");
-        Objects.requireNonNull(valueId, "Value ID must not be null");
-        return dao.findBy(tableName, valueId, action, auditUser);
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        Objects.requireNonNull(query.getTableName(), "Table name must not be null");
+        Objects.requireNonNull(query.getValueId(), "Value ID must not be null");
+        return dao.findBy(query);
     }
 
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest, using keyset pagination on (date, id).
+     * One more audit log than the page size is read to know whether there is a next page.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs, with a next cursor unless it is the last page.
+     * @throws NullPointerException If the table name or value ID of the query are null.
+     * @throws AuditException       If the page size is out of range or the cursor is malformed.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        Objects.requireNonNull(query.getTableName(), "Table name must not be null");
+        Objects.requireNonNull(query.getValueId(), "Value ID must not be null");
+        int limit = query.getLimit() == null ? DEFAULT_PAGE_SIZE : query.getLimit();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new AuditException("The page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        AuditLogCursor cursor = AuditLogCursor.decode(query.getCursor());
+        List<AuditLog> auditLogs = dao.findPage(query, cursor.getDate(), cursor.getId(), limit + 1);
+        if (auditLogs.size() <= limit) {
+            return AuditLogPage.builder().items(auditLogs).build();
+        }
+        List<AuditLog> items = new ArrayList<>(auditLogs.subList(0, limit));
+        return AuditLogPage.builder()
+                .items(items)
+                .nextCursor(AuditLogCursor.after(items.get(limit - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, merging the consecutive change rows of each audit log
+     * as they are fetched. Rows are matched on their date as well as their ID, since database-generated IDs restart
+     * in each partition of the audit tables.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     * @throws NullPointerException If the table name or value ID of the query are null.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        Objects.requireNonNull(query.getTableName(), "Table name must not be null");
+        Objects.requireNonNull(query.getValueId(), "Value ID must not be null");
+        AuditLog[] current = new AuditLog[1];
+        dao.streamBy(query, row -> {
+            if (current[0] != null && current[0].getId() == row.getId()
+                    && current[0].getDate().equals(row.getDate())) {
+                current[0].getLogChanges().addAll(row.getLogChanges());
+                return;
+            }
+            if (current[0] != null) {
+                consumer.accept(current[0]);
+            }
+            current[0] = row;
+        });
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.thinkon.common.audit.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi-producer multi-consumer queue backed by a ring buffer.
+ * Each slot carries a sequence number telling producers and consumers whether the slot is free or filled for
+ * the current lap, so {@link #offer(Object)} and {@link #poll()} only need a single CAS on the shared position.
+ *
+ * @param <E> the type of the queued elements
+ */
+final class BoundedAuditQueue<E> {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * Creates a queue holding at least the given number of elements. The capacity is rounded up to a power of two.
+     *
+     * @param capacity the minimum capacity of the queue
+     */
+    BoundedAuditQueue(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Queue capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.buffer = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Inserts an element if there is room for it.
+     *
+     * @param element the element to insert
+     * @return true if the element was inserted, false if the queue is full
+     */
+    boolean offer(E element) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the oldest element.
+     *
+     * @return the oldest element, or null if the queue is empty
+     */
+    E poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E element = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Gets the approximate number of queued elements.
+     *
+     * @return the number of elements, exact only when no other thread is using the queue
+     */
+    int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, mask + 1L));
+    }
+
+    /**
+     * Gets the capacity of the queue.
+     *
+     * @return the capacity.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,217 @@
+package com.thinkon.common.audit.service;
+
+import com.thinkon.common.audit.AuditConfiguration;
+import com.thinkon.common.audit.AuditException;
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.id.AuditIdGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AuditLogService} that coalesces concurrent {@link #audit(AuditLog)} calls into shared transactions.
+ * Every caller queues its audit log; the first caller to take the commit lock becomes the leader and writes up to
+ * {@link AuditConfiguration#getGroupCommitBatchSize()} queued audit logs with {@link AuditLogDao#createAll(List)},
+ * or {@link AuditLogDao#createAllWithIds(List)} when IDs are allocated by an {@link AuditIdGenerator}, while the
+ * other callers wait as followers. A caller returns only after the transaction holding its audit log has been
+ * committed. If a group transaction fails, its audit logs are retried one by one so that a single invalid audit log
+ * only fails its own caller.
+ */
+@Slf4j
+public class GroupCommitAuditLogService implements AuditLogService {
+
+    private final AuditLogDao dao;
+    private final AuditIdGenerator idGenerator;
+    private final AuditLogServiceImpl singleWriter;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final Queue<PendingAudit> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    /**
+     * Creates the service.
+     *
+     * @param dao           the DAO used to write the audit logs
+     * @param configuration the group commit batch size and maximum wait time
+     * @param idGenerator   the generator of audit log IDs, or null to let the database generate them
+     */
+    public GroupCommitAuditLogService(AuditLogDao dao, AuditConfiguration configuration,
+            AuditIdGenerator idGenerator) {
+        if (configuration.getGroupCommitBatchSize() < 1) {
+            throw new AuditException("The group commit batch size must be positive");
+        }
+        this.dao = dao;
+        this.idGenerator = idGenerator;
+        this.singleWriter = new AuditLogServiceImpl(dao, idGenerator);
+        this.batchSize = configuration.getGroupCommitBatchSize();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getGroupCommitMaxWaitMillis());
+    }
+
+    /**
+     * Validates the provided {@link AuditLog} and writes it in the next group transaction.
+     *
+     * @param auditLog The audit log object to be audited.
+     * @throws AuditException If the audit log is invalid or could not be written.
+     */
+    @Override
+    public void audit(AuditLog auditLog) {
+        AuditLogServiceImpl.validate(auditLog);
+        PendingAudit request = new PendingAudit(auditLog, Thread.currentThread());
+        pending.add(request);
+        pendingCount.incrementAndGet();
+        while (!request.done) {
+            if (commitLock.tryLock()) {
+                try {
+                    if (!request.done) {
+                        this.commitBatch();
+                    }
+                } finally {
+                    commitLock.unlock();
+                }
+                this.wakeNextLeader();
+            } else {
+                LockSupport.parkNanos(this, Math.max(maxWaitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        }
+        if (request.error != null) {
+            throw new AuditException("Failed to write audit log", request.error);
+        }
+    }
+
+    /**
+     * Writes the provided audit logs in a transaction of their own, since they already form a batch.
+     *
+     * @param auditLogs The audit log objects to be audited.
+     * @throws AuditException If an audit log is invalid or the audit logs could not be written.
+     */
+    @Override
+    public void auditAll(List<AuditLog> auditLogs) {
+        singleWriter.auditAll(auditLogs);
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        return singleWriter.find(query);
+    }
+
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        return singleWriter.findPage(query);
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, without loading them all in memory.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        singleWriter.stream(query, consumer);
+    }
+
+    /**
+     * Leader step: waits up to the maximum wait time for a full batch, then writes the oldest queued audit logs in
+     * one transaction and acknowledges their callers. Must be called with the commit lock held.
+     */
+    private void commitBatch() {
+        if (maxWaitNanos > 0 && pendingCount.get() < batchSize) {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            long remaining = maxWaitNanos;
+            while (pendingCount.get() < batchSize && remaining > 0) {
+                LockSupport.parkNanos(this, Math.min(remaining, TimeUnit.MICROSECONDS.toNanos(50)));
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        List<PendingAudit> batch = new ArrayList<>(Math.min(batchSize, pendingCount.get()));
+        PendingAudit request;
+        while (batch.size() < batchSize && (request = pending.poll()) != null) {
+            batch.add(request);
+        }
+        pendingCount.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<AuditLog> auditLogs = batch.stream().map(r -> r.auditLog).collect(Collectors.toList());
+            if (idGenerator == null) {
+                dao.createAll(auditLogs);
+            } else {
+                auditLogs.forEach(idGenerator::assign);
+                dao.createAllWithIds(auditLogs);
+            }
+            batch.forEach(r -> r.complete(null));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} audit logs failed, writing them one by one", batch.size(), e);
+            for (PendingAudit r : batch) {
+                try {
+                    singleWriter.audit(r.auditLog);
+                    r.complete(null);
+                } catch (RuntimeException single) {
+                    r.complete(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wakes the caller of the oldest queued audit log, so it takes over as leader without waiting for its park
+     * timeout.
+     */
+    private void wakeNextLeader() {
+        PendingAudit next = pending.peek();
+        if (next != null) {
+            LockSupport.unpark(next.waiter);
+        }
+    }
+
+    /**
+     * An audit log waiting for its group transaction, with the caller to acknowledge.
+     */
+    private static final class PendingAudit {
+        private final AuditLog auditLog;
+        private final Thread waiter;
+        private volatile boolean done;
+        private Throwable error;
+
+        private PendingAudit(AuditLog auditLog, Thread waiter) {
+            this.auditLog = auditLog;
+            this.waiter = waiter;
+        }
+
+        /**
+         * Marks the audit log as written, or failed, and wakes its caller.
+         *
+         * @param error the failure, or null if the audit log was committed
+         */
+        private void complete(Throwable error) {
+            this.error = error;
+            this.done = true;
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.thinkon.common.audit.service;
+
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.jfr.AuditWriteEvent;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.metrics.AuditTableMetrics;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link AuditLogService} decorator that records the time, size, change count and failures of the audit log writes
+ * of the service it wraps in {@link AuditMetrics}. It wraps the service that writes to the database, so in
+ * asynchronous mode the writes are measured on the writer threads rather than on the callers' threads. The
+ * audit logs of a batch are measured as one write, recorded for the table and action of its first audit log.
+ * Audit logs without an action are written without being measured. Every write is also recorded as an
+ * {@link AuditWriteEvent} for the Java Flight Recorder.
+ */
+@RequiredArgsConstructor
+public class MeteredAuditLogService implements AuditLogService {
+
+    private final AuditLogService delegate;
+    private final AuditMetrics metrics;
+
+    /**
+     * Validates and writes the provided {@link AuditLog}, and records the write.
+     *
+     * @param auditLog The audit log object to be audited.
+     * @throws com.thinkon.common.audit.AuditException If the table name, value ID, or audit user in the audit log
+     *                                                 are null.
+     */
+    @Override
+    public void audit(AuditLog auditLog) {
+        AuditLogServiceImpl.validate(auditLog);
+        this.write(Collections.singletonList(auditLog), () -> delegate.audit(auditLog));
+    }
+
+    /**
+     * Validates and writes the provided audit logs, and records the write.
+     *
+     * @param auditLogs The audit log objects to be audited.
+     * @throws com.thinkon.common.audit.AuditException If the table name, value ID, or audit user of an audit log
+     *                                                 are null.
+     */
+    @Override
+    public void auditAll(List<AuditLog> auditLogs) {
+        auditLogs.forEach(AuditLogServiceImpl::validate);
+        if (auditLogs.isEmpty()) {
+            delegate.auditAll(auditLogs);
+            return;
+        }
+        this.write(auditLogs, () -> delegate.auditAll(auditLogs));
+    }
+
+    /**
+     * Runs a write of the delegate and records it in the metrics of the table and action of its first audit log
+     * and as an {@link AuditWriteEvent}.
+     *
+     * @param auditLogs The validated audit logs written, not empty.
+     * @param write     The write of the delegate.
+     */
+    private void write(List<AuditLog> auditLogs, Runnable write) {
+        AuditLog first = auditLogs.get(0);
+        AuditTableMetrics tableMetrics = first.getAction() == null ? null
+                : metrics.get(first.getTableName(), first.getAction());
+        AuditWriteEvent event = new AuditWriteEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            if (tableMetrics != null) {
+                tableMetrics.recordWriteFailure();
+            }
+            event.finish(auditLogs, false);
+            throw e;
+        }
+        if (tableMetrics != null) {
+            tableMetrics.recordWrite(System.nanoTime() - start, auditLogs);
+        }
+        event.finish(auditLogs, true);
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        return delegate.find(query);
+    }
+
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        return delegate.findPage(query);
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, without loading them all in memory.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        delegate.stream(query, consumer);
+    }
+}
@@ -0,0 +1,21 @@
+package com.thinkon.common.audit.service;
+
+/**
+ * Enumeration of the behaviors of {@link AsyncAuditLogService} when its queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Blocks the caller until a writer thread frees a slot in the queue.
+     */
+    BLOCK,
+
+    /**
+     * Discards the audit log and increments the dropped counter.
+     */
+    DROP,
+
+    /**
+     * Writes the audit log synchronously on the caller's thread.
+     */
+    CALLER_RUNS;
+}
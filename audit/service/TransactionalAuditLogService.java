@@ -0,0 +1,109 @@
+package com.thinkon.common.audit.service;
+
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Synchronous {@link AuditLogService} that runs every audited invocation in one Jdbi transaction.
+ * The findById pre-read, the audited DAO method and the audit log insert all run on the {@link Handle} that Jdbi
+ * binds to the current thread, so they need a single connection and the audit log is committed or rolled back
+ * together with the change it records. When the caller is already inside {@link Jdbi#inTransaction} or
+ * {@link Jdbi#useTransaction}, the invocation joins the caller's transaction instead of opening its own.
+ *
+ * <p>The DAOs involved must be obtained with {@link Jdbi#onDemand(Class)}, which is what
+ * {@link com.thinkon.common.audit.JdbiAuditWrapper#onDemand(Class)} does.</p>
+ */
+@RequiredArgsConstructor
+public class TransactionalAuditLogService implements AuditLogService {
+
+    private final Jdbi jdbi;
+    private final AuditLogService writer;
+
+    /**
+     * Runs an audited invocation in a transaction, or in the transaction of the caller if there is one.
+     *
+     * @param invocation the pre-read, audited method call and audit log write
+     * @param <X>        the checked exception thrown by the invocation
+     * @return the result of the invocation
+     * @throws X if the invocation fails, after the transaction has been rolled back
+     */
+    public <X extends Exception> Object inTransaction(AuditedInvocation<X> invocation) throws X {
+        return jdbi.inTransaction(handle -> invocation.invoke());
+    }
+
+    /**
+     * Writes the provided {@link AuditLog} in the current transaction.
+     *
+     * @param auditLog The audit log object to be audited.
+     */
+    @Override
+    public void audit(AuditLog auditLog) {
+        writer.audit(auditLog);
+    }
+
+    /**
+     * Writes the provided audit logs in the current transaction.
+     *
+     * @param auditLogs The audit log objects to be audited.
+     */
+    @Override
+    public void auditAll(List<AuditLog> auditLogs) {
+        writer.auditAll(auditLogs);
+    }
+
+    /**
+     * Finds the audit logs matching the criteria of a query.
+     *
+     * @param query The search criteria; the limit and cursor are ignored.
+     * @return A list of {@link AuditLog} objects matching the search criteria.
+     */
+    @Override
+    public List<AuditLog> find(AuditLogQuery query) {
+        return writer.find(query);
+    }
+
+    /**
+     * Finds a page of audit logs, from the most recent to the oldest.
+     *
+     * @param query The search criteria, page size and cursor.
+     * @return The page of audit logs with the cursor of the next page.
+     */
+    @Override
+    public AuditLogPage findPage(AuditLogQuery query) {
+        return writer.findPage(query);
+    }
+
+    /**
+     * Streams audit logs, from the most recent to the oldest, without loading them all in memory.
+     *
+     * @param query    The search criteria; the limit and cursor are ignored.
+     * @param consumer The consumer called with each audit log and all of its changes.
+     */
+    @Override
+    public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        writer.stream(query, consumer);
+    }
+
+    /**
+     * An audited invocation run by {@link #inTransaction(AuditedInvocation)}.
+     *
+     * @param <X> the checked exception thrown by the invocation
+     */
+    @FunctionalInterface
+    public interface AuditedInvocation<X extends Exception> {
+
+        /**
+         * Runs the invocation.
+         *
+         * @return the result of the audited method
+         * @throws X if the invocation fails
+         */
+        Object invoke() throws X;
+    }
+}
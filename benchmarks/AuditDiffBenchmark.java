@@ -0,0 +1,81 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.thinkon.common.audit.processfield.diff.ArrayNodeAuditDiff;
+import com.thinkon.common.audit.processfield.diff.DefaultAuditDiff;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the diffs applied to changed fields: {@link ArrayNodeAuditDiff} on lists of
+ * {@value BenchmarkEntities#LIST_SIZE} elements, one of which changed, and {@link DefaultAuditDiff} on scalars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuditDiffBenchmark {
+
+    private final ArrayNodeAuditDiff arrayNodeDiff = new ArrayNodeAuditDiff();
+    private final DefaultAuditDiff defaultDiff = new DefaultAuditDiff();
+    private ArrayNode oldLines;
+    private ArrayNode newLines;
+    private ArrayNode sameLines;
+    private String oldName;
+    private String newName;
+
+    /**
+     * Creates the compared values.
+     */
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        oldLines = mapper.valueToTree(BenchmarkEntities.list(1L, -1).getLines());
+        sameLines = oldLines.deepCopy();
+        newLines = mapper.valueToTree(BenchmarkEntities.list(1L, BenchmarkEntities.LIST_SIZE / 2).getLines());
+        oldName = "Chair";
+        newName = new String("Table");
+    }
+
+    /**
+     * Diffs the lists.
+     *
+     * @return the changed elements
+     */
+    @Benchmark
+    public ArrayNode arrayNodeDiff() {
+        return arrayNodeDiff.process(newLines, oldLines);
+    }
+
+    /**
+     * Diffs equal lists.
+     *
+     * @return null
+     */
+    @Benchmark
+    public ArrayNode arrayNodeDiffUnchanged() {
+        return arrayNodeDiff.process(sameLines, oldLines);
+    }
+
+    /**
+     * Diffs the scalars.
+     *
+     * @return the new value
+     */
+    @Benchmark
+    public Object defaultDiff() {
+        return defaultDiff.process(newName, oldName);
+    }
+}
@@ -0,0 +1,72 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.entity.AuditLog;
+import java.util.concurrent.TimeUnit;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of writing an audit log and its changes with {@link AuditLogDao#create(AuditLog)} to an embedded H2 database
+ * in MySQL mode, on a handle that stays open so that the connection setup is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuditLogDaoBenchmark {
+
+    /**
+     * Number of changes of each audit log.
+     */
+    @Param({"1", "10"})
+    public int changeCount;
+
+    private Jdbi jdbi;
+    private Handle handle;
+    private AuditLogDao dao;
+
+    /**
+     * Creates the database and the DAO.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        jdbi = BenchmarkEntities.createDatabase("audit-benchmark-" + changeCount);
+        handle = jdbi.open();
+        dao = handle.attach(AuditLogDao.class);
+    }
+
+    /**
+     * Drops the database and closes the handle.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handle.close();
+        BenchmarkEntities.dropDatabase(jdbi);
+    }
+
+    /**
+     * Writes an audit log.
+     *
+     * @return the generated ID of the audit log
+     */
+    @Benchmark
+    public long create() {
+        return dao.create(BenchmarkEntities.auditLog(changeCount));
+    }
+}
@@ -0,0 +1,334 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.annotation.AuditClass;
+import com.thinkon.common.audit.annotation.AuditFieldMapping;
+import com.thinkon.common.audit.annotation.AuditId;
+import com.thinkon.common.audit.annotation.AuditProperties;
+import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.annotation.Auditable;
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.entity.AuditLogPage;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.processfield.diff.ArrayNodeAuditDiff;
+import com.thinkon.common.audit.service.AuditLogService;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+
+/**
+ * Entities, DAO, audit log service and audit database shared by the benchmarks. The entities cover the three shapes
+ * whose audit cost differs: a narrow entity of a few scalar fields, a wide entity of {@value #WIDE_FIELDS} fields, and
+ * an entity dominated by a list compared element by element. The audit database is an embedded H2 database in MySQL
+ * mode with the audit tables of the README.
+ */
+public final class BenchmarkEntities {
+
+    /**
+     * Number of fields of the {@link WideEntity}, besides its ID and user.
+     */
+    public static final int WIDE_FIELDS = 40;
+
+    /**
+     * Number of elements of the list of a {@link ListEntity}.
+     */
+    public static final int LIST_SIZE = 50;
+
+    private static final String[] DDL = {
+        "CREATE TABLE audit_log (`id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, `event_id` varchar(36) UNIQUE, "
+                + "`table_name` varchar(200) NOT NULL, `action` varchar(100) NOT NULL, "
+                + "`value_id` varchar(200) NOT NULL, `audit_user` varchar(100) NOT NULL, `date` datetime NOT NULL)",
+        "CREATE INDEX idx_table_value_date ON audit_log (table_name, value_id, date)",
+        "CREATE TABLE audit_log_changes (`id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "`audit_log_id` bigint NOT NULL, `field_name` varchar(200) NOT NULL, `old_value` blob, "
+                + "`new_value` blob)"
+    };
+
+    private BenchmarkEntities() {
+    }
+
+    /**
+     * Entity of a few scalar fields.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Auditable(tableName = "narrow")
+    public static class NarrowEntity {
+        @AuditId
+        private Long id;
+        @AuditUser
+        private String editor;
+        private String name;
+        private Double price;
+        private Integer quantity;
+    }
+
+    /**
+     * Entity of {@value #WIDE_FIELDS} text fields, of which an update typically changes one or two.
+     */
+    @Data
+    @NoArgsConstructor
+    @Auditable(tableName = "wide")
+    public static class WideEntity {
+        @AuditId
+        private Long id;
+        @AuditUser
+        private String editor;
+        private String f00, f01, f02, f03, f04, f05, f06, f07, f08, f09;
+        private String f10, f11, f12, f13, f14, f15, f16, f17, f18, f19;
+        private String f20, f21, f22, f23, f24, f25, f26, f27, f28, f29;
+        private String f30, f31, f32, f33, f34, f35, f36, f37, f38, f39;
+    }
+
+    /**
+     * Entity whose lines are serialized to JSON and compared with {@link ArrayNodeAuditDiff}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Auditable(tableName = "order")
+    public static class ListEntity {
+        @AuditId
+        private Long id;
+        @AuditUser
+        private String editor;
+        private String reference;
+        @AuditProperties(labelField = "LINES", diff = ArrayNodeAuditDiff.class, value = {
+                @AuditFieldMapping(field = "sku"), @AuditFieldMapping(label = "QTY", field = "quantity")})
+        private List<Line> lines;
+    }
+
+    /**
+     * Line of a {@link ListEntity}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private String sku;
+        private int quantity;
+    }
+
+    /**
+     * Audited DAO of the narrow entity.
+     */
+    @AuditClass
+    public interface NarrowDao {
+
+        /**
+         * Updates an entity, audited against the state returned by {@link #findById(Long)}.
+         *
+         * @param entity the updated entity
+         */
+        @AuditUpdate
+        void update(NarrowEntity entity);
+
+        /**
+         * Finds an entity.
+         *
+         * @param id the ID of the entity
+         * @return the entity
+         */
+        NarrowEntity findById(Long id);
+
+        /**
+         * Counts the entities, a method that is not audited.
+         *
+         * @return the number of entities
+         */
+        int count();
+    }
+
+    /**
+     * In-memory {@link NarrowDao} holding a single entity, so that the benchmarks only measure the audit.
+     */
+    public static class InMemoryNarrowDao implements NarrowDao {
+        private final NarrowEntity stored = narrow(1L, "stored");
+
+        /**
+         * Discards the update.
+         *
+         * @param entity the updated entity
+         */
+        @Override
+        public void update(NarrowEntity entity) {
+        }
+
+        /**
+         * Returns a copy of the stored entity.
+         *
+         * @param id the ID of the entity
+         * @return the stored entity
+         */
+        @Override
+        public NarrowEntity findById(Long id) {
+            return new NarrowEntity(stored.getId(), stored.getEditor(), stored.getName(), stored.getPrice(),
+                    stored.getQuantity());
+        }
+
+        /**
+         * Returns 1.
+         *
+         * @return 1
+         */
+        @Override
+        public int count() {
+            return 1;
+        }
+    }
+
+    /**
+     * Audit log service discarding the audit logs, so that the benchmarks do not measure a database.
+     */
+    public static class DiscardingAuditLogService implements AuditLogService {
+
+        /**
+         * Discards the audit log.
+         *
+         * @param auditLog the audit log
+         */
+        @Override
+        public void audit(AuditLog auditLog) {
+        }
+
+        /**
+         * Finds nothing.
+         *
+         * @param query the search criteria
+         * @return an empty list
+         */
+        @Override
+        public List<AuditLog> find(AuditLogQuery query) {
+            return Collections.emptyList();
+        }
+
+        /**
+         * Finds nothing.
+         *
+         * @param query the search criteria
+         * @return an empty page
+         */
+        @Override
+        public AuditLogPage findPage(AuditLogQuery query) {
+            return AuditLogPage.builder().items(Collections.emptyList()).build();
+        }
+
+        /**
+         * Streams nothing.
+         *
+         * @param query    the search criteria
+         * @param consumer the consumer, never called
+         */
+        @Override
+        public void stream(AuditLogQuery query, Consumer<AuditLog> consumer) {
+        }
+    }
+
+    /**
+     * Creates an in-memory audit database, which lives until {@link #dropDatabase(Jdbi)} is called.
+     *
+     * @param name the name of the database, unique among the databases open at the same time
+     * @return the {@link Jdbi} instance of the database, with the SQL object plugin installed
+     */
+    public static Jdbi createDatabase(String name) {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi.useHandle(handle -> {
+            for (String statement : DDL) {
+                handle.execute(statement);
+            }
+        });
+        return jdbi;
+    }
+
+    /**
+     * Drops an audit database created by {@link #createDatabase(String)}.
+     *
+     * @param jdbi the {@link Jdbi} instance of the database
+     */
+    public static void dropDatabase(Jdbi jdbi) {
+        jdbi.useHandle(handle -> handle.execute("DROP ALL OBJECTS"));
+    }
+
+    /**
+     * Creates an update audit log of the narrow table.
+     *
+     * @param changeCount the number of changes of the audit log
+     * @return the audit log
+     */
+    public static AuditLog auditLog(int changeCount) {
+        List<AuditLogChange> changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            changes.add(AuditLogChange.builder().fieldName("FIELD_" + i).oldValue("old " + i).newValue("new " + i)
+                    .build());
+        }
+        return AuditLog.builder()
+                .tableName("narrow")
+                .valueId("42")
+                .action(Action.UPDATE)
+                .auditUser("alice")
+                .date(new Date())
+                .logChanges(changes)
+                .build();
+    }
+
+    /**
+     * Creates a narrow entity.
+     *
+     * @param id   the ID
+     * @param name the name
+     * @return the entity
+     */
+    public static NarrowEntity narrow(Long id, String name) {
+        return new NarrowEntity(id, "alice", name, 10.5, 3);
+    }
+
+    /**
+     * Creates a wide entity with every field set.
+     *
+     * @param id     the ID
+     * @param suffix the suffix of the values of the fields
+     * @return the entity
+     */
+    public static WideEntity wide(Long id, String suffix) {
+        WideEntity entity = new WideEntity();
+        entity.setId(id);
+        entity.setEditor("alice");
+        try {
+            for (int i = 0; i < WIDE_FIELDS; i++) {
+                Field field = WideEntity.class.getDeclaredField(String.format("f%02d", i));
+                field.setAccessible(true);
+                field.set(entity, "value " + i + suffix);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return entity;
+    }
+
+    /**
+     * Creates a list entity of {@value #LIST_SIZE} lines.
+     *
+     * @param id          the ID
+     * @param changedLine the index of a line whose quantity differs, or -1
+     * @return the entity
+     */
+    public static ListEntity list(Long id, int changedLine) {
+        List<Line> lines = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            lines.add(new Line("SKU-" + i, i == changedLine ? 99 : i % 7));
+        }
+        return new ListEntity(id, "alice", "ORDER-" + id, lines);
+    }
+}
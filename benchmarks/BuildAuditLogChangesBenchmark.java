@@ -0,0 +1,112 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.action.UpdateAuditClassProcessor;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.DiscardingAuditLogService;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.InMemoryNarrowDao;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.NarrowDao;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.NarrowEntity;
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.processfield.FieldProcessorContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning the audit entity maps of an update into changes with
+ * {@code AuditClassProcessor.buildAuditLogChanges}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuildAuditLogChangesBenchmark {
+
+    /**
+     * Shape of the updated entity.
+     */
+    @Param({"narrow", "wide", "list"})
+    public String shape;
+
+    private ChangeBuilder builder;
+    private Map<String, AuditFieldEntity> oldAudit;
+    private Map<String, AuditFieldEntity> newAudit;
+
+    /**
+     * Processes the old and new states of the entity of the shape.
+     *
+     * @throws NoSuchMethodException never, the audited method exists
+     */
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        builder = new ChangeBuilder();
+        Object oldEntity;
+        Object newEntity;
+        switch (shape) {
+            case "narrow":
+                oldEntity = BenchmarkEntities.narrow(1L, "old");
+                newEntity = BenchmarkEntities.narrow(1L, "new");
+                break;
+            case "wide":
+                oldEntity = BenchmarkEntities.wide(1L, "");
+                newEntity = BenchmarkEntities.wide(1L, " changed");
+                break;
+            default:
+                oldEntity = BenchmarkEntities.list(1L, -1);
+                newEntity = BenchmarkEntities.list(1L, BenchmarkEntities.LIST_SIZE / 2);
+                break;
+        }
+        oldAudit = FieldProcessorContext.processAuditableEntity(oldEntity);
+        newAudit = FieldProcessorContext.processAuditableEntity(newEntity);
+    }
+
+    /**
+     * Builds the changes of the update.
+     *
+     * @return the changes
+     */
+    @Benchmark
+    public List<AuditLogChange> buildChanges() {
+        return builder.build(newAudit, oldAudit);
+    }
+
+    /**
+     * Update processor exposing the change building of its audit.
+     */
+    static final class ChangeBuilder extends UpdateAuditClassProcessor {
+
+        /**
+         * Creates the processor of {@link NarrowDao#update(NarrowEntity)}.
+         *
+         * @throws NoSuchMethodException never, the audited method exists
+         */
+        ChangeBuilder() throws NoSuchMethodException {
+            super(new InMemoryNarrowDao(), NarrowDao.class.getMethod("update", NarrowEntity.class),
+                    new DiscardingAuditLogService());
+        }
+
+        /**
+         * Builds the changes between two audit entity maps.
+         *
+         * @param newAudit the new audit entity map
+         * @param oldAudit the old audit entity map
+         * @return the changes
+         */
+        List<AuditLogChange> build(Map<String, AuditFieldEntity> newAudit, Map<String, AuditFieldEntity> oldAudit) {
+            return this.buildAuditLogChanges(newAudit, oldAudit);
+        }
+    }
+}
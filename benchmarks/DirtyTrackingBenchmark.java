@@ -0,0 +1,239 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.AuditProxyInterceptor;
+import com.thinkon.common.audit.annotation.AuditClass;
+import com.thinkon.common.audit.annotation.AuditId;
+import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.annotation.Auditable;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.DiscardingAuditLogService;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.WideEntity;
+import com.thinkon.common.audit.processfield.AuditDirtyTracker;
+import com.thinkon.common.audit.processfield.AuditDirtyTracking;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of an audited update of one field of a wide entity through the reflective audit proxy, with its findById
+ * pre-read, diff and audit log, for the {@link WideEntity}, whose every field is processed and compared, and for the
+ * same entity implementing {@link AuditDirtyTracking}, whose update only processes and compares the marked field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DirtyTrackingBenchmark {
+
+    private static final String[] VALUES = {"value 0 changed", "value 0 changed again"};
+
+    private WideDao untracked;
+    private TrackedWideDao tracked;
+    private WideEntity wideEntity;
+    private TrackedWideEntity trackedEntity;
+    private int sequence;
+
+    /**
+     * {@link WideEntity} recording its changed fields. Only {@link #setF00(String)}, the setter called by the
+     * benchmark, marks its field, where a real entity would mark the field in every setter.
+     */
+    @Getter
+    @Auditable(tableName = "wide")
+    public static class TrackedWideEntity implements AuditDirtyTracking {
+        private final AuditDirtyTracker auditDirtyTracker = AuditDirtyTracker.of(TrackedWideEntity.class);
+        @AuditId
+        private Long id;
+        @AuditUser
+        private String editor;
+        private String f00, f01, f02, f03, f04, f05, f06, f07, f08, f09;
+        private String f10, f11, f12, f13, f14, f15, f16, f17, f18, f19;
+        private String f20, f21, f22, f23, f24, f25, f26, f27, f28, f29;
+        private String f30, f31, f32, f33, f34, f35, f36, f37, f38, f39;
+
+        /**
+         * Sets the first field and marks it as changed.
+         *
+         * @param f00 the value
+         */
+        public void setF00(String f00) {
+            this.f00 = f00;
+            auditDirtyTracker.markDirty("f00");
+        }
+    }
+
+    /**
+     * Audited DAO of the wide entity.
+     */
+    @AuditClass
+    public interface WideDao {
+
+        /**
+         * Updates an entity, audited against the state returned by {@link #findById(Long)}.
+         *
+         * @param entity the updated entity
+         */
+        @AuditUpdate
+        void update(WideEntity entity);
+
+        /**
+         * Finds an entity.
+         *
+         * @param id the ID of the entity
+         * @return the entity
+         */
+        WideEntity findById(Long id);
+    }
+
+    /**
+     * Audited DAO of the tracked wide entity.
+     */
+    @AuditClass
+    public interface TrackedWideDao {
+
+        /**
+         * Updates an entity, audited against the state returned by {@link #findById(Long)}.
+         *
+         * @param entity the updated entity
+         */
+        @AuditUpdate
+        void update(TrackedWideEntity entity);
+
+        /**
+         * Finds an entity.
+         *
+         * @param id the ID of the entity
+         * @return the entity
+         */
+        TrackedWideEntity findById(Long id);
+    }
+
+    /**
+     * In-memory {@link WideDao} holding a single entity, so that the benchmark only measures the audit.
+     */
+    public static class InMemoryWideDao implements WideDao {
+        private final WideEntity stored = BenchmarkEntities.wide(1L, "");
+
+        /**
+         * Discards the update.
+         *
+         * @param entity the updated entity
+         */
+        @Override
+        public void update(WideEntity entity) {
+        }
+
+        /**
+         * Returns the stored entity, which the audit only reads.
+         *
+         * @param id the ID of the entity
+         * @return the stored entity
+         */
+        @Override
+        public WideEntity findById(Long id) {
+            return stored;
+        }
+    }
+
+    /**
+     * In-memory {@link TrackedWideDao} holding a single entity, so that the benchmark only measures the audit.
+     */
+    public static class InMemoryTrackedWideDao implements TrackedWideDao {
+        private final TrackedWideEntity stored = trackedWide(1L);
+
+        /**
+         * Discards the update.
+         *
+         * @param entity the updated entity
+         */
+        @Override
+        public void update(TrackedWideEntity entity) {
+        }
+
+        /**
+         * Returns the stored entity, which the audit only reads.
+         *
+         * @param id the ID of the entity
+         * @return the stored entity
+         */
+        @Override
+        public TrackedWideEntity findById(Long id) {
+            return stored;
+        }
+    }
+
+    /**
+     * Creates the in-memory DAOs, their reflective audit proxies and the updated entities.
+     */
+    @Setup
+    public void setUp() {
+        untracked = proxy(WideDao.class, new InMemoryWideDao());
+        tracked = proxy(TrackedWideDao.class, new InMemoryTrackedWideDao());
+        wideEntity = BenchmarkEntities.wide(1L, "");
+        trackedEntity = trackedWide(1L);
+    }
+
+    /**
+     * Changes one field of the wide entity and updates it through the audit proxy.
+     */
+    @Benchmark
+    public void untrackedUpdate() {
+        wideEntity.setF00(VALUES[sequence++ & 1]);
+        untracked.update(wideEntity);
+    }
+
+    /**
+     * Changes one field of the tracked wide entity and updates it through the audit proxy.
+     */
+    @Benchmark
+    public void trackedUpdate() {
+        trackedEntity.setF00(VALUES[sequence++ & 1]);
+        tracked.update(trackedEntity);
+    }
+
+    /**
+     * Creates the reflective audit proxy of a DAO.
+     *
+     * @param type the DAO interface
+     * @param dao  the DAO
+     * @param <T>  the type of the DAO
+     * @return the proxy
+     */
+    private static <T> T proxy(Class<T> type, T dao) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new AuditProxyInterceptor(new DiscardingAuditLogService(), null, null, null, type, dao)));
+    }
+
+    /**
+     * Creates a clean tracked wide entity with every field set like {@link BenchmarkEntities#wide(Long, String)}.
+     *
+     * @param id the ID
+     * @return the entity
+     */
+    private static TrackedWideEntity trackedWide(Long id) {
+        TrackedWideEntity entity = new TrackedWideEntity();
+        entity.id = id;
+        entity.editor = "alice";
+        try {
+            for (int i = 0; i < BenchmarkEntities.WIDE_FIELDS; i++) {
+                Field field = TrackedWideEntity.class.getDeclaredField(String.format("f%02d", i));
+                field.set(entity, "value " + i);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,132 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.AuditConfiguration;
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.service.AuditLogService;
+import com.thinkon.common.audit.service.AuditLogServiceImpl;
+import com.thinkon.common.audit.service.GroupCommitAuditLogService;
+import java.util.concurrent.TimeUnit;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of writing audit logs from {@value #THREADS} threads to an embedded H2 database, through the single-row path
+ * of {@link AuditLogServiceImpl}, one transaction per audit log, and through {@link GroupCommitAuditLogService}, which
+ * coalesces the audit logs of concurrent callers into shared transactions, for several batch sizes and maximum waits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(GroupCommitBenchmark.THREADS)
+public class GroupCommitBenchmark {
+
+    /**
+     * Number of threads writing audit logs at the same time.
+     */
+    static final int THREADS = 8;
+
+    /**
+     * Audit log service writing each audit log in its own transaction.
+     */
+    @State(Scope.Benchmark)
+    public static class SingleRow {
+
+        private Jdbi jdbi;
+        private AuditLogService service;
+
+        /**
+         * Creates the database and the service.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            jdbi = BenchmarkEntities.createDatabase("single-row-benchmark");
+            service = new AuditLogServiceImpl(jdbi.onDemand(AuditLogDao.class));
+        }
+
+        /**
+         * Drops the database.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BenchmarkEntities.dropDatabase(jdbi);
+        }
+    }
+
+    /**
+     * Audit log service coalescing concurrent audit logs into shared transactions.
+     */
+    @State(Scope.Benchmark)
+    public static class GroupCommit {
+
+        /**
+         * Maximum number of audit logs written in one transaction.
+         */
+        @Param({"8", "64"})
+        public int batchSize;
+
+        /**
+         * Maximum time, in milliseconds, a leader waits for its batch to fill.
+         */
+        @Param({"0", "1"})
+        public long maxWaitMillis;
+
+        private Jdbi jdbi;
+        private AuditLogService service;
+
+        /**
+         * Creates the database and the service.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            jdbi = BenchmarkEntities.createDatabase("group-commit-benchmark-" + batchSize + "-" + maxWaitMillis);
+            service = new GroupCommitAuditLogService(jdbi.onDemand(AuditLogDao.class), AuditConfiguration.builder()
+                    .groupCommit(true)
+                    .groupCommitBatchSize(batchSize)
+                    .groupCommitMaxWaitMillis(maxWaitMillis)
+                    .build(), null);
+        }
+
+        /**
+         * Drops the database.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BenchmarkEntities.dropDatabase(jdbi);
+        }
+    }
+
+    /**
+     * Writes an audit log of one change in its own transaction.
+     *
+     * @param state the single-row service
+     */
+    @Benchmark
+    public void singleRow(SingleRow state) {
+        state.service.audit(BenchmarkEntities.auditLog(1));
+    }
+
+    /**
+     * Writes an audit log of one change in a transaction shared with the concurrent callers.
+     *
+     * @param state the group commit service
+     */
+    @Benchmark
+    public void groupCommit(GroupCommit state) {
+        state.service.audit(BenchmarkEntities.auditLog(1));
+    }
+}
@@ -0,0 +1,66 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.entity.AuditFieldEntity;
+import com.thinkon.common.audit.processfield.FieldProcessorContext;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link FieldProcessorContext#processAuditableEntity(Object)}, which reads and converts every audited field
+ * of an entity, for each shape of entity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessAuditableEntityBenchmark {
+
+    /**
+     * Shape of the processed entity.
+     */
+    @Param({"narrow", "wide", "list"})
+    public String shape;
+
+    private Object entity;
+
+    /**
+     * Creates the entity of the shape.
+     */
+    @Setup
+    public void setUp() {
+        switch (shape) {
+            case "narrow":
+                entity = BenchmarkEntities.narrow(1L, "name");
+                break;
+            case "wide":
+                entity = BenchmarkEntities.wide(1L, "");
+                break;
+            default:
+                entity = BenchmarkEntities.list(1L, -1);
+                break;
+        }
+    }
+
+    /**
+     * Processes the entity.
+     *
+     * @return the audit entity map
+     */
+    @Benchmark
+    public Map<String, AuditFieldEntity> process() {
+        return FieldProcessorContext.processAuditableEntity(entity);
+    }
+}
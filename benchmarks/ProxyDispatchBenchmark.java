@@ -0,0 +1,96 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.AuditProxyInterceptor;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.DiscardingAuditLogService;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.InMemoryNarrowDao;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.NarrowDao;
+import com.thinkon.common.audit.benchmark.BenchmarkEntities.NarrowEntity;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of calling a DAO through the audit proxies: an audited update, with its findById pre-read, diff and audit log,
+ * and a method that is not audited, against a direct call. Each call is measured through the reflective proxy,
+ * {@link AuditProxyInterceptor#invoke}, and through the proxy generated at build time by
+ * {@link com.thinkon.common.audit.apt.AuditClassProxyProcessor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProxyDispatchBenchmark {
+
+    private NarrowDao direct;
+    private NarrowDao proxied;
+    private NarrowDao generated;
+    private NarrowEntity entity;
+
+    /**
+     * Creates the DAO and its reflective and generated audit proxies.
+     */
+    @Setup
+    public void setUp() {
+        direct = new InMemoryNarrowDao();
+        proxied = (NarrowDao) Proxy.newProxyInstance(NarrowDao.class.getClassLoader(), new Class<?>[] {NarrowDao.class},
+                new AuditProxyInterceptor(new DiscardingAuditLogService(), null, null, null, NarrowDao.class, direct));
+        generated = new BenchmarkEntities_NarrowDaoAuditProxy(direct, new DiscardingAuditLogService(), null, null,
+                null);
+        entity = BenchmarkEntities.narrow(1L, "updated");
+    }
+
+    /**
+     * Updates the entity without the proxy.
+     */
+    @Benchmark
+    public void directUpdate() {
+        direct.update(entity);
+    }
+
+    /**
+     * Updates the entity through the reflective proxy, which audits the update.
+     */
+    @Benchmark
+    public void auditedUpdate() {
+        proxied.update(entity);
+    }
+
+    /**
+     * Calls a method that is not audited through the reflective proxy.
+     *
+     * @return the result of the call
+     */
+    @Benchmark
+    public int unauditedCall() {
+        return proxied.count();
+    }
+
+    /**
+     * Updates the entity through the generated proxy, which audits the update.
+     */
+    @Benchmark
+    public void generatedAuditedUpdate() {
+        generated.update(entity);
+    }
+
+    /**
+     * Calls a method that is not audited through the generated proxy.
+     *
+     * @return the result of the call
+     */
+    @Benchmark
+    public int generatedUnauditedCall() {
+        return generated.count();
+    }
+}
@@ -0,0 +1,170 @@
+package com.thinkon.common.audit.benchmark;
+
+import com.thinkon.common.audit.codec.AuditValueCodecs;
+import com.thinkon.common.audit.codec.DeflateAuditValueCodec;
+import com.thinkon.common.audit.codec.JsonAuditValueCodec;
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Size and cost of the change value codecs, by value length and compression threshold: encoding a value, decoding
+ * it, and writing an audit log whose change holds it as its old and new values with
+ * {@link AuditLogDao#create(AuditLog)} to an embedded H2 database. A threshold of 0 writes every value as text with
+ * {@link JsonAuditValueCodec}, a threshold of 1 deflates every value with {@link DeflateAuditValueCodec}, and the
+ * default threshold of {@value AuditValueCodecs#DEFAULT_COMPRESSION_THRESHOLD} only deflates the long values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueCodecBenchmark {
+
+    /**
+     * Length, in characters, of the value of the change, which is ASCII text.
+     */
+    @Param({"256", "4096"})
+    public int valueLength;
+
+    /**
+     * Length, in characters, from which values are deflated, 0 never deflating them.
+     */
+    @Param({"0", "1", "1024"})
+    public int compressionThreshold;
+
+    private String value;
+    private byte[] encoded;
+    private AuditValueCodecs codecs;
+    private Jdbi jdbi;
+    private Handle handle;
+    private AuditLogDao dao;
+
+    /**
+     * Bytes of the values, as UTF-8 text and as stored, summed over the operations of an iteration. Their ratio is
+     * the size of a stored value relative to its text.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoredBytes {
+
+        /**
+         * Length of the values as UTF-8 text.
+         */
+        public long textBytes;
+
+        /**
+         * Length of the values as stored, with their header.
+         */
+        public long storedBytes;
+
+        /**
+         * Resets the counters before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            textBytes = 0;
+            storedBytes = 0;
+        }
+    }
+
+    /**
+     * Creates the value, the codecs, the database and the DAO.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        value = changeValue(valueLength);
+        codecs = new AuditValueCodecs().setCompressionThreshold(compressionThreshold);
+        encoded = codecs.encode(value);
+        jdbi = BenchmarkEntities.createDatabase("value-codec-benchmark-" + valueLength + "-" + compressionThreshold);
+        jdbi.getConfig(AuditValueCodecs.class).setCompressionThreshold(compressionThreshold);
+        handle = jdbi.open();
+        dao = handle.attach(AuditLogDao.class);
+    }
+
+    /**
+     * Drops the database and closes the handle.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handle.close();
+        BenchmarkEntities.dropDatabase(jdbi);
+    }
+
+    /**
+     * Encodes the value with its header.
+     *
+     * @param counters the counters of the stored bytes
+     * @return the stored bytes
+     */
+    @Benchmark
+    public byte[] encode(StoredBytes counters) {
+        byte[] bytes = codecs.encode(value);
+        counters.textBytes += value.length();
+        counters.storedBytes += bytes.length;
+        return bytes;
+    }
+
+    /**
+     * Decodes the stored bytes of the value.
+     *
+     * @return the value
+     * @throws IOException if the value cannot be read
+     */
+    @Benchmark
+    public String decode() throws IOException {
+        return codecs.decode(new ByteArrayInputStream(encoded));
+    }
+
+    /**
+     * Writes an audit log of one change, whose old and new values are the value.
+     *
+     * @param counters the counters of the stored bytes
+     * @return the generated ID of the audit log
+     */
+    @Benchmark
+    public long create(StoredBytes counters) {
+        AuditLog auditLog = BenchmarkEntities.auditLog(0);
+        auditLog.getLogChanges().add(AuditLogChange.builder().fieldName("VALUE").oldValue(value).newValue(value)
+                .build());
+        counters.textBytes += 2L * value.length();
+        counters.storedBytes += 2L * encoded.length;
+        return dao.create(auditLog);
+    }
+
+    /**
+     * Creates the JSON value of a list of lines, cut to a length.
+     *
+     * @param length the length, in characters
+     * @return the value
+     */
+    private static String changeValue(int length) {
+        StringBuilder text = new StringBuilder(length + 64).append('[');
+        for (int i = 0; text.length() < length; i++) {
+            text.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"line ").append(i)
+                    .append("\",\"amount\":").append(i * 1.25).append('}');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
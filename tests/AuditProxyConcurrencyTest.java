@@ -0,0 +1,247 @@
+package com.thinkon.common.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.thinkon.common.audit.annotation.AuditClass;
+import com.thinkon.common.audit.annotation.AuditCreate;
+import com.thinkon.common.audit.annotation.AuditId;
+import com.thinkon.common.audit.annotation.AuditUpdate;
+import com.thinkon.common.audit.annotation.AuditUser;
+import com.thinkon.common.audit.annotation.Auditable;
+import com.thinkon.common.audit.cache.PreImageCache;
+import com.thinkon.common.audit.dao.AuditLogDao;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import com.thinkon.common.audit.metrics.AuditMetrics;
+import com.thinkon.common.audit.policy.AuditPolicyRegistry;
+import com.thinkon.common.audit.service.AsyncAuditLogService;
+import com.thinkon.common.audit.service.AuditLogService;
+import com.thinkon.common.audit.service.AuditLogServiceImpl;
+import com.thinkon.common.audit.service.GroupCommitAuditLogService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.config.RegisterFieldMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test of one audit-proxied DAO called from {@value #THREADS} threads at once against an embedded H2 database.
+ * Each thread creates its own account and updates it {@value #UPDATES} times, and every audit log is then checked
+ * against the call that produced it: its action, its user, and the old and new balance of that very call.
+ */
+class AuditProxyConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES = 100;
+
+    private Jdbi jdbi;
+
+    /**
+     * Audited account, updated by a single thread.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Auditable(tableName = "account")
+    public static class Account {
+        @AuditId
+        private Long id;
+        @AuditUser
+        private String editor;
+        private String owner;
+        private Long balance;
+    }
+
+    /**
+     * DAO of the accounts, audited by the proxy.
+     */
+    @AuditClass
+    @RegisterFieldMapper(Account.class)
+    public interface AccountDao {
+
+        /**
+         * Inserts an account.
+         *
+         * @param account the account
+         * @return the generated ID
+         */
+        @SqlUpdate("INSERT INTO account (editor, owner, balance) VALUES (:editor, :owner, :balance)")
+        @GetGeneratedKeys("id")
+        @AuditCreate
+        long create(@BindBean Account account);
+
+        /**
+         * Updates an account.
+         *
+         * @param account the account
+         */
+        @SqlUpdate("UPDATE account SET editor = :editor, owner = :owner, balance = :balance WHERE id = :id")
+        @AuditUpdate
+        void update(@BindBean Account account);
+
+        /**
+         * Reads an account, for the pre-image of the audited updates.
+         *
+         * @param id the ID
+         * @return the account, or null if it does not exist
+         */
+        @SqlQuery("SELECT id, editor, owner, balance FROM account WHERE id = :id")
+        Account findById(@Bind("id") Long id);
+    }
+
+    /**
+     * Creates the database.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbi = AuditTestDatabase.create("audit-proxy-concurrency",
+                "CREATE TABLE account (`id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, `editor` varchar(100), "
+                        + "`owner` varchar(100), `balance` bigint)");
+    }
+
+    /**
+     * Drops the database.
+     */
+    @AfterEach
+    void tearDown() {
+        AuditTestDatabase.drop(jdbi);
+    }
+
+    /**
+     * Writes each audit log in its own transaction on the caller's thread.
+     *
+     * @throws Exception if a thread fails
+     */
+    @Test
+    void singleRowWrites() throws Exception {
+        this.hammer(dao -> new AuditLogServiceImpl(dao));
+    }
+
+    /**
+     * Coalesces the audit logs of the concurrent callers into shared transactions.
+     *
+     * @throws Exception if a thread fails
+     */
+    @Test
+    void groupCommitWrites() throws Exception {
+        this.hammer(dao -> new GroupCommitAuditLogService(dao, AuditConfiguration.builder()
+                .groupCommit(true)
+                .groupCommitBatchSize(16)
+                .build(), null));
+    }
+
+    /**
+     * Queues the audit logs for two writer threads, flushed before the audit logs are checked.
+     *
+     * @throws Exception if a thread fails
+     */
+    @Test
+    void asyncWrites() throws Exception {
+        this.hammer(dao -> new AsyncAuditLogService(new AuditLogServiceImpl(dao), AuditConfiguration.builder()
+                .async(true)
+                .writerThreads(2)
+                .build()));
+    }
+
+    /**
+     * Runs every thread against one proxied DAO, with a shared pre-image cache, then checks the audit logs of each
+     * account.
+     *
+     * @param serviceFactory creates the audit log service from the audit log DAO
+     * @throws Exception if a thread fails
+     */
+    private void hammer(Function<AuditLogDao, AuditLogService> serviceFactory) throws Exception {
+        AuditLogService service = serviceFactory.apply(jdbi.onDemand(AuditLogDao.class));
+        AuditProxy auditProxy = new AuditProxy(service, new PreImageCache(1000, 60000), new AuditPolicyRegistry(),
+                new AuditMetrics());
+        AccountDao dao = auditProxy.inject(jdbi.onDemand(AccountDao.class));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> accounts = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                String user = "user-" + t;
+                accounts.add(executor.submit(() -> {
+                    start.await();
+                    Account account = new Account(null, user, "owner of " + user, 0L);
+                    account.setId(dao.create(account));
+                    for (long balance = 1; balance <= UPDATES; balance++) {
+                        account.setBalance(balance);
+                        dao.update(account);
+                    }
+                    return account.getId();
+                }));
+            }
+            start.countDown();
+            for (int t = 0; t < THREADS; t++) {
+                accounts.get(t).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (service instanceof AsyncAuditLogService) {
+            ((AsyncAuditLogService) service).close();
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            String valueId = String.valueOf(accounts.get(t).get());
+            List<String> expected = new ArrayList<>();
+            expected.add("CREATE user-" + t + " BALANCE null->0 OWNER null->owner of user-" + t);
+            for (long balance = 1; balance <= UPDATES; balance++) {
+                expected.add("UPDATE user-" + t + " BALANCE " + (balance - 1) + "->" + balance);
+            }
+            List<String> actual = service.find(AuditLogQuery.builder().tableName("account").valueId(valueId).build())
+                    .stream()
+                    .map(AuditProxyConcurrencyTest::describe)
+                    .collect(Collectors.toList());
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual, "Audit logs of account " + valueId);
+        }
+        assertEquals(THREADS * (UPDATES + 1L), (long) jdbi.withHandle(handle ->
+                handle.createQuery("SELECT count(*) FROM audit_log").mapTo(Long.class).one()));
+    }
+
+    /**
+     * Describes an audit log by its action, user and changes, sorted by field name.
+     *
+     * @param auditLog the audit log
+     * @return the description
+     */
+    private static String describe(AuditLog auditLog) {
+        return auditLog.getAction() + " " + auditLog.getAuditUser() + auditLog.getLogChanges()
+                .stream()
+                .sorted((a, b) -> a.getFieldName().compareTo(b.getFieldName()))
+                .map(AuditProxyConcurrencyTest::describe)
+                .collect(Collectors.joining());
+    }
+
+    /**
+     * Describes a change by its field name and its old and new values.
+     *
+     * @param change the change
+     * @return the description
+     */
+    private static String describe(AuditLogChange change) {
+        return " " + change.getFieldName() + " " + change.getOldValue() + "->" + change.getNewValue();
+    }
+}
@@ -0,0 +1,55 @@
+package com.thinkon.common.audit;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+
+/**
+ * Embedded H2 database in MySQL mode with the audit tables of the README, shared by the tests.
+ */
+public final class AuditTestDatabase {
+
+    private static final String[] DDL = {
+        "CREATE TABLE audit_log (`id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, `event_id` varchar(36) UNIQUE, "
+                + "`table_name` varchar(200) NOT NULL, `action` varchar(100) NOT NULL, "
+                + "`value_id` varchar(200) NOT NULL, `audit_user` varchar(100) NOT NULL, `date` datetime NOT NULL)",
+        "CREATE INDEX idx_table_value_date ON audit_log (table_name, value_id, date)",
+        "CREATE TABLE audit_log_changes (`id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "`audit_log_id` bigint NOT NULL, `field_name` varchar(200) NOT NULL, `old_value` blob, "
+                + "`new_value` blob, CONSTRAINT `fdk_audit_log` FOREIGN KEY (`audit_log_id`) REFERENCES "
+                + "`audit_log` (`id`))"
+    };
+
+    private AuditTestDatabase() {
+    }
+
+    /**
+     * Creates an in-memory audit database, which lives until {@link #drop(Jdbi)} is called.
+     *
+     * @param name            the name of the database, unique among the databases open at the same time
+     * @param extraStatements statements run after the audit tables are created, such as the tables of the audited
+     *                        entities
+     * @return the {@link Jdbi} instance of the database, with the SQL object plugin installed
+     */
+    public static Jdbi create(String name, String... extraStatements) {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi.useHandle(handle -> {
+            for (String statement : DDL) {
+                handle.execute(statement);
+            }
+            for (String statement : extraStatements) {
+                handle.execute(statement);
+            }
+        });
+        return jdbi;
+    }
+
+    /**
+     * Drops a database created by {@link #create(String, String...)}.
+     *
+     * @param jdbi the {@link Jdbi} instance of the database
+     */
+    public static void drop(Jdbi jdbi) {
+        jdbi.useHandle(handle -> handle.execute("DROP ALL OBJECTS"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.thinkon.common.audit.dao;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.thinkon.common.audit.AuditTestDatabase;
+import com.thinkon.common.audit.entity.Action;
+import com.thinkon.common.audit.entity.AuditLog;
+import com.thinkon.common.audit.entity.AuditLogChange;
+import com.thinkon.common.audit.entity.AuditLogQuery;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks with {@code EXPLAIN} on H2 that the lookups of {@link AuditLogDao} read {@code audit_log} through the
+ * {@code idx_table_value_date} index, whatever filters the query sets. Every select statement the DAO runs is
+ * explained with its own bindings just before it executes.
+ */
+class AuditLogDaoQueryPlanTest {
+
+    private static final String INDEX = "idx_table_value_date";
+    private static final Date FROM = new Date(1_700_000_000_000L);
+
+    private final List<String> plans = new ArrayList<>();
+    private Jdbi jdbi;
+
+    /**
+     * Creates the database, writes the audit logs of a few entities and starts explaining the select statements.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbi = AuditTestDatabase.create("audit-log-dao-query-plan");
+        AuditLogDao dao = jdbi.onDemand(AuditLogDao.class);
+        List<AuditLog> auditLogs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            auditLogs.add(AuditLog.builder()
+                    .tableName(i % 2 == 0 ? "product" : "order")
+                    .valueId(String.valueOf(i % 20))
+                    .action(i % 3 == 0 ? Action.CREATE : Action.UPDATE)
+                    .auditUser(i % 5 == 0 ? "alice" : "bob")
+                    .date(new Date(FROM.getTime() + i * 60_000L))
+                    .logChanges(Collections.singletonList(AuditLogChange.builder()
+                            .fieldName("NAME")
+                            .oldValue("old " + i)
+                            .newValue("new " + i)
+                            .build()))
+                    .build());
+        }
+        dao.createAll(auditLogs);
+        jdbi.useHandle(handle -> handle.execute("ANALYZE"));
+        jdbi.getConfig(SqlStatements.class).setSqlLogger(new PlanLogger());
+    }
+
+    /**
+     * Drops the database.
+     */
+    @AfterEach
+    void tearDown() {
+        jdbi.getConfig(SqlStatements.class).setSqlLogger(SqlLogger.NOP_SQL_LOGGER);
+        AuditTestDatabase.drop(jdbi);
+    }
+
+    /**
+     * Looks up the audit logs of an entity without any other filter.
+     */
+    @Test
+    void findByEntity() {
+        jdbi.onDemand(AuditLogDao.class).findBy(query().build());
+        this.assertIndexUsed();
+    }
+
+    /**
+     * Looks up the audit logs of an entity filtered by action, user and date range.
+     */
+    @Test
+    void findByEntityWithFilters() {
+        jdbi.onDemand(AuditLogDao.class).findBy(query()
+                .action(Action.UPDATE)
+                .auditUser("bob")
+                .from(FROM)
+                .to(new Date(FROM.getTime() + 3_600_000L))
+                .build());
+        this.assertIndexUsed();
+    }
+
+    /**
+     * Reads a page of the audit logs of an entity after a keyset cursor.
+     */
+    @Test
+    void findPage() {
+        jdbi.onDemand(AuditLogDao.class).findPage(query().build(), new Date(FROM.getTime() + 7_200_000L),
+                Long.MAX_VALUE, 10);
+        this.assertIndexUsed();
+    }
+
+    /**
+     * Streams the audit logs of an entity.
+     */
+    @Test
+    void streamBy() {
+        jdbi.onDemand(AuditLogDao.class).streamBy(query().build(), auditLog -> { });
+        this.assertIndexUsed();
+    }
+
+    /**
+     * Starts a query on the audit logs of product 4.
+     *
+     * @return the query builder
+     */
+    private static AuditLogQuery.AuditLogQueryBuilder query() {
+        return AuditLogQuery.builder().tableName("product").valueId("4");
+    }
+
+    /**
+     * Checks that at least one select statement was explained and that every plan reads the index.
+     */
+    private void assertIndexUsed() {
+        assertFalse(plans.isEmpty(), "No select statement was run");
+        for (String plan : plans) {
+            assertTrue(plan.toLowerCase(Locale.ROOT).contains(INDEX), "Plan without " + INDEX + ":\n" + plan);
+        }
+    }
+
+    /**
+     * SQL logger that explains every select statement, with the arguments bound to it, before it runs.
+     */
+    private final class PlanLogger implements SqlLogger {
+
+        /**
+         * Explains the statement about to run if it is a select.
+         *
+         * @param context the context of the statement
+         */
+        @Override
+        public void logBeforeExecution(StatementContext context) {
+            String sql = context.getParsedSql().getSql();
+            if (!sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                return;
+            }
+            List<String> names = context.getParsedSql().getParameters().getParameterNames();
+            try (PreparedStatement explain = context.getConnection().prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < names.size(); i++) {
+                    String name = names.get(i);
+                    context.getBinding().findForName(name, context)
+                            .orElseThrow(() -> new IllegalStateException("Unbound parameter " + name))
+                            .apply(i + 1, explain, context);
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    plans.add(plan.getString(1));
+                }
+            } catch (SQLException e) {
+                throw new UnableToExecuteStatementException("Failed to explain " + sql, e, context);
+            }
+        }
+    }
+}